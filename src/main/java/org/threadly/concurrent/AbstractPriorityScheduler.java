@@ -1,19 +1,30 @@
 package org.threadly.concurrent;
 
+import java.util.AbstractQueue;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Queue;
+import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
+import java.util.function.Predicate;
 
 import org.threadly.concurrent.collections.ConcurrentArrayList;
 import org.threadly.concurrent.future.ListenableFuture;
 import org.threadly.concurrent.future.ListenableFutureTask;
-import org.threadly.concurrent.future.ListenableRunnableFuture;
 import org.threadly.util.ArgumentVerifier;
 import org.threadly.util.Clock;
 import org.threadly.util.ExceptionUtils;
@@ -87,6 +98,117 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
   protected abstract OneTimeTaskWrapper doSchedule(Runnable task, 
                                                    long delayInMillis, TaskPriority priority);
 
+  /**
+   * Adds all the provided tasks for execution, in the iteration order of the collection, at the 
+   * schedulers default priority.  See {@link #executeAll(Collection, TaskPriority)} for details.
+   * 
+   * @since 5.30
+   * @param tasks Tasks to be executed
+   */
+  public void executeAll(Collection<? extends Runnable> tasks) {
+    executeAll(tasks, defaultPriority);
+  }
+  
+  /**
+   * Adds all the provided tasks for execution, in the iteration order of the collection.  This 
+   * is equivalent to invoking {@link #execute(Runnable, TaskPriority)} for each task, except that 
+   * the tasks are added to the queue as a single batch.  The scheduler is then notified only 
+   * once, waking up as many idle threads as there are tasks rather than waking them one at a 
+   * time.  This is preferable when submitting a large number of tasks in a tight loop.
+   * <p>
+   * If any of the tasks are {@code null} an exception will be thrown before any are added.
+   * 
+   * @since 5.30
+   * @param tasks Tasks to be executed
+   * @param priority Priority for tasks execution, or {@code null} to use the default priority
+   */
+  public void executeAll(Collection<? extends Runnable> tasks, TaskPriority priority) {
+    ArgumentVerifier.assertNotNull(tasks, "tasks");
+    if (priority == null) {
+      priority = defaultPriority;
+    }
+    
+    List<Runnable> taskList = new ArrayList<>(tasks.size());
+    for (Runnable task : tasks) {
+      ArgumentVerifier.assertNotNull(task, "task");
+      taskList.add(task);
+    }
+    if (! taskList.isEmpty()) {
+      doExecuteAll(taskList, priority);
+    }
+  }
+  
+  /**
+   * Submits all the provided tasks for execution, in the iteration order of the collection, at 
+   * the schedulers default priority.  See {@link #submitAll(Collection, TaskPriority)} for 
+   * details.
+   * 
+   * @since 5.30
+   * @param tasks Tasks to be executed
+   * @return List of futures, in the same order as the provided tasks
+   */
+  public List<ListenableFuture<?>> submitAll(Collection<? extends Runnable> tasks) {
+    return submitAll(tasks, defaultPriority);
+  }
+  
+  /**
+   * Submits all the provided tasks for execution, in the iteration order of the collection.  This 
+   * is equivalent to invoking {@link #submit(Runnable, TaskPriority)} for each task, except that 
+   * the tasks are added to the queue as a single batch.  See 
+   * {@link #executeAll(Collection, TaskPriority)} for more details.
+   * 
+   * @since 5.30
+   * @param tasks Tasks to be executed
+   * @param priority Priority for tasks execution, or {@code null} to use the default priority
+   * @return List of futures, in the same order as the provided tasks
+   */
+  public List<ListenableFuture<?>> submitAll(Collection<? extends Runnable> tasks, 
+                                             TaskPriority priority) {
+    ArgumentVerifier.assertNotNull(tasks, "tasks");
+    if (priority == null) {
+      priority = defaultPriority;
+    }
+    
+    List<QueuedFutureTask<?>> futures = new ArrayList<>(tasks.size());
+    for (Runnable task : tasks) {
+      ArgumentVerifier.assertNotNull(task, "task");
+      futures.add(new QueuedFutureTask<>(RunnableCallableAdapter.adapt(task, null), this));
+    }
+    if (futures.isEmpty()) {
+      return Collections.emptyList();
+    }
+    
+    List<OneTimeTaskWrapper> queuedTasks = doExecuteAll(futures, priority);
+    QueueSet queueSet = getQueueManager().getQueueSet(priority);
+    List<ListenableFuture<?>> result = new ArrayList<>(futures.size());
+    for (int i = 0; i < futures.size(); i++) {
+      QueuedFutureTask<?> rf = futures.get(i);
+      rf.setQueuedTask(queueSet, queuedTasks.get(i));
+      result.add(rf);
+    }
+    return result;
+  }
+  
+  /**
+   * Constructs a {@link OneTimeTaskWrapper} for each task, and adds them all to be executed 
+   * without delay.  By default this just invokes {@link #doSchedule(Runnable, long, TaskPriority)} 
+   * for each task.  Implementations should override this so that the tasks are added to the 
+   * execute queue in a single operation, and so that waiting threads are only notified once.
+   * 
+   * @since 5.30
+   * @param tasks Non-empty list of tasks to be executed
+   * @param priority Priority for task execution
+   * @return Wrappers that were queued, in the same order as the provided tasks
+   */
+  protected List<OneTimeTaskWrapper> doExecuteAll(List<? extends Runnable> tasks, 
+                                                  TaskPriority priority) {
+    List<OneTimeTaskWrapper> result = new ArrayList<>(tasks.size());
+    for (Runnable task : tasks) {
+      result.add(doSchedule(task, 0, priority));
+    }
+    return result;
+  }
+
   @Override
   public void execute(Runnable task, TaskPriority priority) {
     schedule(task, 0, priority);
@@ -128,8 +250,9 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
       priority = defaultPriority;
     }
 
-    ListenableRunnableFuture<T> rf = new ListenableFutureTask<>(false, task, this);
-    doSchedule(rf, delayInMs, priority);
+    QueuedFutureTask<T> rf = new QueuedFutureTask<>(task, this);
+    rf.setQueuedTask(getQueueManager().getQueueSet(priority), 
+                     doSchedule(rf, delayInMs, priority));
     
     return rf;
   }
@@ -153,6 +276,25 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
   public boolean remove(Callable<?> task) {
     return getQueueManager().remove(task);
   }
+  
+  /**
+   * Removes all queued tasks which match the provided filter.  The filter will be tested against 
+   * the tasks as provided to the scheduler, as well as anything they wrap.  For tasks provided 
+   * through a {@code submit} call the returned {@link ListenableFuture} will also be tested.
+   * <p>
+   * Unlike invoking {@link #remove(Runnable)} for each task, this will only traverse each queue 
+   * once.  It is possible for a task to still run if it was selected for execution concurrently 
+   * with this call.
+   * 
+   * @since 5.30
+   * @param filter Predicate to test queued tasks against
+   * @return Quantity of tasks removed
+   */
+  public int removeIf(Predicate<? super Runnable> filter) {
+    ArgumentVerifier.assertNotNull(filter, "filter");
+    
+    return getQueueManager().removeIf(filter);
+  }
 
   /**
    * Call to get reference to {@link QueueManager}.  This reference can be used to get access to 
@@ -198,19 +340,7 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
     }
     
     QueueSet qs = getQueueManager().getQueueSet(priority);
-    int result = qs.executeQueue.size();
-    for (int i = 0; i < qs.scheduleQueue.size(); i++) {
-      try {
-        if (qs.scheduleQueue.get(i).getScheduleDelay() > 0) {
-          break;
-        } else {
-          result++;
-        }
-      } catch (IndexOutOfBoundsException e) {
-        break;
-      }
-    }
-    return result;
+    return qs.executeQueue.size() + qs.getReadyScheduledTaskCount();
   }
   
   /**
@@ -224,6 +354,18 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
      * blocking threads waiting for tasks to consume.
      */
     public void handleQueueUpdate();
+    
+    /**
+     * Invoked when multiple tasks have been added to the queue set at once.  By default this 
+     * just invokes {@link #handleQueueUpdate()}.  Implementations which have multiple threads 
+     * waiting for tasks can override this to wake up one thread for each added task.
+     * 
+     * @since 5.30
+     * @param addedTaskCount Quantity of tasks which were added
+     */
+    public default void handleQueueUpdate(int addedTaskCount) {
+      handleQueueUpdate();
+    }
   }
 
   /**
@@ -259,6 +401,20 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
 
       queueListener.handleQueueUpdate();
     }
+    
+    /**
+     * Adds multiple tasks for immediate execution.  The tasks are appended to the execute queue 
+     * as a single batch, and the {@link QueueSetListener} is notified only once.  No safety 
+     * checks are done at this point.
+     * 
+     * @since 5.30
+     * @param tasks Tasks to add to end of execute queue
+     */
+    public void addExecuteAll(Collection<? extends OneTimeTaskWrapper> tasks) {
+      executeQueue.addAll(tasks);
+      
+      queueListener.handleQueueUpdate(tasks.size());
+    }
 
     /**
      * Adds a task for delayed execution.  No safety checks are done at this point.  This call 
@@ -268,6 +424,21 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
      * @param task Task to insert into the schedule queue
      */
     public void addScheduled(TaskWrapper task) {
+      if (insertScheduled(task)) {
+        queueListener.handleQueueUpdate();
+      }
+    }
+    
+    /**
+     * Inserts a task into the schedule queue without notifying the {@link QueueSetListener}.  
+     * This is the implementation behind {@link #addScheduled(TaskWrapper)}, and can be used 
+     * directly when the listener must not be invoked (for example before the scheduler has 
+     * started).
+     * 
+     * @param task Task to insert into the schedule queue
+     * @return {@code true} if the task was inserted at the head of the schedule queue
+     */
+    protected boolean insertScheduled(TaskWrapper task) {
       int insertionIndex;
       synchronized (scheduleQueue.getModificationLock()) {
         insertionIndex = SortUtils.getInsertionEndIndex(scheduleQueueRunTimeByIndex, 
@@ -276,6 +447,118 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
         scheduleQueue.add(insertionIndex, task);
       }
       
+      return insertionIndex == 0;
+    }
+    
+    /**
+     * Returns the queue which {@link OneTimeTaskWrapper}'s added through 
+     * {@link #addScheduled(TaskWrapper)} should reference.  The wrapper will remove itself from 
+     * this queue once it has been selected for execution.
+     * 
+     * @return Queue delayed one time tasks are stored in
+     */
+    public Queue<? extends TaskWrapper> getScheduleTaskQueue() {
+      return scheduleQueue;
+    }
+    
+    /**
+     * Returns the head of the schedule queue without removing it.  This may be a task which is 
+     * not yet ready to execute.
+     * 
+     * @return The scheduled task with the earliest run time, or {@code null} if none are queued
+     */
+    protected TaskWrapper peekScheduled() {
+      return scheduleQueue.peekFirst();
+    }
+    
+    /**
+     * Counts how many tasks in the schedule queue are ready to execute now.  Because tasks may 
+     * be added or become ready concurrently this is only an estimate.
+     * 
+     * @return Quantity of scheduled tasks which have no remaining delay
+     */
+    public int getReadyScheduledTaskCount() {
+      int result = 0;
+      for (int i = 0; i < scheduleQueue.size(); i++) {
+        try {
+          if (scheduleQueue.get(i).getScheduleDelay() > 0) {
+            break;
+          } else {
+            result++;
+          }
+        } catch (IndexOutOfBoundsException e) {
+          break;
+        }
+      }
+      return result;
+    }
+    
+    /**
+     * Invoked from {@link RecurringTaskWrapper#canExecute(short)} to atomically verify the 
+     * execution reference and mark the task as executing.  While executing the task must not be 
+     * returned as the next task for this queue set, but must still be able to be removed.
+     * 
+     * @param task Recurring task which is attempting to execute
+     * @param executeReference Reference captured from {@link TaskWrapper#getExecuteReference()}
+     * @return {@code true} if the task should be executed
+     */
+    protected boolean canExecuteRecurring(RecurringTaskWrapper task, short executeReference) {
+      synchronized (scheduleQueue.getModificationLock()) {
+        if (task.executing | task.executeFlipCounter != executeReference) {
+          // this task is already running, or not ready to run, so ignore
+          return false;
+        } else {
+          /* we have to reposition to the end atomically so that this task can be removed if 
+           * requested to be removed.  We can put it at the end because we know this task wont 
+           * run again till it has finished (which it will be inserted at the correct point in 
+           * queue then.
+           */
+          int sourceIndex = scheduleQueue.indexOf(task);
+          if (sourceIndex >= 0) {
+            if (sourceIndex < scheduleQueue.size() - 1 && 
+                scheduleQueue.get(sourceIndex + 1).getRunTime() != Long.MAX_VALUE) {
+              scheduleQueue.reposition(sourceIndex, scheduleQueue.size());
+            }
+            task.executing = true;
+            task.executeFlipCounter++;
+            return true;
+          } else {
+            return false;
+          }
+        }
+      }
+    }
+
+    /**
+     * Invoked once a recurring task has finished executing and updated its next run time.  This 
+     * will reposition the task within the schedule queue and clear the executing state.
+     * 
+     * @param task Recurring task which has finished executing
+     */
+    protected void rescheduleRecurring(RecurringTaskWrapper task) {
+      int insertionIndex = -1;
+      synchronized (scheduleQueue.getModificationLock()) {
+        int currentIndex = scheduleQueue.lastIndexOf(task);
+        if (currentIndex > 0) {
+          insertionIndex = SortUtils.getInsertionEndIndex(scheduleQueueRunTimeByIndex, 
+                                                          scheduleQueue.size() - 1, 
+                                                          task.nextRunTime, true);
+          
+          scheduleQueue.reposition(currentIndex, insertionIndex);
+        } else if (currentIndex == 0) {
+          insertionIndex = 0;
+        } else {
+          // task removed, no-op, but might as well tidy up the state even though nothing cares
+        }
+        
+        // we can only update executing AFTER the reposition has finished
+        // The synchronization lock must be held during this because changing executing
+        // changes the scheduled delay, and thus we can not have other threads examining the task queue
+        task.executing = false;
+        task.executeFlipCounter++;  // increment again to indicate execute state change
+      }
+
+      // kind of awkward we need to know here, but we we need to let the queue set know if the head changed
       if (insertionIndex == 0) {
         queueListener.handleQueueUpdate();
       }
@@ -346,6 +629,112 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
       
       return false;
     }
+    
+    /**
+     * Removes a specific task wrapper which was previously added to this queue set.  Unlike 
+     * {@link #remove(Runnable)} this does not need to search the queues.  A delayed or recurring 
+     * task is located in the schedule queue by its run time with a binary search.  A task in the 
+     * execute queue (or any other queue which is not the schedule queue) is only invalidated, it 
+     * will be discarded without running once it reaches the head of the queue.  This is because 
+     * removing from the middle of the execute queue would require a linear scan.
+     * 
+     * @since 5.30
+     * @param task Task wrapper to be removed
+     * @return {@code true} if the task was removed or invalidated before being consumed
+     */
+    public boolean removeTask(TaskWrapper task) {
+      if (task instanceof OneTimeTaskWrapper && 
+          ((OneTimeTaskWrapper)task).taskQueue != getScheduleTaskQueue()) {
+        if (task.invalidated) {
+          return false;
+        }
+        task.invalidate();
+        return true;
+      }
+      synchronized (scheduleQueue.getModificationLock()) {
+        long runTime = task.getRunTime();
+        int index = SortUtils.binarySearch(scheduleQueueRunTimeByIndex, scheduleQueue.size() - 1, 
+                                           runTime, true);
+        if (index < 0) {
+          return false;
+        }
+        // the search may land on any task with a matching run time, so check around it
+        for (int i = index; i >= 0 && scheduleQueue.get(i).getRunTime() == runTime; i--) {
+          if (scheduleQueue.get(i) == task) {
+            task.invalidate();
+            scheduleQueue.remove(i);
+            return true;
+          }
+        }
+        for (int i = index + 1; 
+             i < scheduleQueue.size() && scheduleQueue.get(i).getRunTime() == runTime; i++) {
+          if (scheduleQueue.get(i) == task) {
+            task.invalidate();
+            scheduleQueue.remove(i);
+            return true;
+          }
+        }
+      }
+      
+      return false;
+    }
+    
+    /**
+     * Removes all tasks which match the provided filter.  The filter is tested against each 
+     * queued task as well as any runnables contained within it (see 
+     * {@link ContainerHelper#isContained(Runnable, Predicate)}).  Each queue is only traversed 
+     * once, making this much more efficient than invoking {@link #remove(Runnable)} for each 
+     * task to be removed.
+     * <p>
+     * If a task is selected for execution concurrently with this call it may still run, while 
+     * also being included in the returned count.
+     * 
+     * @since 5.30
+     * @param filter Predicate to test queued tasks against
+     * @return Quantity of tasks removed
+     */
+    public int removeIf(Predicate<? super Runnable> filter) {
+      int result = removeIfFromExecuteQueue(filter);
+      synchronized (scheduleQueue.getModificationLock()) {
+        Set<TaskWrapper> removed = null;
+        for (TaskWrapper tw : scheduleQueue) {
+          if (ContainerHelper.isContained(tw.task, filter)) {
+            if (removed == null) {
+              removed = Collections.newSetFromMap(new IdentityHashMap<>());
+            }
+            tw.invalidate();
+            removed.add(tw);
+          }
+        }
+        if (removed != null) {
+          scheduleQueue.removeAll(removed);
+          result += removed.size();
+        }
+      }
+      
+      return result;
+    }
+    
+    /**
+     * Removes all tasks in the execute queue which match the provided filter in a single pass.
+     * 
+     * @param filter Predicate to test queued tasks against
+     * @return Quantity of tasks removed
+     */
+    protected int removeIfFromExecuteQueue(Predicate<? super Runnable> filter) {
+      int result = 0;
+      Iterator<? extends TaskWrapper> it = executeQueue.iterator();
+      while (it.hasNext()) {
+        TaskWrapper tw = it.next();
+        if (! tw.invalidated && ContainerHelper.isContained(tw.task, filter)) {
+          tw.invalidate();
+          it.remove();
+          result++;
+        }
+      }
+      
+      return result;
+    }
 
     /**
      * Call to get the total quantity of tasks within both stored queues.  This returns the total 
@@ -365,8 +754,8 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
       }
     }
   
-    private static void clearQueue(Collection<? extends TaskWrapper> queue, 
-                                   List<TaskWrapper> resultList) {
+    protected static void clearQueue(Collection<? extends TaskWrapper> queue, 
+                                     List<TaskWrapper> resultList) {
       boolean resultWasEmpty = resultList.isEmpty();
       Iterator<? extends TaskWrapper> it = queue.iterator();
       while (it.hasNext()) {
@@ -402,7 +791,7 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
      * @return TaskWrapper which will be executed next, or {@code null} if there are no tasks
      */
     public TaskWrapper getNextTask() {
-      TaskWrapper scheduledTask = scheduleQueue.peekFirst();
+      TaskWrapper scheduledTask = peekScheduled();
       TaskWrapper executeTask = executeQueue.peek();
       if (executeTask != null) {
         if (scheduledTask != null && scheduledTask.getRunTime() < executeTask.getRunTime()) {
@@ -417,79 +806,794 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
   }
   
   /**
-   * A service which manages the execute queues.  It runs a task to consume from the queues and 
-   * execute those tasks as workers become available.  It also manages the queues as tasks are 
-   * added, removed, or rescheduled.
+   * Implementation of {@link QueueSet} which stores delayed and recurring tasks in a hierarchical 
+   * timing wheel rather than a sorted {@link ConcurrentArrayList}.  Adding a task, removing a 
+   * task once it is selected for execution, and rescheduling a recurring task are all constant 
+   * time operations, as is removing a task through its wrapper.  Removing a task by its runnable 
+   * or callable must still search the wheel.  By contrast the sorted array must be copied on every 
+   * modification, which becomes very expensive once there are a large number of delayed or 
+   * recurring tasks.
+   * <p>
+   * The first level of the wheel has millisecond resolution, so {@link #getNextTask()} will 
+   * still provide tasks in the order of their run time.  The one exception is tasks which are 
+   * added after their run time has already passed (for example a fixed rate task which is behind 
+   * schedule).  Those are ordered along side the oldest tasks in the wheel rather than ahead of 
+   * other tasks which are also already past due.
+   * <p>
+   * The wheel only advances to a later time once a task at or beyond that time has been 
+   * consumed for execution.  This means it never needs to know about a clock, and so works with 
+   * schedulers which provide their own representation of time.
    * 
-   * @since 3.4.0
+   * @since 5.30
    */
-  protected static class QueueManager {
-    protected final QueueSet highPriorityQueueSet;
-    protected final QueueSet lowPriorityQueueSet;
-    protected final QueueSet starvablePriorityQueueSet;
-    private volatile long maxWaitForLowPriorityInMs;
+  protected static class TimingWheelQueueSet extends QueueSet {
+    protected static final int FIRST_LEVEL_BITS = 8;    // 256 slots of 1 millisecond
+    protected static final int UPPER_LEVEL_BITS = 6;    // 64 slots per upper level
+    protected static final int UPPER_LEVEL_COUNT = 4;   // total span of 2^32 millis (~49 days)
     
-    public QueueManager(QueueSetListener queueSetListener, long maxWaitForLowPriorityInMs) {
-      this.highPriorityQueueSet = new QueueSet(queueSetListener);
-      this.lowPriorityQueueSet = new QueueSet(queueSetListener);
-      this.starvablePriorityQueueSet = new QueueSet(queueSetListener);
+    protected final Queue<TaskWrapper> wheelQueue;
+    private final WheelBucket[][] wheel;
+    private final long[][] occupiedSlots;
+    private final WheelBucket overflowBucket;
+    private final WheelBucket executingBucket;
+    private volatile int wheelSize;
+    private volatile TaskWrapper wheelHead;
+    // below values only modified while holding the scheduleQueue modification lock
+    private long wheelTime;
+    private long consumedRunTime;
+    
+    public TimingWheelQueueSet(QueueSetListener queueListener) {
+      super(queueListener);
       
-      // call to verify and set values
-      setMaxWaitForLowPriority(maxWaitForLowPriorityInMs);
+      wheelQueue = new WheelQueue();
+      wheel = new WheelBucket[UPPER_LEVEL_COUNT + 1][];
+      occupiedSlots = new long[UPPER_LEVEL_COUNT + 1][];
+      for (int level = 0; level < wheel.length; level++) {
+        int slotCount = 1 << (level == 0 ? FIRST_LEVEL_BITS : UPPER_LEVEL_BITS);
+        wheel[level] = new WheelBucket[slotCount];
+        for (int slot = 0; slot < slotCount; slot++) {
+          wheel[level][slot] = new WheelBucket(level, slot);
+        }
+        occupiedSlots[level] = new long[Math.max(1, slotCount / Long.SIZE)];
+      }
+      overflowBucket = new WheelBucket(-1, -1);
+      executingBucket = new WheelBucket(-1, -1);
+      wheelSize = 0;
+      wheelHead = null;
+      wheelTime = Long.MIN_VALUE;
+      consumedRunTime = Long.MIN_VALUE;
     }
     
     /**
-     * Returns the {@link QueueSet} for a specified priority.
+     * Returns the bit shift for time values to get the slot index of a given wheel level.  Calling 
+     * with one level past the last level will return the total span of the wheel.
      * 
-     * @param priority Priority that should match to the given {@link QueueSet}
-     * @return {@link QueueSet} which matches to the priority
+     * @param level Level in the wheel
+     * @return Bits to shift a time value by
      */
-    public QueueSet getQueueSet(TaskPriority priority) {
-      if (priority == TaskPriority.High) {
-        return highPriorityQueueSet;
-      } else if (priority == TaskPriority.Low) {
-        return lowPriorityQueueSet;
+    private static int levelShift(int level) {
+      if (level == 0) {
+        return 0;
       } else {
-        return starvablePriorityQueueSet;
+        return FIRST_LEVEL_BITS + (UPPER_LEVEL_BITS * (level - 1));
       }
     }
     
     /**
-     * Removes any tasks waiting to be run.  Will not interrupt any tasks currently running.  But 
-     * will avoid additional tasks from being run (unless they are allowed to be added during or 
-     * after this call).  
-     * <p>
-     * If tasks are added concurrently during this invocation they may or may not be removed.
+     * The time which determines the position of a task within the wheel.  This is the tasks run 
+     * time, unless the wheel has already progressed beyond that point.
      * 
-     * @return List of runnables which were waiting in the task queue to be executed (and were now removed)
+     * @param task Task to get the time for
+     * @return Time to position the task at
      */
-    public List<Runnable> clearQueue() {
-      List<TaskWrapper> wrapperList = new ArrayList<>(highPriorityQueueSet.queueSize() + 
-                                                        lowPriorityQueueSet.queueSize() + 
-                                                        starvablePriorityQueueSet.queueSize());
-      highPriorityQueueSet.drainQueueInto(wrapperList);
-      lowPriorityQueueSet.drainQueueInto(wrapperList);
-      starvablePriorityQueueSet.drainQueueInto(wrapperList);
-      
-      return ContainerHelper.getContainedRunnables(wrapperList);
+    private long wheelPosition(TaskWrapper task) {
+      return Math.max(task.getPureRunTime(), wheelTime);
+    }
+    
+    private void link(WheelBucket bucket, WheelNode node) {
+      node.bucket = bucket;
+      node.prev = bucket.tail;
+      node.next = null;
+      if (bucket.tail == null) {
+        bucket.head = node;
+        if (bucket.level >= 0) {
+          occupiedSlots[bucket.level][bucket.slot >>> 6] |= 1L << bucket.slot;
+        }
+      } else {
+        bucket.tail.next = node;
+      }
+      bucket.tail = node;
+    }
+    
+    private void unlink(WheelNode node) {
+      WheelBucket bucket = node.bucket;
+      if (node.prev == null) {
+        bucket.head = node.next;
+      } else {
+        node.prev.next = node.next;
+      }
+      if (node.next == null) {
+        bucket.tail = node.prev;
+      } else {
+        node.next.prev = node.prev;
+      }
+      node.bucket = null;
+      node.prev = null;
+      node.next = null;
+      if (bucket.head == null && bucket.level >= 0) {
+        occupiedSlots[bucket.level][bucket.slot >>> 6] &= ~(1L << bucket.slot);
+      }
     }
     
     /**
-     * Gets the next task currently queued for execution.  This task may be ready to execute, or 
-     * just queued.  If a queue update comes in, this must be re-invoked to see what task is now 
-     * next.  If there are no tasks ready to be executed this will simply return {@code null}.
+     * Links the node into the wheel bucket which matches the tasks current run time.
      * 
-     * @return Task to be executed next, or {@code null} if no tasks at all are queued
+     * @param node Node which is not currently in any bucket
      */
-    public TaskWrapper getNextTask() {
-      // First compare between high and low priority task queues
-      // then depending on that state, we may check starvable
-      TaskWrapper nextTask;
-      TaskWrapper nextHighPriorityTask = highPriorityQueueSet.getNextTask();
-      TaskWrapper nextLowPriorityTask = lowPriorityQueueSet.getNextTask();
-      if (nextLowPriorityTask == null) {
-        nextTask = nextHighPriorityTask;
-      } else if (nextHighPriorityTask == null) {
+    private void place(WheelNode node) {
+      long position = wheelPosition(node.task);
+      long diff = position ^ wheelTime;
+      for (int level = 0; level < wheel.length; level++) {
+        if ((diff >>> levelShift(level + 1)) == 0) {
+          int slot = (int)((position >>> levelShift(level)) & (wheel[level].length - 1));
+          link(wheel[level][slot], node);
+          return;
+        }
+      }
+      link(overflowBucket, node);
+    }
+    
+    private int nextOccupiedSlot(int level, int fromSlot) {
+      long[] bits = occupiedSlots[level];
+      int wordIndex = fromSlot >>> 6;
+      if (wordIndex >= bits.length) {
+        return -1;
+      }
+      long word = bits[wordIndex] & (-1L << fromSlot);
+      while (true) {
+        if (word != 0) {
+          return (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+        } else if (++wordIndex == bits.length) {
+          return -1;
+        }
+        word = bits[wordIndex];
+      }
+    }
+    
+    /**
+     * Finds the earliest node in a bucket, with the first node winning any ties.
+     * 
+     * @param bucket Non-empty bucket to search
+     * @return Node with the earliest position in the bucket
+     */
+    private WheelNode earliestNode(WheelBucket bucket) {
+      WheelNode result = bucket.head;
+      long resultPosition = wheelPosition(result.task);
+      WheelNode node = result.next;
+      while (node != null) {
+        long position = wheelPosition(node.task);
+        if (position < resultPosition) {
+          result = node;
+          resultPosition = position;
+        }
+        node = node.next;
+      }
+      return result;
+    }
+    
+    /**
+     * Moves every node in the bucket into new positions based off the current wheel time.
+     * 
+     * @param bucket Bucket to empty and redistribute
+     */
+    private void cascade(WheelBucket bucket) {
+      WheelNode node = bucket.head;
+      while (node != null) {
+        WheelNode next = node.next;
+        unlink(node);
+        place(node);
+        node = next;
+      }
+    }
+    
+    /**
+     * Searches the wheel for the task which should be executed next.  The wheel may advance 
+     * during this search, but only to a time which a consumed task has already been ready at.  
+     * This must be invoked while holding the modification lock.
+     * 
+     * @return Earliest task in the wheel, or {@code null} if the wheel is empty
+     */
+    private TaskWrapper findHead() {
+      searchLoop: while (true) {
+        int slot = nextOccupiedSlot(0, (int)(wheelTime & (wheel[0].length - 1)));
+        if (slot >= 0) {
+          return wheel[0][slot].head.task;
+        }
+        for (int level = 1; level < wheel.length; level++) {
+          int levelShift = levelShift(level);
+          int mask = wheel[level].length - 1;
+          slot = nextOccupiedSlot(level, (int)((wheelTime >>> levelShift) & mask) + 1);
+          if (slot >= 0) {
+            int blockShift = levelShift(level + 1);
+            long bucketStart = 
+                ((wheelTime >>> blockShift) << blockShift) | ((long)slot << levelShift);
+            if (bucketStart <= consumedRunTime) {
+              // we know time has reached this bucket, so we can advance and cascade it down
+              wheelTime = bucketStart;
+              cascade(wheel[level][slot]);
+              continue searchLoop;
+            } else {
+              return earliestNode(wheel[level][slot]).task;
+            }
+          }
+        }
+        if (overflowBucket.head == null) {
+          return null;
+        }
+        WheelNode earliest = earliestNode(overflowBucket);
+        long earliestPosition = wheelPosition(earliest.task);
+        if (earliestPosition <= consumedRunTime) {
+          wheelTime = earliestPosition;
+          cascade(overflowBucket);
+        } else {
+          return earliest.task;
+        }
+      }
+    }
+    
+    /**
+     * Updates the head reference after a task was positioned in the wheel.  This must be invoked 
+     * while holding the modification lock.
+     * 
+     * @param task Task which was just positioned in the wheel
+     * @return {@code true} if the task is now the head of the wheel
+     */
+    private boolean updateHeadForAdd(TaskWrapper task) {
+      TaskWrapper head = wheelHead;
+      if (head == null || wheelPosition(task) < wheelPosition(head)) {
+        wheelHead = task;
+        return true;
+      } else {
+        return false;
+      }
+    }
+    
+    /**
+     * Removes the node from the wheel, updating the head if necessary.  This must be invoked 
+     * while holding the modification lock.
+     * 
+     * @param node Node to remove, must currently be in a bucket
+     */
+    private void removeNode(WheelNode node) {
+      unlink(node);
+      wheelSize--;
+      if (wheelHead == node.task) {
+        wheelHead = findHead();
+      }
+    }
+    
+    /**
+     * Removes a task from the wheel because it has been selected for execution.  Because the 
+     * task was ready, the wheel is able to advance up to its run time.
+     * 
+     * @param task Task to be removed
+     * @return {@code true} if the task was found and removed
+     */
+    protected boolean consumeTask(TaskWrapper task) {
+      synchronized (scheduleQueue.getModificationLock()) {
+        WheelNode node = task.wheelNode;
+        if (node == null || node.bucket == null) {
+          return false;
+        }
+        if (task.getPureRunTime() > consumedRunTime) {
+          consumedRunTime = task.getPureRunTime();
+        }
+        removeNode(node);
+        return true;
+      }
+    }
+    
+    @Override
+    protected boolean insertScheduled(TaskWrapper task) {
+      synchronized (scheduleQueue.getModificationLock()) {
+        if (wheelTime == Long.MIN_VALUE) {
+          // start the wheel at the current time, as known by the task
+          wheelTime = task.getPureRunTime() - Math.max(0, task.getScheduleDelay());
+        }
+        WheelNode node = new WheelNode(task);
+        task.wheelNode = node;
+        place(node);
+        wheelSize++;
+        return updateHeadForAdd(task);
+      }
+    }
+    
+    @Override
+    public Queue<? extends TaskWrapper> getScheduleTaskQueue() {
+      return wheelQueue;
+    }
+    
+    @Override
+    protected TaskWrapper peekScheduled() {
+      return wheelHead;
+    }
+    
+    @Override
+    public int getReadyScheduledTaskCount() {
+      int result = 0;
+      synchronized (scheduleQueue.getModificationLock()) {
+        int fromSlot = (int)(wheelTime & (wheel[0].length - 1));
+        for (int slot = nextOccupiedSlot(0, fromSlot); slot >= 0; 
+             slot = nextOccupiedSlot(0, slot + 1)) {
+          // all tasks in a first level slot share the same position
+          if (wheel[0][slot].head.task.getScheduleDelay() > 0) {
+            return result;
+          }
+          for (WheelNode node = wheel[0][slot].head; node != null; node = node.next) {
+            result++;
+          }
+        }
+        for (int level = 1; level < wheel.length; level++) {
+          int mask = wheel[level].length - 1;
+          fromSlot = (int)((wheelTime >>> levelShift(level)) & mask) + 1;
+          for (int slot = nextOccupiedSlot(level, fromSlot); slot >= 0; 
+               slot = nextOccupiedSlot(level, slot + 1)) {
+            int readyCount = countReady(wheel[level][slot]);
+            if (readyCount < 0) {
+              return result - (readyCount + 1);
+            }
+            result += readyCount;
+          }
+        }
+        int readyCount = countReady(overflowBucket);
+        return readyCount < 0 ? result - (readyCount + 1) : result + readyCount;
+      }
+    }
+    
+    /**
+     * Counts the ready tasks within a bucket.  If the bucket contains any tasks which are not 
+     * ready the result is encoded as a negative number ({@code -(count + 1)}), indicating that 
+     * later buckets do not need to be inspected.
+     * 
+     * @param bucket Bucket to inspect
+     * @return Ready task count, or a negative encoding if not all tasks were ready
+     */
+    private static int countReady(WheelBucket bucket) {
+      int result = 0;
+      boolean allReady = true;
+      for (WheelNode node = bucket.head; node != null; node = node.next) {
+        if (node.task.getScheduleDelay() > 0) {
+          allReady = false;
+        } else {
+          result++;
+        }
+      }
+      return allReady ? result : -(result + 1);
+    }
+    
+    @Override
+    protected boolean canExecuteRecurring(RecurringTaskWrapper task, short executeReference) {
+      synchronized (scheduleQueue.getModificationLock()) {
+        if (task.executing | task.executeFlipCounter != executeReference) {
+          // this task is already running, or not ready to run, so ignore
+          return false;
+        }
+        WheelNode node = task.wheelNode;
+        if (node == null || node.bucket == null) {
+          // task was removed
+          return false;
+        }
+        if (task.nextRunTime > consumedRunTime) {
+          consumedRunTime = task.nextRunTime;
+        }
+        // move to the executing bucket so the task can still be found if requested to be removed
+        unlink(node);
+        link(executingBucket, node);
+        if (wheelHead == task) {
+          wheelHead = findHead();
+        }
+        task.executing = true;
+        task.executeFlipCounter++;
+        return true;
+      }
+    }
+    
+    @Override
+    protected void rescheduleRecurring(RecurringTaskWrapper task) {
+      boolean headUpdated = false;
+      synchronized (scheduleQueue.getModificationLock()) {
+        // must reset executing before we can be the head, since that would change our run time
+        task.executing = false;
+        task.executeFlipCounter++;  // increment again to indicate execute state change
+        
+        WheelNode node = task.wheelNode;
+        if (node != null && node.bucket == executingBucket) {
+          unlink(node);
+          place(node);
+          headUpdated = updateHeadForAdd(task);
+        } else {
+          // task removed, no-op
+        }
+      }
+      
+      if (headUpdated) {
+        queueListener.handleQueueUpdate();
+      }
+    }
+    
+    @Override
+    public boolean remove(Callable<?> task) {
+      if (removeFromExecuteQueue(task)) {
+        return true;
+      }
+      synchronized (scheduleQueue.getModificationLock()) {
+        WheelNode node = findNode(task);
+        if (node != null) {
+          node.task.invalidate();
+          removeNode(node);
+          return true;
+        }
+      }
+      return false;
+    }
+    
+    @Override
+    public boolean remove(Runnable task) {
+      if (removeFromExecuteQueue(task)) {
+        return true;
+      }
+      synchronized (scheduleQueue.getModificationLock()) {
+        WheelNode node = findNode(task);
+        if (node != null) {
+          node.task.invalidate();
+          removeNode(node);
+          return true;
+        }
+      }
+      return false;
+    }
+    
+    @Override
+    public boolean removeTask(TaskWrapper task) {
+      if (task instanceof OneTimeTaskWrapper && 
+          ((OneTimeTaskWrapper)task).taskQueue != wheelQueue) {
+        return super.removeTask(task);
+      }
+      synchronized (scheduleQueue.getModificationLock()) {
+        WheelNode node = task.wheelNode;
+        if (node == null || node.bucket == null) {
+          return false;
+        }
+        task.invalidate();
+        removeNode(node);
+        return true;
+      }
+    }
+    
+    @Override
+    public int removeIf(Predicate<? super Runnable> filter) {
+      int result = removeIfFromExecuteQueue(filter);
+      synchronized (scheduleQueue.getModificationLock()) {
+        boolean headRemoved = false;
+        for (WheelBucket bucket : allBuckets()) {
+          WheelNode node = bucket.head;
+          while (node != null) {
+            WheelNode next = node.next;
+            if (ContainerHelper.isContained(node.task.task, filter)) {
+              node.task.invalidate();
+              // unlink directly, finding the new head could cascade nodes we have yet to visit
+              unlink(node);
+              wheelSize--;
+              headRemoved |= wheelHead == node.task;
+              result++;
+            }
+            node = next;
+          }
+        }
+        if (headRemoved) {
+          wheelHead = findHead();
+        }
+      }
+      return result;
+    }
+    
+    private boolean removeFromExecuteQueue(Object task) {
+      Iterator<? extends TaskWrapper> it = executeQueue.iterator();
+      while (it.hasNext()) {
+        TaskWrapper tw = it.next();
+        if (isContained(tw, task) && executeQueue.remove(tw)) {
+          tw.invalidate();
+          return true;
+        }
+      }
+      return false;
+    }
+    
+    private static boolean isContained(TaskWrapper tw, Object task) {
+      if (task instanceof Runnable) {
+        return ContainerHelper.isContained(tw.task, (Runnable)task);
+      } else {
+        return ContainerHelper.isContained(tw.task, (Callable<?>)task);
+      }
+    }
+    
+    /**
+     * Searches every bucket for a node whose task contains the provided runnable or callable.  
+     * This must be invoked while holding the modification lock.
+     * 
+     * @param task Runnable or Callable to search for
+     * @return Node which contains the task, or {@code null} if not found
+     */
+    private WheelNode findNode(Object task) {
+      for (WheelBucket bucket : allBuckets()) {
+        for (WheelNode node = bucket.head; node != null; node = node.next) {
+          if (isContained(node.task, task)) {
+            return node;
+          }
+        }
+      }
+      return null;
+    }
+    
+    /**
+     * Returns a list of every bucket which currently holds tasks, including overflow and tasks 
+     * which are currently executing.  This must be invoked while holding the modification lock.
+     * 
+     * @return List of non-empty buckets
+     */
+    private List<WheelBucket> allBuckets() {
+      List<WheelBucket> result = new ArrayList<>();
+      for (int level = 0; level < wheel.length; level++) {
+        for (int slot = nextOccupiedSlot(level, 0); slot >= 0; 
+             slot = nextOccupiedSlot(level, slot + 1)) {
+          result.add(wheel[level][slot]);
+        }
+      }
+      if (overflowBucket.head != null) {
+        result.add(overflowBucket);
+      }
+      if (executingBucket.head != null) {
+        result.add(executingBucket);
+      }
+      return result;
+    }
+    
+    /**
+     * Returns every task within the wheel.  This must be invoked while holding the modification 
+     * lock.
+     * 
+     * @return List of tasks in the wheel
+     */
+    private List<TaskWrapper> wheelTasks() {
+      List<TaskWrapper> result = new ArrayList<>(wheelSize);
+      for (WheelBucket bucket : allBuckets()) {
+        for (WheelNode node = bucket.head; node != null; node = node.next) {
+          result.add(node.task);
+        }
+      }
+      return result;
+    }
+    
+    @Override
+    public int queueSize() {
+      return executeQueue.size() + wheelSize;
+    }
+    
+    @Override
+    public void drainQueueInto(List<TaskWrapper> removedTasks) {
+      clearQueue(executeQueue, removedTasks);
+      synchronized (scheduleQueue.getModificationLock()) {
+        List<TaskWrapper> wheelTasks = wheelTasks();
+        for (TaskWrapper tw : wheelTasks) {
+          unlink(tw.wheelNode);
+        }
+        wheelSize = 0;
+        wheelHead = null;
+        clearQueue(wheelTasks, removedTasks);
+      }
+    }
+    
+    /**
+     * Node to track the position of a task within the wheel.
+     * 
+     * @since 5.30
+     */
+    protected static final class WheelNode {
+      protected final TaskWrapper task;
+      private WheelBucket bucket;
+      private WheelNode prev;
+      private WheelNode next;
+      
+      protected WheelNode(TaskWrapper task) {
+        this.task = task;
+        bucket = null;
+        prev = null;
+        next = null;
+      }
+    }
+    
+    /**
+     * Doubly linked list of nodes which share a slot in the wheel.
+     * 
+     * @since 5.30
+     */
+    private static final class WheelBucket {
+      private final int level;
+      private final int slot;
+      private WheelNode head;
+      private WheelNode tail;
+      
+      private WheelBucket(int level, int slot) {
+        this.level = level;
+        this.slot = slot;
+        head = null;
+        tail = null;
+      }
+    }
+    
+    /**
+     * Queue view of the wheel which is provided to {@link OneTimeTaskWrapper}'s.  Removing a task 
+     * through this view indicates the task has been selected for execution.
+     * 
+     * @since 5.30
+     */
+    private class WheelQueue extends AbstractQueue<TaskWrapper> {
+      @Override
+      public boolean remove(Object o) {
+        return o instanceof TaskWrapper && consumeTask((TaskWrapper)o);
+      }
+      
+      @Override
+      public boolean offer(TaskWrapper task) {
+        addScheduled(task);
+        return true;
+      }
+      
+      @Override
+      public TaskWrapper poll() {
+        synchronized (scheduleQueue.getModificationLock()) {
+          TaskWrapper result = wheelHead;
+          if (result != null) {
+            removeNode(result.wheelNode);
+          }
+          return result;
+        }
+      }
+      
+      @Override
+      public TaskWrapper peek() {
+        return wheelHead;
+      }
+      
+      @Override
+      public Iterator<TaskWrapper> iterator() {
+        synchronized (scheduleQueue.getModificationLock()) {
+          return Collections.unmodifiableList(wheelTasks()).iterator();
+        }
+      }
+      
+      @Override
+      public int size() {
+        return wheelSize;
+      }
+    }
+  }
+  
+  /**
+   * A service which manages the execute queues.  It runs a task to consume from the queues and 
+   * execute those tasks as workers become available.  It also manages the queues as tasks are 
+   * added, removed, or rescheduled.
+   * 
+   * @since 3.4.0
+   */
+  protected static class QueueManager {
+    protected final QueueSet highPriorityQueueSet;
+    protected final QueueSet lowPriorityQueueSet;
+    protected final QueueSet starvablePriorityQueueSet;
+    private volatile long maxWaitForLowPriorityInMs;
+    
+    public QueueManager(QueueSetListener queueSetListener, long maxWaitForLowPriorityInMs) {
+      this(queueSetListener, maxWaitForLowPriorityInMs, false);
+    }
+    
+    /**
+     * Constructs a new {@link QueueManager} with the option to store delayed and recurring tasks 
+     * in a {@link TimingWheelQueueSet}.
+     * 
+     * @since 5.30
+     * @param queueSetListener Listener to be invoked when the head of any queue set changes
+     * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
+     * @param useTimingWheel {@code true} to use a hierarchical timing wheel for the schedule queues
+     */
+    public QueueManager(QueueSetListener queueSetListener, long maxWaitForLowPriorityInMs, 
+                        boolean useTimingWheel) {
+      this(makeQueueSet(queueSetListener, useTimingWheel), 
+           makeQueueSet(queueSetListener, useTimingWheel), 
+           makeQueueSet(queueSetListener, useTimingWheel), 
+           maxWaitForLowPriorityInMs);
+    }
+    
+    /**
+     * Constructs a new {@link QueueManager} with the provided {@link QueueSet}'s.  This allows 
+     * extending classes to provide their own {@link QueueSet} implementations.
+     * 
+     * @since 5.30
+     * @param highPriorityQueueSet QueueSet to return for {@link TaskPriority#High}
+     * @param lowPriorityQueueSet QueueSet to return for {@link TaskPriority#Low}
+     * @param starvablePriorityQueueSet QueueSet to return for {@link TaskPriority#Starvable}
+     * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
+     */
+    protected QueueManager(QueueSet highPriorityQueueSet, QueueSet lowPriorityQueueSet, 
+                           QueueSet starvablePriorityQueueSet, long maxWaitForLowPriorityInMs) {
+      this.highPriorityQueueSet = highPriorityQueueSet;
+      this.lowPriorityQueueSet = lowPriorityQueueSet;
+      this.starvablePriorityQueueSet = starvablePriorityQueueSet;
+      
+      // call to verify and set values
+      setMaxWaitForLowPriority(maxWaitForLowPriorityInMs);
+    }
+    
+    private static QueueSet makeQueueSet(QueueSetListener queueSetListener, 
+                                         boolean useTimingWheel) {
+      if (useTimingWheel) {
+        return new TimingWheelQueueSet(queueSetListener);
+      } else {
+        return new QueueSet(queueSetListener);
+      }
+    }
+    
+    /**
+     * Returns the {@link QueueSet} for a specified priority.
+     * 
+     * @param priority Priority that should match to the given {@link QueueSet}
+     * @return {@link QueueSet} which matches to the priority
+     */
+    public QueueSet getQueueSet(TaskPriority priority) {
+      if (priority == TaskPriority.High) {
+        return highPriorityQueueSet;
+      } else if (priority == TaskPriority.Low) {
+        return lowPriorityQueueSet;
+      } else {
+        return starvablePriorityQueueSet;
+      }
+    }
+    
+    /**
+     * Removes any tasks waiting to be run.  Will not interrupt any tasks currently running.  But 
+     * will avoid additional tasks from being run (unless they are allowed to be added during or 
+     * after this call).  
+     * <p>
+     * If tasks are added concurrently during this invocation they may or may not be removed.
+     * 
+     * @return List of runnables which were waiting in the task queue to be executed (and were now removed)
+     */
+    public List<Runnable> clearQueue() {
+      List<TaskWrapper> wrapperList = new ArrayList<>(highPriorityQueueSet.queueSize() + 
+                                                        lowPriorityQueueSet.queueSize() + 
+                                                        starvablePriorityQueueSet.queueSize());
+      highPriorityQueueSet.drainQueueInto(wrapperList);
+      lowPriorityQueueSet.drainQueueInto(wrapperList);
+      starvablePriorityQueueSet.drainQueueInto(wrapperList);
+      
+      return ContainerHelper.getContainedRunnables(wrapperList);
+    }
+    
+    /**
+     * Gets the next task currently queued for execution.  This task may be ready to execute, or 
+     * just queued.  If a queue update comes in, this must be re-invoked to see what task is now 
+     * next.  If there are no tasks ready to be executed this will simply return {@code null}.
+     * 
+     * @return Task to be executed next, or {@code null} if no tasks at all are queued
+     */
+    public TaskWrapper getNextTask() {
+      // First compare between high and low priority task queues
+      // then depending on that state, we may check starvable
+      TaskWrapper nextTask;
+      TaskWrapper nextHighPriorityTask = highPriorityQueueSet.getNextTask();
+      TaskWrapper nextLowPriorityTask = lowPriorityQueueSet.getNextTask();
+      if (nextLowPriorityTask == null) {
+        nextTask = nextHighPriorityTask;
+      } else if (nextHighPriorityTask == null) {
         nextTask = nextLowPriorityTask;
       } else if (nextHighPriorityTask.getRunTime() <= nextLowPriorityTask.getRunTime()) {
         nextTask = nextHighPriorityTask;
@@ -515,6 +1619,19 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
         nextTask = nextHighPriorityTask;
       }
       
+      return getNextTaskWithStarvable(nextTask);
+    }
+    
+    /**
+     * Checks the starvable priority queue set against the next task selected from the other 
+     * priorities.  A starvable task is only returned if there is no other task, or if the other 
+     * task is not yet ready and the starvable task is scheduled to run before it.
+     * 
+     * @since 5.30
+     * @param nextTask Next task from the non-starvable queue sets, or {@code null} if none are queued
+     * @return Task to be executed next, or {@code null} if no tasks at all are queued
+     */
+    protected TaskWrapper getNextTaskWithStarvable(TaskWrapper nextTask) {
       if (nextTask == null) {
         return starvablePriorityQueueSet.getNextTask();
       } else {
@@ -534,60 +1651,531 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
     }
     
     /**
-     * Removes the runnable task from the execution queue.  It is possible for the runnable to 
-     * still run until this call has returned.
-     * <p>
-     * Note that this call has high guarantees on the ability to remove the task (as in a complete 
-     * guarantee).  But while this is being invoked, it will reduce the throughput of execution, 
-     * so should NOT be used extremely frequently.
+     * Invoked once a task provided from {@link #getNextTask()} has been successfully consumed 
+     * for execution.  By default this does nothing, but can be used by extending classes which 
+     * need to track what has been executed.
+     * 
+     * @since 5.30
+     * @param task Task which is about to be executed
+     */
+    public void taskConsumed(TaskWrapper task) {
+      // ignored by default
+    }
+    
+    /**
+     * Removes the runnable task from the execution queue.  It is possible for the runnable to 
+     * still run until this call has returned.
+     * <p>
+     * Note that this call has high guarantees on the ability to remove the task (as in a complete 
+     * guarantee).  But while this is being invoked, it will reduce the throughput of execution, 
+     * so should NOT be used extremely frequently.
+     * 
+     * @param task The original runnable provided to the executor
+     * @return {@code true} if the runnable was found and removed
+     */
+    public boolean remove(Runnable task) {
+      return highPriorityQueueSet.remove(task) || lowPriorityQueueSet.remove(task) || 
+               starvablePriorityQueueSet.remove(task);
+    }
+    
+    /**
+     * Removes the callable task from the execution queue.  It is possible for the callable to 
+     * still run until this call has returned.
+     * <p>
+     * Note that this call has high guarantees on the ability to remove the task (as in a complete 
+     * guarantee).  But while this is being invoked, it will reduce the throughput of execution, 
+     * so should NOT be used extremely frequently.
+     * 
+     * @param task The original callable provided to the executor
+     * @return {@code true} if the callable was found and removed
+     */
+    public boolean remove(Callable<?> task) {
+      return highPriorityQueueSet.remove(task) || lowPriorityQueueSet.remove(task) || 
+               starvablePriorityQueueSet.remove(task);
+    }
+    
+    /**
+     * Removes all queued tasks which match the provided filter.  Each queue is only traversed 
+     * once, see {@link QueueSet#removeIf(Predicate)} for more details.
+     * 
+     * @since 5.30
+     * @param filter Predicate to test queued tasks against
+     * @return Quantity of tasks removed
+     */
+    public int removeIf(Predicate<? super Runnable> filter) {
+      return highPriorityQueueSet.removeIf(filter) + lowPriorityQueueSet.removeIf(filter) + 
+               starvablePriorityQueueSet.removeIf(filter);
+    }
+    
+    /**
+     * Changes the max wait time for low priority tasks.  This is the amount of time that a low 
+     * priority task will wait if there are ready to execute high priority tasks.  After a low 
+     * priority task has waited this amount of time, it will be executed fairly with high priority 
+     * tasks (meaning it will only execute the high priority task if it has been waiting longer than 
+     * the low priority task).
+     * 
+     * @param maxWaitForLowPriorityInMs new wait time in milliseconds for low priority tasks during thread contention
+     */
+    public void setMaxWaitForLowPriority(long maxWaitForLowPriorityInMs) {
+      ArgumentVerifier.assertNotNegative(maxWaitForLowPriorityInMs, "maxWaitForLowPriorityInMs");
+      
+      this.maxWaitForLowPriorityInMs = maxWaitForLowPriorityInMs;
+    }
+    
+    /**
+     * Getter for the amount of time a low priority task will wait during thread contention before 
+     * it is eligible for execution.
+     * 
+     * @return currently set max wait for low priority task
+     */
+    public long getMaxWaitForLowPriority() {
+      return maxWaitForLowPriorityInMs;
+    }
+  }
+  
+  /**
+   * Implementation of {@link QueueSet} which represents a single class within a 
+   * {@link WeightedQueueManager}.  As tasks are added they are tagged with a virtual start time 
+   * based off the weight of this class, which the manager then uses to decide which class should 
+   * provide the next task.  This also tracks how many tasks have been executed from this class, 
+   * and how long they waited in queue.
+   * <p>
+   * Delayed and recurring tasks are tagged when they are scheduled (and for recurring tasks, 
+   * again each time they are rescheduled), rather than once they become ready to execute.
+   * 
+   * @since 5.30
+   */
+  protected static class WeightedQueueSet extends QueueSet {
+    protected final int weightedClass;
+    protected final int weight;
+    protected final long stride;
+    protected final LongAdder executedTaskCount;
+    protected final LongAdder totalQueueWaitMillis;
+    private final long classTag;
+    private final AtomicLong lastFinishTime;
+    protected WeightedQueueManager queueManager;  // set once the manager has been constructed
+    
+    /**
+     * Constructs a new {@link WeightedQueueSet}.  Once constructed the set can not be used 
+     * until it is provided to a {@link WeightedQueueManager}.
+     * 
+     * @param queueListener Listener to be invoked when the head of the queue set changes
+     * @param weightedClass Index of the class within the manager
+     * @param weight Weight of this class, must be between 1 and {@link WeightedQueueManager#MAX_WEIGHT}
+     */
+    public WeightedQueueSet(QueueSetListener queueListener, int weightedClass, int weight) {
+      super(queueListener);
+      
+      if (weight < 1 || weight > WeightedQueueManager.MAX_WEIGHT) {
+        throw new IllegalArgumentException("Weight must be between 1 and " + 
+                                             WeightedQueueManager.MAX_WEIGHT + ": " + weight);
+      }
+      
+      this.weightedClass = weightedClass;
+      this.weight = weight;
+      this.stride = (WeightedQueueManager.STRIDE_SCALE / weight) << WeightedQueueManager.CLASS_BITS;
+      this.executedTaskCount = new LongAdder();
+      this.totalQueueWaitMillis = new LongAdder();
+      this.classTag = weightedClass + 1;  // zero is reserved for untagged tasks
+      this.lastFinishTime = new AtomicLong(0);
+    }
+    
+    /**
+     * Reserves virtual time for the provided number of tasks.  A class which has been idle will 
+     * start from the managers current virtual time, so that it can not build up credit while 
+     * idle and then starve other classes.
+     * 
+     * @param taskCount Number of tasks to reserve time for
+     * @return Virtual start time of the first task
+     */
+    private long reserveStartTime(int taskCount) {
+      long virtualTime = queueManager.virtualTime;
+      while (true) {
+        long finishTime = lastFinishTime.get();
+        long startTime = finishTime - virtualTime < 0 ? virtualTime : finishTime;
+        if (lastFinishTime.compareAndSet(finishTime, startTime + (stride * taskCount))) {
+          return startTime;
+        }
+      }
+    }
+    
+    /**
+     * Sets the tag on a task which is about to be added to this queue set.
+     * 
+     * @param task Task to be tagged
+     */
+    protected void tagTask(TaskWrapper task) {
+      task.weightedFairTag = reserveStartTime(1) | classTag;
+    }
+    
+    @Override
+    public void addExecute(OneTimeTaskWrapper task) {
+      tagTask(task);
+      executeQueue.add(task);
+      queueManager.queueSetUpdated(weightedClass);
+
+      queueListener.handleQueueUpdate();
+    }
+    
+    @Override
+    public void addExecuteAll(Collection<? extends OneTimeTaskWrapper> tasks) {
+      long startTime = reserveStartTime(tasks.size());
+      for (OneTimeTaskWrapper task : tasks) {
+        task.weightedFairTag = startTime | classTag;
+        startTime += stride;
+      }
+      executeQueue.addAll(tasks);
+      queueManager.queueSetUpdated(weightedClass);
+      
+      queueListener.handleQueueUpdate(tasks.size());
+    }
+    
+    @Override
+    protected boolean insertScheduled(TaskWrapper task) {
+      tagTask(task);
+      boolean result = super.insertScheduled(task);
+      queueManager.queueSetUpdated(weightedClass);
+      return result;
+    }
+    
+    @Override
+    protected void rescheduleRecurring(RecurringTaskWrapper task) {
+      // task is still marked as executing, so it can't be selected while the tag changes
+      tagTask(task);
+      super.rescheduleRecurring(task);
+      queueManager.queueSetUpdated(weightedClass);
+    }
+    
+    /**
+     * Records that a task from this queue set was consumed for execution.
+     * 
+     * @param task Task which is about to be executed
+     */
+    protected void recordExecution(TaskWrapper task) {
+      executedTaskCount.increment();
+      long waitTime = Clock.lastKnownForwardProgressingMillis() - task.getPureRunTime();
+      if (waitTime > 0) {
+        totalQueueWaitMillis.add(waitTime);
+      }
+    }
+    
+    /**
+     * Returns the number of tasks which have been consumed for execution from this queue set.
+     * 
+     * @return Number of executed tasks
+     */
+    public long getExecutedTaskCount() {
+      return executedTaskCount.sum();
+    }
+    
+    /**
+     * Returns the average time tasks from this queue set waited between when they were ready to 
+     * execute, and when they were consumed for execution.
+     * 
+     * @return Average wait time in milliseconds, or {@code -1} if no tasks have been executed
+     */
+    public double getAverageQueueWaitMillis() {
+      long count = executedTaskCount.sum();
+      if (count == 0) {
+        return -1;
+      }
+      return totalQueueWaitMillis.sum() / (double)count;
+    }
+  }
+  
+  /**
+   * Implementation of {@link QueueManager} which arbitrates between any number of weighted 
+   * classes rather than by {@link TaskPriority}.  Each class is served in proportion to its 
+   * weight (using start time fair queueing) as long as it has tasks ready to execute.  A class 
+   * which is idle does not build up credit, so once it has tasks again it will only receive its 
+   * share going forward.
+   * <p>
+   * {@link TaskPriority#High} is mapped to the first class, and {@link TaskPriority#Low} is mapped 
+   * to the last class.  {@link TaskPriority#Starvable} continues to only run tasks when no other 
+   * class has tasks ready to execute.  {@link #getMaxWaitForLowPriority()} is not used when 
+   * selecting between classes.
+   * <p>
+   * Selecting the next class is done through a tournament tree, so that finding the next task is 
+   * {@code O(log classes)}.  The tree is updated without locking, and so may briefly be stale 
+   * while classes are concurrently updated.  That can only cause a task to be selected slightly 
+   * out of fair order, if no class appears to have a ready task all classes are checked before 
+   * reporting that there are no tasks to execute.
+   * 
+   * @since 5.30
+   */
+  protected static class WeightedQueueManager extends QueueManager {
+    /**
+     * The maximum number of weighted classes which can be provided.
+     */
+    public static final int MAX_CLASSES = 255;
+    /**
+     * The maximum weight which can be provided to a single class.
+     */
+    public static final int MAX_WEIGHT = 1 << 16;
+    protected static final int CLASS_BITS = 8;
+    protected static final long CLASS_MASK = (1L << CLASS_BITS) - 1;
+    protected static final long STRIDE_SCALE = 1L << 24;
+    protected static final long NO_TASK_TAG = 0;
+    
+    protected final WeightedQueueSet[] weightedQueueSets;
+    protected final int leafCount;
+    // winning class index for each node in the tree, with the root at index 1
+    protected final AtomicIntegerArray tournamentTree;
+    protected volatile long virtualTime;
+    
+    /**
+     * Constructs a new {@link WeightedQueueManager} with one class for each weight provided.
+     * 
+     * @param queueSetListener Listener to be invoked when the head of any queue set changes
+     * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
+     * @param classWeights Weight of each class, each must be between 1 and {@link #MAX_WEIGHT}
+     */
+    public WeightedQueueManager(QueueSetListener queueSetListener, long maxWaitForLowPriorityInMs, 
+                                int[] classWeights) {
+      this(queueSetListener, maxWaitForLowPriorityInMs, 
+           makeWeightedQueueSets(queueSetListener, classWeights));
+    }
+    
+    private WeightedQueueManager(QueueSetListener queueSetListener, long maxWaitForLowPriorityInMs, 
+                                 WeightedQueueSet[] weightedQueueSets) {
+      super(weightedQueueSets[0], weightedQueueSets[weightedQueueSets.length - 1], 
+            new QueueSet(queueSetListener), maxWaitForLowPriorityInMs);
+      
+      this.weightedQueueSets = weightedQueueSets;
+      int leafCount = 2;
+      while (leafCount < weightedQueueSets.length) {
+        leafCount <<= 1;
+      }
+      this.leafCount = leafCount;
+      this.tournamentTree = new AtomicIntegerArray(leafCount);
+      this.virtualTime = 0;
+      for (WeightedQueueSet qs : weightedQueueSets) {
+        qs.queueManager = this;
+      }
+      rebuildTree();
+    }
+    
+    private static WeightedQueueSet[] makeWeightedQueueSets(QueueSetListener queueSetListener, 
+                                                            int[] classWeights) {
+      ArgumentVerifier.assertNotNull(classWeights, "classWeights");
+      if (classWeights.length == 0 || classWeights.length > MAX_CLASSES) {
+        throw new IllegalArgumentException("Must provide between 1 and " + MAX_CLASSES + 
+                                             " classes: " + classWeights.length);
+      }
+      
+      WeightedQueueSet[] result = new WeightedQueueSet[classWeights.length];
+      for (int i = 0; i < result.length; i++) {
+        result[i] = new WeightedQueueSet(queueSetListener, i, classWeights[i]);
+      }
+      return result;
+    }
+    
+    /**
+     * Returns the {@link WeightedQueueSet} for a given class.
      * 
-     * @param task The original runnable provided to the executor
-     * @return {@code true} if the runnable was found and removed
+     * @param weightedClass Index of the class, starting at zero
+     * @return {@link WeightedQueueSet} which matches to the class
      */
-    public boolean remove(Runnable task) {
-      return highPriorityQueueSet.remove(task) || lowPriorityQueueSet.remove(task) || 
-               starvablePriorityQueueSet.remove(task);
+    public WeightedQueueSet getQueueSet(int weightedClass) {
+      return weightedQueueSets[weightedClass];
     }
     
     /**
-     * Removes the callable task from the execution queue.  It is possible for the callable to 
-     * still run until this call has returned.
-     * <p>
-     * Note that this call has high guarantees on the ability to remove the task (as in a complete 
-     * guarantee).  But while this is being invoked, it will reduce the throughput of execution, 
-     * so should NOT be used extremely frequently.
+     * Returns how many weighted classes this manager arbitrates between.
      * 
-     * @param task The original callable provided to the executor
-     * @return {@code true} if the callable was found and removed
+     * @return Number of weighted classes
      */
-    public boolean remove(Callable<?> task) {
-      return highPriorityQueueSet.remove(task) || lowPriorityQueueSet.remove(task) || 
-               starvablePriorityQueueSet.remove(task);
+    public int getClassCount() {
+      return weightedQueueSets.length;
     }
     
     /**
-     * Changes the max wait time for low priority tasks.  This is the amount of time that a low 
-     * priority task will wait if there are ready to execute high priority tasks.  After a low 
-     * priority task has waited this amount of time, it will be executed fairly with high priority 
-     * tasks (meaning it will only execute the high priority task if it has been waiting longer than 
-     * the low priority task).
+     * Returns the tag of the task the provided class would execute next, only if that task is 
+     * ready to execute.
      * 
-     * @param maxWaitForLowPriorityInMs new wait time in milliseconds for low priority tasks during thread contention
+     * @param weightedClass Index of the class, may be beyond the number of classes
+     * @return Tag of the next ready task, or {@link #NO_TASK_TAG} if none are ready
      */
-    public void setMaxWaitForLowPriority(long maxWaitForLowPriorityInMs) {
-      ArgumentVerifier.assertNotNegative(maxWaitForLowPriorityInMs, "maxWaitForLowPriorityInMs");
-      
-      this.maxWaitForLowPriorityInMs = maxWaitForLowPriorityInMs;
+    protected long readyTag(int weightedClass) {
+      TaskWrapper task = readyTask(weightedClass);
+      return task == null ? NO_TASK_TAG : task.weightedFairTag;
     }
     
     /**
-     * Getter for the amount of time a low priority task will wait during thread contention before 
-     * it is eligible for execution.
+     * Returns the task the provided class would execute next, only if that task is ready to 
+     * execute.
      * 
-     * @return currently set max wait for low priority task
+     * @param weightedClass Index of the class, may be beyond the number of classes
+     * @return Next ready task, or {@code null} if none are ready
      */
-    public long getMaxWaitForLowPriority() {
-      return maxWaitForLowPriorityInMs;
+    protected TaskWrapper readyTask(int weightedClass) {
+      if (weightedClass >= weightedQueueSets.length) {
+        return null;
+      }
+      TaskWrapper task = weightedQueueSets[weightedClass].getNextTask();
+      if (task == null || task.getScheduleDelay() > 0) {
+        return null;
+      }
+      return task;
+    }
+    
+    /**
+     * Checks if a tag should be executed before another.  Tags are compared so that they may 
+     * overflow, as long as the range of queued tags does not exceed half of the long range.
+     * 
+     * @param tag Tag to check
+     * @param otherTag Tag to compare against
+     * @return {@code true} if {@code tag} has a ready task which should run before {@code otherTag}
+     */
+    protected static boolean isBefore(long tag, long otherTag) {
+      if (tag == NO_TASK_TAG) {
+        return false;
+      } else if (otherTag == NO_TASK_TAG) {
+        return true;
+      } else {
+        return tag - otherTag < 0;
+      }
+    }
+    
+    private int nodeWinner(int node) {
+      if (node >= leafCount) {
+        return node - leafCount;
+      } else {
+        return tournamentTree.get(node);
+      }
+    }
+    
+    /**
+     * Updates the tournament tree from the provided class to the root.  This must be invoked 
+     * after the head of a class has changed (for example because a task was added to it), and 
+     * before any idle workers are notified.
+     * 
+     * @param weightedClass Index of the class which changed
+     * @return The class index now at the root of the tree
+     */
+    protected int queueSetUpdated(int weightedClass) {
+      int node = weightedClass + leafCount;
+      int winner = weightedClass;
+      long winnerTag = readyTag(winner);
+      while (node > 1) {
+        int sibling = nodeWinner(node ^ 1);
+        long siblingTag = readyTag(sibling);
+        // ties are not possible between classes, so order is only determined by the tag
+        if (isBefore(siblingTag, winnerTag)) {
+          winner = sibling;
+          winnerTag = siblingTag;
+        }
+        node >>>= 1;
+        if (tournamentTree.get(node) != winner) {
+          tournamentTree.set(node, winner);
+        }
+      }
+      return winner;
+    }
+    
+    /**
+     * Rebuilds the entire tournament tree, checking every class.
+     * 
+     * @return The class index now at the root of the tree
+     */
+    protected int rebuildTree() {
+      for (int node = leafCount - 1; node >= 1; node--) {
+        int left = nodeWinner(node << 1);
+        int right = nodeWinner((node << 1) + 1);
+        int winner = isBefore(readyTag(right), readyTag(left)) ? right : left;
+        if (tournamentTree.get(node) != winner) {
+          tournamentTree.set(node, winner);
+        }
+      }
+      return tournamentTree.get(1);
+    }
+    
+    @Override
+    public TaskWrapper getNextTask() {
+      int weightedClass = tournamentTree.get(1);
+      // the last selected class is the most likely to have changed, verify it is still the best
+      for (int i = 0; i < weightedQueueSets.length; i++) {
+        int rootClass = queueSetUpdated(weightedClass);
+        if (rootClass == weightedClass) {
+          break;
+        }
+        weightedClass = rootClass;
+      }
+      
+      TaskWrapper nextTask = readyTask(weightedClass);
+      if (nextTask == null) {
+        // tree may be stale, so check all classes before deciding there is no ready task
+        nextTask = readyTask(rebuildTree());
+        if (nextTask == null) {
+          // nothing ready, find the task which will be ready soonest
+          for (WeightedQueueSet qs : weightedQueueSets) {
+            TaskWrapper task = qs.getNextTask();
+            if (task != null && (nextTask == null || task.getRunTime() < nextTask.getRunTime())) {
+              nextTask = task;
+            }
+          }
+        }
+      }
+      
+      return getNextTaskWithStarvable(nextTask);
+    }
+    
+    @Override
+    public void taskConsumed(TaskWrapper task) {
+      long tag = task.weightedFairTag;
+      if (tag == NO_TASK_TAG) {
+        return; // starvable tasks are not tagged
+      }
+      long startTime = tag & ~CLASS_MASK;
+      // races may lose an update, but virtual time is only used as the minimum for idle classes
+      if (startTime - virtualTime > 0) {
+        virtualTime = startTime;
+      }
+      weightedQueueSets[(int)(tag & CLASS_MASK) - 1].recordExecution(task);
+    }
+    
+    @Override
+    public List<Runnable> clearQueue() {
+      int queueSize = starvablePriorityQueueSet.queueSize();
+      for (WeightedQueueSet qs : weightedQueueSets) {
+        queueSize += qs.queueSize();
+      }
+      List<TaskWrapper> wrapperList = new ArrayList<>(queueSize);
+      for (WeightedQueueSet qs : weightedQueueSets) {
+        qs.drainQueueInto(wrapperList);
+      }
+      starvablePriorityQueueSet.drainQueueInto(wrapperList);
+      
+      return ContainerHelper.getContainedRunnables(wrapperList);
+    }
+    
+    @Override
+    public boolean remove(Runnable task) {
+      for (WeightedQueueSet qs : weightedQueueSets) {
+        if (qs.remove(task)) {
+          return true;
+        }
+      }
+      return starvablePriorityQueueSet.remove(task);
+    }
+    
+    @Override
+    public boolean remove(Callable<?> task) {
+      for (WeightedQueueSet qs : weightedQueueSets) {
+        if (qs.remove(task)) {
+          return true;
+        }
+      }
+      return starvablePriorityQueueSet.remove(task);
+    }
+    
+    @Override
+    public int removeIf(Predicate<? super Runnable> filter) {
+      int result = starvablePriorityQueueSet.removeIf(filter);
+      for (WeightedQueueSet qs : weightedQueueSets) {
+        result += qs.removeIf(filter);
+      }
+      return result;
     }
   }
   
@@ -597,8 +2185,13 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
    * @since 1.0.0
    */
   protected abstract static class TaskWrapper implements RunnableContainer {
-    protected final Runnable task;
+    // not final so that a PooledTaskWrapper can be reused for another task
+    protected Runnable task;
     protected volatile boolean invalidated;
+    // only used when queued in a TimingWheelQueueSet, and only accessed while holding its lock
+    protected TimingWheelQueueSet.WheelNode wheelNode;
+    // only used when queued in a WeightedQueueSet, virtual start time with the class in the low bits
+    protected long weightedFairTag;
     
     public TaskWrapper(Runnable task) {
       this.task = task;
@@ -690,8 +2283,9 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
    * @since 1.0.0
    */
   protected static class OneTimeTaskWrapper extends TaskWrapper {
-    protected final Queue<? extends TaskWrapper> taskQueue;
-    protected final long runTime;
+    // only changed when a PooledTaskWrapper is reused
+    protected Queue<? extends TaskWrapper> taskQueue;
+    protected long runTime;
     // optimization to avoid queue traversal on failure to remove, cheaper than AtomicBoolean
     private volatile boolean executed;
     
@@ -761,6 +2355,183 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
     }
   }
   
+  /**
+   * {@link ImmediateTaskWrapper} which can be reused for another task once it has finished 
+   * executing (see {@link TaskWrapperPool}).  A thread which is inspecting the queue may still 
+   * hold a reference to this wrapper from a previous use.  To make sure such a reference can 
+   * never cause the current task to be executed twice (or not at all), the execution state holds 
+   * a generation which is incremented every time the wrapper is reused.  The reference returned 
+   * from {@link #getExecuteReference()} is that generation.
+   * 
+   * @since 5.30
+   */
+  protected static class PooledTaskWrapper extends ImmediateTaskWrapper {
+    // generation shifted left by one, with the low bit set once the current use was selected
+    private final AtomicInteger executeState;
+    
+    protected PooledTaskWrapper(Runnable task, Queue<? extends TaskWrapper> taskQueue) {
+      super(task, taskQueue);
+      
+      executeState = new AtomicInteger(0);
+    }
+    
+    /**
+     * Prepares this wrapper to be used for another task.  This must only be invoked after the 
+     * previous task has finished, and before the wrapper is added to a queue.
+     * 
+     * @param task Runnable to be executed
+     * @param taskQueue Queue the wrapper will be added to
+     */
+    protected void reuse(Runnable task, Queue<? extends TaskWrapper> taskQueue) {
+      this.task = task;
+      this.taskQueue = taskQueue;
+      runTime = Clock.lastKnownForwardProgressingMillis();
+      invalidated = false;
+      // volatile write, making the above visible to any thread which observes the new generation
+      executeState.set((short)((executeState.get() >> 1) + 1) << 1 & 0x1FFFE);
+    }
+    
+    /**
+     * Releases the reference to the task which was executed, so that it can be garbage collected 
+     * while this wrapper waits to be reused.
+     */
+    protected void clear() {
+      task = DoNothingRunnable.instance();
+      taskQueue = null;
+    }
+    
+    @Override
+    public short getExecuteReference() {
+      return (short)(executeState.get() >> 1);
+    }
+
+    @Override
+    public boolean canExecute(short executeReference) {
+      int expect = (executeReference & 0xFFFF) << 1;
+      if (executeState.get() != expect || ! executeState.compareAndSet(expect, expect | 1)) {
+        return false;
+      }
+      Queue<? extends TaskWrapper> taskQueue = this.taskQueue;
+      if (taskQueue != null && taskQueue.remove(this)) {
+        return true;
+      } else {
+        // either removed by another thread, or not yet queued for this generation, in which case 
+        // the state must be restored so it can still be executed once queued
+        executeState.compareAndSet(expect | 1, expect);
+        return false;
+      }
+    }
+  }
+  
+  /**
+   * Pool of {@link PooledTaskWrapper}'s so that executing a task does not require a new wrapper 
+   * to be allocated.  Each thread has a small local pool which it releases to and acquires from 
+   * first, when that is empty (or full) a shared pool is used so that wrappers released by 
+   * worker threads can be used by threads outside of the pool.  If neither has room the wrapper 
+   * is simply left to be garbage collected.
+   * <p>
+   * Removal operations compare the task contained in a wrapper, and then remove the wrapper from 
+   * its queue.  If the wrapper was reused between those two steps a different task would be 
+   * removed.  To avoid this {@link #removalStarted()} and {@link #removalFinished()} must 
+   * surround any removal, wrappers which are released while a removal is in progress are not 
+   * reused.
+   * 
+   * @since 5.30
+   */
+  protected static class TaskWrapperPool {
+    protected static final int LOCAL_POOL_SIZE = 32;
+    protected static final int SHARED_POOL_SIZE = 256; // must be a power of two
+    protected static final int SHARED_POOL_PROBE_COUNT = 4;
+    
+    private final ThreadLocal<LocalPool> localPool;
+    private final AtomicReferenceArray<PooledTaskWrapper> sharedPool;
+    private final AtomicInteger activeRemovals;
+    
+    public TaskWrapperPool() {
+      localPool = ThreadLocal.withInitial(LocalPool::new);
+      sharedPool = new AtomicReferenceArray<>(SHARED_POOL_SIZE);
+      activeRemovals = new AtomicInteger(0);
+    }
+    
+    /**
+     * Provides a wrapper for the task, reusing a previously released wrapper if one is available.
+     * 
+     * @param task Runnable to be executed
+     * @param taskQueue Queue the wrapper will be added to
+     * @return Wrapper ready to be queued
+     */
+    public PooledTaskWrapper acquire(Runnable task, Queue<? extends TaskWrapper> taskQueue) {
+      LocalPool local = localPool.get();
+      PooledTaskWrapper result;
+      if (local.size > 0) {
+        result = local.wrappers[--local.size];
+        local.wrappers[local.size] = null;
+      } else {
+        result = null;
+        int index = ThreadLocalRandom.current().nextInt(SHARED_POOL_SIZE);
+        for (int i = 0; i < SHARED_POOL_PROBE_COUNT; i++) {
+          int slot = (index + i) & (SHARED_POOL_SIZE - 1);
+          if (sharedPool.get(slot) != null && (result = sharedPool.getAndSet(slot, null)) != null) {
+            break;
+          }
+        }
+        if (result == null) {
+          return new PooledTaskWrapper(task, taskQueue);
+        }
+      }
+      result.reuse(task, taskQueue);
+      return result;
+    }
+    
+    /**
+     * Returns a wrapper so it can be reused.  This must only be invoked by the thread which 
+     * executed the wrapper, once the task has finished.
+     * 
+     * @param wrapper Wrapper which has finished executing
+     */
+    public void release(PooledTaskWrapper wrapper) {
+      if (activeRemovals.get() != 0) {
+        // a removal may have a reference to this wrapper, leave it for the garbage collector
+        return;
+      }
+      wrapper.clear();
+      LocalPool local = localPool.get();
+      if (local.size < LOCAL_POOL_SIZE) {
+        local.wrappers[local.size++] = wrapper;
+      } else {
+        int index = ThreadLocalRandom.current().nextInt(SHARED_POOL_SIZE);
+        for (int i = 0; i < SHARED_POOL_PROBE_COUNT; i++) {
+          int slot = (index + i) & (SHARED_POOL_SIZE - 1);
+          if (sharedPool.get(slot) == null && sharedPool.compareAndSet(slot, null, wrapper)) {
+            return;
+          }
+        }
+      }
+    }
+    
+    /**
+     * Must be invoked before queues are searched for tasks to remove.
+     */
+    public void removalStarted() {
+      activeRemovals.incrementAndGet();
+    }
+    
+    /**
+     * Must be invoked once a removal started with {@link #removalStarted()} has completed.
+     */
+    public void removalFinished() {
+      activeRemovals.decrementAndGet();
+    }
+    
+    /**
+     * Wrappers which are only accessed by a single thread.
+     */
+    private static class LocalPool {
+      private final PooledTaskWrapper[] wrappers = new PooledTaskWrapper[LOCAL_POOL_SIZE];
+      private int size = 0;
+    }
+  }
+  
   /**
    * Abstract wrapper for any tasks which run repeatedly.
    * 
@@ -819,30 +2590,7 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
       if (executing | executeFlipCounter != executeReference) {
         return false;
       }
-      synchronized (queueSet.scheduleQueue.getModificationLock()) {
-        if (executing | executeFlipCounter != executeReference) {
-          // this task is already running, or not ready to run, so ignore
-          return false;
-        } else {
-          /* we have to reposition to the end atomically so that this task can be removed if 
-           * requested to be removed.  We can put it at the end because we know this task wont 
-           * run again till it has finished (which it will be inserted at the correct point in 
-           * queue then.
-           */
-          int sourceIndex = queueSet.scheduleQueue.indexOf(this);
-          if (sourceIndex >= 0) {
-            if (sourceIndex < queueSet.scheduleQueue.size() - 1 && 
-                queueSet.scheduleQueue.get(sourceIndex + 1).getRunTime() != Long.MAX_VALUE) {
-              queueSet.scheduleQueue.reposition(sourceIndex, queueSet.scheduleQueue.size());
-            }
-            executing = true;
-            executeFlipCounter++;
-            return true;
-          } else {
-            return false;
-          }
-        }
-      }
+      return queueSet.canExecuteRecurring(this, executeReference);
     }
 
     /**
@@ -852,32 +2600,7 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
      * queue should be.
      */
     protected void reschedule() {
-      int insertionIndex = -1;
-      synchronized (queueSet.scheduleQueue.getModificationLock()) {
-        int currentIndex = queueSet.scheduleQueue.lastIndexOf(this);
-        if (currentIndex > 0) {
-          insertionIndex = SortUtils.getInsertionEndIndex(queueSet.scheduleQueueRunTimeByIndex, 
-                                                          queueSet.scheduleQueue.size() - 1, 
-                                                          nextRunTime, true);
-          
-          queueSet.scheduleQueue.reposition(currentIndex, insertionIndex);
-        } else if (currentIndex == 0) {
-          insertionIndex = 0;
-        } else {
-          // task removed, no-op, but might as well tidy up the state even though nothing cares
-        }
-        
-        // we can only update executing AFTER the reposition has finished
-        // The synchronization lock must be held during this because changing executing
-        // changes the scheduled delay, and thus we can not have other threads examining the task queue
-        executing = false;
-        executeFlipCounter++;  // increment again to indicate execute state change
-      }
-
-      // kind of awkward we need to know here, but we we need to let the queue set know if the head changed
-      if (insertionIndex == 0) {
-        queueSet.queueListener.handleQueueUpdate();
-      }
+      queueSet.rescheduleRecurring(this);
     }
     
     /**
@@ -948,6 +2671,61 @@ public abstract class AbstractPriorityScheduler extends AbstractSubmitterSchedul
     }
   }
   
+  /**
+   * Future returned from submit calls.  Once queued it holds a reference to the 
+   * {@link TaskWrapper} it was queued with.  This allows cancellation to directly remove the task 
+   * from its {@link QueueSet} (see {@link QueueSet#removeTask(TaskWrapper)}), rather than the 
+   * cancelled task remaining queued until its run time.
+   * 
+   * @since 5.30
+   * @param <T> The result object type returned by this future
+   */
+  protected static class QueuedFutureTask<T> extends ListenableFutureTask<T> {
+    private volatile QueueSet queueSet;
+    private volatile TaskWrapper queuedTask;
+    
+    public QueuedFutureTask(Callable<T> task, Executor executingExecutor) {
+      super(false, task, executingExecutor);
+      
+      queueSet = null;
+      queuedTask = null;
+    }
+    
+    /**
+     * Sets the queue set and task wrapper this future was queued with.  If the future was 
+     * cancelled before this was set, the task will be removed at this point.
+     * 
+     * @param queueSet Queue set the task was added to
+     * @param queuedTask Task wrapper which contains this future
+     */
+    protected void setQueuedTask(QueueSet queueSet, TaskWrapper queuedTask) {
+      this.queueSet = queueSet;
+      this.queuedTask = queuedTask;
+      
+      if (isCancelled()) {
+        removeQueuedTask();
+      }
+    }
+    
+    private void removeQueuedTask() {
+      TaskWrapper queuedTask = this.queuedTask;
+      if (queuedTask != null) {
+        this.queuedTask = null;
+        queueSet.removeTask(queuedTask);
+      }
+    }
+    
+    @Override
+    public boolean cancel(boolean interruptIfRunning) {
+      if (super.cancel(interruptIfRunning)) {
+        removeQueuedTask();
+        return true;
+      } else {
+        return false;
+      }
+    }
+  }
+  
   /**
    * Small interface so we can determine internal tasks which were not submitted by users.  That 
    * way they can be filtered out (for example in draining the queue).
@@ -3,12 +3,15 @@ package org.threadly.concurrent;
 import java.util.concurrent.Callable;
 import java.util.concurrent.atomic.LongAdder;
 
+import org.threadly.concurrent.AbstractPriorityScheduler.QueueManager;
+import org.threadly.concurrent.AbstractPriorityScheduler.TaskWrapper;
 import org.threadly.concurrent.wrapper.limiter.SchedulerServiceLimiter;
 import org.threadly.concurrent.wrapper.limiter.SingleThreadSchedulerSubPool;
 import org.threadly.concurrent.wrapper.priority.DefaultPriorityWrapper;
 import org.threadly.concurrent.wrapper.traceability.ThreadRenamingPriorityScheduler;
 import org.threadly.concurrent.wrapper.traceability.ThreadRenamingSchedulerService;
 import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.Clock;
 import org.threadly.util.StringUtils;
 
 /**
@@ -38,7 +41,9 @@ import org.threadly.util.StringUtils;
  * threads.  And in addition {@link #rangedThreadPool(int, int)} and 
  * {@link #rangedThreadPool(TaskPriority, int, int)} in order to specify how when guaranteed 
  * threads need to be provided, and how much of the general processing threads the pool can take 
- * advantage of.
+ * advantage of.  Rather than picking a generic thread count by hand, 
+ * {@link #enableGenericThreadAutoSizing(int, int, long)} can be used to have the generic thread 
+ * count adjusted based off how long tasks are waiting in the central pool's queue.
  * <p>
  * Stats (like {@link SchedulerService#getActiveTaskCount()} and 
  * {@link SchedulerService#getQueuedTaskCount()}, etc) from provided pools will always be 
@@ -57,6 +62,7 @@ public class CentralThreadlyPool {
   protected static final PrioritySchedulerService SINGLE_THREADED_LOW_PRIORITY_POOL;
   protected static final PerTaskSizingSubmitterScheduler PER_TASK_SIZING_POOL;
   private static volatile int genericThreadCount;
+  private static volatile GenericThreadAutoSizer genericThreadAutoSizer = null;
   
   static {
     int cpuCount = Runtime.getRuntime().availableProcessors();
@@ -97,6 +103,112 @@ public class CentralThreadlyPool {
     }
   }
   
+  /**
+   * Decrease the threads which can be shared across pools.  Like pools being garbage collected, the 
+   * reduction of the central pool size is delayed to reduce thread churn.
+   * 
+   * @param count A positive number of threads to remove from the central pool
+   */
+  private static void decreaseGenericThreads(int count) {
+    synchronized (CentralThreadlyPool.class) {
+      POOL_SIZE_UPDATER.adjustPoolSize(-count);
+      genericThreadCount -= count;
+    }
+  }
+  
+  /**
+   * Enable automatic adjustment of the generic thread count (see 
+   * {@link #increaseGenericThreads(int)}).  The central pool will be sampled every second, if the 
+   * oldest task ready to execute has been waiting longer than the target latency then generic 
+   * threads will be added.  If the pool is mostly idle with tasks waiting well under the target 
+   * latency then threads previously added by the auto sizer will be slowly removed.
+   * <p>
+   * Only threads added by the auto sizer will be removed, threads added through 
+   * {@link #increaseGenericThreads(int)} will remain.  Decisions made by the sizer can be 
+   * monitored through the returned {@link GenericThreadAutoSizer}.
+   * 
+   * @since 5.30
+   * @param minGenericThreads Generic thread count to immediately ensure, at least {@code 1}
+   * @param maxGenericThreads Maximum generic thread count the sizer may increase to
+   * @param targetQueueLatencyMillis Maximum time in milliseconds tasks should wait to execute
+   * @return The started auto sizer
+   * @throws IllegalStateException Thrown if auto sizing is already enabled
+   */
+  public static GenericThreadAutoSizer enableGenericThreadAutoSizing(int minGenericThreads, 
+                                                                     int maxGenericThreads, 
+                                                                     long targetQueueLatencyMillis) {
+    return enableGenericThreadAutoSizing(minGenericThreads, maxGenericThreads, 
+                                         targetQueueLatencyMillis, 
+                                         GenericThreadAutoSizer.DEFAULT_SAMPLE_INTERVAL_MILLIS);
+  }
+  
+  /**
+   * Enable automatic adjustment of the generic thread count (see 
+   * {@link #increaseGenericThreads(int)}).  The central pool will be sampled at the provided 
+   * interval, if the oldest task ready to execute has been waiting longer than the target latency 
+   * then generic threads will be added.  If the pool is mostly idle with tasks waiting well under 
+   * the target latency then threads previously added by the auto sizer will be slowly removed.
+   * <p>
+   * Only threads added by the auto sizer will be removed, threads added through 
+   * {@link #increaseGenericThreads(int)} will remain.  Decisions made by the sizer can be 
+   * monitored through the returned {@link GenericThreadAutoSizer}.
+   * 
+   * @since 5.30
+   * @param minGenericThreads Generic thread count to immediately ensure, at least {@code 1}
+   * @param maxGenericThreads Maximum generic thread count the sizer may increase to
+   * @param targetQueueLatencyMillis Maximum time in milliseconds tasks should wait to execute
+   * @param sampleIntervalMillis Time in milliseconds between samples of the central pool
+   * @return The started auto sizer
+   * @throws IllegalStateException Thrown if auto sizing is already enabled
+   */
+  public static GenericThreadAutoSizer enableGenericThreadAutoSizing(int minGenericThreads, 
+                                                                     int maxGenericThreads, 
+                                                                     long targetQueueLatencyMillis, 
+                                                                     long sampleIntervalMillis) {
+    GenericThreadAutoSizer sizer = 
+        new GenericThreadAutoSizer(minGenericThreads, maxGenericThreads, 
+                                   targetQueueLatencyMillis, sampleIntervalMillis);
+    synchronized (CentralThreadlyPool.class) {
+      if (genericThreadAutoSizer != null) {
+        throw new IllegalStateException("Auto sizing already enabled");
+      }
+      genericThreadAutoSizer = sizer;
+    }
+    // started outside of the class lock so the sizer lock is always acquired first
+    sizer.start();
+    return sizer;
+  }
+  
+  /**
+   * Stops the auto sizer started from {@link #enableGenericThreadAutoSizing(int, int, long)}. 
+   * Any generic threads which were added by the sizer will be removed.  If auto sizing is not 
+   * enabled this call will have no effect.
+   * 
+   * @since 5.30
+   */
+  public static void disableGenericThreadAutoSizing() {
+    GenericThreadAutoSizer sizer;
+    synchronized (CentralThreadlyPool.class) {
+      sizer = genericThreadAutoSizer;
+      genericThreadAutoSizer = null;
+    }
+    // stopped outside of the class lock so the sizer lock is always acquired first
+    if (sizer != null) {
+      sizer.stop();
+    }
+  }
+  
+  /**
+   * Returns the currently running auto sizer if 
+   * {@link #enableGenericThreadAutoSizing(int, int, long)} has been invoked.
+   * 
+   * @since 5.30
+   * @return The running auto sizer, or {@code null} if auto sizing is not enabled
+   */
+  public static GenericThreadAutoSizer getGenericThreadAutoSizer() {
+    return genericThreadAutoSizer;
+  }
+  
   /**
    * This reports the number of threads currently available for processing across all pools where 
    * the max thread count is {@code >} the guaranteed thread count.
@@ -786,6 +898,249 @@ public class CentralThreadlyPool {
     }
   }
   
+  /**
+   * Controller which adjusts the generic thread count to hold tasks submitted to the central pool 
+   * under a target queue latency.  Each sample measures how long the oldest ready task (other than 
+   * {@link TaskPriority#Starvable} tasks) has been waiting, as well as the ratio of active threads 
+   * to the pool size.
+   * <p>
+   * If the latency exceeds the target then generic threads are added in proportion to how far 
+   * over target the latency is, up to doubling the count in a single sample.  Threads are removed 
+   * one at a time, and only once several consecutive samples show low latency and low 
+   * utilization.  This bias towards growth, combined with the delayed pool size reductions of the 
+   * central pool, helps avoid thread churn as load fluctuates.
+   * <p>
+   * Instances are provided from {@link CentralThreadlyPool#enableGenericThreadAutoSizing(int, int, long)}, 
+   * and the getters can be used to monitor the decisions being made.
+   * 
+   * @since 5.30
+   */
+  public static class GenericThreadAutoSizer implements Runnable {
+    protected static final long DEFAULT_SAMPLE_INTERVAL_MILLIS = 1_000;
+    protected static final int SHRINK_SAMPLE_COUNT = 5;
+    protected static final double SHRINK_UTILIZATION_THRESHOLD = .5;
+    
+    protected final int minGenericThreads;
+    protected final int maxGenericThreads;
+    protected final long targetQueueLatencyMillis;
+    protected final long sampleIntervalMillis;
+    // counters are only modified while synchronized on this
+    private volatile long sampleCount;
+    private volatile long increaseCount;
+    private volatile long decreaseCount;
+    private volatile int addedThreadCount;
+    private volatile long lastQueueLatencyMillis;
+    private volatile double lastUtilization;
+    private int lowLoadSampleCount;
+    private boolean stopped;
+    
+    protected GenericThreadAutoSizer(int minGenericThreads, int maxGenericThreads, 
+                                     long targetQueueLatencyMillis, long sampleIntervalMillis) {
+      ArgumentVerifier.assertGreaterThanZero(minGenericThreads, "minGenericThreads");
+      if (maxGenericThreads < minGenericThreads) {
+        throw new IllegalArgumentException("maxGenericThreads must be >= minGenericThreads");
+      }
+      ArgumentVerifier.assertGreaterThanZero(targetQueueLatencyMillis, "targetQueueLatencyMillis");
+      ArgumentVerifier.assertGreaterThanZero(sampleIntervalMillis, "sampleIntervalMillis");
+      
+      this.minGenericThreads = minGenericThreads;
+      this.maxGenericThreads = maxGenericThreads;
+      this.targetQueueLatencyMillis = targetQueueLatencyMillis;
+      this.sampleIntervalMillis = sampleIntervalMillis;
+      this.sampleCount = 0;
+      this.increaseCount = 0;
+      this.decreaseCount = 0;
+      this.addedThreadCount = 0;
+      this.lastQueueLatencyMillis = 0;
+      this.lastUtilization = 0;
+      this.lowLoadSampleCount = 0;
+      this.stopped = false;
+    }
+    
+    /**
+     * Ensures the minimum generic thread count and starts sampling the central pool.
+     */
+    protected synchronized void start() {
+      if (stopped) {
+        return; // disabled before we could start
+      }
+      int genericCount = genericThreadCount;
+      if (genericCount < minGenericThreads) {
+        increase(minGenericThreads - genericCount);
+      }
+      MASTER_SCHEDULER.scheduleAtFixedRate(this, sampleIntervalMillis, sampleIntervalMillis, 
+                                           TaskPriority.High);
+    }
+    
+    /**
+     * Stops sampling, and removes any generic threads which were added by this sizer.
+     */
+    protected synchronized void stop() {
+      stopped = true;
+      MASTER_SCHEDULER.remove(this);
+      if (addedThreadCount > 0) {
+        decreaseGenericThreads(addedThreadCount);
+        addedThreadCount = 0;
+      }
+    }
+    
+    @Override
+    public void run() {
+      sample(getOldestQueuedTaskWaitMillis(), 
+             (double)MASTER_SCHEDULER.getActiveTaskCount() / MASTER_SCHEDULER.getMaxPoolSize());
+    }
+    
+    /**
+     * Checks the central pool queues for how long the oldest ready task has been waiting.
+     * 
+     * @return Time in milliseconds the oldest ready task has been waiting, or {@code 0} if none are ready
+     */
+    protected static long getOldestQueuedTaskWaitMillis() {
+      QueueManager queueManager = MASTER_SCHEDULER.getQueueManager();
+      long now = Clock.accurateForwardProgressingMillis();
+      long result = 0;
+      for (TaskPriority priority : TaskPriority.values()) {
+        if (priority == TaskPriority.Starvable) {
+          continue; // starvable tasks are expected to wait
+        }
+        TaskWrapper tw = queueManager.getQueueSet(priority).getNextTask();
+        if (tw != null) {
+          long runTime = tw.getRunTime();
+          if (runTime < now) {
+            result = Math.max(result, now - runTime);
+          }
+        }
+      }
+      return result;
+    }
+    
+    /**
+     * Update the generic thread count based off the provided sample.
+     * 
+     * @param queueLatencyMillis Time in milliseconds the oldest ready task has been waiting
+     * @param utilization Ratio of active threads to the pool size
+     */
+    protected synchronized void sample(long queueLatencyMillis, double utilization) {
+      sampleCount++;
+      lastQueueLatencyMillis = queueLatencyMillis;
+      lastUtilization = utilization;
+      if (stopped) {
+        return;
+      }
+      
+      int genericCount = genericThreadCount;
+      if (queueLatencyMillis > targetQueueLatencyMillis) {
+        lowLoadSampleCount = 0;
+        if (genericCount < maxGenericThreads) {
+          // wait time should drop roughly in proportion to added threads, grow by how far over we are
+          long growth = (genericCount * (queueLatencyMillis - targetQueueLatencyMillis)) / 
+                          targetQueueLatencyMillis;
+          growth = Math.max(1, Math.min(genericCount, growth));
+          increase((int)Math.min(maxGenericThreads - genericCount, growth));
+        }
+      } else if (queueLatencyMillis <= targetQueueLatencyMillis / 2 && 
+                 utilization < SHRINK_UTILIZATION_THRESHOLD) {
+        if (++lowLoadSampleCount >= SHRINK_SAMPLE_COUNT) {
+          lowLoadSampleCount = 0;
+          if (addedThreadCount > 0 && genericCount > minGenericThreads) {
+            decreaseGenericThreads(1);
+            addedThreadCount--;
+            decreaseCount++;
+          }
+        }
+      } else {
+        lowLoadSampleCount = 0;
+      }
+    }
+    
+    private void increase(int count) {
+      increaseGenericThreads(count);
+      addedThreadCount += count;
+      increaseCount++;
+    }
+    
+    /**
+     * Returns the target time tasks should wait in the central pool's queue.
+     * 
+     * @return Target queue latency in milliseconds
+     */
+    public long getTargetQueueLatencyMillis() {
+      return targetQueueLatencyMillis;
+    }
+    
+    /**
+     * Returns the minimum generic thread count this sizer will shrink to.
+     * 
+     * @return Minimum generic thread count
+     */
+    public int getMinGenericThreads() {
+      return minGenericThreads;
+    }
+    
+    /**
+     * Returns the maximum generic thread count this sizer will grow to.
+     * 
+     * @return Maximum generic thread count
+     */
+    public int getMaxGenericThreads() {
+      return maxGenericThreads;
+    }
+    
+    /**
+     * Returns how many times the central pool has been sampled.
+     * 
+     * @return Quantity of samples taken
+     */
+    public long getSampleCount() {
+      return sampleCount;
+    }
+    
+    /**
+     * Returns the queue latency measured on the most recent sample.
+     * 
+     * @return Time in milliseconds the oldest ready task was waiting at the last sample
+     */
+    public long getLastQueueLatencyMillis() {
+      return lastQueueLatencyMillis;
+    }
+    
+    /**
+     * Returns the ratio of active threads to the central pool size on the most recent sample.
+     * 
+     * @return Utilization from {@code 0} to {@code 1} at the last sample
+     */
+    public double getLastUtilization() {
+      return lastUtilization;
+    }
+    
+    /**
+     * Returns how many times this sizer has decided to increase the generic thread count.
+     * 
+     * @return Quantity of increase decisions
+     */
+    public long getIncreaseCount() {
+      return increaseCount;
+    }
+    
+    /**
+     * Returns how many times this sizer has decided to decrease the generic thread count.
+     * 
+     * @return Quantity of decrease decisions
+     */
+    public long getDecreaseCount() {
+      return decreaseCount;
+    }
+    
+    /**
+     * Returns the quantity of generic threads currently added by this sizer.
+     * 
+     * @return Generic threads added by this sizer
+     */
+    public int getAddedThreadCount() {
+      return addedThreadCount;
+    }
+  }
+  
   /**
    * Class which adjusts the size of the master pool up once it is constructed.  And down once it 
    * is garbage collected (as an assumption that the class which needed the resize is no longer 
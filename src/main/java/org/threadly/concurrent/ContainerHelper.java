@@ -5,6 +5,7 @@ import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.function.Predicate;
 
 /**
  * Class which is designed to help with determining if a Runnable or Callable is contained at some 
@@ -220,6 +221,46 @@ public class ContainerHelper {
     }
   }
   
+  /**
+   * Checks if the provided filter matches the start runnable, or any runnable contained within 
+   * it.  This traverses containers in the same way as {@link #isContained(Runnable, Runnable)}, 
+   * but allows a single pass to check for any number of tasks.
+   * 
+   * @since 5.30
+   * @param startRunnable runnable to start search at
+   * @param filter predicate to test the start runnable and each contained runnable against
+   * @return {@code true} if the filter matched the runnable or any runnable contained within it
+   */
+  public static boolean isContained(Runnable startRunnable, Predicate<? super Runnable> filter) {
+    if (filter.test(startRunnable)) {
+      return true;
+    }
+    
+    if (startRunnable instanceof RunnableContainer) {
+      Runnable containedTask = ((RunnableContainer)startRunnable).getContainedRunnable();
+      if (containedTask != null && isContained(containedTask, filter)) {
+        return true;
+      }
+    }
+    if (startRunnable instanceof CallableContainer<?>) {
+      Callable<?> containedTask = ((CallableContainer<?>)startRunnable).getContainedCallable();
+      while (containedTask != null) {
+        if (containedTask instanceof Runnable) {
+          return isContained((Runnable)containedTask, filter);
+        } else if (containedTask instanceof RunnableContainer) {
+          Runnable containedRunnable = ((RunnableContainer)containedTask).getContainedRunnable();
+          return containedRunnable != null && isContained(containedRunnable, filter);
+        } else if (containedTask instanceof CallableContainer<?>) {
+          // loop again
+          containedTask = ((CallableContainer<?>)containedTask).getContainedCallable();
+        } else {
+          return false;
+        }
+      }
+    }
+    return false;
+  }
+  
   /**
    * Takes in a list of runnable containers, and instead makes a list of the runnables which are 
    * contained in each item of the list.
@@ -0,0 +1,576 @@
+package org.threadly.concurrent;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.Clock;
+import org.threadly.util.ExceptionUtils;
+
+/**
+ * Implementation of {@link PriorityScheduler} which executes high priority tasks in order of 
+ * their deadline (earliest deadline first), rather than in the order they were submitted.  This 
+ * is useful when tasks are submitted on behalf of callers which will only wait a limited amount 
+ * of time.  Under overload a FIFO queue will spend its capacity on tasks whose callers may have 
+ * already given up, while ordering by deadline will prioritize tasks which can still complete in 
+ * time.
+ * <p>
+ * Tasks with a deadline are submitted with {@link #executeWithDeadline(Runnable, long)} or one 
+ * of the {@code submitWithDeadline} functions.  Deadlines are provided in milliseconds 
+ * relative to when the task is submitted, and indicate by when the task should have started 
+ * execution.  High priority tasks submitted without a deadline are ordered as if their deadline 
+ * was the default deadline provided at construction.  Low and starvable priority tasks, as well 
+ * as delayed and recurring tasks, are not ordered by deadline and behave the same as they do in 
+ * {@link PriorityScheduler}.
+ * <p>
+ * The provided {@link ExpiredTaskPolicy} determines what happens to a task whose deadline has 
+ * already passed once it is taken for execution.  This policy only applies to tasks which were 
+ * submitted with an explicit deadline.  {@link #getExpiredTaskCount()} can be used to see how 
+ * many tasks were not executed due to this policy.
+ * 
+ * @since 5.30
+ */
+public class DeadlineScheduler extends PriorityScheduler {
+  /**
+   * Default deadline for high priority tasks which are submitted without a deadline.
+   */
+  protected static final long DEFAULT_DEADLINE_IN_MS = 1000;
+  
+  /**
+   * Policy for how to handle tasks whose deadline has passed before they could start execution.
+   * 
+   * @since 5.30
+   */
+  public enum ExpiredTaskPolicy {
+    /**
+     * Execute the task regardless of its deadline having passed.
+     */
+    Execute, 
+    /**
+     * Do not execute the task.  If the task was provided through a {@code submit} call the 
+     * returned future will be cancelled.
+     */
+    Drop, 
+    /**
+     * Do not execute the task.  If the task was provided through a {@code submit} call the 
+     * returned future will fail with a {@link TimeoutException}.  Otherwise the 
+     * {@link TimeoutException} will be provided to {@link ExceptionUtils#handleException(Throwable)} 
+     * as if the task had thrown it.
+     */
+    Fail
+  }
+  
+  protected final DeadlineQueueSet deadlineQueueSet;
+  
+  /**
+   * Constructs a new thread pool, though threads will be lazily started as it has tasks ready to 
+   * run.  Tasks whose deadline has passed will still be executed.
+   * 
+   * @param poolSize Thread pool size that should be maintained
+   */
+  public DeadlineScheduler(int poolSize) {
+    this(poolSize, ExpiredTaskPolicy.Execute);
+  }
+  
+  /**
+   * Constructs a new thread pool, though threads will be lazily started as it has tasks ready to 
+   * run.
+   * 
+   * @param poolSize Thread pool size that should be maintained
+   * @param expiredTaskPolicy Policy for tasks whose deadline has passed before they could start
+   */
+  public DeadlineScheduler(int poolSize, ExpiredTaskPolicy expiredTaskPolicy) {
+    this(poolSize, expiredTaskPolicy, DEFAULT_DEADLINE_IN_MS, 
+         DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, 
+         new ConfigurableThreadFactory(DeadlineScheduler.class.getSimpleName() + "-", 
+                                       true, DEFAULT_NEW_THREADS_DAEMON, Thread.NORM_PRIORITY, 
+                                       null, null));
+  }
+  
+  /**
+   * Constructs a new thread pool, though threads will be lazily started as it has tasks ready to 
+   * run.
+   * 
+   * @param poolSize Thread pool size that should be maintained
+   * @param expiredTaskPolicy Policy for tasks whose deadline has passed before they could start
+   * @param defaultDeadlineInMs Deadline used to order high priority tasks submitted without a deadline
+   * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
+   * @param threadFactory thread factory for producing new threads within executor
+   */
+  public DeadlineScheduler(int poolSize, ExpiredTaskPolicy expiredTaskPolicy, 
+                           long defaultDeadlineInMs, long maxWaitForLowPriorityInMs, 
+                           ThreadFactory threadFactory) {
+    this(new WorkerPool(threadFactory, poolSize), expiredTaskPolicy, 
+         defaultDeadlineInMs, maxWaitForLowPriorityInMs);
+  }
+  
+  private DeadlineScheduler(WorkerPool workerPool, ExpiredTaskPolicy expiredTaskPolicy, 
+                            long defaultDeadlineInMs, long maxWaitForLowPriorityInMs) {
+    this(workerPool, 
+         new DeadlineQueueSet(workerPool, expiredTaskPolicy, defaultDeadlineInMs), 
+         maxWaitForLowPriorityInMs);
+  }
+  
+  private DeadlineScheduler(WorkerPool workerPool, DeadlineQueueSet deadlineQueueSet, 
+                            long maxWaitForLowPriorityInMs) {
+    super(workerPool, TaskPriority.High, 
+          new QueueManager(deadlineQueueSet, new QueueSet(workerPool), new QueueSet(workerPool), 
+                           maxWaitForLowPriorityInMs));
+    
+    this.deadlineQueueSet = deadlineQueueSet;
+  }
+  
+  /**
+   * Returns the policy for tasks whose deadline passes before they could start execution.
+   * 
+   * @return Policy provided at construction
+   */
+  public ExpiredTaskPolicy getExpiredTaskPolicy() {
+    return deadlineQueueSet.expiredTaskPolicy;
+  }
+  
+  /**
+   * Returns how many tasks were dropped or failed because their deadline had passed before they 
+   * could start execution.  This will always be zero if the policy is 
+   * {@link ExpiredTaskPolicy#Execute}.
+   * 
+   * @return Number of tasks not executed due to their deadline passing
+   */
+  public long getExpiredTaskCount() {
+    return deadlineQueueSet.expiredTaskCount.sum();
+  }
+  
+  /**
+   * Executes the task once it has the earliest deadline of the ready high priority tasks.
+   * 
+   * @param task runnable to be executed
+   * @param deadlineInMs Milliseconds from now by which the task should have started
+   */
+  public void executeWithDeadline(Runnable task, long deadlineInMs) {
+    ArgumentVerifier.assertNotNull(task, "task");
+    ArgumentVerifier.assertNotNegative(deadlineInMs, "deadlineInMs");
+    
+    doExecute(task, deadlineInMs);
+  }
+  
+  /**
+   * Submit a task to run once it has the earliest deadline of the ready high priority tasks. 
+   * The {@link ListenableFuture#get()} will return {@code null} once the runnable has completed.
+   * 
+   * @param task runnable to be executed
+   * @param deadlineInMs Milliseconds from now by which the task should have started
+   * @return a future to know when the task has completed
+   */
+  public ListenableFuture<?> submitWithDeadline(Runnable task, long deadlineInMs) {
+    return submitWithDeadline(task, null, deadlineInMs);
+  }
+  
+  /**
+   * Submit a task to run once it has the earliest deadline of the ready high priority tasks. 
+   * The {@link ListenableFuture#get()} will return the provided result once the runnable has 
+   * completed.
+   * 
+   * @param <T> type of result for future
+   * @param task runnable to be executed
+   * @param result result to be returned from resulting future .get() when runnable completes
+   * @param deadlineInMs Milliseconds from now by which the task should have started
+   * @return a future to know when the task has completed
+   */
+  public <T> ListenableFuture<T> submitWithDeadline(Runnable task, T result, long deadlineInMs) {
+    return submitWithDeadline(RunnableCallableAdapter.adapt(task, result), deadlineInMs);
+  }
+  
+  /**
+   * Submit a {@link Callable} to run once it has the earliest deadline of the ready high 
+   * priority tasks.
+   * 
+   * @param <T> type of result returned from the future
+   * @param task callable to be executed
+   * @param deadlineInMs Milliseconds from now by which the task should have started
+   * @return a future to know when the task has completed and get the result of the callable
+   */
+  public <T> ListenableFuture<T> submitWithDeadline(Callable<T> task, long deadlineInMs) {
+    ArgumentVerifier.assertNotNull(task, "task");
+    ArgumentVerifier.assertNotNegative(deadlineInMs, "deadlineInMs");
+    
+    DeadlineFutureTask<T> rf = new DeadlineFutureTask<>(task, this);
+    rf.setQueuedTask(deadlineQueueSet, doExecute(rf, deadlineInMs));
+    
+    return rf;
+  }
+  
+  /**
+   * Adds a task with an explicit deadline to be executed.
+   * 
+   * @param task Task to execute
+   * @param deadlineInMs Milliseconds from now by which the task should have started
+   * @return Wrapper that was queued
+   */
+  protected OneTimeTaskWrapper doExecute(Runnable task, long deadlineInMs) {
+    long now = Clock.accurateForwardProgressingMillis();
+    OneTimeTaskWrapper result = 
+        new DeadlineTaskWrapper(task, deadlineQueueSet, now, deadline(now, deadlineInMs), true);
+    addToExecuteQueue(deadlineQueueSet, result);
+    return result;
+  }
+  
+  private static long deadline(long now, long deadlineInMs) {
+    long result = now + deadlineInMs;
+    // avoid overflow for very large deadlines
+    return result < now ? Long.MAX_VALUE : result;
+  }
+  
+  @Override
+  protected OneTimeTaskWrapper doSchedule(Runnable task, long delayInMillis, TaskPriority priority) {
+    if (delayInMillis == 0 && priority == TaskPriority.High) {
+      long now = Clock.accurateForwardProgressingMillis();
+      OneTimeTaskWrapper result = 
+          new DeadlineTaskWrapper(task, deadlineQueueSet, now, 
+                                  deadline(now, deadlineQueueSet.defaultDeadlineInMs), false);
+      addToExecuteQueue(deadlineQueueSet, result);
+      return result;
+    } else {
+      return super.doSchedule(task, delayInMillis, priority);
+    }
+  }
+  
+  @Override
+  protected List<OneTimeTaskWrapper> doExecuteAll(List<? extends Runnable> tasks, 
+                                                  TaskPriority priority) {
+    if (priority == TaskPriority.High) {
+      // tasks must be ordered individually by deadline, so they can not be added as a batch
+      List<OneTimeTaskWrapper> result = new ArrayList<>(tasks.size());
+      for (Runnable task : tasks) {
+        result.add(doSchedule(task, 0, priority));
+      }
+      return result;
+    } else {
+      return super.doExecuteAll(tasks, priority);
+    }
+  }
+  
+  @Override
+  public int getWaitingForExecutionTaskCount(TaskPriority priority) {
+    if (priority == TaskPriority.High) {
+      return super.getWaitingForExecutionTaskCount(priority) + 
+               deadlineQueueSet.deadlineQueue.size();
+    } else {
+      return super.getWaitingForExecutionTaskCount(priority);
+    }
+  }
+  
+  /**
+   * {@link ListenableFutureTask} which can be failed if its deadline passes before it can 
+   * execute.
+   * 
+   * @since 5.30
+   * @param <T> The result object type returned by this future
+   */
+  protected static class DeadlineFutureTask<T> extends QueuedFutureTask<T> {
+    public DeadlineFutureTask(Callable<T> task, Executor executingExecutor) {
+      super(task, executingExecutor);
+    }
+    
+    /**
+     * Completes the future with the provided failure, without executing the task.
+     * 
+     * @param failure Failure to provide to the future
+     */
+    protected void expire(Throwable failure) {
+      setException(failure);
+    }
+  }
+  
+  /**
+   * Task wrapper for tasks which are ordered by their deadline.  These tasks are always ready 
+   * to execute.
+   * 
+   * @since 5.30
+   */
+  protected static class DeadlineTaskWrapper extends OneTimeTaskWrapper {
+    protected final DeadlineQueueSet queueSet;
+    protected final long deadline;
+    protected final long sequence;
+    protected final boolean expirable;
+    
+    /**
+     * Constructs a new wrapper for a task to be added to the provided queue set.
+     * 
+     * @param task Task to execute
+     * @param queueSet Queue set the task will be added to
+     * @param runTime Time the task was submitted
+     * @param deadline Time by which the task should have started
+     * @param expirable {@code true} if the {@link ExpiredTaskPolicy} should apply to this task
+     */
+    protected DeadlineTaskWrapper(Runnable task, DeadlineQueueSet queueSet, long runTime, 
+                                  long deadline, boolean expirable) {
+      super(task, queueSet.deadlineQueue, runTime);
+      
+      this.queueSet = queueSet;
+      this.deadline = deadline;
+      this.sequence = queueSet.sequence.getAndIncrement();
+      this.expirable = expirable;
+    }
+    
+    @Override
+    public long getScheduleDelay() {
+      // always ready, avoid the clock check
+      return 0;
+    }
+    
+    @Override
+    public void runTask() {
+      if (expirable && ! invalidated && 
+          queueSet.expiredTaskPolicy != ExpiredTaskPolicy.Execute && 
+          Clock.accurateForwardProgressingMillis() > deadline) {
+        queueSet.handleExpiredTask(this);
+      } else {
+        super.runTask();
+      }
+    }
+  }
+  
+  /**
+   * Queue which keeps {@link DeadlineTaskWrapper}'s sorted by their deadline, with tasks that 
+   * have the same deadline ordered by when they were submitted.  Adding, removing, and polling 
+   * are all {@code O(log n)}.
+   * 
+   * @since 5.30
+   */
+  protected static class DeadlineQueue extends AbstractQueue<DeadlineTaskWrapper> {
+    protected static final Comparator<DeadlineTaskWrapper> DEADLINE_COMPARATOR = (t1, t2) -> {
+      int result = Long.compare(t1.deadline, t2.deadline);
+      return result == 0 ? Long.compare(t1.sequence, t2.sequence) : result;
+    };
+    
+    protected final ConcurrentSkipListMap<DeadlineTaskWrapper, Boolean> tasks = 
+        new ConcurrentSkipListMap<>(DEADLINE_COMPARATOR);
+    
+    @Override
+    public boolean offer(DeadlineTaskWrapper task) {
+      tasks.put(task, Boolean.TRUE);
+      return true;
+    }
+    
+    @Override
+    public DeadlineTaskWrapper poll() {
+      Map.Entry<DeadlineTaskWrapper, Boolean> first = tasks.pollFirstEntry();
+      return first == null ? null : first.getKey();
+    }
+    
+    @Override
+    public DeadlineTaskWrapper peek() {
+      Map.Entry<DeadlineTaskWrapper, Boolean> first = tasks.firstEntry();
+      return first == null ? null : first.getKey();
+    }
+    
+    @Override
+    public boolean remove(Object o) {
+      return o instanceof DeadlineTaskWrapper && tasks.remove(o) != null;
+    }
+    
+    @Override
+    public boolean isEmpty() {
+      return tasks.isEmpty();
+    }
+    
+    @Override
+    public Iterator<DeadlineTaskWrapper> iterator() {
+      return tasks.keySet().iterator();
+    }
+    
+    @Override
+    public int size() {
+      return tasks.size();
+    }
+    
+    @Override
+    public void clear() {
+      tasks.clear();
+    }
+  }
+  
+  /**
+   * Implementation of {@link QueueSet} which provides tasks in order of their deadline. 
+   * {@link DeadlineTaskWrapper}'s are stored in a {@link DeadlineQueue}, while any other tasks 
+   * added for execution (for example internal tasks) are treated as if they were submitted with 
+   * the default deadline.  Delayed and recurring tasks once ready are also treated as if they 
+   * were submitted with the default deadline when they became ready.
+   * 
+   * @since 5.30
+   */
+  protected static class DeadlineQueueSet extends QueueSet {
+    protected final DeadlineQueue deadlineQueue;
+    protected final ExpiredTaskPolicy expiredTaskPolicy;
+    protected final long defaultDeadlineInMs;
+    protected final AtomicLong sequence;
+    protected final LongAdder expiredTaskCount;
+    
+    /**
+     * Constructs a new {@link DeadlineQueueSet}.
+     * 
+     * @param queueListener Listener to be invoked when the head of the queue set changes
+     * @param expiredTaskPolicy Policy for tasks whose deadline has passed before they could start
+     * @param defaultDeadlineInMs Deadline for tasks which were not provided one
+     */
+    public DeadlineQueueSet(QueueSetListener queueListener, ExpiredTaskPolicy expiredTaskPolicy, 
+                            long defaultDeadlineInMs) {
+      super(queueListener);
+      
+      ArgumentVerifier.assertNotNull(expiredTaskPolicy, "expiredTaskPolicy");
+      ArgumentVerifier.assertNotNegative(defaultDeadlineInMs, "defaultDeadlineInMs");
+      
+      this.deadlineQueue = new DeadlineQueue();
+      this.expiredTaskPolicy = expiredTaskPolicy;
+      this.defaultDeadlineInMs = defaultDeadlineInMs;
+      this.sequence = new AtomicLong();
+      this.expiredTaskCount = new LongAdder();
+    }
+    
+    @Override
+    public void addExecute(OneTimeTaskWrapper task) {
+      if (task.taskQueue == deadlineQueue) {
+        deadlineQueue.add((DeadlineTaskWrapper)task);
+        
+        queueListener.handleQueueUpdate();
+      } else {
+        super.addExecute(task);
+      }
+    }
+    
+    /**
+     * Invoked when a task is taken for execution after its deadline has passed, and the 
+     * {@link ExpiredTaskPolicy} indicates it should not be executed.
+     * 
+     * @param task Task which has expired
+     */
+    protected void handleExpiredTask(DeadlineTaskWrapper task) {
+      expiredTaskCount.increment();
+      
+      if (expiredTaskPolicy == ExpiredTaskPolicy.Drop) {
+        if (task.task instanceof Future) {
+          ((Future<?>)task.task).cancel(false);
+        }
+      } else {
+        TimeoutException failure = 
+            new TimeoutException("Deadline passed " + 
+                                   (Clock.lastKnownForwardProgressingMillis() - task.deadline) + 
+                                   "ms before task could start");
+        if (task.task instanceof DeadlineFutureTask) {
+          ((DeadlineFutureTask<?>)task.task).expire(failure);
+        } else {
+          ExceptionUtils.handleException(failure);
+        }
+      }
+    }
+    
+    private long deadline(TaskWrapper task) {
+      if (task instanceof DeadlineTaskWrapper) {
+        return ((DeadlineTaskWrapper)task).deadline;
+      }
+      long runTime = task.getPureRunTime();
+      long result = runTime + defaultDeadlineInMs;
+      return result < runTime ? Long.MAX_VALUE : result;
+    }
+    
+    @Override
+    public TaskWrapper getNextTask() {
+      TaskWrapper nextTask = deadlineQueue.peek();
+      TaskWrapper executeTask = executeQueue.peek();
+      if (executeTask != null && 
+          (nextTask == null || deadline(executeTask) < deadline(nextTask))) {
+        nextTask = executeTask;
+      }
+      TaskWrapper scheduledTask = peekScheduled();
+      if (scheduledTask != null) {
+        if (nextTask == null) {
+          // may not be ready, but it is the next task to run
+          nextTask = scheduledTask;
+        } else if (scheduledTask.getScheduleDelay() <= 0 && 
+                   deadline(scheduledTask) < deadline(nextTask)) {
+          nextTask = scheduledTask;
+        }
+      }
+      return nextTask;
+    }
+    
+    @Override
+    public boolean remove(Runnable task) {
+      Iterator<DeadlineTaskWrapper> it = deadlineQueue.iterator();
+      while (it.hasNext()) {
+        TaskWrapper tw = it.next();
+        if (ContainerHelper.isContained(tw.task, task) && deadlineQueue.remove(tw)) {
+          tw.invalidate();
+          return true;
+        }
+      }
+      return super.remove(task);
+    }
+    
+    @Override
+    public boolean remove(Callable<?> task) {
+      Iterator<DeadlineTaskWrapper> it = deadlineQueue.iterator();
+      while (it.hasNext()) {
+        TaskWrapper tw = it.next();
+        if (ContainerHelper.isContained(tw.task, task) && deadlineQueue.remove(tw)) {
+          tw.invalidate();
+          return true;
+        }
+      }
+      return super.remove(task);
+    }
+    
+    @Override
+    public boolean removeTask(TaskWrapper task) {
+      if (task instanceof DeadlineTaskWrapper) {
+        // unlike the execute queue, removal from the deadline queue is cheap
+        if (deadlineQueue.remove(task)) {
+          task.invalidate();
+          return true;
+        } else {
+          return false;
+        }
+      }
+      return super.removeTask(task);
+    }
+    
+    @Override
+    protected int removeIfFromExecuteQueue(Predicate<? super Runnable> filter) {
+      int result = super.removeIfFromExecuteQueue(filter);
+      Iterator<DeadlineTaskWrapper> it = deadlineQueue.iterator();
+      while (it.hasNext()) {
+        TaskWrapper tw = it.next();
+        if (ContainerHelper.isContained(tw.task, filter) && deadlineQueue.remove(tw)) {
+          tw.invalidate();
+          result++;
+        }
+      }
+      return result;
+    }
+    
+    @Override
+    public int queueSize() {
+      return super.queueSize() + deadlineQueue.size();
+    }
+    
+    @Override
+    public void drainQueueInto(List<TaskWrapper> removedTasks) {
+      clearQueue(deadlineQueue, removedTasks);
+      super.drainQueueInto(removedTasks);
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package org.threadly.concurrent;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.atomic.AtomicReference;
@@ -29,8 +30,9 @@ public class NoThreadScheduler extends AbstractPriorityScheduler {
   protected final QueueSetListener queueListener;
   protected final QueueManager queueManager;
   protected final AtomicReference<Thread> blockingThread;
+  protected final WaitStrategy waitStrategy;
   private volatile boolean tickRunning;
-  private volatile boolean tickCanceled;
+  protected volatile boolean tickCanceled;
   
   /**
    * Constructs a new {@link NoThreadScheduler} scheduler.
@@ -46,18 +48,59 @@ public class NoThreadScheduler extends AbstractPriorityScheduler {
    * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
    */
   public NoThreadScheduler(TaskPriority defaultPriority, long maxWaitForLowPriorityInMs) {
+    this(defaultPriority, maxWaitForLowPriorityInMs, false);
+  }
+  
+  /**
+   * Constructs a new {@link NoThreadScheduler} scheduler with specified default priority behavior.
+   * <p>
+   * If {@code useTimingWheel} is {@code true} delayed and recurring tasks will be stored in a 
+   * hierarchical timing wheel rather than a sorted array.  This makes scheduling and rescheduling 
+   * constant time operations, as is removing a task through its wrapper (for example when a 
+   * returned future is cancelled).  Removing a task by its runnable or callable still searches the 
+   * queue.  This should be preferred when a large number of delayed or recurring tasks are 
+   * expected to be queued at once.
+   * 
+   * @since 5.30
+   * @param defaultPriority Default priority for tasks which are submitted without any specified priority
+   * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
+   * @param useTimingWheel {@code true} to store scheduled tasks in a timing wheel
+   */
+  public NoThreadScheduler(TaskPriority defaultPriority, long maxWaitForLowPriorityInMs, 
+                           boolean useTimingWheel) {
+    this(defaultPriority, maxWaitForLowPriorityInMs, useTimingWheel, null);
+  }
+  
+  /**
+   * Constructs a new {@link NoThreadScheduler} scheduler with specified default priority behavior.
+   * <p>
+   * If {@code useTimingWheel} is {@code true} delayed and recurring tasks will be stored in a 
+   * hierarchical timing wheel rather than a sorted array.
+   * <p>
+   * The provided {@link WaitStrategy} controls how {@link #blockingTick(ExceptionHandler)} waits 
+   * when there are no tasks ready to run.  By default it will block immediately, but latency 
+   * sensitive uses may choose to spin for a time so that newly submitted tasks can be picked up 
+   * without needing to wake the blocking thread.
+   * 
+   * @since 5.30
+   * @param defaultPriority Default priority for tasks which are submitted without any specified priority
+   * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
+   * @param useTimingWheel {@code true} to store scheduled tasks in a timing wheel
+   * @param waitStrategy Strategy for waiting for tasks, or {@code null} to block till woken
+   */
+  public NoThreadScheduler(TaskPriority defaultPriority, long maxWaitForLowPriorityInMs, 
+                           boolean useTimingWheel, WaitStrategy waitStrategy) {
     super(defaultPriority);
     
     queueManager = new QueueManager(queueListener = new QueueSetListener() {
       @Override
       public void handleQueueUpdate() {
-        Thread t = blockingThread.get();
-        if (t != null) {
-          LockSupport.unpark(t);
-        }
+        wakeBlockedTick();
       }
-    }, maxWaitForLowPriorityInMs);
+    }, maxWaitForLowPriorityInMs, useTimingWheel);
     blockingThread = new AtomicReference<>(null);
+    this.waitStrategy = 
+        waitStrategy == null ? WaitStrategy.ParkWaitStrategy.instance() : waitStrategy;
     tickRunning = false;
     tickCanceled = false;
     
@@ -80,6 +123,22 @@ public class NoThreadScheduler extends AbstractPriorityScheduler {
     }
   }
   
+  /**
+   * Invoked when the queue has been updated, or a tick has been canceled, so that a thread 
+   * blocked in {@link #blockingTick(ExceptionHandler)} can check for tasks again.  This can be 
+   * overridden by implementations which block on something other than {@link LockSupport}.  This 
+   * may be invoked frequently and from any thread, so implementations should be cheap when there 
+   * is no thread blocked.
+   * 
+   * @since 5.30
+   */
+  protected void wakeBlockedTick() {
+    Thread t = blockingThread.get();
+    if (t != null) {
+      LockSupport.unpark(t);
+    }
+  }
+  
   /**
    * Call to cancel current or the next tick call.  If currently in a 
    * {@link #tick(ExceptionHandler)} call (weather blocking waiting for tasks, or currently running 
@@ -122,6 +181,37 @@ public class NoThreadScheduler extends AbstractPriorityScheduler {
     return tick(exceptionHandler, true);
   }
   
+  /**
+   * This is similar to {@link #tick(ExceptionHandler)}, except that it will stop running tasks 
+   * once either the provided quantity of tasks has been run, or the provided time has elapsed.  
+   * This allows a thread which is also responsible for other work to bound how long it will spend 
+   * running tasks from this scheduler.
+   * <p>
+   * The budgets are checked before each task is taken from the queue, so a task which has 
+   * started will always be allowed to complete (meaning the time budget may be exceeded by the 
+   * duration of the last task).  Tasks which are not run remain queued in their original order, 
+   * and will be run according to the normal priority rules on the next tick.  
+   * {@link #hasTaskReadyToRun()} can be used after this returns to check if the budget was 
+   * exhausted with work still ready to run.
+   * <p>
+   * Like {@link #tick(ExceptionHandler)} this is NOT thread safe, and must only be invoked by one 
+   * thread at a time.
+   * 
+   * @since 5.30
+   * @param exceptionHandler Exception handler implementation to call if any tasks throw an 
+   *                           exception, or null to have exceptions thrown out of this call
+   * @param maxTasks Maximum quantity of tasks to run, must be greater than zero
+   * @param maxNanos Maximum time to spend running tasks in nanoseconds, or {@link Long#MAX_VALUE} 
+   *                   for no time limit
+   * @return quantity of tasks run during this tick invocation
+   */
+  public int tick(ExceptionHandler exceptionHandler, int maxTasks, long maxNanos) {
+    ArgumentVerifier.assertGreaterThanZero(maxTasks, "maxTasks");
+    ArgumentVerifier.assertGreaterThanZero(maxNanos, "maxNanos");
+    
+    return tick(exceptionHandler, true, maxTasks, maxNanos);
+  }
+  
   /**
    * Internal tick implementation.  Allowing control on if the cancelTick boolean should be reset 
    * if no tasks are run.  Thus allowing for an optimistic attempt to run tasks, while maintaining 
@@ -133,12 +223,34 @@ public class NoThreadScheduler extends AbstractPriorityScheduler {
    *                                      not, otherwise cancelTick will only be reset if tasks ran 
    * @return quantity of tasks run during this tick invocation
    */
-  private int tick(ExceptionHandler exceptionHandler, boolean resetCancelTickIfNoTasksRan) {
+  protected int tick(ExceptionHandler exceptionHandler, boolean resetCancelTickIfNoTasksRan) {
+    return tick(exceptionHandler, resetCancelTickIfNoTasksRan, Integer.MAX_VALUE, Long.MAX_VALUE);
+  }
+  
+  /**
+   * Internal tick implementation which will stop once either budget has been exhausted.  The 
+   * budgets are checked before a task is taken from the queue so that tasks which are not run 
+   * maintain their position.
+   * 
+   * @param exceptionHandler Exception handler implementation to call if any tasks throw an 
+   *                           exception, or null to have exceptions thrown out of this call
+   * @param resetCancelTickIfNoTasksRan if {@code true} will reset cancelTick weather tasks ran or 
+   *                                      not, otherwise cancelTick will only be reset if tasks ran 
+   * @param maxTasks Maximum quantity of tasks to run
+   * @param maxNanos Maximum time to spend running tasks, or {@link Long#MAX_VALUE} for no limit
+   * @return quantity of tasks run during this tick invocation
+   */
+  private int tick(ExceptionHandler exceptionHandler, boolean resetCancelTickIfNoTasksRan, 
+                   int maxTasks, long maxNanos) {
+    // avoid reading the clock when there is no time budget
+    long startNanos = maxNanos == Long.MAX_VALUE ? 0 : System.nanoTime();
     int tasks = 0;
     TaskWrapper nextTask;
     tickRunning = true;
     try {
-      while ((nextTask = getNextReadyTask()) != null && ! tickCanceled) {
+      while (tasks < maxTasks && 
+             (maxNanos == Long.MAX_VALUE || System.nanoTime() - startNanos < maxNanos) && 
+             (nextTask = getNextReadyTask()) != null && ! tickCanceled) {
         // call will remove task from queue, or reposition as necessary
         // we can cheat with the execution reference since task de-queue is single threaded
         if (nextTask.canExecute(nextTask.getExecuteReference())) {
@@ -195,7 +307,39 @@ public class NoThreadScheduler extends AbstractPriorityScheduler {
    * @throws InterruptedException thrown if thread is interrupted waiting for task to run
    */
   public int blockingTick(ExceptionHandler exceptionHandler) throws InterruptedException {
-    int initialTickResult = tick(exceptionHandler, false);
+    return doBlockingTick(exceptionHandler, Integer.MAX_VALUE, Long.MAX_VALUE);
+  }
+  
+  /**
+   * This is similar to {@link #blockingTick(ExceptionHandler)}, except that once tasks are ready 
+   * it will stop running them once either the provided quantity of tasks has been run, or the 
+   * provided time has elapsed.  Time spent blocking for a task to become ready does not count 
+   * against the time budget.  See {@link #tick(ExceptionHandler, int, long)} for details on how 
+   * the budgets are applied.
+   * <p>
+   * It is CRITICAL that only one thread at a time calls the {@link #tick(ExceptionHandler)} OR 
+   * {@link #blockingTick(ExceptionHandler)} variants.
+   * 
+   * @since 5.30
+   * @param exceptionHandler Exception handler implementation to call if any tasks throw an 
+   *                           exception, or null to have exceptions thrown out of this call
+   * @param maxTasks Maximum quantity of tasks to run, must be greater than zero
+   * @param maxNanos Maximum time to spend running tasks in nanoseconds, or {@link Long#MAX_VALUE} 
+   *                   for no time limit
+   * @return quantity of tasks run during this tick invocation
+   * @throws InterruptedException thrown if thread is interrupted waiting for task to run
+   */
+  public int blockingTick(ExceptionHandler exceptionHandler, 
+                          int maxTasks, long maxNanos) throws InterruptedException {
+    ArgumentVerifier.assertGreaterThanZero(maxTasks, "maxTasks");
+    ArgumentVerifier.assertGreaterThanZero(maxNanos, "maxNanos");
+    
+    return doBlockingTick(exceptionHandler, maxTasks, maxNanos);
+  }
+  
+  private int doBlockingTick(ExceptionHandler exceptionHandler, 
+                             int maxTasks, long maxNanos) throws InterruptedException {
+    int initialTickResult = tick(exceptionHandler, false, maxTasks, maxNanos);
     if (initialTickResult == 0) {
       Thread currentThread = Thread.currentThread();
       // we already tried to optimistically run something above, so we now must prepare to park
@@ -203,6 +347,7 @@ public class NoThreadScheduler extends AbstractPriorityScheduler {
       if (! blockingThread.compareAndSet(null, currentThread)) {
         throw new IllegalStateException("Another thread is already blocking!!");
       }
+      int idleCount = 0;
       try {
         while (true) {
           /* we must check the cancelTick once we have the lock 
@@ -216,16 +361,22 @@ public class NoThreadScheduler extends AbstractPriorityScheduler {
           }
           TaskWrapper nextTask = queueManager.getNextTask();
           if (nextTask == null) {
-              LockSupport.park();
+            waitStrategy.idle(idleCount, Long.MAX_VALUE);
           } else {
             long nextTaskDelay = nextTask.getScheduleDelay();
             if (nextTaskDelay > 0) {
-              LockSupport.parkNanos(Clock.NANOS_IN_MILLISECOND * nextTaskDelay);
+              waitStrategy.idle(idleCount, Clock.NANOS_IN_MILLISECOND * nextTaskDelay);
             } else {
               // task is ready to run, so break loop
+              if (idleCount > 0) {
+                waitStrategy.taskFound(idleCount);
+              }
               break;
             }
           }
+          if (idleCount < Integer.MAX_VALUE) {
+            idleCount++;
+          }
         }
       } finally {
         // lazy set should be safe here as a CAS operation (the only read done for this atomic) 
@@ -238,7 +389,7 @@ public class NoThreadScheduler extends AbstractPriorityScheduler {
         blockingThread.lazySet(null);
       }
       
-      return tick(exceptionHandler, true);
+      return tick(exceptionHandler, true, maxTasks, maxNanos);
     } else {
       return initialTickResult;
     }
@@ -252,12 +403,26 @@ public class NoThreadScheduler extends AbstractPriorityScheduler {
       queueSet.addExecute((result = new NoThreadOneTimeTaskWrapper(task, queueSet.executeQueue, 
                                                                    nowInMillis(false))));
     } else {
-      queueSet.addScheduled((result = new NoThreadOneTimeTaskWrapper(task, queueSet.scheduleQueue, 
+      queueSet.addScheduled((result = new NoThreadOneTimeTaskWrapper(task, 
+                                                                     queueSet.getScheduleTaskQueue(), 
                                                                      nowInMillis(true) + delayInMillis)));
     }
     return result;
   }
 
+  @Override
+  protected List<OneTimeTaskWrapper> doExecuteAll(List<? extends Runnable> tasks, 
+                                                  TaskPriority priority) {
+    QueueSet queueSet = queueManager.getQueueSet(priority);
+    long now = nowInMillis(false);
+    List<OneTimeTaskWrapper> result = new ArrayList<>(tasks.size());
+    for (Runnable task : tasks) {
+      result.add(new NoThreadOneTimeTaskWrapper(task, queueSet.executeQueue, now));
+    }
+    queueSet.addExecuteAll(result);
+    return result;
+  }
+
   @Override
   public void scheduleWithFixedDelay(Runnable task, long initialDelay, long recurringDelay,
                                      TaskPriority priority) {
@@ -345,7 +510,7 @@ public class NoThreadScheduler extends AbstractPriorityScheduler {
   
   private static boolean hasTaskReadyToRun(QueueSet queueSet) {
     if (queueSet.executeQueue.isEmpty()) {
-      TaskWrapper headTask = queueSet.scheduleQueue.peekFirst();
+      TaskWrapper headTask = queueSet.peekScheduled();
       return headTask != null && headTask.getScheduleDelay() <= 0;
     } else {
       return true;
@@ -1,13 +1,21 @@
 package org.threadly.concurrent;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
 
 import org.threadly.util.AbstractService;
 import org.threadly.util.ArgumentVerifier;
@@ -39,6 +47,7 @@ import org.threadly.util.Clock;
  */
 public class PriorityScheduler extends AbstractPriorityScheduler {
   protected static final boolean DEFAULT_NEW_THREADS_DAEMON = true;
+  protected static final long DEFAULT_KEEP_ALIVE_TIME_IN_MS = 60_000;
   
   protected final WorkerPool workerPool;
   protected final QueueManager taskQueueManager;
@@ -110,13 +119,66 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
    */
   public PriorityScheduler(int poolSize, TaskPriority defaultPriority, 
                            long maxWaitForLowPriorityInMs, ThreadFactory threadFactory) {
-    this(new WorkerPool(threadFactory, poolSize), 
-         defaultPriority, maxWaitForLowPriorityInMs);
+    this(poolSize, defaultPriority, maxWaitForLowPriorityInMs, threadFactory, false);
+  }
+
+  /**
+   * Constructs a new thread pool, though threads will be lazily started as it has tasks ready to 
+   * run.  This provides the extra parameters to tune what tasks submitted without a priority 
+   * will be scheduled as.  As well as the maximum wait for low priority tasks.
+   * <p>
+   * If {@code useTimingWheel} is {@code true} delayed and recurring tasks will be stored in a 
+   * hierarchical timing wheel rather than a sorted array.  This makes scheduling and rescheduling 
+   * constant time operations, as is removing a task through its wrapper (for example when a 
+   * returned future is cancelled).  Removing a task by its runnable or callable still searches the 
+   * queue.  This should be preferred when a large number of delayed or recurring tasks are 
+   * expected to be queued at once.
+   * 
+   * @since 5.30
+   * @param poolSize Thread pool size that should be maintained
+   * @param defaultPriority Default priority for tasks which are submitted without any specified priority
+   * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
+   * @param threadFactory thread factory for producing new threads within executor
+   * @param useTimingWheel {@code true} to store scheduled tasks in a timing wheel
+   */
+  public PriorityScheduler(int poolSize, TaskPriority defaultPriority, 
+                           long maxWaitForLowPriorityInMs, ThreadFactory threadFactory, 
+                           boolean useTimingWheel) {
+    this(poolSize, defaultPriority, maxWaitForLowPriorityInMs, threadFactory, 
+         useTimingWheel, null);
+  }
+
+  /**
+   * Constructs a new thread pool, though threads will be lazily started as it has tasks ready to 
+   * run.  This provides the extra parameters to tune what tasks submitted without a priority 
+   * will be scheduled as.  As well as the maximum wait for low priority tasks.
+   * <p>
+   * If {@code useTimingWheel} is {@code true} delayed and recurring tasks will be stored in a 
+   * hierarchical timing wheel rather than a sorted array (see 
+   * {@link #PriorityScheduler(int, TaskPriority, long, ThreadFactory, boolean)}).
+   * <p>
+   * The provided {@link WorkerOptions} can enable work stealing, recycling of task wrappers, or 
+   * set how idle workers wait for tasks.  The options are read during construction, so changing 
+   * them afterwards has no effect on this scheduler.
+   * 
+   * @since 5.30
+   * @param poolSize Thread pool size that should be maintained
+   * @param defaultPriority Default priority for tasks which are submitted without any specified priority
+   * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
+   * @param threadFactory thread factory for producing new threads within executor
+   * @param useTimingWheel {@code true} to store scheduled tasks in a timing wheel
+   * @param workerOptions Options for how workers consume tasks, or {@code null} for the defaults
+   */
+  public PriorityScheduler(int poolSize, TaskPriority defaultPriority, 
+                           long maxWaitForLowPriorityInMs, ThreadFactory threadFactory, 
+                           boolean useTimingWheel, WorkerOptions workerOptions) {
+    this(new WorkerPool(threadFactory, poolSize, workerOptions), 
+         defaultPriority, maxWaitForLowPriorityInMs, useTimingWheel);
   }
   
   /**
    * This constructor is designed for extending classes to be able to provide their own 
-   * implementation of {@link WorkerPool}.  Ultimately all constructors will defer to this one.
+   * implementation of {@link WorkerPool}.
    * 
    * @param workerPool WorkerPool to handle accepting tasks and providing them to a worker for execution
    * @param defaultPriority Default priority to store in case no priority is provided for tasks
@@ -124,10 +186,42 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
    */
   protected PriorityScheduler(WorkerPool workerPool, TaskPriority defaultPriority, 
                               long maxWaitForLowPriorityInMs) {
+    this(workerPool, defaultPriority, maxWaitForLowPriorityInMs, false);
+  }
+  
+  /**
+   * This constructor is designed for extending classes to be able to provide their own 
+   * implementation of {@link WorkerPool}.
+   * 
+   * @since 5.30
+   * @param workerPool WorkerPool to handle accepting tasks and providing them to a worker for execution
+   * @param defaultPriority Default priority to store in case no priority is provided for tasks
+   * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
+   * @param useTimingWheel {@code true} to store scheduled tasks in a timing wheel
+   */
+  protected PriorityScheduler(WorkerPool workerPool, TaskPriority defaultPriority, 
+                              long maxWaitForLowPriorityInMs, boolean useTimingWheel) {
+    this(workerPool, defaultPriority, 
+         new QueueManager(workerPool, maxWaitForLowPriorityInMs, useTimingWheel));
+  }
+  
+  /**
+   * This constructor is designed for extending classes to be able to provide their own 
+   * implementation of {@link WorkerPool} and {@link QueueManager}.  Ultimately all constructors 
+   * will defer to this one.  The provided {@link QueueManager} must have been constructed with 
+   * the {@link WorkerPool} as its {@link QueueSetListener}.
+   * 
+   * @since 5.30
+   * @param workerPool WorkerPool to handle accepting tasks and providing them to a worker for execution
+   * @param defaultPriority Default priority to store in case no priority is provided for tasks
+   * @param queueManager QueueManager the WorkerPool will source tasks from
+   */
+  protected PriorityScheduler(WorkerPool workerPool, TaskPriority defaultPriority, 
+                              QueueManager queueManager) {
     super(defaultPriority);
     
     this.workerPool = workerPool;
-    taskQueueManager = new QueueManager(workerPool, maxWaitForLowPriorityInMs);
+    taskQueueManager = queueManager;
     
     workerPool.start(taskQueueManager);
   }
@@ -180,6 +274,78 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
     workerPool.adjustPoolSize(delta);
   }
   
+  /**
+   * Getter for the core pool size.  Threads beyond this size will be stopped once they have been 
+   * idle for longer than the keep alive time (see {@link #setKeepAliveTime(long)}).  Until set 
+   * lower, the core pool size will follow the max pool size, so threads are never stopped for 
+   * being idle.
+   * 
+   * @since 5.30
+   * @return current core pool size
+   */
+  public int getCorePoolSize() {
+    return workerPool.getCorePoolSize();
+  }
+  
+  /**
+   * Change the core pool size.  Once set lower than the max pool size, threads which were started 
+   * to handle a burst of tasks will be stopped once they have been idle for longer than the keep 
+   * alive time, until the pool has reduced to the core size.  If the max pool size is later set 
+   * lower than the core size, the core size will be reduced to match.
+   * 
+   * @since 5.30
+   * @param newCorePoolSize New core pool size, must be at least one and no greater than the max pool size
+   */
+  public void setCorePoolSize(int newCorePoolSize) {
+    workerPool.setCorePoolSize(newCorePoolSize);
+  }
+  
+  /**
+   * Getter for how long a thread beyond the core pool size may be idle before it is stopped.
+   * 
+   * @since 5.30
+   * @return Keep alive time in milliseconds
+   */
+  public long getKeepAliveTime() {
+    return workerPool.getKeepAliveTime();
+  }
+  
+  /**
+   * Change how long a thread beyond the core pool size may be idle before it is stopped.  This 
+   * has no effect unless the core pool size is lower than the max pool size (see 
+   * {@link #setCorePoolSize(int)}).  The default keep alive time is 60 seconds.
+   * 
+   * @since 5.30
+   * @param keepAliveTimeInMs Time in milliseconds a thread may be idle, zero to stop immediately
+   */
+  public void setKeepAliveTime(long keepAliveTimeInMs) {
+    workerPool.setKeepAliveTime(keepAliveTimeInMs);
+  }
+  
+  /**
+   * Returns the total number of threads which have been started by this pool.  Comparing this 
+   * with {@link #getRetiredThreadCount()} can be used to tune the core size and keep alive time 
+   * to balance thread churn against idle threads.
+   * 
+   * @since 5.30
+   * @return Quantity of threads started
+   */
+  public long getCreatedThreadCount() {
+    return workerPool.getCreatedWorkerCount();
+  }
+  
+  /**
+   * Returns the total number of threads which have been stopped, either because they were idle 
+   * beyond the keep alive time, or because the pool size was reduced.  Threads stopped due to the 
+   * pool shutting down are not included.
+   * 
+   * @since 5.30
+   * @return Quantity of threads retired
+   */
+  public long getRetiredThreadCount() {
+    return workerPool.getRetiredWorkerCount();
+  }
+  
   /**
    * Call to check how many tasks are currently being executed in this thread pool.  Unlike 
    * {@link #getCurrentPoolSize()}, this count will NOT include idle threads waiting to execute 
@@ -235,6 +401,7 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
   public List<Runnable> shutdownNow() {
     workerPool.startShutdown();
     List<Runnable> awaitingTasks = taskQueueManager.clearQueue();
+    workerPool.drainLocalQueuesInto(awaitingTasks);
     workerPool.finishShutdown();
     
     return awaitingTasks;
@@ -266,13 +433,74 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
   @Override
   public int getQueuedTaskCount() {
     // subtract one for hack task for spin issue
-    return super.getQueuedTaskCount() - 1;
+    return super.getQueuedTaskCount() - 1 + workerPool.getLocalQueuedTaskCount();
   }
   
   @Override
   public int getQueuedTaskCount(TaskPriority priority) {
-    // subtract one from starvable count for hack task for spin issue
-    return super.getQueuedTaskCount(priority) - (priority == TaskPriority.Starvable ? 1 : 0);
+    if (priority == null) {
+      return getQueuedTaskCount();
+    } else if (priority == TaskPriority.High) {
+      return super.getQueuedTaskCount(priority) + workerPool.getLocalQueuedTaskCount();
+    } else {
+      // subtract one from starvable count for hack task for spin issue
+      return super.getQueuedTaskCount(priority) - (priority == TaskPriority.Starvable ? 1 : 0);
+    }
+  }
+  
+  @Override
+  public int getWaitingForExecutionTaskCount(TaskPriority priority) {
+    if (priority == TaskPriority.High) {
+      return super.getWaitingForExecutionTaskCount(priority) + 
+               workerPool.getLocalQueuedTaskCount();
+    } else {
+      return super.getWaitingForExecutionTaskCount(priority);
+    }
+  }
+  
+  @Override
+  public boolean remove(Runnable task) {
+    TaskWrapperPool wrapperPool = workerPool.taskWrapperPool;
+    if (wrapperPool != null) {
+      wrapperPool.removalStarted();
+    }
+    try {
+      return super.remove(task) || workerPool.removeLocalTask(task);
+    } finally {
+      if (wrapperPool != null) {
+        wrapperPool.removalFinished();
+      }
+    }
+  }
+  
+  @Override
+  public boolean remove(Callable<?> task) {
+    TaskWrapperPool wrapperPool = workerPool.taskWrapperPool;
+    if (wrapperPool != null) {
+      wrapperPool.removalStarted();
+    }
+    try {
+      return super.remove(task) || workerPool.removeLocalTask(task);
+    } finally {
+      if (wrapperPool != null) {
+        wrapperPool.removalFinished();
+      }
+    }
+  }
+  
+  @Override
+  public int removeIf(Predicate<? super Runnable> filter) {
+    TaskWrapperPool wrapperPool = workerPool.taskWrapperPool;
+    if (wrapperPool != null) {
+      wrapperPool.removalStarted();
+    }
+    try {
+      return super.removeIf(filter) + workerPool.removeLocalTasks(filter);
+    } finally {
+      if (wrapperPool != null) {
+        wrapperPool.removalFinished();
+      }
+    }
   }
 
   @Override
@@ -280,17 +508,58 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
     QueueSet queueSet = taskQueueManager.getQueueSet(priority);
     OneTimeTaskWrapper result;
     if (delayInMillis == 0) {
-      addToExecuteQueue(queueSet, 
-                        (result = new ImmediateTaskWrapper(task, queueSet.executeQueue)));
+      Worker worker;
+      if (priority == TaskPriority.High && (worker = workerPool.getCurrentWorker()) != null) {
+        addToLocalQueue(worker, (result = makeImmediateTaskWrapper(task, worker.localQueue)));
+      } else {
+        addToExecuteQueue(queueSet, 
+                          (result = makeImmediateTaskWrapper(task, queueSet.executeQueue)));
+      }
     } else {
       addToScheduleQueue(queueSet, 
-                         (result = new OneTimeTaskWrapper(task, queueSet.scheduleQueue, 
+                         (result = new OneTimeTaskWrapper(task, queueSet.getScheduleTaskQueue(), 
                                                           Clock.accurateForwardProgressingMillis() + 
                                                             delayInMillis)));
     }
     return result;
   }
 
+  /**
+   * Constructs the wrapper for a task which is ready to execute.  If recycling task wrappers is 
+   * enabled this may return a previously used wrapper, in which case the returned wrapper must 
+   * not be referenced once it has been executed.
+   * 
+   * @param task Runnable to be executed
+   * @param taskQueue Queue the wrapper will be added to
+   * @return Wrapper for the task
+   */
+  protected OneTimeTaskWrapper makeImmediateTaskWrapper(Runnable task, 
+                                                        Queue<? extends TaskWrapper> taskQueue) {
+    // futures from submit keep a reference to their wrapper for cancellation, so can't be reused
+    if (workerPool.taskWrapperPool == null || task instanceof QueuedFutureTask) {
+      return new ImmediateTaskWrapper(task, taskQueue);
+    } else {
+      return workerPool.taskWrapperPool.acquire(task, taskQueue);
+    }
+  }
+
+  @Override
+  protected List<OneTimeTaskWrapper> doExecuteAll(List<? extends Runnable> tasks, 
+                                                  TaskPriority priority) {
+    if (workerPool.isShutdownStarted()) {
+      throw new RejectedExecutionException("Thread pool shutdown");
+    }
+    
+    // batches always go to the shared queue (even from a pool thread) so they can be fanned out
+    QueueSet queueSet = taskQueueManager.getQueueSet(priority);
+    List<OneTimeTaskWrapper> result = new ArrayList<>(tasks.size());
+    for (Runnable task : tasks) {
+      result.add(new ImmediateTaskWrapper(task, queueSet.executeQueue));
+    }
+    queueSet.addExecuteAll(result);
+    return result;
+  }
+
   @Override
   public void scheduleWithFixedDelay(Runnable task, long initialDelay, 
                                      long recurringDelay, TaskPriority priority) {
@@ -342,6 +611,21 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
     queueSet.addExecute(task);
   }
   
+  /**
+   * Adds a ready task to the local queue of the worker which is currently executing.  This is 
+   * only used when work stealing is enabled, and the task was submitted from a pool thread.
+   * 
+   * @param worker Worker the task is being submitted from
+   * @param task {@link TaskWrapper} to queue for the worker
+   */
+  protected void addToLocalQueue(Worker worker, OneTimeTaskWrapper task) {
+    if (workerPool.isShutdownStarted()) {
+      throw new RejectedExecutionException("Thread pool shutdown");
+    }
+    
+    workerPool.addLocalTask(worker, task);
+  }
+  
   /**
    * Adds the ready TaskWrapper to the correct schedule queue.  Using the priority specified in the 
    * task, we pick the correct queue and add it.
@@ -369,6 +653,74 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
     return taskQueueManager;
   }
   
+  /**
+   * Options for how the workers of a {@link PriorityScheduler} consume tasks.  By default work 
+   * stealing and recycling of task wrappers are disabled, and idle workers block until woken.
+   * 
+   * @since 5.30
+   */
+  public static class WorkerOptions {
+    private boolean workStealing;
+    private WaitStrategy waitStrategy;
+    private boolean recycleTaskWrappers;
+    
+    /**
+     * Constructs a new set of options with the defaults.
+     */
+    public WorkerOptions() {
+      workStealing = false;
+      waitStrategy = null;
+      recycleTaskWrappers = false;
+    }
+    
+    /**
+     * Sets if each worker thread will have its own local queue.  High priority tasks which are 
+     * executed without a delay from a thread within the pool will be added to that local queue 
+     * rather than the shared queue.  Workers first consume from their own local queue, and once 
+     * the shared queues have no ready tasks, will steal from the local queues of other workers 
+     * before blocking.  This reduces contention on the shared queue when tasks frequently submit 
+     * follow up work, at the cost of those tasks no longer being strictly ordered against tasks 
+     * submitted from outside of the pool.  Priority ordering across the shared queues is 
+     * unaffected.
+     * 
+     * @param workStealing {@code true} to give each worker a local queue which can be stolen from
+     * @return This instance so that further options can be set
+     */
+    public WorkerOptions setWorkStealing(boolean workStealing) {
+      this.workStealing = workStealing;
+      return this;
+    }
+    
+    /**
+     * Sets how workers wait once there are no tasks ready to run.  By default workers will block 
+     * immediately, but latency sensitive pools may choose to spin for a time so that newly 
+     * submitted tasks can be picked up without needing to wake the worker thread.
+     * 
+     * @param waitStrategy Strategy for idle workers to wait, or {@code null} to block till woken
+     * @return This instance so that further options can be set
+     */
+    public WorkerOptions setWaitStrategy(WaitStrategy waitStrategy) {
+      this.waitStrategy = waitStrategy;
+      return this;
+    }
+    
+    /**
+     * Sets if the internal wrappers for tasks provided to {@code execute} without a delay will be 
+     * reused once the task has finished, rather than a new wrapper being allocated for every 
+     * task.  This reduces garbage collection pressure when a high rate of tasks are executed.  
+     * Tasks provided through {@code submit}, as well as scheduled and recurring tasks, will 
+     * always be wrapped in a new instance.  Wrappers released while a {@code remove} is in 
+     * progress will not be reused, so recycling is less effective if removals are frequent.
+     * 
+     * @param recycleTaskWrappers {@code true} to reuse the wrappers of executed tasks
+     * @return This instance so that further options can be set
+     */
+    public WorkerOptions setRecycleTaskWrappers(boolean recycleTaskWrappers) {
+      this.recycleTaskWrappers = recycleTaskWrappers;
+      return this;
+    }
+  }
+  
   /**
    * Class to manage the pool of worker threads.  This class handles creating workers, storing 
    * them, and killing them once they are ready to expire.  It also handles finding the 
@@ -377,20 +729,63 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
    * @since 3.5.0
    */
   protected static class WorkerPool implements QueueSetListener {
+    /**
+     * When work stealing, how many tasks a worker will take from its local queue before it will 
+     * check the shared queues first.  Must be a power of two.
+     */
+    protected static final int LOCAL_QUEUE_SHARED_CHECK_INTERVAL = 32;
+    
     protected final ThreadFactory threadFactory;
+    protected final WaitStrategy waitStrategy;
     protected final Object poolSizeChangeLock;
+    /**
+     * No longer used, workers leave the idle chain by marking their {@link IdleWorkerNode}.
+     * 
+     * @deprecated The idle worker chain no longer locks, this will be removed in a future release
+     */
+    @Deprecated
     protected final Object idleWorkerDequeLock;
     protected final LongAdder idleWorkerCount;
+    /**
+     * No longer maintained and will always be {@code null}, use {@link #firstIdleWorkerNode()}.
+     * 
+     * @deprecated Idle workers are tracked by {@link IdleWorkerNode}, this will be removed in a 
+     *               future release
+     */
+    @Deprecated
     protected final AtomicReference<Worker> idleWorker;
+    private final AtomicReference<IdleWorkerNode> idleWorkerChain;
     protected final AtomicInteger currentPoolSize;
     protected final Object workerStopNotifyLock;
+    protected final LongAdder createdWorkerCount;
+    protected final LongAdder retiredWorkerCount;
+    // only set when recycling task wrappers, otherwise null
+    protected final TaskWrapperPool taskWrapperPool;
     private final AtomicBoolean shutdownStarted;
     private volatile boolean shutdownFinishing; // once true, never goes to false
     private volatile int maxPoolSize;  // can only be changed when poolSizeChangeLock locked
+    private volatile int corePoolSize;  // can only be changed when poolSizeChangeLock locked
+    private volatile long keepAliveTimeMillis;
     private volatile long workerTimedParkRunTime;
     private QueueManager queueManager;  // set before any threads started
+    // below are only set when work stealing, otherwise null
+    private final ThreadLocal<Worker> currentWorker;
+    private final Object stealableWorkersLock;
+    private volatile Worker[] stealableWorkers;
     
     protected WorkerPool(ThreadFactory threadFactory, int poolSize) {
+      this(threadFactory, poolSize, null);
+    }
+    
+    /**
+     * Constructs a new worker pool with the provided options for how workers consume tasks.
+     * 
+     * @since 5.30
+     * @param threadFactory Factory for producing worker threads
+     * @param poolSize Maximum number of workers
+     * @param options Options for how workers consume tasks, or {@code null} for the defaults
+     */
+    protected WorkerPool(ThreadFactory threadFactory, int poolSize, WorkerOptions options) {
       ArgumentVerifier.assertGreaterThanZero(poolSize, "poolSize");
       if (threadFactory == null) {
         threadFactory = new ConfigurableThreadFactory(PriorityScheduler.class.getSimpleName() + "-", true);
@@ -400,14 +795,69 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
       idleWorkerDequeLock = new Object();
       idleWorkerCount = new LongAdder();
       idleWorker = new AtomicReference<>(null);
+      idleWorkerChain = new AtomicReference<>(null);
       currentPoolSize = new AtomicInteger(0);
       workerStopNotifyLock = new Object();
+      createdWorkerCount = new LongAdder();
+      retiredWorkerCount = new LongAdder();
+      
+      if (options == null) {
+        options = new WorkerOptions();
+      }
       
       this.threadFactory = threadFactory;
+      this.waitStrategy = options.waitStrategy == null ? 
+        WaitStrategy.ParkWaitStrategy.instance() : options.waitStrategy;
       this.maxPoolSize = poolSize;
+      this.corePoolSize = poolSize;
+      this.keepAliveTimeMillis = DEFAULT_KEEP_ALIVE_TIME_IN_MS;
       this.workerTimedParkRunTime = Long.MAX_VALUE;
       shutdownStarted = new AtomicBoolean(false);
       shutdownFinishing = false;
+      taskWrapperPool = options.recycleTaskWrappers ? new TaskWrapperPool() : null;
+      if (options.workStealing) {
+        currentWorker = new ThreadLocal<>();
+        stealableWorkersLock = new Object();
+        stealableWorkers = new Worker[0];
+      } else {
+        currentWorker = null;
+        stealableWorkersLock = null;
+        stealableWorkers = null;
+      }
+    }
+    
+    /**
+     * Check if this pool provides local queues to workers for work stealing.
+     * 
+     * @since 5.30
+     * @return {@code true} if work stealing is enabled
+     */
+    public boolean isWorkStealing() {
+      return currentWorker != null;
+    }
+    
+    /**
+     * Check if this pool reuses the wrappers of tasks once they have been executed.
+     * 
+     * @since 5.30
+     * @return {@code true} if task wrappers are recycled
+     */
+    public boolean isRecyclingTaskWrappers() {
+      return taskWrapperPool != null;
+    }
+    
+    /**
+     * Returns the worker which is executing on the invoking thread.  This will only return a 
+     * worker if work stealing is enabled, otherwise it will always return {@code null}.
+     * 
+     * @since 5.30
+     * @return Worker for the current thread, or {@code null} if not a pool thread or not work stealing
+     */
+    public Worker getCurrentWorker() {
+      if (currentWorker == null) {
+        return null;
+      }
+      return currentWorker.get();
     }
 
     /**
@@ -427,7 +877,7 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
       // spin would be only if there is only one recurring task, and WHILE that recurring task is 
       // running.  We solve this by adding this recurring task which wont run very long, and is 
       // scheduled to run very infrequently (Using Integer.MAX_VALUE that's every 24 days).
-      // we add this directly into the scheduledQueue structure to avoid having handleQueueUpdated 
+      // we insert this directly into the schedule queue to avoid having handleQueueUpdated 
       // invoked, and thus avoid starting any threads at this point.
       InternalRunnable doNothingRunnable = new InternalRunnable() {
         @Override
@@ -437,11 +887,11 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
         }
       };
       queueManager.starvablePriorityQueueSet
-                  .scheduleQueue.add(new RecurringRateTaskWrapper(doNothingRunnable, 
-                                                                  queueManager.starvablePriorityQueueSet, 
-                                                                  Clock.lastKnownForwardProgressingMillis() + 
-                                                                    Integer.MAX_VALUE, 
-                                                                  Integer.MAX_VALUE));
+                  .insertScheduled(new RecurringRateTaskWrapper(doNothingRunnable, 
+                                                                queueManager.starvablePriorityQueueSet, 
+                                                                Clock.lastKnownForwardProgressingMillis() + 
+                                                                  Integer.MAX_VALUE, 
+                                                                Integer.MAX_VALUE));
     }
 
     /**
@@ -562,6 +1012,10 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
       synchronized (poolSizeChangeLock) {
         poolSizeIncrease = newPoolSize > this.maxPoolSize;
         
+        // core size follows the max size, unless it has been set lower
+        if (corePoolSize == maxPoolSize || corePoolSize > newPoolSize) {
+          corePoolSize = newPoolSize;
+        }
         this.maxPoolSize = newPoolSize;
       }
       
@@ -583,12 +1037,114 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
         if (maxPoolSize + delta < 1) {
           throw new IllegalStateException(maxPoolSize + " " + delta + " must be at least 1");
         }
+        // core size follows the max size, unless it has been set lower
+        if (corePoolSize == maxPoolSize || corePoolSize > maxPoolSize + delta) {
+          corePoolSize = maxPoolSize + delta;
+        }
         this.maxPoolSize += delta;
       }
       
       handleMaxPoolSizeChange(delta > 0);
     }
     
+    /**
+     * Getter for the core pool size.  Workers beyond this size will be stopped once they have 
+     * been idle for longer than the keep alive time.  Until set lower this will follow the max 
+     * pool size, in which case workers are never stopped for being idle.
+     * 
+     * @since 5.30
+     * @return current core pool size
+     */
+    public int getCorePoolSize() {
+      return corePoolSize;
+    }
+    
+    /**
+     * Change the core pool size.  See {@link #getCorePoolSize()}.  Idle workers are woken so that 
+     * workers beyond the new core size will start to expire.
+     * 
+     * @since 5.30
+     * @param newCorePoolSize New core pool size, must be at least one and no greater than the max pool size
+     */
+    public void setCorePoolSize(int newCorePoolSize) {
+      ArgumentVerifier.assertGreaterThanZero(newCorePoolSize, "newCorePoolSize");
+      
+      boolean coreSizeReduced;
+      synchronized (poolSizeChangeLock) {
+        if (newCorePoolSize > maxPoolSize) {
+          throw new IllegalArgumentException("Core pool size " + newCorePoolSize + 
+                                               " can not exceed max pool size " + maxPoolSize);
+        }
+        coreSizeReduced = newCorePoolSize < corePoolSize;
+        corePoolSize = newCorePoolSize;
+      }
+      
+      if (coreSizeReduced) {
+        wakeIdleWorkers();
+      }
+    }
+    
+    /**
+     * Getter for how long a worker beyond the core pool size may be idle before it is stopped.
+     * 
+     * @since 5.30
+     * @return Keep alive time in milliseconds
+     */
+    public long getKeepAliveTime() {
+      return keepAliveTimeMillis;
+    }
+    
+    /**
+     * Change how long a worker beyond the core pool size may be idle before it is stopped.  Idle 
+     * workers are woken so that the new time will be respected.
+     * 
+     * @since 5.30
+     * @param keepAliveTimeInMs Time in milliseconds a worker may be idle, zero to stop immediately
+     */
+    public void setKeepAliveTime(long keepAliveTimeInMs) {
+      ArgumentVerifier.assertNotNegative(keepAliveTimeInMs, "keepAliveTimeInMs");
+      
+      boolean reduced = keepAliveTimeInMs < keepAliveTimeMillis;
+      keepAliveTimeMillis = keepAliveTimeInMs;
+      if (reduced) {
+        wakeIdleWorkers();
+      }
+    }
+    
+    /**
+     * Returns the total number of workers which have been started by this pool.
+     * 
+     * @since 5.30
+     * @return Quantity of workers started
+     */
+    public long getCreatedWorkerCount() {
+      return createdWorkerCount.sum();
+    }
+    
+    /**
+     * Returns the total number of workers which have been stopped, either because they were idle 
+     * beyond the keep alive time, or because the max pool size was reduced.  Workers stopped due 
+     * to the pool shutting down are not included.
+     * 
+     * @since 5.30
+     * @return Quantity of workers retired
+     */
+    public long getRetiredWorkerCount() {
+      return retiredWorkerCount.sum();
+    }
+    
+    /**
+     * Wakes all currently idle workers so that they will check their state again.
+     */
+    private void wakeIdleWorkers() {
+      IdleWorkerNode idleNode = firstIdleWorkerNode();
+      while (idleNode != null) {
+        idleNode.worker.waitingForUnpark = true;
+        LockSupport.unpark(idleNode.worker.thread);
+        idleNode = nextIdleWorkerNode(idleNode);
+      }
+    }
+    
     protected void handleMaxPoolSizeChange(boolean poolSizeIncrease) {
       if (poolSizeIncrease) {
         // now that pool size increased, start a worker so workers we can for the waiting tasks
@@ -652,12 +1208,230 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
      * starts it will attempt to start taking tasks, no further action is needed.
      */
     protected void makeNewWorker() {
+      createdWorkerCount.increment();
       Worker w = new Worker(this, threadFactory);
+      if (isWorkStealing()) {
+        synchronized (stealableWorkersLock) {
+          Worker[] newWorkers = Arrays.copyOf(stealableWorkers, stealableWorkers.length + 1);
+          newWorkers[newWorkers.length - 1] = w;
+          stealableWorkers = newWorkers;
+        }
+      }
       w.start();
     }
     
     /**
-     * Adds a worker to the head of the idle worker chain.
+     * Invoked by a worker once it has stopped to make sure any tasks left in its local queue are 
+     * moved to the shared queue, and that it is no longer a target for stealing.
+     * 
+     * @param worker Worker which has stopped
+     */
+    protected void workerStopped(Worker worker) {
+      if (worker.localQueue != null) {
+        synchronized (stealableWorkersLock) {
+          Worker[] newWorkers = new Worker[stealableWorkers.length - 1];
+          int i = 0;
+          for (Worker w : stealableWorkers) {
+            if (w != worker) {
+              newWorkers[i++] = w;
+            }
+          }
+          stealableWorkers = newWorkers;
+        }
+        moveLocalTasksToSharedQueue(worker);
+      }
+    }
+    
+    /**
+     * Adds a task to the local queue of the provided worker.  If the local queue was empty this 
+     * will wake an idle worker (or start a new one) so the task can be stolen if the submitting 
+     * worker remains busy.
+     * 
+     * @since 5.30
+     * @param worker Worker whose local queue the task should be added to
+     * @param task Task which is ready to execute
+     */
+    public void addLocalTask(Worker worker, OneTimeTaskWrapper task) {
+      boolean wasEmpty = worker.localQueue.isEmpty();
+      worker.localQueue.addLast(task);
+      if (wasEmpty) {
+        handleQueueUpdate();
+      }
+    }
+    
+    /**
+     * Moves any tasks in the worker's local queue into the shared high priority execute queue.
+     * 
+     * @param worker Worker to move tasks from
+     * @return {@code true} if any tasks were moved
+     */
+    private boolean moveLocalTasksToSharedQueue(Worker worker) {
+      QueueSet queueSet = queueManager.highPriorityQueueSet;
+      boolean moved = false;
+      TaskWrapper task;
+      while ((task = worker.localQueue.pollFirst()) != null) {
+        moved = true;
+        // the same wrapper must be queued, since a future may reference it for cancellation
+        OneTimeTaskWrapper oneTimeTask = (OneTimeTaskWrapper)task;
+        oneTimeTask.taskQueue = queueSet.executeQueue;
+        queueSet.addExecute(oneTimeTask);
+      }
+      return moved;
+    }
+    
+    /**
+     * Moves the tasks from all worker local queues into the shared high priority execute queue.  
+     * This is used during shutdown to ensure locally queued tasks run before the shutdown 
+     * finishes.
+     * 
+     * @since 5.30
+     * @return {@code true} if any tasks were moved
+     */
+    public boolean moveLocalTasksToSharedQueue() {
+      boolean moved = false;
+      if (isWorkStealing()) {
+        for (Worker w : stealableWorkers) {
+          moved |= moveLocalTasksToSharedQueue(w);
+        }
+      }
+      return moved;
+    }
+    
+    /**
+     * Removes all tasks from the worker local queues, adding them to the provided list.
+     * 
+     * @since 5.30
+     * @param removedTasks List to add the contained runnables to
+     */
+    public void drainLocalQueuesInto(List<Runnable> removedTasks) {
+      if (isWorkStealing()) {
+        for (Worker w : stealableWorkers) {
+          TaskWrapper task;
+          while ((task = w.localQueue.pollFirst()) != null) {
+            task.invalidate();
+            removedTasks.add(task.task);
+          }
+        }
+      }
+    }
+    
+    /**
+     * Returns the quantity of tasks waiting in worker local queues.
+     * 
+     * @since 5.30
+     * @return Total quantity of tasks in local queues
+     */
+    public int getLocalQueuedTaskCount() {
+      int result = 0;
+      if (isWorkStealing()) {
+        for (Worker w : stealableWorkers) {
+          result += w.localQueue.size();
+        }
+      }
+      return result;
+    }
+    
+    /**
+     * Searches the worker local queues for a task which contains the provided runnable or 
+     * callable, removing the first one found.
+     * 
+     * @since 5.30
+     * @param task Runnable or Callable to search for
+     * @return {@code true} if the task was found and removed
+     */
+    public boolean removeLocalTask(Object task) {
+      if (isWorkStealing()) {
+        for (Worker w : stealableWorkers) {
+          Iterator<TaskWrapper> it = w.localQueue.iterator();
+          while (it.hasNext()) {
+            TaskWrapper tw = it.next();
+            if ((task instanceof Runnable ? 
+                   ContainerHelper.isContained(tw.task, (Runnable)task) : 
+                   ContainerHelper.isContained(tw.task, (Callable<?>)task)) && 
+                w.localQueue.remove(tw)) {
+              tw.invalidate();
+              return true;
+            }
+          }
+        }
+      }
+      return false;
+    }
+    
+    /**
+     * Removes all tasks in the worker local queues which match the provided filter.
+     * 
+     * @since 5.30
+     * @param filter Predicate to test queued tasks against
+     * @return Quantity of tasks removed
+     */
+    public int removeLocalTasks(Predicate<? super Runnable> filter) {
+      int result = 0;
+      if (isWorkStealing()) {
+        for (Worker w : stealableWorkers) {
+          Iterator<TaskWrapper> it = w.localQueue.iterator();
+          while (it.hasNext()) {
+            TaskWrapper tw = it.next();
+            if (ContainerHelper.isContained(tw.task, filter) && w.localQueue.remove(tw)) {
+              tw.invalidate();
+              result++;
+            }
+          }
+        }
+      }
+      return result;
+    }
+    
+    /**
+     * Tasks in the local queues are always high priority.  So if the next shared task is a low 
+     * or starvable priority task which has not yet waited past the max wait time, a local task 
+     * should be run first, just as a high priority task in the shared queue would be.
+     * 
+     * @param worker Worker looking for a task
+     * @param nextTask Ready to run task provided from the shared queues
+     * @return Local task to run instead, or {@code null} if {@code nextTask} should be run
+     */
+    private TaskWrapper pollLocalOverLowPriority(Worker worker, TaskWrapper nextTask) {
+      if (worker.localQueue.isEmpty() || 
+          queueManager.highPriorityQueueSet.getNextTask() == nextTask || 
+          Clock.lastKnownForwardProgressingMillis() - nextTask.getRunTime() > 
+            queueManager.getMaxWaitForLowPriority()) {
+        return null;
+      } else {
+        return worker.localQueue.pollFirst();
+      }
+    }
+    
+    /**
+     * Takes the next task from the worker's own local queue, or if empty attempts to steal one 
+     * from the local queue of another worker.  Own tasks are taken from the head, while stolen 
+     * tasks are taken from the tail to reduce contention with the owning worker.
+     * 
+     * @param worker Worker looking for a task
+     * @return Task ready for execution, or {@code null} if none were found
+     */
+    private TaskWrapper pollLocalOrSteal(Worker worker) {
+      TaskWrapper result = worker.localQueue.pollFirst();
+      if (result != null) {
+        return result;
+      }
+      Worker[] workers = stealableWorkers;
+      if (workers.length > 1) {
+        int start = ThreadLocalRandom.current().nextInt(workers.length);
+        for (int i = 0; i < workers.length; i++) {
+          Worker victim = workers[(start + i) % workers.length];
+          if (victim != worker && (result = victim.localQueue.pollLast()) != null) {
+            return result;
+          }
+        }
+      }
+      return null;
+    }
+    
+    /**
+     * Adds a worker to the head of the idle worker chain.  A new node is pushed for every time 
+     * the worker becomes idle, so that a node which was removed but not yet unlinked from the 
+     * chain is never re-linked.
      * 
      * @param worker Worker that is ready to become idle
      */
@@ -665,11 +1439,12 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
       idleWorkerCount.increment();
       worker.waitingForUnpark = false;  // reset state before we park, avoid external interactions
       
+      IdleWorkerNode node = worker.idleNode = new IdleWorkerNode(worker);
       while (true) {
-        Worker casWorker = idleWorker.get();
-        // we can freely set this value until we get into the idle linked queue
-        worker.nextIdleWorker = casWorker;
-        if (idleWorker.compareAndSet(casWorker, worker)) {
+        IdleWorkerNode casNode = firstIdleWorkerNode();
+        // we can freely set this value until we get into the idle linked stack
+        node.nextIdleWorker = casNode;
+        if (idleWorkerChain.compareAndSet(casNode, node)) {
           break;
         }
       }
@@ -678,40 +1453,57 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
     /**
      * The counter part to {@link #addWorkerToIdleChain(Worker)}.  This function has no safety 
      * checks.  The worker provided MUST already be queued in the chain or problems will occur.
+     * <p>
+     * This only marks the worker's node as removed, which is a constant time operation that 
+     * requires no locking.  The node is unlinked from the chain if it is at the head, otherwise 
+     * it will be lazily unlinked as the chain is traversed.
      * 
      * @param worker Worker reference to remove from the chain (can not be {@code null})
      */
     protected void removeWorkerFromIdleChain(Worker worker) {
       idleWorkerCount.decrement();
       
-      /* We must lock here to avoid thread contention when removing from the chain.  This is 
-       * the one place where we set the reference to a workers "nextIdleWorker" from a thread 
-       * outside of the workers thread.  If we don't synchronize here, we may end up 
-       * having workers disappear from the chain when the reference is nulled out.
-       */
-      synchronized (idleWorkerDequeLock) {
-        Worker holdingWorker = idleWorker.get();
-        if (holdingWorker == worker) {
-          if (idleWorker.compareAndSet(worker, worker.nextIdleWorker)) {
-            return;
-          } else {
-            /* because we can only queue in parallel, we know that the conflict was a newly queued 
-             * worker.  In addition since we know that queued workers are added at the start, all 
-             * that should be necessary is updating our holding worker reference
-             */
-            holdingWorker = idleWorker.get();
-          }
+      IdleWorkerNode node = worker.idleNode;
+      worker.idleNode = null;
+      node.removed = true;
+      firstIdleWorkerNode();
+    }
+    
+    /**
+     * Returns the first idle worker node which has not been removed, unlinking any removed nodes 
+     * from the head of the chain.
+     * 
+     * @return First idle worker node, or {@code null} if no workers are idle
+     */
+    protected IdleWorkerNode firstIdleWorkerNode() {
+      while (true) {
+        IdleWorkerNode head = idleWorkerChain.get();
+        if (head == null || ! head.removed) {
+          return head;
         }
+        // it's fine if this fails, that just means the head has changed and we should check again
+        idleWorkerChain.compareAndSet(head, head.nextIdleWorker);
+      }
+    }
         
-        // no need for null checks due to locking, we assume the worker is in the chain
-        while (holdingWorker.nextIdleWorker != worker) {
-          holdingWorker = holdingWorker.nextIdleWorker;
-        }
-        // now remove this worker from the chain
-        holdingWorker.nextIdleWorker = worker.nextIdleWorker;
-        // now out of the queue, lets clean up our reference
-        worker.nextIdleWorker = null;
+    /**
+     * Returns the next idle worker node after the provided one which has not been removed.  Any 
+     * removed nodes between the two are unlinked.  Because removed nodes are only ever skipped, 
+     * a node which has not been removed can never become unreachable by doing this.
+     * 
+     * @param node Node to start searching after
+     * @return Next idle worker node, or {@code null} if there are no more
+     */
+    private static IdleWorkerNode nextIdleWorkerNode(IdleWorkerNode node) {
+      IdleWorkerNode next = node.nextIdleWorker;
+      if (next == null || ! next.removed) {
+        return next;
       }
+      do {
+        next = next.nextIdleWorker;
+      } while (next != null && next.removed);
+      node.nextIdleWorker = next;
+      return next;
     }
 
     /**
@@ -735,6 +1527,7 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
           return null;
         } else if ((casPoolSize = currentPoolSize.get()) > maxPoolSize) {
           if (currentPoolSize.compareAndSet(casPoolSize, casPoolSize - 1)) {
+            retiredWorkerCount.increment();
             worker.stopIfRunning();
             return null;
           } // else, retry, see if we need to shutdown
@@ -744,19 +1537,39 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
         }
       }
       
+      // take from our local queue without touching the shared queues, except periodically so 
+      // that tasks in the shared queues can't be starved by tasks submitted from the pool
+      if (worker.localQueue != null && 
+          (++worker.localPollCount & (LOCAL_QUEUE_SHARED_CHECK_INTERVAL - 1)) != 0) {
+        TaskWrapper localTask = worker.localQueue.pollFirst();
+        if (localTask != null) {
+          Thread.interrupted();  // reset interrupted status if set
+          return localTask;
+        }
+      }
+      
       boolean interruptedChecked = false;
       boolean queued = false;
+      boolean retired = false;
+      long idleStartTime = 0;
+      int idleCount = 0;
       try {
         while (true) {
           TaskWrapper nextTask = queueManager.getNextTask();
           if (nextTask == null) {
-            if (queued) { // we can only park after we have queued, then checked again for a result
-              LockSupport.park();
+            if (worker.localQueue != null && (nextTask = pollLocalOrSteal(worker)) != null) {
+              return nextTask;
+            } else if (queued) { // we can only park after we have queued, then checked again for a result
+              if (retired = tryRetire(worker, idleStartTime)) {
+                return null;
+              }
+              idleCount = idle(idleCount, keepAliveWaitNanos(idleStartTime, Long.MAX_VALUE));
               worker.waitingForUnpark = false;
               continue;
             } else {
               addWorkerToIdleChain(worker);
               queued = true;
+              idleStartTime = Clock.accurateForwardProgressingMillis();
             }
           } else {
             /* TODO - right now this has a a deficiency where a recurring period task can cut in 
@@ -783,26 +1596,41 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
                 // that task while it's running)
                 continue;
               }
-              if (queued) {
-                if (nextTask.getPureRunTime() < workerTimedParkRunTime) {
+              TaskWrapper localTask;
+              if (worker.localQueue != null && (localTask = pollLocalOrSteal(worker)) != null) {
+                return localTask;
+              } else if (queued) {
+                if (retired = tryRetire(worker, idleStartTime)) {
+                  return null;
+                } else if (nextTask.getPureRunTime() < workerTimedParkRunTime) {
                   // we can only park after we have queued, then checked again for a result
                   workerTimedParkRunTime = nextTask.getPureRunTime();
-                  LockSupport.parkNanos(Clock.NANOS_IN_MILLISECOND * taskDelay);
+                  idleCount = idle(idleCount, 
+                                   keepAliveWaitNanos(idleStartTime, 
+                                                      Clock.NANOS_IN_MILLISECOND * taskDelay));
                   worker.waitingForUnpark = false;
                   workerTimedParkRunTime = Long.MAX_VALUE;
                   continue;
                 } else {
                   // there is another worker already doing a timed park, so we can wait till woken up
-                  LockSupport.park();
+                  idleCount = idle(idleCount, keepAliveWaitNanos(idleStartTime, Long.MAX_VALUE));
                   worker.waitingForUnpark = false;
                   continue;
                 }
               } else {
                 addWorkerToIdleChain(worker);
                 queued = true;
+                idleStartTime = Clock.accurateForwardProgressingMillis();
+              }
+            } else {
+              TaskWrapper localTask;
+              if (worker.localQueue != null && 
+                  (localTask = pollLocalOverLowPriority(worker, nextTask)) != null) {
+                return localTask;
+              } else if (nextTask.canExecute(executeReference)) {
+                queueManager.taskConsumed(nextTask);
+                return nextTask;
               }
-            } else if (nextTask.canExecute(executeReference)) {
-              return nextTask;
             }
           }
           // reset interrupted status if we may block and have not checked
@@ -816,9 +1644,20 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
         if (queued) {
           removeWorkerFromIdleChain(worker);
         }
-        
-        // wake up next worker so it can check if tasks are ready to consume
-        handleQueueUpdate();
+        if (retired) {
+          // only wake another worker if this one may have been woken for a task, or if another 
+          // worker needs to take over a timed park, we don't want to start a replacement worker
+          if (worker.waitingForUnpark || firstIdleWorkerNode() != null) {
+            handleQueueUpdate();
+          }
+        } else {
+          if (idleCount > 0) {
+            waitStrategy.taskFound(idleCount);
+          }
+          
+          // wake up next worker so it can check if tasks are ready to consume
+          handleQueueUpdate();
+        }
         
         if (! interruptedChecked) {
           Thread.interrupted();  // reset interrupted status if set
@@ -826,11 +1665,100 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
       }
     }
 
+    /**
+     * Checks if the worker has been idle for longer than the keep alive time, and the pool is 
+     * larger than the core size.  If so the pool size is reduced and the worker is stopped.
+     * 
+     * @param worker Worker which is idle
+     * @param idleStartTime Time the worker became idle
+     * @return {@code true} if the worker was stopped and should return without a task
+     */
+    private boolean tryRetire(Worker worker, long idleStartTime) {
+      int casPoolSize;
+      while ((casPoolSize = currentPoolSize.get()) > corePoolSize && 
+             Clock.accurateForwardProgressingMillis() - idleStartTime >= keepAliveTimeMillis) {
+        if (currentPoolSize.compareAndSet(casPoolSize, casPoolSize - 1)) {
+          retiredWorkerCount.increment();
+          worker.stopIfRunning();
+          return true;
+        }
+      }
+      return false;
+    }
+    
+    /**
+     * Limits how long an idle worker should wait so that it will wake in time to expire once the 
+     * keep alive time has elapsed.  If the pool is not beyond its core size the provided wait time 
+     * is returned unmodified.
+     * 
+     * @param idleStartTime Time the worker became idle
+     * @param maxWaitNanos Maximum time to block in nanoseconds, or {@link Long#MAX_VALUE} to block till woken
+     * @return Time to block in nanoseconds
+     */
+    private long keepAliveWaitNanos(long idleStartTime, long maxWaitNanos) {
+      if (currentPoolSize.get() <= corePoolSize) {
+        return maxWaitNanos;
+      }
+      long remainingMillis = 
+          keepAliveTimeMillis - (Clock.lastKnownForwardProgressingMillis() - idleStartTime);
+      if (remainingMillis >= maxWaitNanos / Clock.NANOS_IN_MILLISECOND) {
+        return maxWaitNanos;
+      }
+      // always wait at least a millisecond to avoid spinning when the time is almost reached
+      return Math.max(1, remainingMillis) * Clock.NANOS_IN_MILLISECOND;
+    }
+
+    /**
+     * Waits using the pool's {@link WaitStrategy}.
+     * 
+     * @param idleCount Number of times the worker has waited since last finding a task
+     * @param maxWaitNanos Maximum time to block in nanoseconds, or {@link Long#MAX_VALUE} to block till woken
+     * @return The incremented idle count
+     */
+    private int idle(int idleCount, long maxWaitNanos) {
+      waitStrategy.idle(idleCount, maxWaitNanos);
+      // avoid overflow if idle for a very long time
+      return idleCount == Integer.MAX_VALUE ? idleCount : idleCount + 1;
+    }
+
+    /**
+     * Wakes up to one idle worker for each added task, starting new workers if there are not 
+     * enough idle workers and the pool has not yet reached its max size.  Waking the workers 
+     * directly avoids needing to wait for each woken worker to wake up the next.
+     * 
+     * @param addedTaskCount Quantity of tasks which were added
+     */
+    @Override
+    public void handleQueueUpdate(int addedTaskCount) {
+      IdleWorkerNode idleNode = firstIdleWorkerNode();
+      while (idleNode != null && addedTaskCount > 0) {
+        Worker nextIdleWorker = idleNode.worker;
+        if (! nextIdleWorker.waitingForUnpark) {
+          nextIdleWorker.waitingForUnpark = true;
+          LockSupport.unpark(nextIdleWorker.thread);
+          addedTaskCount--;
+        }
+        idleNode = nextIdleWorkerNode(idleNode);
+      }
+      while (addedTaskCount > 0) {
+        int casSize = currentPoolSize.get();
+        if (casSize < maxPoolSize & ! shutdownFinishing) {
+          if (currentPoolSize.compareAndSet(casSize, casSize + 1)) {
+            makeNewWorker();
+            addedTaskCount--;
+          } // else loop and retry logic
+        } else {
+          // pool has all threads started, or is shutting down
+          break;
+        }
+      }
+    }
+
     @Override
     public void handleQueueUpdate() {
       while (true) {
-        Worker nextIdleWorker = idleWorker.get();
-        if (nextIdleWorker == null) {
+        IdleWorkerNode idleNode = firstIdleWorkerNode();
+        if (idleNode == null) {
           int casSize = currentPoolSize.get();
           if (casSize < maxPoolSize & ! shutdownFinishing) {
             if (currentPoolSize.compareAndSet(casSize, casSize + 1)) {
@@ -843,6 +1771,7 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
             break;
           }
         } else {
+          Worker nextIdleWorker = idleNode.worker;
           if (! nextIdleWorker.waitingForUnpark) {
             nextIdleWorker.waitingForUnpark = true;
             LockSupport.unpark(nextIdleWorker.thread);
@@ -853,6 +1782,24 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
     }
   }
   
+  /**
+   * Node in the lock free stack of idle workers.  A worker is removed from the stack by marking 
+   * its node as removed, removed nodes are then unlinked as they are encountered.
+   * 
+   * @since 5.30
+   */
+  protected static class IdleWorkerNode {
+    protected final Worker worker;
+    protected volatile IdleWorkerNode nextIdleWorker;
+    protected volatile boolean removed;
+    
+    protected IdleWorkerNode(Worker worker) {
+      this.worker = worker;
+      nextIdleWorker = null;
+      removed = false;
+    }
+  }
+  
   /**
    * Runnable which will run on pool threads.  It accepts runnables to run, and tracks usage.
    * 
@@ -861,8 +1808,21 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
   protected static class Worker extends AbstractService implements Runnable {
     protected final WorkerPool workerPool;
     protected final Thread thread;
+    // only set when work stealing, tasks are added to the tail and consumed from the head 
+    // by this worker, while other workers steal from the tail
+    protected final ConcurrentLinkedDeque<TaskWrapper> localQueue;
+    /**
+     * No longer maintained and will always be {@code null}, idle workers are linked by their 
+     * {@link IdleWorkerNode}.
+     * 
+     * @deprecated Idle workers are tracked by {@link IdleWorkerNode}, this will be removed in a 
+     *               future release
+     */
+    @Deprecated
     protected volatile Worker nextIdleWorker;
     protected volatile boolean waitingForUnpark;
+    private IdleWorkerNode idleNode; // only accessed from worker thread
+    private int localPollCount; // only accessed from worker thread
     
     protected Worker(WorkerPool workerPool, ThreadFactory threadFactory) {
       this.workerPool = workerPool;
@@ -870,8 +1830,11 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
       if (thread.isAlive()) {
         throw new IllegalThreadStateException();
       }
+      localQueue = workerPool.isWorkStealing() ? new ConcurrentLinkedDeque<>() : null;
       nextIdleWorker = null;
       waitingForUnpark = false;
+      idleNode = null;
+      localPollCount = 0;
     }
 
     @Override
@@ -889,13 +1852,25 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
         TaskWrapper nextTask = workerPool.workerIdle(this);
         if (nextTask != null) {  // may be null if we are shutting down
           nextTask.runTask();
+          if (workerPool.taskWrapperPool != null && nextTask instanceof PooledTaskWrapper) {
+            workerPool.taskWrapperPool.release((PooledTaskWrapper)nextTask);
+          }
         }
       }
     }
     
     @Override
     public void run() {
-      executeTasksWhileRunning();
+      if (localQueue != null) {
+        workerPool.currentWorker.set(this);
+      }
+      try {
+        executeTasksWhileRunning();
+      } finally {
+        if (localQueue != null) {
+          workerPool.workerStopped(this);
+        }
+      }
       
       synchronized (workerPool.workerStopNotifyLock) {
         workerPool.workerStopNotifyLock.notifyAll();
@@ -920,7 +1895,13 @@ public class PriorityScheduler extends AbstractPriorityScheduler {
     
     @Override
     public void run() {
-      wm.finishShutdown();
+      if (wm.moveLocalTasksToSharedQueue()) {
+        // locally queued tasks must run first, so queue again behind them
+        QueueSet queueSet = wm.queueManager.lowPriorityQueueSet;
+        queueSet.addExecute(new ImmediateTaskWrapper(this, queueSet.executeQueue));
+      } else {
+        wm.finishShutdown();
+      }
     }
   }
 }
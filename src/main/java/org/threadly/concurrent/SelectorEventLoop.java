@@ -0,0 +1,231 @@
+package org.threadly.concurrent;
+
+import java.io.IOException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.threadly.concurrent.future.FutureUtils;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.ExceptionHandler;
+import org.threadly.util.ExceptionUtils;
+
+/**
+ * A {@link NoThreadScheduler} which can also wait for I/O readiness on a {@link Selector}. 
+ * Rather than parking like {@link #blockingTick(ExceptionHandler)}, 
+ * {@link #selectTick(ExceptionHandler)} will block in {@link Selector#select(long)} using 
+ * {@link #getDelayTillNextTask()} as the timeout.  Tasks submitted from other threads will 
+ * invoke {@link Selector#wakeup()} so that they can be run without waiting for I/O.  This allows 
+ * a single thread to handle both network events and scheduled tasks without polling.
+ * <p>
+ * Channels should be registered with {@link #register(SelectableChannel, int, SelectionHandler)} 
+ * so that the provided {@link SelectionHandler} is invoked on the event loop thread when the key 
+ * is selected.  Keys registered directly against the selector without a {@link SelectionHandler} 
+ * attached will be ignored.
+ * <p>
+ * Like {@link NoThreadScheduler}, only one thread at a time should invoke the tick functions. 
+ * {@link SelectorEventLoopGroup} can be used to run a set of loops on their own threads.
+ * 
+ * @since 5.30
+ */
+public class SelectorEventLoop extends NoThreadScheduler {
+  protected final Selector selector;
+  protected final AtomicBoolean selecting;
+  private volatile Thread tickThread;
+  
+  /**
+   * Constructs a new {@link SelectorEventLoop} with a newly opened {@link Selector}.
+   * 
+   * @throws IOException Thrown if the selector can not be opened
+   */
+  public SelectorEventLoop() throws IOException {
+    this(null, DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, Selector.open());
+  }
+  
+  /**
+   * Constructs a new {@link SelectorEventLoop} which will wait on the provided {@link Selector}. 
+   * The selector should not be selected on by any other thread.
+   * 
+   * @param selector Selector to block on while waiting for tasks
+   */
+  public SelectorEventLoop(Selector selector) {
+    this(null, DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, selector);
+  }
+  
+  /**
+   * Constructs a new {@link SelectorEventLoop} which will wait on the provided {@link Selector}. 
+   * The selector should not be selected on by any other thread.
+   * 
+   * @param defaultPriority Default priority for tasks which are submitted without any specified priority
+   * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
+   * @param selector Selector to block on while waiting for tasks
+   */
+  public SelectorEventLoop(TaskPriority defaultPriority, long maxWaitForLowPriorityInMs, 
+                           Selector selector) {
+    super(defaultPriority, maxWaitForLowPriorityInMs);
+    
+    ArgumentVerifier.assertNotNull(selector, "selector");
+    
+    this.selector = selector;
+    this.selecting = new AtomicBoolean(false);
+    this.tickThread = null;
+  }
+  
+  /**
+   * Returns the {@link Selector} this loop waits on.
+   * 
+   * @return Selector used by this loop
+   */
+  public Selector getSelector() {
+    return selector;
+  }
+  
+  @Override
+  protected void wakeBlockedTick() {
+    super.wakeBlockedTick();
+    
+    // only the first update needs to wake the selector, avoiding repeated wakeup system calls
+    if (selecting.get() && selecting.compareAndSet(true, false)) {
+      selector.wakeup();
+    }
+  }
+  
+  /**
+   * Registers the channel with this loop's {@link Selector}.  When the key is selected the 
+   * provided handler will be invoked on the thread running {@link #selectTick(ExceptionHandler)}. 
+   * The channel must be in non-blocking mode.
+   * <p>
+   * If invoked from the thread running this loop the channel will be registered immediately. 
+   * Otherwise the registration will be performed by the loop on its next tick, avoiding contention 
+   * with the selector while it is blocked selecting.
+   * 
+   * @param channel Channel to register
+   * @param interestOps Interest set for the resulting key
+   * @param handler Handler to be invoked when the key is selected
+   * @return Future which will complete with the registered {@link SelectionKey}
+   */
+  public ListenableFuture<SelectionKey> register(SelectableChannel channel, int interestOps, 
+                                                 SelectionHandler handler) {
+    ArgumentVerifier.assertNotNull(channel, "channel");
+    ArgumentVerifier.assertNotNull(handler, "handler");
+    
+    if (Thread.currentThread() == tickThread) {
+      try {
+        return FutureUtils.immediateResultFuture(channel.register(selector, interestOps, handler));
+      } catch (IOException e) {
+        return FutureUtils.immediateFailureFuture(e);
+      }
+    } else {
+      return submit(() -> channel.register(selector, interestOps, handler), TaskPriority.High);
+    }
+  }
+  
+  /**
+   * Runs any tasks which are ready, then blocks on the {@link Selector} until either a channel is 
+   * ready, a task is ready to run, or {@link #cancelTick()} is invoked.  Once woken up the 
+   * {@link SelectionHandler} for each selected key will be invoked, followed by any tasks which 
+   * are ready to run.
+   * <p>
+   * The selector will only block if no tasks were ready to run.  The blocking time is limited to 
+   * the delay of the next scheduled task, and tasks added from other threads will wake the 
+   * selector.
+   * <p>
+   * If an {@link ExceptionHandler} is provided it will be invoked for any exceptions thrown from 
+   * tasks or handlers, otherwise those exceptions will be thrown out of this call.  Like 
+   * {@link #tick(ExceptionHandler)}, this must not be invoked by multiple threads in parallel.
+   * 
+   * @param exceptionHandler Exception handler implementation to call if any tasks throw an 
+   *                           exception, or null to have exceptions thrown out of this call
+   * @return quantity of tasks run and selected keys handled during this invocation
+   * @throws IOException Thrown if the selector fails to select
+   */
+  public int selectTick(ExceptionHandler exceptionHandler) throws IOException {
+    tickThread = Thread.currentThread();
+    int result = tick(exceptionHandler, false);
+    if (result == 0) {
+      selecting.set(true);
+      try {
+        // the selecting flag must be set before we check for tasks to avoid missing a wakeup
+        long delay = tickCanceled || hasTaskReadyToRun() ? 0 : getDelayTillNextTask();
+        if (delay <= 0) {
+          selector.selectNow();
+        } else if (delay == Long.MAX_VALUE) {
+          selector.select();
+        } else {
+          selector.select(delay);
+        }
+      } finally {
+        selecting.lazySet(false);
+      }
+      if (tickCanceled) {
+        tickCanceled = false;
+        return 0;
+      }
+    } else {
+      selector.selectNow();
+    }
+    
+    result += handleSelectedKeys(exceptionHandler);
+    
+    return result + tick(exceptionHandler, true);
+  }
+  
+  /**
+   * Invokes the {@link SelectionHandler} for each of the currently selected keys.  Keys are 
+   * removed from the selected set as they are handled.
+   * 
+   * @param exceptionHandler Exception handler implementation to call if any handlers throw an 
+   *                           exception, or null to have exceptions thrown out of this call
+   * @return quantity of handlers invoked
+   */
+  protected int handleSelectedKeys(ExceptionHandler exceptionHandler) {
+    Set<SelectionKey> selectedKeys = selector.selectedKeys();
+    if (selectedKeys.isEmpty()) {
+      return 0;
+    }
+    
+    int result = 0;
+    Iterator<SelectionKey> it = selectedKeys.iterator();
+    while (it.hasNext()) {
+      SelectionKey key = it.next();
+      it.remove();
+      Object attachment = key.attachment();
+      if (! key.isValid() || ! (attachment instanceof SelectionHandler)) {
+        continue;
+      }
+      
+      try {
+        ((SelectionHandler)attachment).handleSelection(key);
+      } catch (Throwable t) {
+        if (exceptionHandler != null) {
+          exceptionHandler.handleException(t);
+        } else {
+          throw ExceptionUtils.makeRuntime(t);
+        }
+      }
+      result++;
+    }
+    return result;
+  }
+  
+  /**
+   * Handler invoked on the event loop thread when a registered {@link SelectionKey} is selected.
+   * 
+   * @since 5.30
+   */
+  @FunctionalInterface
+  public interface SelectionHandler {
+    /**
+     * Invoked when the key has been selected.  {@link SelectionKey#readyOps()} can be used to 
+     * check which operations are ready.
+     * 
+     * @param key Key which was selected
+     * @throws IOException Thrown if the channel fails, will be provided to the loop's {@link ExceptionHandler}
+     */
+    public void handleSelection(SelectionKey key) throws IOException;
+  }
+}
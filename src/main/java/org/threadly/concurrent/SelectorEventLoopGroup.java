@@ -0,0 +1,205 @@
+package org.threadly.concurrent;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.threadly.concurrent.SelectorEventLoop.SelectionHandler;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.Clock;
+import org.threadly.util.ExceptionUtils;
+
+/**
+ * A group of {@link SelectorEventLoop}'s, each running on its own thread.  Work can be 
+ * distributed across the loops either in a round robin fashion with {@link #next()}, or with an 
+ * affinity to a key using {@link #getLoop(Object)}.  Using the same key (for example the 
+ * connection or channel) ensures that all tasks and I/O events for that key are handled on a 
+ * single thread, in the order they were submitted, without additional synchronization.
+ * <p>
+ * Exceptions thrown from tasks or {@link SelectionHandler}'s are provided to 
+ * {@link ExceptionUtils#handleException(Throwable)}, and will not stop the loop.
+ * 
+ * @since 5.30
+ */
+public class SelectorEventLoopGroup {
+  protected final SelectorEventLoop[] loops;
+  protected final Thread[] threads;
+  private final AtomicInteger nextLoop;
+  private volatile boolean shutdown;
+  
+  /**
+   * Constructs a new group with the specified number of loops.  Threads will be daemon threads 
+   * and are started immediately.
+   * 
+   * @param loopCount Quantity of loops (and threads) to run
+   * @throws IOException Thrown if a selector could not be opened
+   */
+  public SelectorEventLoopGroup(int loopCount) throws IOException {
+    this(loopCount, 
+         new ConfigurableThreadFactory(SelectorEventLoopGroup.class.getSimpleName() + "-", 
+                                       true, true, Thread.NORM_PRIORITY, null, null));
+  }
+  
+  /**
+   * Constructs a new group with the specified number of loops.  A thread for each loop will be 
+   * produced from the provided factory and started immediately.
+   * 
+   * @param loopCount Quantity of loops (and threads) to run
+   * @param threadFactory Factory to produce the threads running each loop
+   * @throws IOException Thrown if a selector could not be opened
+   */
+  public SelectorEventLoopGroup(int loopCount, ThreadFactory threadFactory) throws IOException {
+    ArgumentVerifier.assertGreaterThanZero(loopCount, "loopCount");
+    ArgumentVerifier.assertNotNull(threadFactory, "threadFactory");
+    
+    this.loops = new SelectorEventLoop[loopCount];
+    this.threads = new Thread[loopCount];
+    this.nextLoop = new AtomicInteger();
+    this.shutdown = false;
+    
+    try {
+      for (int i = 0; i < loopCount; i++) {
+        loops[i] = new SelectorEventLoop(Selector.open());
+      }
+    } catch (IOException e) {
+      for (SelectorEventLoop loop : loops) {
+        if (loop != null) {
+          loop.getSelector().close();
+        }
+      }
+      throw e;
+    }
+    for (int i = 0; i < loopCount; i++) {
+      threads[i] = threadFactory.newThread(new LoopRunner(loops[i]));
+      threads[i].start();
+    }
+  }
+  
+  /**
+   * Returns the quantity of loops in this group.
+   * 
+   * @return Quantity of loops
+   */
+  public int getLoopCount() {
+    return loops.length;
+  }
+  
+  /**
+   * Returns the next loop in a round robin order.  This is useful for distributing work which 
+   * has no need for affinity.
+   * 
+   * @return Next {@link SelectorEventLoop} to be used
+   */
+  public SelectorEventLoop next() {
+    return loops[Math.floorMod(nextLoop.getAndIncrement(), loops.length)];
+  }
+  
+  /**
+   * Returns the loop which the provided key is assigned to.  The same key will always be assigned 
+   * to the same loop, so all work for a key is executed serially on a single thread.
+   * 
+   * @param key Key to get the loop for
+   * @return {@link SelectorEventLoop} the key is assigned to
+   */
+  public SelectorEventLoop getLoop(Object key) {
+    ArgumentVerifier.assertNotNull(key, "key");
+    
+    return loops[Math.floorMod(key.hashCode(), loops.length)];
+  }
+  
+  /**
+   * Registers the channel with the loop that the channel is assigned to.  Tasks which should be 
+   * executed on the same thread as the handler can be provided to {@link #getLoop(Object)} using 
+   * the channel as the key.
+   * 
+   * @param channel Channel to register, must be in non-blocking mode
+   * @param interestOps Interest set for the resulting key
+   * @param handler Handler to be invoked when the key is selected
+   * @return Future which will complete with the registered {@link SelectionKey}
+   */
+  public ListenableFuture<SelectionKey> register(SelectableChannel channel, int interestOps, 
+                                                 SelectionHandler handler) {
+    return getLoop(channel).register(channel, interestOps, handler);
+  }
+  
+  /**
+   * Stops all loops in this group.  Tasks which have not run will be discarded, and the selectors 
+   * will be closed (cancelling any registered keys).  Channels are not closed.
+   */
+  public void shutdown() {
+    shutdown = true;
+    for (SelectorEventLoop loop : loops) {
+      loop.cancelTick();
+    }
+  }
+  
+  /**
+   * Check if {@link #shutdown()} has been invoked.
+   * 
+   * @return {@code true} if the group has been shutdown
+   */
+  public boolean isShutdown() {
+    return shutdown;
+  }
+  
+  /**
+   * Block until every loop thread has exited after {@link #shutdown()} has been invoked.
+   * 
+   * @param timeoutMillis Maximum time to wait in milliseconds
+   * @return {@code true} if all loop threads have exited
+   * @throws InterruptedException Thrown if blocking thread is interrupted waiting for termination
+   */
+  public boolean awaitTermination(long timeoutMillis) throws InterruptedException {
+    long startTime = Clock.accurateForwardProgressingMillis();
+    for (Thread t : threads) {
+      long remaining = timeoutMillis - (Clock.accurateForwardProgressingMillis() - startTime);
+      if (remaining > 0) {
+        t.join(remaining);
+      }
+      if (t.isAlive()) {
+        return false;
+      }
+    }
+    return true;
+  }
+  
+  /**
+   * Runnable which ticks a loop until the group is shutdown.
+   * 
+   * @since 5.30
+   */
+  protected class LoopRunner implements Runnable {
+    protected final SelectorEventLoop loop;
+    
+    protected LoopRunner(SelectorEventLoop loop) {
+      this.loop = loop;
+    }
+    
+    @Override
+    public void run() {
+      try {
+        while (! shutdown) {
+          try {
+            loop.selectTick(ExceptionUtils::handleException);
+          } catch (ClosedSelectorException e) {
+            return;
+          } catch (IOException e) {
+            ExceptionUtils.handleException(e);
+          }
+        }
+      } finally {
+        loop.clearTasks();
+        try {
+          loop.getSelector().close();
+        } catch (IOException e) {
+          ExceptionUtils.handleException(e);
+        }
+      }
+    }
+  }
+}
@@ -83,8 +83,54 @@ public class SingleThreadScheduler extends AbstractPriorityScheduler {
    */
   public SingleThreadScheduler(TaskPriority defaultPriority, 
                                long maxWaitForLowPriorityInMs, ThreadFactory threadFactory) {
+    this(defaultPriority, maxWaitForLowPriorityInMs, threadFactory, false);
+  }
+  
+  /**
+   * Constructs a new {@link SingleThreadScheduler}.  No threads will start until the first task 
+   * is provided.
+   * <p>
+   * If {@code useTimingWheel} is {@code true} delayed and recurring tasks will be stored in a 
+   * hierarchical timing wheel rather than a sorted array.  This makes scheduling and rescheduling 
+   * constant time operations, as is removing a task through its wrapper (for example when a 
+   * returned future is cancelled).  Removing a task by its runnable or callable still searches the 
+   * queue.  This should be preferred when a large number of delayed or recurring tasks are 
+   * expected to be queued at once.
+   * 
+   * @since 5.30
+   * @param defaultPriority Default priority for tasks which are submitted without any specified priority
+   * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
+   * @param threadFactory factory to make thread for scheduler
+   * @param useTimingWheel {@code true} to store scheduled tasks in a timing wheel
+   */
+  public SingleThreadScheduler(TaskPriority defaultPriority, long maxWaitForLowPriorityInMs, 
+                               ThreadFactory threadFactory, boolean useTimingWheel) {
+    this(defaultPriority, maxWaitForLowPriorityInMs, threadFactory, useTimingWheel, null);
+  }
+  
+  /**
+   * Constructs a new {@link SingleThreadScheduler}.  No threads will start until the first task 
+   * is provided.
+   * <p>
+   * The provided {@link WaitStrategy} controls how the scheduler thread waits once there are no 
+   * tasks ready to run.  By default it will block immediately, but latency sensitive schedulers 
+   * may choose to spin for a time so that newly submitted tasks can be picked up without needing 
+   * to wake the thread.
+   * 
+   * @since 5.30
+   * @param defaultPriority Default priority for tasks which are submitted without any specified priority
+   * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
+   * @param threadFactory factory to make thread for scheduler
+   * @param useTimingWheel {@code true} to store scheduled tasks in a timing wheel
+   * @param waitStrategy Strategy for the scheduler thread to wait, or {@code null} to block till woken
+   */
+  public SingleThreadScheduler(TaskPriority defaultPriority, long maxWaitForLowPriorityInMs, 
+                               ThreadFactory threadFactory, boolean useTimingWheel, 
+                               WaitStrategy waitStrategy) {
     this(defaultPriority, 
-         new SchedulerManager(defaultPriority, maxWaitForLowPriorityInMs, threadFactory));
+         new SchedulerManager(new NoThreadScheduler(defaultPriority, maxWaitForLowPriorityInMs, 
+                                                    useTimingWheel, waitStrategy), 
+                              threadFactory));
   }
   
   /**
@@ -231,6 +277,12 @@ public class SingleThreadScheduler extends AbstractPriorityScheduler {
     return getRunningScheduler().doSchedule(task, delayInMillis, priority);
   }
 
+  @Override
+  protected List<OneTimeTaskWrapper> doExecuteAll(List<? extends Runnable> tasks, 
+                                                  TaskPriority priority) {
+    return getRunningScheduler().doExecuteAll(tasks, priority);
+  }
+
   @Override
   public void scheduleWithFixedDelay(Runnable task, long initialDelay, long recurringDelay,
                                      TaskPriority priority) {
@@ -7,10 +7,14 @@ import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.concurrent.locks.LockSupport;
 
+import org.threadly.concurrent.wrapper.limiter.RejectedExecutionHandler;
 import org.threadly.util.AbstractService;
 import org.threadly.util.ArgumentVerifier;
 import org.threadly.util.Clock;
@@ -34,6 +38,16 @@ import org.threadly.util.ExceptionUtils;
  * numbers for a more even hash distribution.  It is also important to recognize that it is 
  * generally a bad idea to block any of these threads waiting for results from processing that is 
  * expected to happen on the same executor.
+ * <p>
+ * By default each thread's queue is unbounded.  If constructed with a queue capacity each thread 
+ * will instead use a preallocated ring buffer, and idle threads will attempt to steal work from 
+ * several randomly selected threads rather than only their neighbor.  This mode can optionally 
+ * be bounded, with a {@link RejectedExecutionHandler} invoked once the selected thread's queue is 
+ * full.  {@link #getWorkerQueueDepths()} can be used to monitor how evenly tasks are distributed.
+ * <p>
+ * If tasks need to run in order for a given key {@link #execute(Object, Runnable)} can be used. 
+ * Those tasks are always run by the thread the key maps to and are never stolen by other 
+ * threads, so they execute serially in submission order without any per-key state or locking.
  * 
  * @since 4.5.0
  */
@@ -125,9 +139,14 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
     }
   }
   
+  protected static final int MAX_STEAL_VICTIMS = 4;
+  // keyed tasks run before queued shared tasks, but only up to this many in a row
+  protected static final int MAX_SEQUENTIAL_KEYED_TASKS = 8;
+  
   protected final Worker[] schedulers;
   private final AtomicBoolean shutdownStarted;
   private final TaskStripeGenerator stripeGenerator;
+  private final RejectedExecutionHandler rejectedExecutionHandler;
   
   /**
    * Constructs a new {@link UnfairExecutor} with a provided thread count.  This defaults to using 
@@ -205,24 +224,87 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
    */
   public UnfairExecutor(int threadCount, ThreadFactory threadFactory, 
                         TaskStripeGenerator stripeGenerator) {
+    this(threadCount, threadFactory, stripeGenerator, null);
+  }
+
+  /**
+   * Constructs a new {@link UnfairExecutor} with a provided thread count and factory.  
+   * <p>
+   * Possible built in stripe generators for use would be {@link AtomicStripeGenerator} or 
+   * {@link TaskHashXorTimeStripeGenerator}.
+   * <p>
+   * The provided {@link WaitStrategy} controls how threads wait once there are no tasks ready to 
+   * run.  By default threads will block immediately, but latency sensitive pools may choose to 
+   * spin for a time so that newly submitted tasks can be picked up without needing to wake the 
+   * thread.
+   * 
+   * @since 5.30
+   * @param threadCount Number of threads, recommended to be a prime number
+   * @param threadFactory thread factory for producing new threads within executor
+   * @param stripeGenerator Generator for figuring out how a task is assigned to a thread
+   * @param waitStrategy Strategy for idle threads to wait, or {@code null} to block till woken
+   */
+  public UnfairExecutor(int threadCount, ThreadFactory threadFactory, 
+                        TaskStripeGenerator stripeGenerator, WaitStrategy waitStrategy) {
+    this(threadCount, threadFactory, stripeGenerator, waitStrategy, 0, null);
+  }
+  
+  /**
+   * Constructs a new {@link UnfairExecutor} where each thread queues tasks in a preallocated ring 
+   * buffer of the provided capacity (rounded up to a power of two, minimum of 2).  Idle threads 
+   * will attempt to steal tasks from several randomly selected threads, allowing multiple threads 
+   * to help when a single stripe is receiving an unfair share of tasks.
+   * <p>
+   * If a {@link RejectedExecutionHandler} is provided then the capacity is a bound on the tasks 
+   * queued for each thread.  Once the queue for the selected thread is full the handler will be 
+   * invoked, {@link RejectedExecutionHandler#THROW_REJECTED_EXECUTION_EXCEPTION} or 
+   * {@link RejectedExecutionHandler#RUN_ON_CALLING_THREAD} are built in options.  If 
+   * {@code null} is provided tasks which do not fit in the ring buffer will be queued in an 
+   * unbounded overflow queue.
+   * 
+   * @since 5.30
+   * @param threadCount Number of threads, recommended to be a prime number
+   * @param threadFactory thread factory for producing new threads within executor
+   * @param stripeGenerator Generator for figuring out how a task is assigned to a thread
+   * @param waitStrategy Strategy for idle threads to wait, or {@code null} to block till woken
+   * @param queueCapacity Capacity of the ring buffer for each thread
+   * @param rejectedExecutionHandler Handler for tasks once a thread's queue is full, or {@code null} to overflow
+   */
+  public UnfairExecutor(int threadCount, ThreadFactory threadFactory, 
+                        TaskStripeGenerator stripeGenerator, WaitStrategy waitStrategy, 
+                        int queueCapacity, RejectedExecutionHandler rejectedExecutionHandler) {
     ArgumentVerifier.assertGreaterThanZero(threadCount, "threadCount");
     ArgumentVerifier.assertNotNull(stripeGenerator, "stripeGenerator");
+    ArgumentVerifier.assertNotNegative(queueCapacity, "queueCapacity");
+    if (queueCapacity > TaskRingBuffer.MAX_CAPACITY) {
+      throw new IllegalArgumentException("queueCapacity can not be greater than " + 
+                                           TaskRingBuffer.MAX_CAPACITY);
+    } else if (queueCapacity == 0 && rejectedExecutionHandler != null) {
+      throw new IllegalArgumentException("queueCapacity must be set to bound the queue");
+    }
     
     this.schedulers = new Worker[threadCount];
     this.shutdownStarted = new AtomicBoolean(false);
     this.stripeGenerator = stripeGenerator;
+    this.rejectedExecutionHandler = rejectedExecutionHandler;
     
     for (int i = 0; i < threadCount; i++) {
-      schedulers[i] = new Worker(threadFactory);
+      schedulers[i] = new Worker(threadFactory, waitStrategy, queueCapacity);
       if (i > 0) {
         schedulers[i].setNeighborWorker(schedulers[i - 1]);
       }
     }
     schedulers[0].setNeighborWorker(schedulers[schedulers.length - 1]);
+    if (queueCapacity > 0 && threadCount > 2) {
+      for (Worker w : schedulers) {
+        w.setStealVictims(schedulers);
+      }
+    }
     // can only start once full neighbor chain is established
     final Worker firstWorker = schedulers[0];
-    // let first worker start all the other threads as soon as possible
-    firstWorker.addTask(new Runnable() {
+    // let first worker start all the other threads as soon as possible, queued as a keyed task so 
+    // it can not be delayed behind keyed tasks (which run first) or stolen
+    firstWorker.addKeyedTask(new Runnable() {
       @Override
       public void run() {
         for (Worker w : schedulers) {
@@ -241,7 +323,69 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
       throw new RejectedExecutionException("Pool is shutdown");
     }
     
-    schedulers[(int)Math.floorMod(stripeGenerator.getStripe(task), schedulers.length)].addTask(task);
+    Worker w = 
+        schedulers[(int)Math.floorMod(stripeGenerator.getStripe(task), schedulers.length)];
+    if (rejectedExecutionHandler == null) {
+      w.addTask(task);
+    } else if (! w.offerTask(task)) {
+      rejectedExecutionHandler.handleRejectedTask(task);
+    }
+  }
+  
+  /**
+   * Execute a task which will be run in order with all other tasks submitted for the same key. 
+   * The key is mapped to a single thread by its {@link Object#hashCode()}, and these tasks will not 
+   * be stolen by other threads.  Because of that an expensive or unevenly distributed key can 
+   * delay other tasks assigned to the same thread.
+   * <p>
+   * Keyed tasks are always queued without bound, and are run before other tasks queued for the 
+   * thread (up to {@link #MAX_SEQUENTIAL_KEYED_TASKS} in a row).
+   * 
+   * @since 5.30
+   * @param key Key to order execution on, must not be {@code null}
+   * @param task Task to be executed
+   */
+  public void execute(Object key, Runnable task) {
+    ArgumentVerifier.assertNotNull(key, "key");
+    ArgumentVerifier.assertNotNull(task, "task");
+    
+    if (shutdownStarted.get()) {
+      throw new RejectedExecutionException("Pool is shutdown");
+    }
+    
+    int hash = key.hashCode();
+    // spread the high bits so keys with similar hash codes still distribute across threads
+    schedulers[Math.floorMod(hash ^ (hash >>> 16), schedulers.length)].addKeyedTask(task);
+  }
+  
+  /**
+   * Returns the quantity of tasks currently queued for each thread.  Since tasks are assigned to 
+   * threads by their stripe, this can be used to see if tasks are being unevenly distributed. 
+   * The depths are read independently, so may not represent a single point in time.
+   * 
+   * @since 5.30
+   * @return Array with the queue depth of each thread
+   */
+  public int[] getWorkerQueueDepths() {
+    int[] result = new int[schedulers.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = schedulers[i].getQueueDepth();
+    }
+    return result;
+  }
+  
+  /**
+   * Returns the total quantity of tasks queued across all threads, waiting to be executed.
+   * 
+   * @since 5.30
+   * @return Quantity of queued tasks
+   */
+  public int getQueuedTaskCount() {
+    int result = 0;
+    for (Worker w : schedulers) {
+      result += w.getQueueDepth();
+    }
+    return result;
   }
 
   /**
@@ -283,6 +427,14 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
     List<Runnable> result = new ArrayList<>();
     for (Worker w : schedulers) {
       w.stopIfRunning();
+      if (w.ringBuffer != null) {
+        Runnable task;
+        while ((task = w.ringBuffer.poll()) != null) {
+          if (! (task instanceof ShutdownTask)) {
+            result.add(task);
+          }
+        }
+      }
       Iterator<Runnable> it = w.taskQueue.iterator();
       while (it.hasNext()) {
         Runnable task = it.next();
@@ -291,6 +443,10 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
           result.add(task);
         }
       }
+      Runnable task;
+      while ((task = w.keyedTaskQueue.poll()) != null) {
+        result.add(task);
+      }
     }
     return result;
   }
@@ -340,23 +496,64 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
    * Worker task for executing tasks on the provided thread.  This worker maintains an internal 
    * queue for which tasks can be added on.  It will park itself once idle, and resume if tasks 
    * are later then added.
+   * <p>
+   * If constructed with a ring buffer capacity tasks will be queued in the ring buffer first, 
+   * with {@link #taskQueue} only used for tasks which could not fit.
+   * <p>
+   * Tasks added to {@link #keyedTaskQueue} are only run by this worker, and are never stolen.  
+   * They are preferred over other queued tasks, but after {@link #MAX_SEQUENTIAL_KEYED_TASKS} in 
+   * a row a queued task is run so that a steady flow of keyed tasks can not starve them.
    * 
    * @since 4.5.0
    */
   protected static class Worker extends AbstractService implements Runnable {
     protected final Thread thread;
     protected final Queue<Runnable> taskQueue;
+    protected final Queue<Runnable> keyedTaskQueue;
+    protected final TaskRingBuffer ringBuffer;
+    protected final WaitStrategy waitStrategy;
     private volatile boolean parked;
     private Worker checkNeighborWorker;
     private Worker wakupNeighborWorker;
+    private Worker[] stealVictims;
+    private int sequentialKeyedTasks;
     
     public Worker(ThreadFactory threadFactory) {
+      this(threadFactory, null);
+    }
+    
+    /**
+     * Constructs a new worker which will wait using the provided strategy once idle.
+     * 
+     * @since 5.30
+     * @param threadFactory Factory to produce the thread tasks will run on
+     * @param waitStrategy Strategy for waiting once idle, or {@code null} to block till woken
+     */
+    public Worker(ThreadFactory threadFactory, WaitStrategy waitStrategy) {
+      this(threadFactory, waitStrategy, 0);
+    }
+    
+    /**
+     * Constructs a new worker which will queue tasks in a ring buffer of the provided capacity.
+     * 
+     * @since 5.30
+     * @param threadFactory Factory to produce the thread tasks will run on
+     * @param waitStrategy Strategy for waiting once idle, or {@code null} to block till woken
+     * @param ringBufferCapacity Capacity for the ring buffer, or {@code 0} to only use an unbounded queue
+     */
+    public Worker(ThreadFactory threadFactory, WaitStrategy waitStrategy, int ringBufferCapacity) {
       thread = threadFactory.newThread(this);
       if (thread.isAlive()) {
         throw new IllegalThreadStateException();
       }
       taskQueue = new ConcurrentLinkedQueue<>();
+      keyedTaskQueue = new ConcurrentLinkedQueue<>();
+      ringBuffer = ringBufferCapacity > 0 ? new TaskRingBuffer(ringBufferCapacity) : null;
+      this.waitStrategy = 
+          waitStrategy == null ? WaitStrategy.ParkWaitStrategy.instance() : waitStrategy;
       parked = false;
+      stealVictims = null;
+      sequentialKeyedTasks = 0;
     }
     
     /**
@@ -368,6 +565,17 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
       checkNeighborWorker = w;
       w.wakupNeighborWorker = this;
     }
+    
+    /**
+     * Provide the workers which this worker may steal from once idle, in addition to its 
+     * neighbor.  May include this worker, which will be ignored.  Must be set before starting.
+     * 
+     * @since 5.30
+     * @param workers Workers to randomly select from when stealing tasks
+     */
+    protected void setStealVictims(Worker[] workers) {
+      stealVictims = workers;
+    }
 
     @Override
     protected void startupService() {
@@ -383,34 +591,170 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
     }
     
     public void addTask(Runnable task) {
-      taskQueue.add(task);
+      if (ringBuffer == null || ! ringBuffer.offer(task)) {
+        taskQueue.add(task);
+      }
+      signalTaskAdded();
+    }
+    
+    /**
+     * Attempt to add a task to the ring buffer, without overflowing into the unbounded queue.
+     * 
+     * @since 5.30
+     * @param task Task to be added
+     * @return {@code true} if the task was added, {@code false} if the ring buffer is full
+     */
+    protected boolean offerTask(Runnable task) {
+      if (ringBuffer.offer(task)) {
+        signalTaskAdded();
+        return true;
+      } else {
+        return false;
+      }
+    }
+    
+    /**
+     * Add a task which must be run by this worker.  Since other workers can not help with these 
+     * tasks only this worker is woken up.
+     * 
+     * @since 5.30
+     * @param task Task to be added
+     */
+    protected void addKeyedTask(Runnable task) {
+      keyedTaskQueue.add(task);
+      if (parked) {
+        parked = false;
+        LockSupport.unpark(thread);
+      }
+    }
+    
+    private void signalTaskAdded() {
       if (parked) {
         parked = false;
         LockSupport.unpark(thread);
       } else if (wakupNeighborWorker.parked) {
         wakupNeighborWorker.parked = false;
         LockSupport.unpark(wakupNeighborWorker.thread);
+      } else if (stealVictims != null) {
+        // both workers checking this queue are busy, wake another worker so it can steal the task
+        int start = ThreadLocalRandom.current().nextInt(stealVictims.length);
+        int scanCount = Math.min(MAX_STEAL_VICTIMS + 2, stealVictims.length);
+        for (int i = 0; i < scanCount; i++) {
+          Worker w = stealVictims[(start + i) % stealVictims.length];
+          if (w.parked) {
+            w.parked = false;
+            LockSupport.unpark(w.thread);
+            break;
+          }
+        }
+      }
+    }
+    
+    /**
+     * Takes the next queued task for this worker.  This may be invoked by other workers which are 
+     * stealing tasks.
+     * 
+     * @since 5.30
+     * @return Next queued task, or {@code null} if none are queued
+     */
+    protected Runnable pollTask() {
+      if (ringBuffer != null) {
+        Runnable task = ringBuffer.poll();
+        if (task != null) {
+          return task;
+        }
+      }
+      return taskQueue.poll();
+    }
+    
+    /**
+     * Takes the next task for this worker to run.  Keyed tasks are taken first since no other 
+     * worker is able to run them, unless {@link #MAX_SEQUENTIAL_KEYED_TASKS} have just been run.
+     * 
+     * @return Next task, or {@code null} if none are queued
+     */
+    private Runnable pollLocalTask() {
+      Runnable task;
+      if (sequentialKeyedTasks >= MAX_SEQUENTIAL_KEYED_TASKS) {
+        sequentialKeyedTasks = 0;
+        task = pollTask();
+        if (task != null) {
+          return task;
+        }
+      }
+      task = keyedTaskQueue.poll();
+      if (task == null) {
+        sequentialKeyedTasks = 0;
+        task = pollTask();
+      } else {
+        sequentialKeyedTasks++;
+      }
+      return task;
+    }
+    
+    /**
+     * Attempt to take a task queued for another worker.  The neighbor worker is always checked 
+     * first, followed by a few randomly selected workers if steal victims have been set.
+     * 
+     * @since 5.30
+     * @return A stolen task, or {@code null} if none was found
+     */
+    protected Runnable stealTask() {
+      Runnable task = checkNeighborWorker.pollTask();
+      if (task == null && stealVictims != null) {
+        // scan from a random start so victims are spread, skipping ourselves and our neighbor
+        int start = ThreadLocalRandom.current().nextInt(stealVictims.length);
+        int scanCount = Math.min(MAX_STEAL_VICTIMS + 2, stealVictims.length);
+        for (int i = 0; i < scanCount && task == null; i++) {
+          Worker victim = stealVictims[(start + i) % stealVictims.length];
+          if (victim != this && victim != checkNeighborWorker) {
+            task = victim.pollTask();
+          }
+        }
+      }
+      return task;
+    }
+    
+    /**
+     * Returns the quantity of tasks queued for this worker.
+     * 
+     * @since 5.30
+     * @return Quantity of queued tasks
+     */
+    public int getQueueDepth() {
+      int result = taskQueue.isEmpty() ? 0 : taskQueue.size();
+      if (! keyedTaskQueue.isEmpty()) {
+        result += keyedTaskQueue.size();
+      }
+      if (ringBuffer != null) {
+        result += ringBuffer.size();
       }
+      return result;
     }
     
     @Override
     public void run() {
+      int idleCount = 0;
       while (isRunning()) {
-        Runnable task = taskQueue.poll();
+        Runnable task = pollLocalTask();
         // just reset status, we should only shutdown by having the service stopped
         Thread.interrupted();
         if (task != null) {
           if (parked) {
             parked = false;
           }
+          if (idleCount > 0) {
+            waitStrategy.taskFound(idleCount);
+            idleCount = 0;
+          }
           try {
             task.run();
           } catch (Throwable t) {
             ExceptionUtils.handleException(t);
           }
         } else if (! parked) {
-          // check neighbor worker to see if they need help
-          task = checkNeighborWorker.taskQueue.poll();
+          // check other workers to see if they need help
+          task = stealTask();
           if (task != null) {
             try {
               task.run();
@@ -421,7 +765,10 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
             parked = true;
           }
         } else {
-          LockSupport.park();
+          waitStrategy.idle(idleCount, Long.MAX_VALUE);
+          if (idleCount < Integer.MAX_VALUE) {
+            idleCount++;
+          }
         }
       }
     }
@@ -441,8 +788,113 @@ public class UnfairExecutor extends AbstractSubmitterExecutor {
     
     @Override
     public void run() {
+      if (w.getQueueDepth() > 0) {
+        // keyed tasks, or tasks which overflowed the ring buffer, may have been queued before shutdown
+        w.addTask(this);
+        return;
+      }
       w.stopIfRunning();
       w.taskQueue.clear();
     }
   }
+  
+  /**
+   * Bounded multi-producer queue backed by a preallocated array.  Each slot has a sequence number 
+   * which indicates if it is ready to be written to or read from, allowing producers and 
+   * consumers to claim slots with a single compare and swap.  Because idle workers may steal from 
+   * this queue it is also safe for multiple consumers.
+   * 
+   * @since 5.30
+   */
+  protected static class TaskRingBuffer {
+    protected static final int MAX_CAPACITY = 1 << 30;
+    
+    protected final int capacity;
+    private final int mask;
+    private final AtomicReferenceArray<Runnable> tasks;
+    private final AtomicLongArray sequences;
+    private final AtomicLong head;
+    private final AtomicLong tail;
+    
+    protected TaskRingBuffer(int minimumCapacity) {
+      // at least two slots are needed so a consumed slot can be distinguished from a filled one
+      int capacity = 2;
+      while (capacity < minimumCapacity) {
+        capacity <<= 1;
+      }
+      this.capacity = capacity;
+      this.mask = capacity - 1;
+      this.tasks = new AtomicReferenceArray<>(capacity);
+      this.sequences = new AtomicLongArray(capacity);
+      for (int i = 0; i < capacity; i++) {
+        sequences.lazySet(i, i);
+      }
+      this.head = new AtomicLong();
+      this.tail = new AtomicLong();
+    }
+    
+    /**
+     * Adds the task to the tail of the buffer if there is space.
+     * 
+     * @param task Task to be added
+     * @return {@code true} if added, {@code false} if the buffer is full
+     */
+    public boolean offer(Runnable task) {
+      long position = tail.get();
+      while (true) {
+        int index = (int)position & mask;
+        long difference = sequences.get(index) - position;
+        if (difference == 0) {
+          if (tail.compareAndSet(position, position + 1)) {
+            tasks.lazySet(index, task);
+            // volatile write publishes the task to consumers
+            sequences.set(index, position + 1);
+            return true;
+          }
+          position = tail.get();
+        } else if (difference < 0) {
+          return false;
+        } else {
+          position = tail.get();
+        }
+      }
+    }
+    
+    /**
+     * Removes the task at the head of the buffer.
+     * 
+     * @return Removed task, or {@code null} if the buffer is empty
+     */
+    public Runnable poll() {
+      long position = head.get();
+      while (true) {
+        int index = (int)position & mask;
+        long difference = sequences.get(index) - (position + 1);
+        if (difference == 0) {
+          if (head.compareAndSet(position, position + 1)) {
+            Runnable task = tasks.get(index);
+            tasks.lazySet(index, null);
+            // mark the slot free for the producer one lap ahead
+            sequences.set(index, position + capacity);
+            return task;
+          }
+          position = head.get();
+        } else if (difference < 0) {
+          return null;
+        } else {
+          position = head.get();
+        }
+      }
+    }
+    
+    /**
+     * Returns an estimate of how many tasks are in the buffer.
+     * 
+     * @return Quantity of tasks in the buffer
+     */
+    public int size() {
+      long size = tail.get() - head.get();
+      return (int)Math.max(0, Math.min(size, capacity));
+    }
+  }
 }
@@ -0,0 +1,643 @@
+package org.threadly.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.concurrent.future.ListenableFutureTask;
+import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.Clock;
+import org.threadly.util.ExceptionUtils;
+
+/**
+ * Scheduler which starts a new thread for every task, intended to be used with the virtual 
+ * threads available from Java 21.  Since a thread is started as soon as a task is ready to run, 
+ * tasks never wait in a queue for a thread to become available.  This makes it a good fit for 
+ * tasks which spend most of their time blocked on I/O, where a large number of concurrent tasks 
+ * would otherwise require a very large pool of platform threads.
+ * <p>
+ * Delayed and recurring tasks are held by a single daemon platform thread until their delay has 
+ * elapsed, at which point a new thread is started for them.  The {@link TaskPriority} of a task 
+ * is used to order tasks which become ready at the same time, and starved low priority tasks 
+ * will still be started after {@link #getMaxWaitForLowPriority()}.  Because tasks without a 
+ * delay are started immediately, priority has no other effect.  If concurrency needs to be 
+ * bounded this can be wrapped in a 
+ * {@link org.threadly.concurrent.wrapper.limiter.SchedulerServiceLimiter}.
+ * <p>
+ * Recurring tasks will never run concurrently with themselves, the next execution is scheduled 
+ * once the previous execution has completed.
+ * <p>
+ * Threadly is compiled for Java 8, so virtual threads are accessed through reflection. 
+ * {@link #isVirtualThreadSupported()} can be used to check if the running JVM provides them.  If 
+ * a {@link ThreadFactory} is provided it will be used instead, allowing platform threads (or any 
+ * other thread implementation) to be started for each task.
+ * 
+ * @since 5.30
+ */
+public class VirtualThreadScheduler extends AbstractSubmitterScheduler
+                                    implements PrioritySchedulerService {
+  protected static final String DEFAULT_THREAD_NAME_PREFIX = "virtual-";
+  private static final Method OF_VIRTUAL_METHOD;
+  private static final Method BUILDER_NAME_METHOD;
+  private static final Method BUILDER_FACTORY_METHOD;
+  
+  static {
+    Method ofVirtual = null;
+    Method builderName = null;
+    Method builderFactory = null;
+    try {
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+      Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+      builderName = builderClass.getMethod("name", String.class, long.class);
+      builderFactory = builderClass.getMethod("factory");
+      // preview releases will throw if virtual threads are not enabled
+      ofVirtual.invoke(null);
+    } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+      ofVirtual = null;
+    }
+    OF_VIRTUAL_METHOD = ofVirtual;
+    BUILDER_NAME_METHOD = builderName;
+    BUILDER_FACTORY_METHOD = builderFactory;
+  }
+  
+  /**
+   * Check if the running JVM is able to provide virtual threads.  If this returns {@code false} 
+   * then a {@link ThreadFactory} must be provided at construction.
+   * 
+   * @return {@code true} if virtual threads can be started
+   */
+  public static boolean isVirtualThreadSupported() {
+    return OF_VIRTUAL_METHOD != null;
+  }
+  
+  /**
+   * Constructs a {@link ThreadFactory} which will produce virtual threads.  Threads will be 
+   * named with the provided prefix followed by an incrementing number.
+   * 
+   * @param threadNamePrefix Prefix for the names of threads produced
+   * @return A factory producing unstarted virtual threads
+   * @throws UnsupportedOperationException Thrown if virtual threads are not supported by this JVM
+   */
+  public static ThreadFactory makeVirtualThreadFactory(String threadNamePrefix) {
+    if (! isVirtualThreadSupported()) {
+      throw new UnsupportedOperationException("Virtual threads not supported by this JVM");
+    } else if (threadNamePrefix == null) {
+      threadNamePrefix = "";
+    }
+    
+    try {
+      Object builder = OF_VIRTUAL_METHOD.invoke(null);
+      builder = BUILDER_NAME_METHOD.invoke(builder, threadNamePrefix, 0L);
+      return (ThreadFactory)BUILDER_FACTORY_METHOD.invoke(builder);
+    } catch (ReflectiveOperationException e) {
+      throw new UnsupportedOperationException(e);
+    }
+  }
+  
+  protected final TaskPriority defaultPriority;
+  protected final ThreadFactory threadFactory;
+  protected final SingleThreadScheduler delayScheduler;
+  protected final Set<RecurringTask> recurringTasks;
+  protected final AtomicInteger activeTaskCount;
+  protected final Object terminationLock;
+  private volatile boolean shutdown;
+  
+  /**
+   * Constructs a new scheduler which will start a virtual thread for each task.  This defaults 
+   * to using {@link TaskPriority#High} priority tasks, and a low priority max wait of 
+   * {@link AbstractPriorityScheduler#DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS}.
+   * 
+   * @throws UnsupportedOperationException Thrown if virtual threads are not supported by this JVM
+   */
+  public VirtualThreadScheduler() {
+    this(TaskPriority.High, AbstractPriorityScheduler.DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS);
+  }
+  
+  /**
+   * Constructs a new scheduler which will start a virtual thread for each task.
+   * 
+   * @param defaultPriority Default priority for tasks which are submitted without any specified priority
+   * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
+   * @throws UnsupportedOperationException Thrown if virtual threads are not supported by this JVM
+   */
+  public VirtualThreadScheduler(TaskPriority defaultPriority, long maxWaitForLowPriorityInMs) {
+    this(defaultPriority, maxWaitForLowPriorityInMs, 
+         makeVirtualThreadFactory(DEFAULT_THREAD_NAME_PREFIX));
+  }
+  
+  /**
+   * Constructs a new scheduler which will start a thread from the provided factory for each 
+   * task.  Threads produced by the factory must not be started.
+   * 
+   * @param defaultPriority Default priority for tasks which are submitted without any specified priority
+   * @param maxWaitForLowPriorityInMs time low priority tasks to wait if there are high priority tasks ready to run
+   * @param threadFactory Factory to produce a thread for each task
+   */
+  public VirtualThreadScheduler(TaskPriority defaultPriority, long maxWaitForLowPriorityInMs, 
+                                ThreadFactory threadFactory) {
+    ArgumentVerifier.assertNotNull(threadFactory, "threadFactory");
+    if (defaultPriority == null) {
+      defaultPriority = TaskPriority.High;
+    }
+    
+    this.defaultPriority = defaultPriority;
+    this.threadFactory = threadFactory;
+    this.delayScheduler = 
+        new SingleThreadScheduler(defaultPriority, maxWaitForLowPriorityInMs, 
+                                  new ConfigurableThreadFactory(VirtualThreadScheduler.class.getSimpleName() + 
+                                                                  "-delay-", 
+                                                                true, true, Thread.NORM_PRIORITY, 
+                                                                null, null));
+    this.recurringTasks = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    this.activeTaskCount = new AtomicInteger();
+    this.terminationLock = new Object();
+    this.shutdown = false;
+  }
+  
+  @Override
+  public TaskPriority getDefaultPriority() {
+    return defaultPriority;
+  }
+  
+  @Override
+  public long getMaxWaitForLowPriority() {
+    return delayScheduler.getMaxWaitForLowPriority();
+  }
+  
+  /**
+   * Changes the max wait time for low priority tasks.  This is the amount of time that a low 
+   * priority task will wait if there are ready to execute high priority tasks.
+   * 
+   * @param maxWaitForLowPriorityInMs new wait time in milliseconds for low priority tasks during thread contention
+   */
+  public void setMaxWaitForLowPriority(long maxWaitForLowPriorityInMs) {
+    delayScheduler.setMaxWaitForLowPriority(maxWaitForLowPriorityInMs);
+  }
+  
+  @Override
+  protected void doSchedule(Runnable task, long delayInMillis) {
+    doSchedule(task, delayInMillis, defaultPriority);
+  }
+  
+  /**
+   * Starts the task immediately if there is no delay, otherwise queues it until the delay has 
+   * elapsed.  All error checking has completed by this point.
+   * 
+   * @param task Runnable to be ran
+   * @param delayInMillis delay to wait before starting the task
+   * @param priority Priority to order the task against other delayed tasks
+   */
+  protected void doSchedule(Runnable task, long delayInMillis, TaskPriority priority) {
+    if (shutdown) {
+      throw new RejectedExecutionException("Thread pool shutdown");
+    } else if (delayInMillis == 0) {
+      startThread(task);
+    } else {
+      delayScheduler.schedule(new DelayedTask(task), delayInMillis, priority);
+    }
+  }
+  
+  /**
+   * Starts a new thread to run the provided task.  This does not check if the scheduler is 
+   * shutdown so that tasks which have elapsed their delay can be started while shutting down.
+   * 
+   * @param task Runnable to be ran
+   */
+  protected void startThread(Runnable task) {
+    activeTaskCount.incrementAndGet();
+    try {
+      threadFactory.newThread(new TaskRunner(task)).start();
+    } catch (RuntimeException | Error e) {
+      taskFinished();
+      throw e;
+    }
+  }
+  
+  private void taskFinished() {
+    if (activeTaskCount.decrementAndGet() == 0 && shutdown) {
+      synchronized (terminationLock) {
+        terminationLock.notifyAll();
+      }
+    }
+  }
+  
+  @Override
+  public void execute(Runnable task, TaskPriority priority) {
+    schedule(task, 0, priority);
+  }
+  
+  @Override
+  public <T> ListenableFuture<T> submit(Runnable task, T result, TaskPriority priority) {
+    return submitScheduled(task, result, 0, priority);
+  }
+  
+  @Override
+  public <T> ListenableFuture<T> submit(Callable<T> task, TaskPriority priority) {
+    return submitScheduled(task, 0, priority);
+  }
+  
+  @Override
+  public void schedule(Runnable task, long delayInMs, TaskPriority priority) {
+    ArgumentVerifier.assertNotNull(task, "task");
+    ArgumentVerifier.assertNotNegative(delayInMs, "delayInMs");
+    if (priority == null) {
+      priority = defaultPriority;
+    }
+    
+    doSchedule(task, delayInMs, priority);
+  }
+  
+  @Override
+  public <T> ListenableFuture<T> submitScheduled(Callable<T> task, long delayInMs) {
+    return submitScheduled(task, delayInMs, defaultPriority);
+  }
+  
+  @Override
+  public <T> ListenableFuture<T> submitScheduled(Runnable task, T result, 
+                                                 long delayInMs, TaskPriority priority) {
+    return submitScheduled(RunnableCallableAdapter.adapt(task, result), delayInMs, priority);
+  }
+  
+  @Override
+  public <T> ListenableFuture<T> submitScheduled(Callable<T> task, long delayInMs, 
+                                                 TaskPriority priority) {
+    ArgumentVerifier.assertNotNull(task, "task");
+    ArgumentVerifier.assertNotNegative(delayInMs, "delayInMs");
+    if (priority == null) {
+      priority = defaultPriority;
+    }
+    
+    ListenableFutureTask<T> lft = new ListenableFutureTask<>(false, task, this);
+    
+    doSchedule(lft, delayInMs, priority);
+    if (delayInMs > 0) {
+      // don't hold cancelled tasks until their delay elapses
+      lft.addListener(() -> {
+        if (lft.isCancelled()) {
+          delayScheduler.remove(lft);
+        }
+      });
+    }
+    
+    return lft;
+  }
+  
+  @Override
+  public void scheduleWithFixedDelay(Runnable task, long initialDelay, long recurringDelay) {
+    scheduleWithFixedDelay(task, initialDelay, recurringDelay, null);
+  }
+  
+  @Override
+  public void scheduleWithFixedDelay(Runnable task, long initialDelay, 
+                                     long recurringDelay, TaskPriority priority) {
+    ArgumentVerifier.assertNotNull(task, "task");
+    ArgumentVerifier.assertNotNegative(initialDelay, "initialDelay");
+    ArgumentVerifier.assertNotNegative(recurringDelay, "recurringDelay");
+    if (priority == null) {
+      priority = defaultPriority;
+    }
+    
+    scheduleRecurring(new RecurringTask(task, priority, recurringDelay, false, 
+                                        Clock.accurateForwardProgressingMillis() + initialDelay), 
+                      initialDelay);
+  }
+  
+  @Override
+  public void scheduleAtFixedRate(Runnable task, long initialDelay, long period) {
+    scheduleAtFixedRate(task, initialDelay, period, null);
+  }
+  
+  @Override
+  public void scheduleAtFixedRate(Runnable task, long initialDelay, 
+                                  long period, TaskPriority priority) {
+    ArgumentVerifier.assertNotNull(task, "task");
+    ArgumentVerifier.assertNotNegative(initialDelay, "initialDelay");
+    ArgumentVerifier.assertGreaterThanZero(period, "period");
+    if (priority == null) {
+      priority = defaultPriority;
+    }
+    
+    scheduleRecurring(new RecurringTask(task, priority, period, true, 
+                                        Clock.accurateForwardProgressingMillis() + initialDelay), 
+                      initialDelay);
+  }
+  
+  private void scheduleRecurring(RecurringTask rt, long initialDelay) {
+    if (shutdown) {
+      throw new RejectedExecutionException("Thread pool shutdown");
+    }
+    
+    recurringTasks.add(rt);
+    try {
+      delayScheduler.schedule(rt, initialDelay, rt.priority);
+    } catch (RejectedExecutionException e) {
+      recurringTasks.remove(rt);
+      throw e;
+    }
+  }
+  
+  /**
+   * Removes the runnable task from the execution queue.  It is possible for the runnable to still 
+   * run until this call has returned.  Recurring tasks will be prevented from running again, even 
+   * if they are currently executing.  Tasks without a delay are started immediately, so can not 
+   * be removed.
+   * 
+   * @param task The original runnable provided to the executor
+   * @return {@code true} if the runnable was found and removed
+   */
+  @Override
+  public boolean remove(Runnable task) {
+    for (RecurringTask rt : recurringTasks) {
+      if (ContainerHelper.isContained(rt, task) && recurringTasks.remove(rt)) {
+        rt.cancelled = true;
+        delayScheduler.remove(rt);
+        return true;
+      }
+    }
+    return delayScheduler.remove(task);
+  }
+  
+  /**
+   * Removes the callable task from the execution queue.  It is possible for the callable to still 
+   * run until this call has returned.  Tasks without a delay are started immediately, so can not 
+   * be removed.
+   * 
+   * @param task The original callable provided to the executor
+   * @return {@code true} if the callable was found and removed
+   */
+  @Override
+  public boolean remove(Callable<?> task) {
+    return delayScheduler.remove(task);
+  }
+  
+  /**
+   * Returns how many tasks are currently running.  Since every task is started on its own thread 
+   * this is also the quantity of threads started by this scheduler which are still running.
+   * 
+   * @return Quantity of currently running tasks
+   */
+  @Override
+  public int getActiveTaskCount() {
+    return activeTaskCount.get();
+  }
+  
+  /**
+   * Returns how many tasks are waiting for their delay to elapse, or waiting to be started once 
+   * it has.  Recurring tasks are included while waiting for their next execution.
+   * 
+   * @return Quantity of delayed tasks which have not yet started
+   */
+  @Override
+  public int getQueuedTaskCount() {
+    return delayScheduler.getQueuedTaskCount();
+  }
+  
+  @Override
+  public int getQueuedTaskCount(TaskPriority priority) {
+    return delayScheduler.getQueuedTaskCount(priority);
+  }
+  
+  @Override
+  public int getWaitingForExecutionTaskCount() {
+    return delayScheduler.getWaitingForExecutionTaskCount();
+  }
+  
+  @Override
+  public int getWaitingForExecutionTaskCount(TaskPriority priority) {
+    return delayScheduler.getWaitingForExecutionTaskCount(priority);
+  }
+  
+  @Override
+  public boolean isShutdown() {
+    return shutdown;
+  }
+  
+  /**
+   * Stops any new tasks from being submitted to the scheduler.  Delayed tasks which are ready to 
+   * run will still be started, but tasks which are still waiting for their delay to elapse will 
+   * be discarded.  Recurring tasks will not be rescheduled.  Tasks which have already started 
+   * will be allowed to complete.
+   */
+  public void shutdown() {
+    shutdown = true;
+    cancelRecurringTasks();
+    delayScheduler.shutdown();
+    synchronized (terminationLock) {
+      terminationLock.notifyAll();
+    }
+  }
+  
+  /**
+   * Stops any new tasks from being submitted, and removes all tasks which have not yet been 
+   * started.  Tasks which are currently running are not interrupted.
+   * 
+   * @return List of runnables which were waiting to be started
+   */
+  public List<Runnable> shutdownNow() {
+    shutdown = true;
+    cancelRecurringTasks();
+    List<Runnable> delayedTasks = delayScheduler.shutdownNow();
+    synchronized (terminationLock) {
+      terminationLock.notifyAll();
+    }
+    
+    List<Runnable> result = new ArrayList<>(delayedTasks.size());
+    for (Runnable r : delayedTasks) {
+      if (r instanceof RunnableContainer) {
+        result.add(((RunnableContainer)r).getContainedRunnable());
+      } else {
+        result.add(r);
+      }
+    }
+    return result;
+  }
+  
+  private void cancelRecurringTasks() {
+    for (RecurringTask rt : recurringTasks) {
+      rt.cancelled = true;
+    }
+    recurringTasks.clear();
+  }
+  
+  /**
+   * Block until the scheduler has been shutdown and every started task has completed.
+   * 
+   * @throws InterruptedException Thrown if blocking thread is interrupted waiting for shutdown
+   */
+  public void awaitTermination() throws InterruptedException {
+    awaitTermination(Long.MAX_VALUE);
+  }
+  
+  /**
+   * Block until the scheduler has been shutdown and every started task has completed, or until 
+   * the provided timeout has elapsed.
+   * 
+   * @param timeoutMillis Maximum time to wait in milliseconds
+   * @return {@code true} if the scheduler has terminated, {@code false} if the timeout elapsed
+   * @throws InterruptedException Thrown if blocking thread is interrupted waiting for shutdown
+   */
+  public boolean awaitTermination(long timeoutMillis) throws InterruptedException {
+    long startTime = Clock.accurateForwardProgressingMillis();
+    synchronized (terminationLock) {
+      long remainingMillis;
+      while (! shutdown && 
+             (remainingMillis = timeoutMillis -
+                                  (Clock.accurateForwardProgressingMillis() - startTime)) > 0) {
+        terminationLock.wait(remainingMillis);
+      }
+    }
+    // once the delay scheduler has terminated no more threads can be started
+    if (! shutdown || 
+        ! delayScheduler.awaitTermination(Math.max(0, timeoutMillis -
+                                                        (Clock.lastKnownForwardProgressingMillis() -
+                                                           startTime)))) {
+      return false;
+    }
+    synchronized (terminationLock) {
+      long remainingMillis;
+      while (activeTaskCount.get() > 0 && 
+             (remainingMillis = timeoutMillis -
+                                  (Clock.accurateForwardProgressingMillis() - startTime)) > 0) {
+        terminationLock.wait(remainingMillis);
+      }
+    }
+    return activeTaskCount.get() == 0;
+  }
+  
+  /**
+   * Check if the scheduler has been shutdown, all delayed tasks have been handled, and every 
+   * started task has completed.
+   * 
+   * @return {@code true} if the scheduler has terminated
+   */
+  public boolean isTerminated() {
+    return shutdown && delayScheduler.isTerminated() && activeTaskCount.get() == 0;
+  }
+  
+  /**
+   * Wrapper for the thread started for a task.  Handles any errors thrown from the task and 
+   * tracks the count of active tasks.
+   * 
+   * @since 5.30
+   */
+  protected class TaskRunner implements Runnable, RunnableContainer {
+    protected final Runnable task;
+    
+    protected TaskRunner(Runnable task) {
+      this.task = task;
+    }
+    
+    @Override
+    public void run() {
+      try {
+        task.run();
+      } catch (Throwable t) {
+        ExceptionUtils.handleException(t);
+      } finally {
+        taskFinished();
+      }
+    }
+    
+    @Override
+    public Runnable getContainedRunnable() {
+      return task;
+    }
+  }
+  
+  /**
+   * Wrapper for a task held by the delay scheduler.  Once the delay has elapsed this will start 
+   * the thread for the task.
+   * 
+   * @since 5.30
+   */
+  protected class DelayedTask implements Runnable, RunnableContainer {
+    protected final Runnable task;
+    
+    protected DelayedTask(Runnable task) {
+      this.task = task;
+    }
+    
+    @Override
+    public void run() {
+      startThread(task);
+    }
+    
+    @Override
+    public Runnable getContainedRunnable() {
+      return task;
+    }
+  }
+  
+  /**
+   * Wrapper for a recurring task.  This is held by the delay scheduler until the next execution 
+   * time, at which point it starts a thread to run the task.  Once the task completes it will 
+   * schedule itself back on the delay scheduler.
+   * 
+   * @since 5.30
+   */
+  protected class RecurringTask implements Runnable, RunnableContainer {
+    protected final Runnable task;
+    protected final TaskPriority priority;
+    protected final long recurringDelay;
+    protected final boolean fixedRate;
+    protected final Runnable executeRunnable;
+    private long nextRunTime;
+    private volatile boolean cancelled;
+    
+    protected RecurringTask(Runnable task, TaskPriority priority, 
+                            long recurringDelay, boolean fixedRate, long firstRunTime) {
+      this.task = task;
+      this.priority = priority;
+      this.recurringDelay = recurringDelay;
+      this.fixedRate = fixedRate;
+      this.executeRunnable = this::execute;
+      this.nextRunTime = firstRunTime;
+      this.cancelled = false;
+    }
+    
+    @Override
+    public void run() {
+      if (! cancelled) {
+        startThread(executeRunnable);
+      }
+    }
+    
+    private void execute() {
+      try {
+        task.run();
+      } catch (Throwable t) {
+        ExceptionUtils.handleException(t);
+      }
+      if (cancelled) {
+        return;
+      }
+      
+      long delay;
+      if (fixedRate) {
+        nextRunTime += recurringDelay;
+        delay = Math.max(0, nextRunTime - Clock.accurateForwardProgressingMillis());
+      } else {
+        delay = recurringDelay;
+      }
+      try {
+        delayScheduler.schedule(this, delay, priority);
+      } catch (RejectedExecutionException e) {
+        // shutdown while executing
+        recurringTasks.remove(this);
+      }
+    }
+    
+    @Override
+    public Runnable getContainedRunnable() {
+      return task;
+    }
+  }
+}
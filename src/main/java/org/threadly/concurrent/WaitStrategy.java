@@ -0,0 +1,230 @@
+package org.threadly.concurrent;
+
+import java.util.concurrent.locks.LockSupport;
+
+import org.threadly.util.ArgumentVerifier;
+
+/**
+ * Strategy for how a pool thread should wait once it has found no tasks ready to run.  The 
+ * default for all pools is {@link ParkWaitStrategy}, which blocks the thread until it is woken 
+ * up.  This uses the least CPU, but means that the next submitted task must pay the cost of 
+ * unparking the thread (including a possible context switch) before it can start.  Latency 
+ * sensitive pools can instead choose a strategy which spins (and possibly yields) for a time 
+ * before blocking, trading CPU for quicker hand off to the waiting thread.
+ * <p>
+ * Threads are woken up with {@link LockSupport#unpark(Thread)}, so any implementation which 
+ * blocks must do so with {@link LockSupport#park()} or {@link LockSupport#parkNanos(long)}. 
+ * Callers will always check for tasks again after {@link #idle(int, long)} returns, so 
+ * implementations are free to return at any point.
+ * 
+ * @since 5.30
+ */
+public interface WaitStrategy {
+  /**
+   * Invoked when the thread has found no tasks ready to run.  This may return immediately (for 
+   * example to spin), or may block up to the provided maximum time.
+   * 
+   * @param idleCount Number of times this has been invoked since a task was last found, starting at 0
+   * @param maxWaitNanos Maximum time to block in nanoseconds, or {@link Long#MAX_VALUE} to block till woken
+   */
+  public void idle(int idleCount, long maxWaitNanos);
+  
+  /**
+   * Invoked when the thread has found a task after having invoked {@link #idle(int, long)} at 
+   * least once.  This can be used by strategies which adapt to how long threads typically wait. 
+   * By default this does nothing.
+   * 
+   * @param idleCount Number of times {@link #idle(int, long)} was invoked before the task was found
+   */
+  public default void taskFound(int idleCount) {
+    // ignored by default
+  }
+  
+  /**
+   * Blocks the current thread with {@link LockSupport} until it is either woken up, or the 
+   * provided time has elapsed.
+   * 
+   * @param maxWaitNanos Maximum time to block in nanoseconds, or {@link Long#MAX_VALUE} to block till woken
+   */
+  public static void park(long maxWaitNanos) {
+    if (maxWaitNanos == Long.MAX_VALUE) {
+      LockSupport.park();
+    } else {
+      LockSupport.parkNanos(maxWaitNanos);
+    }
+  }
+  
+  /**
+   * Strategy which always blocks the thread until it is woken up.  This is the default strategy 
+   * as it uses no CPU while idle.
+   * <p>
+   * This class should not be constructed, instead it should be provided via the static function 
+   * {@link ParkWaitStrategy#instance()}.
+   * 
+   * @since 5.30
+   */
+  public static class ParkWaitStrategy implements WaitStrategy {
+    private static final ParkWaitStrategy INSTANCE = new ParkWaitStrategy();
+    
+    /**
+     * Provides an instance which can be provided into a pool's constructor.
+     * 
+     * @return ParkWaitStrategy instance
+     */
+    public static ParkWaitStrategy instance() {
+      return INSTANCE;
+    }
+    
+    private ParkWaitStrategy() {
+      // don't allow external construction
+    }
+    
+    @Override
+    public void idle(int idleCount, long maxWaitNanos) {
+      park(maxWaitNanos);
+    }
+  }
+  
+  /**
+   * Strategy which never blocks, and instead just continuously checks for new tasks.  This 
+   * provides the lowest possible hand off latency, but will consume an entire CPU core for each 
+   * idle thread.  This should only be used when there are dedicated cores for the pool threads.
+   * <p>
+   * This class should not be constructed, instead it should be provided via the static function 
+   * {@link BusySpinWaitStrategy#instance()}.
+   * 
+   * @since 5.30
+   */
+  public static class BusySpinWaitStrategy implements WaitStrategy {
+    private static final BusySpinWaitStrategy INSTANCE = new BusySpinWaitStrategy();
+    
+    /**
+     * Provides an instance which can be provided into a pool's constructor.
+     * 
+     * @return BusySpinWaitStrategy instance
+     */
+    public static BusySpinWaitStrategy instance() {
+      return INSTANCE;
+    }
+    
+    private BusySpinWaitStrategy() {
+      // don't allow external construction
+    }
+    
+    @Override
+    public void idle(int idleCount, long maxWaitNanos) {
+      // return immediately so the caller checks again
+    }
+  }
+  
+  /**
+   * Strategy which spins for a fixed number of checks, and then invokes {@link Thread#yield()} 
+   * between each following check.  This never blocks the thread, but allows other threads to 
+   * use the CPU once it has been idle for a while.
+   * 
+   * @since 5.30
+   */
+  public static class SpinYieldWaitStrategy implements WaitStrategy {
+    protected final int spinCount;
+    
+    /**
+     * Constructs a new strategy which will spin for the provided number of checks before 
+     * starting to yield.
+     * 
+     * @param spinCount Number of checks to spin for, {@code 0} to always yield
+     */
+    public SpinYieldWaitStrategy(int spinCount) {
+      ArgumentVerifier.assertNotNegative(spinCount, "spinCount");
+      
+      this.spinCount = spinCount;
+    }
+    
+    @Override
+    public void idle(int idleCount, long maxWaitNanos) {
+      if (idleCount >= spinCount) {
+        Thread.yield();
+      }
+    }
+  }
+  
+  /**
+   * Strategy which spins, then yields, and then finally blocks the thread until woken.  The 
+   * number of spins is adapted based off how long the threads using this strategy have been 
+   * waiting.  If tasks are commonly found while spinning the spin count is increased (up to the 
+   * provided maximum).  If the thread commonly ends up blocking the spin count will be reduced, 
+   * so that a pool which is idle for long periods will not waste CPU.
+   * <p>
+   * A single instance may be shared between threads and pools, in which case the spin count will 
+   * adapt based off all of the threads using it.
+   * 
+   * @since 5.30
+   */
+  public static class SpinParkWaitStrategy implements WaitStrategy {
+    protected static final int DEFAULT_MAX_SPIN_COUNT = 1024;
+    protected static final int DEFAULT_YIELD_COUNT = 8;
+    
+    protected final int maxSpinCount;
+    protected final int yieldCount;
+    // updated without synchronization, lost updates are not an issue as this is just a heuristic
+    private volatile int spinCount;
+    
+    /**
+     * Constructs a new strategy with a default maximum spin count of 
+     * {@value #DEFAULT_MAX_SPIN_COUNT}, which will yield {@value #DEFAULT_YIELD_COUNT} times 
+     * before blocking.
+     */
+    public SpinParkWaitStrategy() {
+      this(DEFAULT_MAX_SPIN_COUNT, DEFAULT_YIELD_COUNT);
+    }
+    
+    /**
+     * Constructs a new strategy.  The spin count will start at the maximum, and then adapt as 
+     * threads go idle.
+     * 
+     * @param maxSpinCount Maximum number of checks to spin for before yielding
+     * @param yieldCount Number of times to yield after spinning before blocking
+     */
+    public SpinParkWaitStrategy(int maxSpinCount, int yieldCount) {
+      ArgumentVerifier.assertNotNegative(maxSpinCount, "maxSpinCount");
+      ArgumentVerifier.assertNotNegative(yieldCount, "yieldCount");
+      
+      this.maxSpinCount = maxSpinCount;
+      this.yieldCount = yieldCount;
+      this.spinCount = maxSpinCount;
+    }
+    
+    /**
+     * Returns the current number of checks a thread will spin for before yielding.
+     * 
+     * @return Current adapted spin count
+     */
+    public int getSpinCount() {
+      return spinCount;
+    }
+    
+    @Override
+    public void idle(int idleCount, long maxWaitNanos) {
+      int spinCount = this.spinCount;
+      if (idleCount < spinCount) {
+        // spin
+      } else if (idleCount < spinCount + yieldCount) {
+        Thread.yield();
+      } else {
+        if (idleCount == spinCount + yieldCount && spinCount > 0) {
+          // spinning did not find anything before we had to block, so spin less next time
+          this.spinCount = spinCount / 2;
+        }
+        park(maxWaitNanos);
+      }
+    }
+    
+    @Override
+    public void taskFound(int idleCount) {
+      int spinCount = this.spinCount;
+      if (idleCount <= spinCount + yieldCount && spinCount < maxSpinCount) {
+        // task was found before needing to block, allow spinning for longer next time
+        this.spinCount = Math.min(maxSpinCount, Math.max(1, spinCount * 2));
+      }
+    }
+  }
+}
@@ -0,0 +1,333 @@
+package org.threadly.concurrent;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ThreadFactory;
+
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.Clock;
+
+/**
+ * Implementation of {@link PriorityScheduler} which shares its threads between any number of 
+ * weighted classes, rather than only by {@link TaskPriority}.  While multiple classes have tasks 
+ * ready to execute, each class will receive a share of executions in proportion to its weight. 
+ * For example with weights of {@code {4, 2, 1}}, if all three classes are kept busy the first 
+ * class will have 4 tasks executed for every 2 tasks from the second class, and every 1 task from 
+ * the third class.  Once a class has no tasks its share is distributed to the remaining classes. 
+ * A class can not build up credit while it is idle, so it can not later starve the other classes.
+ * <p>
+ * Tasks are submitted to a class by providing the class index (starting at zero) to the 
+ * {@code executeInClass}, {@code submitToClass}, or {@code schedule} functions.  Tasks submitted 
+ * with a {@link TaskPriority} are also supported, {@link TaskPriority#High} tasks will be added 
+ * to the first class and {@link TaskPriority#Low} tasks will be added to the last class. 
+ * {@link TaskPriority#Starvable} tasks are only executed when no class has tasks ready to 
+ * execute.  Because of this the max wait for low priority does not apply to this scheduler.
+ * <p>
+ * Fairness is determined by the number of tasks executed, not how long they take to execute. 
+ * If the tasks for one class take significantly longer than another, that should be accounted 
+ * for in the weights.
+ * 
+ * @since 5.30
+ */
+public class WeightedPriorityScheduler extends PriorityScheduler {
+  protected final WeightedQueueManager weightedQueueManager;
+  
+  /**
+   * Constructs a new thread pool, though threads will be lazily started as it has tasks ready to 
+   * run.  A class will be created for each provided weight.
+   * 
+   * @param poolSize Thread pool size that should be maintained
+   * @param classWeights Weight of each class, each must be between 1 and {@link WeightedQueueManager#MAX_WEIGHT}
+   */
+  public WeightedPriorityScheduler(int poolSize, int[] classWeights) {
+    this(poolSize, classWeights, DEFAULT_NEW_THREADS_DAEMON);
+  }
+  
+  /**
+   * Constructs a new thread pool, though threads will be lazily started as it has tasks ready to 
+   * run.  A class will be created for each provided weight.
+   * 
+   * @param poolSize Thread pool size that should be maintained
+   * @param classWeights Weight of each class, each must be between 1 and {@link WeightedQueueManager#MAX_WEIGHT}
+   * @param useDaemonThreads {@code true} if newly created threads should be daemon
+   */
+  public WeightedPriorityScheduler(int poolSize, int[] classWeights, boolean useDaemonThreads) {
+    this(poolSize, classWeights, 
+         new ConfigurableThreadFactory(WeightedPriorityScheduler.class.getSimpleName() + "-", 
+                                       true, useDaemonThreads, Thread.NORM_PRIORITY, null, null));
+  }
+  
+  /**
+   * Constructs a new thread pool, though threads will be lazily started as it has tasks ready to 
+   * run.  A class will be created for each provided weight.
+   * 
+   * @param poolSize Thread pool size that should be maintained
+   * @param classWeights Weight of each class, each must be between 1 and {@link WeightedQueueManager#MAX_WEIGHT}
+   * @param threadFactory thread factory for producing new threads within executor
+   */
+  public WeightedPriorityScheduler(int poolSize, int[] classWeights, 
+                                   ThreadFactory threadFactory) {
+    this(poolSize, classWeights, threadFactory, null);
+  }
+  
+  /**
+   * Constructs a new thread pool, though threads will be lazily started as it has tasks ready to 
+   * run.  A class will be created for each provided weight.
+   * <p>
+   * Work stealing is not supported by this scheduler, since tasks in worker local queues could 
+   * not be fairly ordered against the weighted classes.
+   * 
+   * @param poolSize Thread pool size that should be maintained
+   * @param classWeights Weight of each class, each must be between 1 and {@link WeightedQueueManager#MAX_WEIGHT}
+   * @param threadFactory thread factory for producing new threads within executor
+   * @param waitStrategy Strategy for idle workers to wait, or {@code null} to block till woken
+   */
+  public WeightedPriorityScheduler(int poolSize, int[] classWeights, 
+                                   ThreadFactory threadFactory, WaitStrategy waitStrategy) {
+    this(new WorkerPool(threadFactory, poolSize, new WorkerOptions().setWaitStrategy(waitStrategy)), classWeights);
+  }
+  
+  private WeightedPriorityScheduler(WorkerPool workerPool, int[] classWeights) {
+    this(workerPool, 
+         new WeightedQueueManager(workerPool, DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, classWeights));
+  }
+  
+  /**
+   * This constructor is designed for extending classes to be able to provide their own 
+   * implementation of {@link WorkerPool} and {@link WeightedQueueManager}.  The provided 
+   * {@link WeightedQueueManager} must have been constructed with the {@link WorkerPool} as its 
+   * {@link QueueSetListener}.
+   * 
+   * @param workerPool WorkerPool to handle accepting tasks and providing them to a worker for execution
+   * @param queueManager WeightedQueueManager the WorkerPool will source tasks from
+   */
+  protected WeightedPriorityScheduler(WorkerPool workerPool, WeightedQueueManager queueManager) {
+    super(workerPool, TaskPriority.High, queueManager);
+    
+    this.weightedQueueManager = queueManager;
+  }
+  
+  /**
+   * Returns how many weighted classes this scheduler was constructed with.
+   * 
+   * @return Number of weighted classes
+   */
+  public int getClassCount() {
+    return weightedQueueManager.getClassCount();
+  }
+  
+  /**
+   * Returns the weight for a given class.
+   * 
+   * @param weightedClass Index of the class, starting at zero
+   * @return The weight the class was constructed with
+   */
+  public int getClassWeight(int weightedClass) {
+    return getQueueSet(weightedClass).weight;
+  }
+  
+  /**
+   * Returns the {@link WeightedQueueSet} for a class, verifying the class index is valid.
+   * 
+   * @param weightedClass Index of the class, starting at zero
+   * @return QueueSet for the class
+   */
+  protected WeightedQueueSet getQueueSet(int weightedClass) {
+    if (weightedClass < 0 || weightedClass >= weightedQueueManager.getClassCount()) {
+      throw new IllegalArgumentException("Class must be between 0 and " + 
+                                           (weightedQueueManager.getClassCount() - 1) + 
+                                           ": " + weightedClass);
+    }
+    return weightedQueueManager.getQueueSet(weightedClass);
+  }
+  
+  /**
+   * Executes the task as soon as the class it is added to receives its share of the pool.
+   * 
+   * @param task runnable to be executed
+   * @param weightedClass Index of the class to execute the task in
+   */
+  public void executeInClass(Runnable task, int weightedClass) {
+    schedule(task, 0, weightedClass);
+  }
+  
+  /**
+   * Submit a task to run as soon as the class it is added to receives its share of the pool. 
+   * The {@link ListenableFuture#get()} will return {@code null} once the runnable has completed.
+   * 
+   * @param task runnable to be executed
+   * @param weightedClass Index of the class to execute the task in
+   * @return a future to know when the task has completed
+   */
+  public ListenableFuture<?> submitToClass(Runnable task, int weightedClass) {
+    return submitScheduled(task, null, 0, weightedClass);
+  }
+  
+  /**
+   * Submit a task to run as soon as the class it is added to receives its share of the pool. 
+   * The {@link ListenableFuture#get()} will return the provided result once the runnable has 
+   * completed.
+   * 
+   * @param <T> type of result for future
+   * @param task runnable to be executed
+   * @param result result to be returned from resulting future .get() when runnable completes
+   * @param weightedClass Index of the class to execute the task in
+   * @return a future to know when the task has completed
+   */
+  public <T> ListenableFuture<T> submitToClass(Runnable task, T result, int weightedClass) {
+    return submitScheduled(task, result, 0, weightedClass);
+  }
+  
+  /**
+   * Submit a {@link Callable} to run as soon as the class it is added to receives its share of 
+   * the pool.
+   * 
+   * @param <T> type of result returned from the future
+   * @param task callable to be executed
+   * @param weightedClass Index of the class to execute the task in
+   * @return a future to know when the task has completed and get the result of the callable
+   */
+  public <T> ListenableFuture<T> submitToClass(Callable<T> task, int weightedClass) {
+    return submitScheduled(task, 0, weightedClass);
+  }
+  
+  /**
+   * Schedule a one time task with a given delay.  Once the delay has elapsed the task will 
+   * execute once the class it was added to receives its share of the pool.
+   * 
+   * @param task runnable to execute
+   * @param delayInMs time in milliseconds to wait to execute task
+   * @param weightedClass Index of the class to execute the task in
+   */
+  public void schedule(Runnable task, long delayInMs, int weightedClass) {
+    ArgumentVerifier.assertNotNull(task, "task");
+    ArgumentVerifier.assertNotNegative(delayInMs, "delayInMs");
+    
+    doSchedule(task, delayInMs, getQueueSet(weightedClass));
+  }
+  
+  /**
+   * Schedule a task with a given delay.  The {@link ListenableFuture#get()} will return the 
+   * provided result once the runnable has completed.
+   * 
+   * @param <T> type of result returned from the future
+   * @param task runnable to execute
+   * @param result result to be returned from resulting future .get() when runnable completes
+   * @param delayInMs time in milliseconds to wait to execute task
+   * @param weightedClass Index of the class to execute the task in
+   * @return a future to know when the task has completed
+   */
+  public <T> ListenableFuture<T> submitScheduled(Runnable task, T result, 
+                                                 long delayInMs, int weightedClass) {
+    return submitScheduled(RunnableCallableAdapter.adapt(task, result), delayInMs, weightedClass);
+  }
+  
+  /**
+   * Schedule a {@link Callable} with a given delay.  This is needed when a result needs to be 
+   * consumed from the callable.
+   * 
+   * @param <T> type of result returned from the future
+   * @param task callable to be executed
+   * @param delayInMs time in milliseconds to wait to execute task
+   * @param weightedClass Index of the class to execute the task in
+   * @return a future to know when the task has completed and get the result of the callable
+   */
+  public <T> ListenableFuture<T> submitScheduled(Callable<T> task, long delayInMs, 
+                                                 int weightedClass) {
+    ArgumentVerifier.assertNotNull(task, "task");
+    ArgumentVerifier.assertNotNegative(delayInMs, "delayInMs");
+    
+    QueueSet queueSet = getQueueSet(weightedClass);
+    QueuedFutureTask<T> rf = new QueuedFutureTask<>(task, this);
+    rf.setQueuedTask(queueSet, doSchedule(rf, delayInMs, queueSet));
+    
+    return rf;
+  }
+  
+  /**
+   * Adds the task to the provided {@link QueueSet}, either for execution or delayed execution.
+   * 
+   * @param task Task to execute
+   * @param delayInMillis Delay in milliseconds before the task can execute
+   * @param queueSet QueueSet to add the task to
+   * @return Wrapper that was queued
+   */
+  protected OneTimeTaskWrapper doSchedule(Runnable task, long delayInMillis, QueueSet queueSet) {
+    OneTimeTaskWrapper result;
+    if (delayInMillis == 0) {
+      addToExecuteQueue(queueSet, 
+                        (result = new ImmediateTaskWrapper(task, queueSet.executeQueue)));
+    } else {
+      addToScheduleQueue(queueSet, 
+                         (result = new OneTimeTaskWrapper(task, queueSet.getScheduleTaskQueue(), 
+                                                          Clock.accurateForwardProgressingMillis() + 
+                                                            delayInMillis)));
+    }
+    return result;
+  }
+  
+  @Override
+  public int getQueuedTaskCount() {
+    // subtract one for hack task for spin issue
+    int result = weightedQueueManager.starvablePriorityQueueSet.queueSize() - 1;
+    for (int i = 0; i < weightedQueueManager.getClassCount(); i++) {
+      result += weightedQueueManager.getQueueSet(i).queueSize();
+    }
+    return result;
+  }
+  
+  /**
+   * Returns how many tasks are either waiting to be executed, or are scheduled to be executed at 
+   * a future point for a specific class.
+   * 
+   * @param weightedClass Index of the class, starting at zero
+   * @return quantity of tasks waiting execution or scheduled to be executed later
+   */
+  public int getQueuedTaskCount(int weightedClass) {
+    return getQueueSet(weightedClass).queueSize();
+  }
+  
+  @Override
+  public int getWaitingForExecutionTaskCount() {
+    int result = getWaitingForExecutionTaskCount(TaskPriority.Starvable);
+    for (int i = 0; i < weightedQueueManager.getClassCount(); i++) {
+      result += getWaitingForExecutionTaskCount(i);
+    }
+    return result;
+  }
+  
+  /**
+   * Returns how many tasks in a specific class are ready to execute, but are waiting for that 
+   * class to receive its share of the pool.
+   * 
+   * @param weightedClass Index of the class, starting at zero
+   * @return quantity of tasks ready to execute
+   */
+  public int getWaitingForExecutionTaskCount(int weightedClass) {
+    QueueSet qs = getQueueSet(weightedClass);
+    return qs.executeQueue.size() + qs.getReadyScheduledTaskCount();
+  }
+  
+  /**
+   * Returns how many tasks from a specific class have been consumed for execution since this 
+   * scheduler was constructed.
+   * 
+   * @param weightedClass Index of the class, starting at zero
+   * @return Number of tasks executed from the class
+   */
+  public long getExecutedTaskCount(int weightedClass) {
+    return getQueueSet(weightedClass).getExecutedTaskCount();
+  }
+  
+  /**
+   * Returns the average time tasks from a specific class have waited between being ready to 
+   * execute and starting execution.  This is the average over all tasks executed since this 
+   * scheduler was constructed.
+   * 
+   * @param weightedClass Index of the class, starting at zero
+   * @return Average wait time in milliseconds, or {@code -1} if no tasks have been executed
+   */
+  public double getAverageQueueWaitMillis(int weightedClass) {
+    return getQueueSet(weightedClass).getAverageQueueWaitMillis();
+  }
+}
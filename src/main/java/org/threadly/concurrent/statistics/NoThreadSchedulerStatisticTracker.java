@@ -1,5 +1,6 @@
 package org.threadly.concurrent.statistics;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -129,6 +130,16 @@ public class NoThreadSchedulerStatisticTracker extends NoThreadScheduler
                             delayInMillis, priority);
   }
 
+  @Override
+  protected List<OneTimeTaskWrapper> doExecuteAll(List<? extends Runnable> tasks, 
+                                                  TaskPriority priority) {
+    List<Runnable> wrappedTasks = new ArrayList<>(tasks.size());
+    for (Runnable task : tasks) {
+      wrappedTasks.add(new TaskStatWrapper(statsManager, priority, task));
+    }
+    return super.doExecuteAll(wrappedTasks, priority);
+  }
+
   @Override
   public void scheduleWithFixedDelay(Runnable task, long initialDelay,
                                      long recurringDelay, TaskPriority priority) {
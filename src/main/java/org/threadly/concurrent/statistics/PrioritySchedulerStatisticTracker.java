@@ -383,6 +383,16 @@ public class PrioritySchedulerStatisticTracker extends PriorityScheduler
                             delayInMillis, priority);
   }
 
+  @Override
+  protected List<OneTimeTaskWrapper> doExecuteAll(List<? extends Runnable> tasks, 
+                                                  TaskPriority priority) {
+    List<Runnable> wrappedTasks = new ArrayList<>(tasks.size());
+    for (Runnable task : tasks) {
+      wrappedTasks.add(new TaskStatWrapper(statsManager, priority, task));
+    }
+    return super.doExecuteAll(wrappedTasks, priority);
+  }
+
   @Override
   public void scheduleWithFixedDelay(Runnable task, long initialDelay,
                                      long recurringDelay, TaskPriority priority) {
@@ -0,0 +1,270 @@
+package org.threadly.concurrent.wrapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+import org.threadly.concurrent.SubmitterScheduler;
+import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.ExceptionUtils;
+
+/**
+ * Similar to {@link KeyDistributedExecutor}, except rather than running each task individually, 
+ * items are accumulated per key and provided as a batch to a single {@link Consumer}.  This is 
+ * useful when many small updates are produced for the same key, and processing them together 
+ * (for example a single write of all updates to an entity) is much cheaper than processing them 
+ * individually.
+ * <p>
+ * Like {@link KeyDistributedExecutor} no two batches for the same key will be processed in 
+ * parallel, and items are provided in the order they were added for the key.  When the worker for 
+ * a key runs it will take everything queued for that key, up to the max batch size.  Like the 
+ * {@code maxTasksPerCycle} of {@link KeyDistributedExecutor}, once a batch has been processed the 
+ * worker will give up the thread and re-execute if more items remain, so that one busy key can not 
+ * starve other keys.
+ * <p>
+ * If constructed with a {@link SubmitterScheduler} and a max linger time, the first item added to 
+ * an idle key will wait up to that time for more items to accumulate before the batch is 
+ * processed.  If the max batch size is reached before then the batch will be processed 
+ * immediately.  {@link #flush()} can be used to process lingering batches without waiting.
+ * 
+ * @param <T> Type of item being batched
+ * @since 5.30
+ */
+public class KeyDistributedBatchingExecutor<T> {
+  protected final Executor executor;
+  protected final SubmitterScheduler scheduler;
+  protected final int maxBatchSize;
+  protected final long maxLingerMillis;
+  protected final Consumer<? super List<T>> batchConsumer;
+  protected final ConcurrentHashMap<Object, KeyBatchWorker> batchWorkers;
+  
+  /**
+   * Constructs a new batching executor which will process batches as soon as a thread is 
+   * available.  Items added while a key's batch is already waiting for or being processed will 
+   * be accumulated into that key's next batch.
+   * 
+   * @param executor A multi-threaded executor to process batches on
+   * @param maxBatchSize Maximum quantity of items to provide in a single batch
+   * @param batchConsumer Consumer to be invoked with each batch of items for a key
+   */
+  public KeyDistributedBatchingExecutor(Executor executor, int maxBatchSize, 
+                                        Consumer<? super List<T>> batchConsumer) {
+    this(executor, null, maxBatchSize, 0, batchConsumer);
+  }
+  
+  /**
+   * Constructs a new batching executor where the first item for an idle key will wait up to the 
+   * max linger time for more items before the batch is processed.  A batch will be processed 
+   * before the linger time if it reaches the max batch size.
+   * 
+   * @param scheduler A multi-threaded scheduler to process batches on
+   * @param maxBatchSize Maximum quantity of items to provide in a single batch
+   * @param maxLingerMillis Maximum time in milliseconds to wait for more items, or {@code 0} to not wait
+   * @param batchConsumer Consumer to be invoked with each batch of items for a key
+   */
+  public KeyDistributedBatchingExecutor(SubmitterScheduler scheduler, int maxBatchSize, 
+                                        long maxLingerMillis, 
+                                        Consumer<? super List<T>> batchConsumer) {
+    this(scheduler, scheduler, maxBatchSize, maxLingerMillis, batchConsumer);
+  }
+  
+  private KeyDistributedBatchingExecutor(Executor executor, SubmitterScheduler scheduler, 
+                                         int maxBatchSize, long maxLingerMillis, 
+                                         Consumer<? super List<T>> batchConsumer) {
+    ArgumentVerifier.assertNotNull(executor, "executor");
+    ArgumentVerifier.assertGreaterThanZero(maxBatchSize, "maxBatchSize");
+    ArgumentVerifier.assertNotNegative(maxLingerMillis, "maxLingerMillis");
+    ArgumentVerifier.assertNotNull(batchConsumer, "batchConsumer");
+    
+    this.executor = executor;
+    this.scheduler = scheduler;
+    this.maxBatchSize = maxBatchSize;
+    this.maxLingerMillis = maxLingerMillis;
+    this.batchConsumer = batchConsumer;
+    this.batchWorkers = new ConcurrentHashMap<>(KeyDistributedExecutor.CONCURRENT_HASH_MAP_INITIAL_SIZE);
+  }
+  
+  /**
+   * Add an item to be included in the next batch for the provided key.
+   * 
+   * @param key object key where {@code equals()} will be used to determine the batch
+   * @param item Item to be provided to the batch consumer
+   */
+  public void add(Object key, T item) {
+    ArgumentVerifier.assertNotNull(key, "key");
+    
+    boolean[] executeCapture = new boolean[1];
+    Runnable[] lingerCapture = new Runnable[1];
+    KeyBatchWorker worker = batchWorkers.compute(key, (k, v) -> {
+      if (v == null) {
+        v = new KeyBatchWorker(key);
+      }
+      v.pendingItems.add(item);
+      if (! v.active) {
+        v.active = true;
+        if (maxLingerMillis > 0 && v.pendingItems.size() < maxBatchSize) {
+          lingerCapture[0] = v.lingerTask = new LingerTask(v);
+          executeCapture[0] = false;
+        } else {
+          executeCapture[0] = true;
+        }
+      } else if (v.lingerTask != null && v.pendingItems.size() >= maxBatchSize) {
+        // batch is full, no reason to keep waiting
+        v.lingerTask = null;
+        executeCapture[0] = true;
+      } else {
+        executeCapture[0] = false;
+      }
+      return v;
+    });
+    
+    // must run execute and schedule outside of lock
+    if (executeCapture[0]) {
+      executor.execute(worker);
+    } else if (lingerCapture[0] != null) {
+      // if flushed before this is scheduled the linger task will see it was replaced and do nothing
+      scheduler.schedule(lingerCapture[0], maxLingerMillis);
+    }
+  }
+  
+  /**
+   * Call to check how many items are waiting to be provided in a batch for the key.  This does 
+   * not include items which are currently being processed.
+   * 
+   * @param key key to check the pending items for
+   * @return Quantity of items waiting to be processed for the key
+   */
+  public int getPendingItemCount(Object key) {
+    int[] resultCapture = new int[1];
+    batchWorkers.computeIfPresent(key, (k, v) -> {
+      resultCapture[0] = v.pendingItems.size();
+      return v;
+    });
+    return resultCapture[0];
+  }
+  
+  /**
+   * Process any batch for the key which is waiting for its linger time, without waiting for the 
+   * linger time to expire.  If the key has no batch lingering this will have no effect.
+   * 
+   * @param key key to flush the pending batch for
+   */
+  public void flush(Object key) {
+    boolean[] executeCapture = new boolean[1];
+    KeyBatchWorker worker = batchWorkers.computeIfPresent(key, (k, v) -> {
+      if (v.lingerTask != null) {
+        v.lingerTask = null;
+        executeCapture[0] = true;
+      }
+      return v;
+    });
+    
+    if (executeCapture[0]) {
+      executor.execute(worker);
+    }
+  }
+  
+  /**
+   * Process all batches which are waiting for their linger time, without waiting for the linger 
+   * time to expire.
+   */
+  public void flush() {
+    for (Object key : batchWorkers.keySet()) {
+      flush(key);
+    }
+  }
+  
+  /**
+   * Task scheduled for when the linger time has elapsed.  If the batch was already started (from 
+   * reaching the max batch size or being flushed) then this will do nothing.
+   * 
+   * @since 5.30
+   */
+  protected class LingerTask implements Runnable {
+    protected final KeyBatchWorker worker;
+    
+    protected LingerTask(KeyBatchWorker worker) {
+      this.worker = worker;
+    }
+    
+    @Override
+    public void run() {
+      boolean[] runCapture = new boolean[1];
+      batchWorkers.computeIfPresent(worker.key, (k, v) -> {
+        if (v.lingerTask == this) {
+          v.lingerTask = null;
+          runCapture[0] = true;
+        }
+        return v;
+      });
+      
+      if (runCapture[0]) {
+        worker.run();
+      }
+    }
+  }
+  
+  /**
+   * Worker which will provide the pending items for a key to the batch consumer.  Each key is 
+   * represented by one worker at any given time.  All fields must only be accessed within 
+   * {@code compute} of {@link #batchWorkers}.
+   * 
+   * @since 5.30
+   */
+  protected class KeyBatchWorker implements Runnable {
+    protected final Object key;
+    protected List<T> pendingItems;
+    protected boolean active;
+    protected LingerTask lingerTask;
+    
+    protected KeyBatchWorker(Object key) {
+      this.key = key;
+      this.pendingItems = new ArrayList<>();
+      this.active = false;
+      this.lingerTask = null;
+    }
+    
+    @Override
+    public void run() {
+      @SuppressWarnings({"unchecked", "rawtypes"})
+      List<T>[] batchCapture = new List[1];
+      batchWorkers.compute(key, (k, v) -> {
+        if (pendingItems.size() <= maxBatchSize) {
+          batchCapture[0] = pendingItems;
+          pendingItems = new ArrayList<>();
+        } else {
+          List<T> batchItems = pendingItems.subList(0, maxBatchSize);
+          batchCapture[0] = new ArrayList<>(batchItems);
+          batchItems.clear();
+        }
+        return v;
+      });
+      
+      if (! batchCapture[0].isEmpty()) {
+        try {
+          batchConsumer.accept(batchCapture[0]);
+        } catch (Throwable t) {
+          ExceptionUtils.handleException(t);
+        }
+      }
+      
+      boolean[] executeCapture = new boolean[1];
+      batchWorkers.compute(key, (k, v) -> {
+        if (pendingItems.isEmpty()) {
+          active = false;
+          return null;
+        } else {
+          // re-execute to give other keys a chance to run
+          executeCapture[0] = true;
+          return v;
+        }
+      });
+      
+      if (executeCapture[0]) {
+        executor.execute(this);
+      }
+    }
+  }
+}
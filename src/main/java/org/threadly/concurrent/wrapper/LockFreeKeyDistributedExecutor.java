@@ -0,0 +1,362 @@
+package org.threadly.concurrent.wrapper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.ExceptionUtils;
+
+/**
+ * Implementation of {@link KeyDistributedExecutor} designed for a very large number of short 
+ * lived keys (for example a key per session).  Like {@link KeyDistributedExecutor}, no two tasks 
+ * for the same key will ever run in parallel, and tasks for a key run in the order submitted.
+ * <p>
+ * {@link KeyDistributedExecutor} must lock the key's map entry for every task added, and allocates 
+ * a new worker and queue each time a key becomes active.  This implementation instead queues 
+ * tasks in a lock-free multi-producer single-consumer queue per key.  Once a key has been 
+ * established, adding a task is a map lookup, a single compare and swap to account for the task, 
+ * and an atomic swap to enqueue it.  Once a key goes idle its worker is removed from the map and 
+ * retained for reuse by the next key which becomes active, so that steady churn of keys does not 
+ * require allocating new workers.
+ * <p>
+ * Since tasks are always accounted for {@link #getTaskQueueSize(Object)} is always accurate, 
+ * though the reported size includes a task for the key which may be currently running.
+ * 
+ * @since 5.30
+ */
+public class LockFreeKeyDistributedExecutor extends KeyDistributedExecutor {
+  protected static final int DEFAULT_RECYCLED_WORKER_LIMIT = 64;
+  protected static final long COUNT_MASK = 0xFFFF_FFFFL;
+  // count value which indicates the worker is no longer accepting tasks for its key
+  protected static final long RETIRED = COUNT_MASK;
+  protected static final long GENERATION_INCREMENT = 1L << 32;
+  
+  protected final ConcurrentHashMap<Object, KeyWorker> keyWorkers;
+  protected final AtomicReferenceArray<KeyWorker> recycledWorkers;
+  protected final AtomicInteger recycledWorkerCount;
+  
+  /**
+   * Constructor to use a provided executor implementation for running tasks.
+   * 
+   * @param executor A multi-threaded executor to distribute tasks to.  Ideally has as many 
+   *                 possible threads as keys that will be used in parallel.
+   */
+  public LockFreeKeyDistributedExecutor(Executor executor) {
+    this(executor, Integer.MAX_VALUE, DEFAULT_RECYCLED_WORKER_LIMIT);
+  }
+  
+  /**
+   * Constructor to use a provided executor implementation for running tasks.
+   * <p>
+   * This constructor allows you to provide a maximum number of tasks for a key before it yields 
+   * to another key.  This can make it more fair, and make it so no single key can starve other 
+   * keys from running.  The lower this is set however, the less efficient it becomes since it 
+   * has to give up the thread and get it again.
+   * 
+   * @param executor A multi-threaded executor to distribute tasks to.  Ideally has as many 
+   *                 possible threads as keys that will be used in parallel.
+   * @param maxTasksPerCycle maximum tasks run per key before yielding for other keys
+   */
+  public LockFreeKeyDistributedExecutor(Executor executor, int maxTasksPerCycle) {
+    this(executor, maxTasksPerCycle, DEFAULT_RECYCLED_WORKER_LIMIT);
+  }
+  
+  /**
+   * Constructor to use a provided executor implementation for running tasks.
+   * <p>
+   * This constructor allows you to provide a maximum number of tasks for a key before it yields 
+   * to another key.  This can make it more fair, and make it so no single key can starve other 
+   * keys from running.  The lower this is set however, the less efficient it becomes since it 
+   * has to give up the thread and get it again.
+   * <p>
+   * The recycled worker limit is how many idle workers will be retained for reuse.  This should 
+   * be around the number of keys which are expected to become idle and active concurrently.  A 
+   * limit of {@code 0} will disable recycling.
+   * 
+   * @param executor A multi-threaded executor to distribute tasks to.  Ideally has as many 
+   *                 possible threads as keys that will be used in parallel.
+   * @param maxTasksPerCycle maximum tasks run per key before yielding for other keys
+   * @param recycledWorkerLimit Maximum idle workers to retain for reuse
+   */
+  public LockFreeKeyDistributedExecutor(Executor executor, int maxTasksPerCycle, 
+                                        int recycledWorkerLimit) {
+    super(executor, maxTasksPerCycle, false);
+    
+    ArgumentVerifier.assertNotNegative(recycledWorkerLimit, "recycledWorkerLimit");
+    
+    this.keyWorkers = new ConcurrentHashMap<>(CONCURRENT_HASH_MAP_INITIAL_SIZE);
+    this.recycledWorkers = 
+        recycledWorkerLimit == 0 ? null : new AtomicReferenceArray<>(recycledWorkerLimit);
+    this.recycledWorkerCount = new AtomicInteger();
+  }
+  
+  /**
+   * Call to check how many tasks have been queued up for a given key.  This count is accurate, 
+   * but includes the task which may be currently running for the key.
+   * 
+   * @param threadKey key for task queue to examine
+   * @return the number of tasks queued for the key
+   */
+  @Override
+  public int getTaskQueueSize(Object threadKey) {
+    KeyWorker worker = keyWorkers.get(threadKey);
+    return worker == null ? 0 : worker.getQueueSize();
+  }
+  
+  /**
+   * Get a map of all the keys and how many tasks are queued per key.  This map is generated 
+   * without locking.  Due to that, this may be inaccurate as task queue sizes changed while 
+   * iterating all key's active workers.  Like {@link #getTaskQueueSize(Object)} the size includes 
+   * a task which may be currently running for the key.
+   * 
+   * @return Map of task key's to their respective queue size
+   */
+  @Override
+  public Map<Object, Integer> getTaskQueueSizeMap() {
+    Map<Object, Integer> result = new HashMap<>();
+    for (Map.Entry<Object, KeyWorker> e : keyWorkers.entrySet()) {
+      int queueSize = e.getValue().getQueueSize();
+      if (queueSize > 0) {
+        result.put(e.getKey(), queueSize);
+      }
+    }
+    return result;
+  }
+  
+  @Override
+  protected void addTask(Object threadKey, Runnable task, Executor executor) {
+    while (true) {
+      KeyWorker worker = keyWorkers.get(threadKey);
+      if (worker == null) {
+        worker = takeRecycledWorker();
+        worker.key = threadKey;
+        if (keyWorkers.putIfAbsent(threadKey, worker) == null) {
+          // we are the first to add a task, so must start the worker
+          worker.state.set((worker.state.get() & ~COUNT_MASK) + GENERATION_INCREMENT + 1);
+          worker.queue.offer(task);
+          executor.execute(worker);
+          return;
+        } else {
+          // still retired, so can be recycled without concern of tasks being added
+          worker.key = null;
+          recycleWorker(worker);
+        }
+      } else {
+        long state = worker.state.get();
+        if ((state & COUNT_MASK) == RETIRED) {
+          // worker is being removed from the map, wait for it to be replaced
+          Thread.yield();
+          continue;
+        }
+        Object workerKey = worker.key;
+        if (workerKey != threadKey && (workerKey == null || ! workerKey.equals(threadKey))) {
+          // worker was recycled for another key after we got it from the map
+          continue;
+        }
+        if (worker.state.compareAndSet(state, state + 1)) {
+          worker.queue.offer(task);
+          if ((state & COUNT_MASK) == 0) {
+            executor.execute(worker);
+          }
+          return;
+        }
+      }
+    }
+  }
+  
+  /**
+   * Get a worker which is not in use, either from the recycled workers or by constructing a new 
+   * one.  The returned worker will be in a retired state.
+   * 
+   * @return A worker which can be assigned to a key
+   */
+  protected KeyWorker takeRecycledWorker() {
+    if (recycledWorkers != null && recycledWorkerCount.get() > 0) {
+      int length = recycledWorkers.length();
+      int start = ThreadLocalRandom.current().nextInt(length);
+      for (int i = 0; i < length; i++) {
+        int index = (start + i) % length;
+        KeyWorker worker = recycledWorkers.get(index);
+        if (worker != null && recycledWorkers.compareAndSet(index, worker, null)) {
+          recycledWorkerCount.decrementAndGet();
+          return worker;
+        }
+      }
+    }
+    return new KeyWorker(true);
+  }
+  
+  /**
+   * Retain a retired worker for reuse, if the recycled worker limit has not been reached.
+   * 
+   * @param worker Worker which has been removed from the key map
+   */
+  protected void recycleWorker(KeyWorker worker) {
+    if (recycledWorkers != null && recycledWorkerCount.get() < recycledWorkers.length()) {
+      int length = recycledWorkers.length();
+      int start = ThreadLocalRandom.current().nextInt(length);
+      for (int i = 0; i < length; i++) {
+        int index = (start + i) % length;
+        if (recycledWorkers.get(index) == null && 
+            recycledWorkers.compareAndSet(index, null, worker)) {
+          recycledWorkerCount.incrementAndGet();
+          return;
+        }
+      }
+    }
+  }
+  
+  /**
+   * Invoked by a worker once it has gone idle and retired.  The worker will be removed from the 
+   * key map and then recycled.
+   * 
+   * @param worker Worker which has retired
+   */
+  protected void workerRetired(KeyWorker worker) {
+    keyWorkers.remove(worker.key, worker);
+    worker.key = null;
+    recycleWorker(worker);
+  }
+  
+  /**
+   * Worker which consumes the tasks for a key.  The state tracks the quantity of tasks which 
+   * have been added but not yet completed in the lower 32 bits, and a generation in the upper 32 
+   * bits which changes each time the worker is reused.  Tasks are accounted for in the state 
+   * before they are added to the queue, and the producer which moves the count off of zero is 
+   * responsible for executing the worker.  This ensures only one thread is ever consuming from 
+   * the queue.
+   * <p>
+   * Once all tasks have been run, a worker which can retire will atomically move its state from 
+   * a zero count to {@link #RETIRED}, after which producers will no longer add tasks to it.
+   * 
+   * @since 5.30
+   */
+  protected class KeyWorker implements Runnable {
+    protected final boolean canRetire;
+    protected final AtomicLong state;
+    protected final TaskQueue queue;
+    protected volatile Object key;
+    
+    protected KeyWorker(boolean canRetire) {
+      this.canRetire = canRetire;
+      this.state = new AtomicLong(canRetire ? RETIRED : 0);
+      this.queue = new TaskQueue();
+      this.key = null;
+    }
+    
+    /**
+     * Call to get this workers current queue size.
+     * 
+     * @return How many tasks are waiting to be executed, including any currently running task
+     */
+    public int getQueueSize() {
+      long count = state.get() & COUNT_MASK;
+      return count == RETIRED ? 0 : (int)count;
+    }
+    
+    /**
+     * Runs the provided task in the invoking thread.  This is designed to be overridden if 
+     * needed.  No exceptions will ever be thrown from this call.
+     * 
+     * @param task Runnable to run
+     */
+    protected void runTask(Runnable task) {
+      try {
+        task.run();
+      } catch (Throwable t) {
+        ExceptionUtils.handleException(t);
+      }
+    }
+    
+    @Override
+    public void run() {
+      int consumedItems = 0;
+      while (true) {
+        Runnable task;
+        while ((task = queue.poll()) == null) {
+          // task is accounted for before being queued, so it should be available momentarily
+          Thread.yield();
+        }
+        runTask(task);
+        
+        long state = this.state.decrementAndGet();
+        if ((state & COUNT_MASK) == 0) {
+          // if the retire fails a producer has added a task and will execute us again
+          if (canRetire && this.state.compareAndSet(state, state | RETIRED)) {
+            workerRetired(this);
+          }
+          return;
+        } else if (++consumedItems >= maxTasksPerCycle) {
+          // re-execute to give other workers a chance to run, we still own our queue
+          executor.execute(this);
+          return;
+        }
+      }
+    }
+  }
+  
+  /**
+   * Unbounded multi-producer single-consumer queue.  Producers add with a single atomic swap of 
+   * the tail, and the single consumer reads from the head without any atomic operations.  A 
+   * producer which has swapped the tail but not yet linked its node will make the task appear 
+   * absent for a brief moment.
+   * 
+   * @since 5.30
+   */
+  protected static class TaskQueue {
+    private final AtomicReference<Node> tail;
+    private Node head; // only accessed by consumer
+    
+    protected TaskQueue() {
+      head = new Node(null);
+      tail = new AtomicReference<>(head);
+    }
+    
+    /**
+     * Add a task to the tail of the queue.  Safe to be invoked from any thread.
+     * 
+     * @param task Task to be added
+     */
+    public void offer(Runnable task) {
+      Node node = new Node(task);
+      tail.getAndSet(node).next = node;
+    }
+    
+    /**
+     * Remove the task from the head of the queue.  This must only be invoked by the consuming 
+     * thread.
+     * 
+     * @return The next task, or {@code null} if none is available
+     */
+    public Runnable poll() {
+      Node next = head.next;
+      if (next == null) {
+        return null;
+      }
+      head = next;
+      Runnable result = next.task;
+      next.task = null; // allow GC
+      return result;
+    }
+    
+    /**
+     * Linked node holding a queued task.
+     */
+    private static class Node {
+      private Runnable task;
+      private volatile Node next;
+      
+      private Node(Runnable task) {
+        this.task = task;
+        this.next = null;
+      }
+    }
+  }
+}
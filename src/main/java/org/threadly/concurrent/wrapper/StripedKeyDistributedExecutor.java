@@ -0,0 +1,127 @@
+package org.threadly.concurrent.wrapper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import org.threadly.util.ArgumentVerifier;
+
+/**
+ * Implementation of {@link KeyDistributedExecutor} which distributes keys across a fixed number 
+ * of stripes, rather than tracking each key independently.  Each key is consistently mapped to a 
+ * single stripe by its {@link Object#hashCode()}, and each stripe runs its tasks serially and in 
+ * the order submitted.  So the same guarantees are provided for each key, however tasks for 
+ * different keys which map to the same stripe will also run serially.
+ * <p>
+ * This is for when strict isolation between keys is not needed.  No state is created or 
+ * destroyed as keys come and go, adding a task is a single compare and swap plus an atomic swap 
+ * to enqueue it, and no map lookups are required.  Since a stripe may be shared by many keys, a 
+ * stripe count of at least the desired parallelism is recommended (prime numbers will help 
+ * distribute keys more evenly).
+ * <p>
+ * {@link #getTaskQueueSize(Object)} will return the queue size of the stripe the key maps to, 
+ * which includes tasks for all keys on that stripe as well as any currently running task.
+ * 
+ * @since 5.30
+ */
+public class StripedKeyDistributedExecutor extends LockFreeKeyDistributedExecutor {
+  protected final KeyWorker[] stripes;
+  
+  /**
+   * Constructor to use a provided executor implementation for running tasks.
+   * 
+   * @param executor A multi-threaded executor to distribute tasks to.  Ideally has as many 
+   *                 possible threads as stripes.
+   * @param stripeCount Quantity of stripes to distribute keys across
+   */
+  public StripedKeyDistributedExecutor(Executor executor, int stripeCount) {
+    this(executor, stripeCount, Integer.MAX_VALUE);
+  }
+  
+  /**
+   * Constructor to use a provided executor implementation for running tasks.
+   * <p>
+   * This constructor allows you to provide a maximum number of tasks for a stripe before it 
+   * yields to another stripe.  This can make it more fair, and make it so no single stripe can 
+   * starve other stripes from running.  The lower this is set however, the less efficient it 
+   * becomes since it has to give up the thread and get it again.
+   * 
+   * @param executor A multi-threaded executor to distribute tasks to.  Ideally has as many 
+   *                 possible threads as stripes.
+   * @param stripeCount Quantity of stripes to distribute keys across
+   * @param maxTasksPerCycle maximum tasks run per stripe before yielding for other stripes
+   */
+  public StripedKeyDistributedExecutor(Executor executor, int stripeCount, int maxTasksPerCycle) {
+    super(executor, maxTasksPerCycle, 0);
+    
+    ArgumentVerifier.assertGreaterThanZero(stripeCount, "stripeCount");
+    
+    stripes = new KeyWorker[stripeCount];
+    for (int i = 0; i < stripeCount; i++) {
+      stripes[i] = new KeyWorker(false);
+    }
+  }
+  
+  /**
+   * Returns the quantity of stripes keys are distributed across.
+   * 
+   * @return Stripe count
+   */
+  public int getStripeCount() {
+    return stripes.length;
+  }
+  
+  /**
+   * Returns the stripe a given key will be executed on.
+   * 
+   * @param threadKey object key where hashCode will be used to determine the stripe
+   * @return Worker for the key's stripe
+   */
+  protected KeyWorker getStripe(Object threadKey) {
+    int hash = threadKey.hashCode();
+    // spread the high bits so keys with similar hash codes still distribute across stripes
+    return stripes[Math.floorMod(hash ^ (hash >>> 16), stripes.length)];
+  }
+  
+  /**
+   * Call to check how many tasks have been queued up for the stripe the key is mapped to.  This 
+   * includes tasks for any other keys on the same stripe, and any currently running task.
+   * 
+   * @param threadKey key for task queue to examine
+   * @return the number of tasks queued for the key's stripe
+   */
+  @Override
+  public int getTaskQueueSize(Object threadKey) {
+    return getStripe(threadKey).getQueueSize();
+  }
+  
+  /**
+   * Since this implementation does not track individual keys, this returns a map of stripe index 
+   * (as an {@link Integer}) to the quantity of tasks queued on that stripe.  Only stripes with 
+   * queued tasks are included.
+   * 
+   * @return Map of stripe index to their respective queue size
+   */
+  @Override
+  public Map<Object, Integer> getTaskQueueSizeMap() {
+    Map<Object, Integer> result = new HashMap<>();
+    for (int i = 0; i < stripes.length; i++) {
+      int queueSize = stripes[i].getQueueSize();
+      if (queueSize > 0) {
+        result.put(i, queueSize);
+      }
+    }
+    return result;
+  }
+  
+  @Override
+  protected void addTask(Object threadKey, Runnable task, Executor executor) {
+    KeyWorker worker = getStripe(threadKey);
+    // stripes never retire, so we only need to account for the task and queue it
+    long previousState = worker.state.getAndIncrement();
+    worker.queue.offer(task);
+    if ((previousState & COUNT_MASK) == 0) {
+      executor.execute(worker);
+    }
+  }
+}
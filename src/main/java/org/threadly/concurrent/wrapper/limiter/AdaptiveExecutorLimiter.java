@@ -0,0 +1,236 @@
+package org.threadly.concurrent.wrapper.limiter;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.Clock;
+
+/**
+ * An {@link ExecutorLimiter} which adjusts its concurrency limit automatically based off the 
+ * observed latency of the tasks it runs.  This is useful when limiting work towards a downstream 
+ * resource whose capacity is unknown or changes over time, where a fixed limit must otherwise be 
+ * guessed and re-tuned.
+ * <p>
+ * Task execution latencies are collected into windows.  The lowest window latency observed is 
+ * used as the estimated "no-load" latency.  At the end of each window the limit is adjusted by a 
+ * gradient of the no-load latency against the window's average latency.  While latency stays 
+ * close to the no-load latency the limit is increased (by roughly the square root of the current 
+ * limit), once tasks start taking longer (indicating the resource is saturated and work is 
+ * queuing) the limit is reduced proportionally.  Adjustments are smoothed so a single slow window 
+ * will not drastically change the limit.  This keeps the concurrency near the point where adding 
+ * more parallelism stops improving throughput and only adds latency.
+ * <p>
+ * The limit will not increase while less than half of it is being used, since in that condition 
+ * latency provides no information about if a higher limit would be useful.  The no-load latency 
+ * estimate will slowly drift towards higher observed latencies, so that if the resource becomes 
+ * permanently slower the limit will not be reduced forever.
+ * <p>
+ * Since latency is measured from when the task starts until it and any listeners complete, 
+ * future listeners are always counted towards the concurrency limit.  Invoking 
+ * {@link #setMaxConcurrency(int)} will set the current limit, but it will continue to be adjusted 
+ * as more latency samples are collected.
+ * 
+ * @since 5.30
+ */
+public class AdaptiveExecutorLimiter extends ExecutorLimiter {
+  protected static final int MIN_WINDOW_SAMPLES = 10;
+  protected static final double LATENCY_TOLERANCE = 1.5;
+  protected static final double MIN_GRADIENT = .5;
+  protected static final double LIMIT_SMOOTHING = .2;
+  protected static final double NO_LOAD_LATENCY_DRIFT = .01;
+  
+  protected final int minConcurrency;
+  protected final int maxConcurrencyBound;
+  protected final AtomicInteger runningTasks;
+  private final Object sampleLock;
+  private int windowSampleCount;        // guarded by sampleLock
+  private long windowLatencySumNanos;   // guarded by sampleLock
+  private int windowMaxRunning;         // guarded by sampleLock
+  private double estimatedLimit;        // guarded by sampleLock
+  private volatile double noLoadLatencyNanos;
+  
+  /**
+   * Construct a new adaptive limiter.  The concurrency limit will start at the minimum and be 
+   * increased as latency samples allow.
+   * 
+   * @param executor {@link Executor} to submit task executions to
+   * @param minConcurrency lowest the concurrency limit will be reduced to
+   * @param maxConcurrency highest the concurrency limit will be increased to
+   */
+  public AdaptiveExecutorLimiter(Executor executor, int minConcurrency, int maxConcurrency) {
+    this(executor, minConcurrency, maxConcurrency, minConcurrency);
+  }
+  
+  /**
+   * Construct a new adaptive limiter, providing the concurrency limit to start at.
+   * 
+   * @param executor {@link Executor} to submit task executions to
+   * @param minConcurrency lowest the concurrency limit will be reduced to
+   * @param maxConcurrency highest the concurrency limit will be increased to
+   * @param initialConcurrency concurrency limit to start at, must be within the min and max
+   */
+  public AdaptiveExecutorLimiter(Executor executor, int minConcurrency, int maxConcurrency, 
+                                 int initialConcurrency) {
+    super(executor, initialConcurrency, true);
+    
+    ArgumentVerifier.assertGreaterThanZero(minConcurrency, "minConcurrency");
+    if (maxConcurrency < minConcurrency) {
+      throw new IllegalArgumentException("maxConcurrency can not be less than minConcurrency");
+    } else if (initialConcurrency < minConcurrency || initialConcurrency > maxConcurrency) {
+      throw new IllegalArgumentException("initialConcurrency must be between min and max");
+    }
+    
+    this.minConcurrency = minConcurrency;
+    this.maxConcurrencyBound = maxConcurrency;
+    this.runningTasks = new AtomicInteger(0);
+    this.sampleLock = new Object();
+    this.windowSampleCount = 0;
+    this.windowLatencySumNanos = 0;
+    this.windowMaxRunning = 0;
+    this.estimatedLimit = initialConcurrency;
+    this.noLoadLatencyNanos = -1;
+  }
+  
+  /**
+   * Returns the lowest the concurrency limit will be adjusted to.
+   * 
+   * @return Minimum concurrency limit
+   */
+  public int getMinConcurrency() {
+    return minConcurrency;
+  }
+  
+  /**
+   * Returns the highest the concurrency limit will be adjusted to.  The current limit can be 
+   * checked with {@link #getMaxConcurrency()}.
+   * 
+   * @return Maximum concurrency limit
+   */
+  public int getMaxConcurrencyBound() {
+    return maxConcurrencyBound;
+  }
+  
+  /**
+   * Returns the current estimate for how long tasks take to execute when the resource is not 
+   * under load.  This is the baseline latency which limit adjustments are made against.
+   * 
+   * @return Estimated no-load latency in milliseconds, or {@code -1} if not enough samples yet
+   */
+  public double getNoLoadLatencyMillis() {
+    double noLoadLatencyNanos = this.noLoadLatencyNanos;
+    if (noLoadLatencyNanos < 0) {
+      return -1;
+    }
+    return noLoadLatencyNanos / Clock.NANOS_IN_MILLISECOND;
+  }
+  
+  @Override
+  public void setMaxConcurrency(int maxConcurrency) {
+    if (maxConcurrency < minConcurrency || maxConcurrency > maxConcurrencyBound) {
+      throw new IllegalArgumentException("maxConcurrency must be between min and max");
+    }
+    
+    synchronized (sampleLock) {
+      estimatedLimit = maxConcurrency;
+      super.setMaxConcurrency(maxConcurrency);
+    }
+  }
+  
+  @Override
+  protected void executeOrQueue(Runnable task, ListenableFuture<?> future) {
+    executeOrQueueWrapper(new LatencyTrackingRunnableWrapper(task));
+  }
+  
+  /**
+   * Record the latency of a single completed task.  Once enough samples have been collected to 
+   * complete a window the concurrency limit will be adjusted.
+   * 
+   * @param latencyNanos Time in nanoseconds the task took to complete
+   * @param runningCount Quantity of tasks which were running when this task started
+   */
+  protected void handleSample(long latencyNanos, int runningCount) {
+    synchronized (sampleLock) {
+      windowSampleCount++;
+      windowLatencySumNanos += latencyNanos;
+      if (runningCount > windowMaxRunning) {
+        windowMaxRunning = runningCount;
+      }
+      if (windowSampleCount < MIN_WINDOW_SAMPLES) {
+        return;
+      }
+      
+      double windowLatency = (double)windowLatencySumNanos / windowSampleCount;
+      boolean limitSaturated = windowMaxRunning * 2 >= estimatedLimit;
+      windowSampleCount = 0;
+      windowLatencySumNanos = 0;
+      windowMaxRunning = 0;
+      
+      double noLoadLatency = noLoadLatencyNanos;
+      if (noLoadLatency < 0 || windowLatency < noLoadLatency) {
+        noLoadLatency = windowLatency;
+      } else {
+        noLoadLatency += (windowLatency - noLoadLatency) * NO_LOAD_LATENCY_DRIFT;
+      }
+      noLoadLatencyNanos = noLoadLatency;
+      
+      double gradient;
+      if (windowLatency <= 0) {
+        gradient = 1;
+      } else {
+        gradient = Math.max(MIN_GRADIENT, 
+                            Math.min(1, (LATENCY_TOLERANCE * noLoadLatency) / windowLatency));
+      }
+      if (gradient >= 1 && ! limitSaturated) {
+        // not using enough of the limit to know if an increase would be beneficial
+        return;
+      }
+      
+      double newLimit;
+      if (gradient >= 1) {
+        // latency is acceptable, probe for more capacity
+        newLimit = estimatedLimit + Math.sqrt(estimatedLimit);
+      } else {
+        newLimit = estimatedLimit * gradient;
+      }
+      newLimit = (estimatedLimit * (1 - LIMIT_SMOOTHING)) + (newLimit * LIMIT_SMOOTHING);
+      estimatedLimit = Math.max(minConcurrency, Math.min(maxConcurrencyBound, newLimit));
+      
+      int limit = (int)estimatedLimit;
+      if (limit != getMaxConcurrency()) {
+        super.setMaxConcurrency(limit);
+      }
+    }
+  }
+  
+  /**
+   * Wrapper which in addition to releasing the execution limit will record how long the task 
+   * took to run.
+   * 
+   * @since 5.30
+   */
+  protected class LatencyTrackingRunnableWrapper extends LimiterRunnableWrapper {
+    private long startNanos;
+    private int runningCount;
+    
+    public LatencyTrackingRunnableWrapper(Runnable runnable) {
+      super(runnable);
+    }
+    
+    @Override
+    public void run() {
+      runningCount = runningTasks.incrementAndGet();
+      startNanos = Clock.accurateTimeNanos();
+      
+      super.run();
+    }
+    
+    @Override
+    protected void doAfterRunTasks() {
+      runningTasks.decrementAndGet();
+      
+      handleSample(Clock.accurateTimeNanos() - startNanos, runningCount);
+    }
+  }
+}
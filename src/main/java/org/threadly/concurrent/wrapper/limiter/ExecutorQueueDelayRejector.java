@@ -0,0 +1,276 @@
+package org.threadly.concurrent.wrapper.limiter;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.threadly.concurrent.AbstractSubmitterExecutor;
+import org.threadly.concurrent.RunnableContainer;
+import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.Clock;
+
+/**
+ * Limits the queue of any {@link Executor} by how long tasks wait in the queue, rather than by a 
+ * fixed quantity of tasks as done in {@link ExecutorQueueLimitRejector}.  The right queue size 
+ * depends on how expensive tasks are, so limiting by time allows latency to remain bounded without 
+ * needing to tune the limit for each pool.
+ * <p>
+ * This follows the Controlled Delay (CoDel) algorithm.  Each time a task starts the time it 
+ * waited in the queue (its sojourn time) is measured.  Short bursts which cause sojourn times 
+ * above the target delay are fine, but if the sojourn time stays above the target for a full 
+ * interval the queue is considered to be standing, and this will start shedding load.  While 
+ * shedding, submitted tasks will be periodically provided to the {@link RejectedExecutionHandler} 
+ * (which by default throws a {@link RejectedExecutionException}).  The time between rejections 
+ * decreases with the square root of how many tasks have been rejected, until tasks start 
+ * executing with a sojourn time below the target again.
+ * <p>
+ * Like the other rejectors the queue is tracked independent of the {@link Executor}'s actual 
+ * queue, so these can be used to shed load differently for different parts of the system while 
+ * backing the same {@link Executor}.
+ * 
+ * @since 5.30
+ */
+public class ExecutorQueueDelayRejector extends AbstractSubmitterExecutor {
+  /**
+   * Default target delay in milliseconds, tasks waiting less than this are considered healthy.
+   */
+  public static final int DEFAULT_TARGET_DELAY_MILLIS = 5;
+  /**
+   * Default interval in milliseconds that the delay must remain above target to start shedding.
+   */
+  public static final int DEFAULT_INTERVAL_MILLIS = 100;
+  // if shedding resumes this soon after it stopped, the previous rejection rate is resumed
+  protected static final int SHEDDING_RESUME_INTERVALS = 16;
+  
+  /**
+   * The current state of the rejector.
+   * 
+   * @since 5.30
+   */
+  public enum QueueDelayState {
+    /**
+     * Tasks are starting within the target delay.
+     */
+    Normal, 
+    /**
+     * Tasks have waited longer than the target delay, but not for a full interval yet.
+     */
+    AboveTarget, 
+    /**
+     * Tasks have waited longer than the target delay for over an interval, load is being shed.
+     */
+    Shedding;
+  }
+  
+  protected final Executor parentExecutor;
+  protected final long targetDelayMillis;
+  protected final long intervalMillis;
+  protected final RejectedExecutionHandler rejectedExecutionHandler;
+  protected final AtomicInteger queuedTaskCount;
+  protected final AtomicLong rejectedTaskCount;
+  private final Object stateLock;
+  private volatile QueueDelayState state;
+  private long firstAboveTime;        // guarded by stateLock
+  private long nextRejectTime;        // guarded by stateLock
+  private int sheddingRejectCount;    // guarded by stateLock
+  private int lastSheddingRejectCount;// guarded by stateLock
+  
+  /**
+   * Constructs a new {@link ExecutorQueueDelayRejector} using the default target delay of 
+   * {@value #DEFAULT_TARGET_DELAY_MILLIS} milliseconds and default interval of 
+   * {@value #DEFAULT_INTERVAL_MILLIS} milliseconds.
+   * 
+   * @param parentExecutor Executor to execute tasks on to
+   */
+  public ExecutorQueueDelayRejector(Executor parentExecutor) {
+    this(parentExecutor, DEFAULT_TARGET_DELAY_MILLIS, DEFAULT_INTERVAL_MILLIS);
+  }
+  
+  /**
+   * Constructs a new {@link ExecutorQueueDelayRejector} with the provided target delay and 
+   * interval.
+   * 
+   * @param parentExecutor Executor to execute tasks on to
+   * @param targetDelayMillis Time tasks can wait in queue and still be considered healthy
+   * @param intervalMillis Time delay must remain above target before load will be shed
+   */
+  public ExecutorQueueDelayRejector(Executor parentExecutor, 
+                                    long targetDelayMillis, long intervalMillis) {
+    this(parentExecutor, targetDelayMillis, intervalMillis, null);
+  }
+  
+  /**
+   * Constructs a new {@link ExecutorQueueDelayRejector} with the provided target delay and 
+   * interval.
+   * 
+   * @param parentExecutor Executor to execute tasks on to
+   * @param targetDelayMillis Time tasks can wait in queue and still be considered healthy
+   * @param intervalMillis Time delay must remain above target before load will be shed
+   * @param rejectedExecutionHandler Handler to accept tasks which are rejected to shed load
+   */
+  public ExecutorQueueDelayRejector(Executor parentExecutor, 
+                                    long targetDelayMillis, long intervalMillis, 
+                                    RejectedExecutionHandler rejectedExecutionHandler) {
+    ArgumentVerifier.assertNotNull(parentExecutor, "parentExecutor");
+    ArgumentVerifier.assertNotNegative(targetDelayMillis, "targetDelayMillis");
+    ArgumentVerifier.assertGreaterThanZero(intervalMillis, "intervalMillis");
+    
+    this.parentExecutor = parentExecutor;
+    this.targetDelayMillis = targetDelayMillis;
+    this.intervalMillis = intervalMillis;
+    if (rejectedExecutionHandler == null) {
+      rejectedExecutionHandler = RejectedExecutionHandler.THROW_REJECTED_EXECUTION_EXCEPTION;
+    }
+    this.rejectedExecutionHandler = rejectedExecutionHandler;
+    this.queuedTaskCount = new AtomicInteger();
+    this.rejectedTaskCount = new AtomicLong();
+    this.stateLock = new Object();
+    this.state = QueueDelayState.Normal;
+    this.firstAboveTime = 0;
+    this.nextRejectTime = 0;
+    this.sheddingRejectCount = 0;
+    this.lastSheddingRejectCount = 0;
+  }
+  
+  /**
+   * Invoked to check how many tasks are currently being tracked as queued by this limiter.
+   * 
+   * @return Number of tracked tasks waiting for execution to start
+   */
+  public int getQueuedTaskCount() {
+    return queuedTaskCount.get();
+  }
+  
+  /**
+   * Check the current state, indicating if load is currently being shed.
+   * 
+   * @return The current state of the queue delay
+   */
+  public QueueDelayState getState() {
+    return state;
+  }
+  
+  /**
+   * Returns the total quantity of tasks which have been rejected to shed load.
+   * 
+   * @return Total rejected task count
+   */
+  public long getRejectedTaskCount() {
+    return rejectedTaskCount.get();
+  }
+  
+  /**
+   * Returns the quantity of tasks rejected since load shedding most recently started.  This 
+   * determines how frequently tasks are being rejected.
+   * 
+   * @return Rejected task count for the current (or last) shedding period
+   */
+  public int getSheddingRejectCount() {
+    synchronized (stateLock) {
+      return sheddingRejectCount;
+    }
+  }
+  
+  @Override
+  protected void doExecute(Runnable task) {
+    if (state == QueueDelayState.Shedding && shouldReject(Clock.accurateForwardProgressingMillis())) {
+      rejectedTaskCount.incrementAndGet();
+      rejectedExecutionHandler.handleRejectedTask(task);
+      return; // in case handler did not throw exception
+    }
+    
+    queuedTaskCount.incrementAndGet();
+    try {
+      parentExecutor.execute(new QueueDelayTrackingRunnable(task, 
+                                                            Clock.accurateForwardProgressingMillis()));
+    } catch (RejectedExecutionException e) {
+      queuedTaskCount.decrementAndGet();
+      throw e;
+    }
+  }
+  
+  /**
+   * Check if a task being submitted at the provided time should be rejected.  This should only 
+   * be invoked while shedding, and if {@code true} is returned it is accounted as a rejection. 
+   * If the queue has drained shedding stops, since no task may start to report a lower delay.
+   * 
+   * @param now Current time in forward progressing milliseconds
+   * @return {@code true} if the task should be rejected
+   */
+  protected boolean shouldReject(long now) {
+    synchronized (stateLock) {
+      if (state != QueueDelayState.Shedding || now < nextRejectTime) {
+        return false;
+      } else if (queuedTaskCount.get() == 0) {
+        firstAboveTime = 0;
+        state = QueueDelayState.Normal;
+        return false;
+      }
+      sheddingRejectCount++;
+      nextRejectTime = now + (long)(intervalMillis / Math.sqrt(sheddingRejectCount));
+      return true;
+    }
+  }
+  
+  /**
+   * Invoked as a task starts to update the state from the time it waited in queue.
+   * 
+   * @param sojournMillis Time in milliseconds the task waited to start
+   * @param now Current time in forward progressing milliseconds
+   */
+  protected void handleTaskStarted(long sojournMillis, long now) {
+    if (sojournMillis < targetDelayMillis && state == QueueDelayState.Normal) {
+      return; // fast path, nothing to update
+    }
+    synchronized (stateLock) {
+      if (sojournMillis < targetDelayMillis) {
+        firstAboveTime = 0;
+        state = QueueDelayState.Normal;
+      } else if (firstAboveTime == 0) {
+        firstAboveTime = now + intervalMillis;
+        state = QueueDelayState.AboveTarget;
+      } else if (now >= firstAboveTime && state != QueueDelayState.Shedding) {
+        // if we recently stopped shedding, resume near the previous rejection rate
+        int delta = sheddingRejectCount - lastSheddingRejectCount;
+        if (delta > 1 && now - nextRejectTime < intervalMillis * SHEDDING_RESUME_INTERVALS) {
+          sheddingRejectCount = delta;
+        } else {
+          sheddingRejectCount = 0;
+        }
+        lastSheddingRejectCount = sheddingRejectCount;
+        nextRejectTime = now;
+        state = QueueDelayState.Shedding;
+      }
+    }
+  }
+  
+  /**
+   * Runnable which records when it was queued, so that as it starts the time spent waiting in 
+   * queue can be provided to {@link #handleTaskStarted(long, long)}.
+   * 
+   * @since 5.30
+   */
+  protected class QueueDelayTrackingRunnable implements Runnable, RunnableContainer {
+    private final Runnable task;
+    private final long queueTime;
+    
+    public QueueDelayTrackingRunnable(Runnable task, long queueTime) {
+      this.task = task;
+      this.queueTime = queueTime;
+    }
+    
+    @Override
+    public Runnable getContainedRunnable() {
+      return task;
+    }
+    
+    @Override
+    public void run() {
+      queuedTaskCount.decrementAndGet();
+      long now = Clock.accurateForwardProgressingMillis();
+      handleTaskStarted(now - queueTime, now);
+      task.run();
+    }
+  }
+}
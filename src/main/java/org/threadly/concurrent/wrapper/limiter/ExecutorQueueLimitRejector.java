@@ -1,12 +1,19 @@
 package org.threadly.concurrent.wrapper.limiter;
 
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntSupplier;
 
 import org.threadly.concurrent.AbstractSubmitterExecutor;
 import org.threadly.concurrent.RunnableContainer;
+import org.threadly.concurrent.future.ImmediateResultListenableFuture;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.concurrent.future.SettableListenableFuture;
 import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.Clock;
 
 /**
  * A simple way to limit any {@link Executor} so that queues are managed.  In addition this queue 
@@ -18,6 +25,14 @@ import org.threadly.util.ArgumentVerifier;
  * {@link RejectedExecutionException} will be thrown.  This is the threadly equivalent of 
  * supplying a limited sized blocking queue to a java.util.concurrent thread pool.
  * <p>
+ * Rather than failing, producers can instead be slowed to the rate tasks are consumed.  If 
+ * constructed with a block timeout, submitting threads will block up to that long for capacity 
+ * before the task is provided to the {@link RejectedExecutionHandler}.  Alternatively 
+ * {@link #awaitCapacity()} provides a future which will complete once there is capacity to 
+ * accept another task.  In both cases waiters are woken in the order they started waiting, one 
+ * for each task which starts.  Care should be taken to not block threads from the parent pool, 
+ * since that may prevent the tasks they are waiting on from running.
+ * <p>
  * See {@link SubmitterSchedulerQueueLimitRejector}, {@link SchedulerServiceQueueLimitRejector} 
  * and {@link PrioritySchedulerServiceQueueLimitRejector} as other possible implementations.
  *  
@@ -27,6 +42,8 @@ public class ExecutorQueueLimitRejector extends AbstractSubmitterExecutor {
   protected final Executor parentExecutor;
   protected final RejectedExecutionHandler rejectedExecutionHandler;
   protected final AtomicInteger queuedTaskCount;
+  protected final long blockTimeoutMillis;
+  protected final CapacityWaiters capacityWaiters;
   private volatile int queuedTaskLimit;
   
   /**
@@ -49,8 +66,26 @@ public class ExecutorQueueLimitRejector extends AbstractSubmitterExecutor {
    */
   public ExecutorQueueLimitRejector(Executor parentExecutor, int queuedTaskLimit, 
                                     RejectedExecutionHandler rejectedExecutionHandler) {
+    this(parentExecutor, queuedTaskLimit, 0, rejectedExecutionHandler);
+  }
+  
+  /**
+   * Constructs a new {@link ExecutorQueueLimitRejector} which will block submitting threads while 
+   * the queue is full.  If capacity does not become available within the block timeout (or the 
+   * thread is interrupted), the task will be provided to the rejected execution handler.
+   * 
+   * @since 5.30
+   * @param parentExecutor Executor to execute tasks on to
+   * @param queuedTaskLimit Maximum number of queued tasks before executions should be rejected
+   * @param blockTimeoutMillis Maximum time to block for capacity, or {@code 0} to never block
+   * @param rejectedExecutionHandler Handler to accept tasks which could not be executed due to queue size
+   */
+  public ExecutorQueueLimitRejector(Executor parentExecutor, int queuedTaskLimit, 
+                                    long blockTimeoutMillis, 
+                                    RejectedExecutionHandler rejectedExecutionHandler) {
     ArgumentVerifier.assertNotNull(parentExecutor, "parentExecutor");
     ArgumentVerifier.assertGreaterThanZero(queuedTaskLimit, "queuedTaskLimit");
+    ArgumentVerifier.assertNotNegative(blockTimeoutMillis, "blockTimeoutMillis");
     
     this.parentExecutor = parentExecutor;
     if (rejectedExecutionHandler == null) {
@@ -58,6 +93,8 @@ public class ExecutorQueueLimitRejector extends AbstractSubmitterExecutor {
     }
     this.rejectedExecutionHandler = rejectedExecutionHandler;
     this.queuedTaskCount = new AtomicInteger();
+    this.blockTimeoutMillis = blockTimeoutMillis;
+    this.capacityWaiters = new CapacityWaiters();
     this.queuedTaskLimit = queuedTaskLimit;
   }
   
@@ -88,24 +125,50 @@ public class ExecutorQueueLimitRejector extends AbstractSubmitterExecutor {
    */
   public void setQueueLimit(int newLimit) {
     this.queuedTaskLimit = newLimit;
+    
+    capacityWaiters.signal(newLimit - queuedTaskCount.get());
+  }
+  
+  /**
+   * Returns the maximum time a submitting thread will block waiting for capacity.
+   * 
+   * @since 5.30
+   * @return Block timeout in milliseconds, {@code 0} if submissions never block
+   */
+  public long getBlockTimeoutMillis() {
+    return blockTimeoutMillis;
+  }
+  
+  /**
+   * Returns a future which will complete once the queue has capacity to accept another task. 
+   * This does not reserve capacity, so a task submitted once the future completes may still be 
+   * rejected if other threads submit first.  Futures complete in the order they were requested, 
+   * and since they are completed as tasks start, listeners should be light weight or be provided 
+   * an executor to run on.
+   * 
+   * @since 5.30
+   * @return Future which completes once a task may be accepted
+   */
+  public ListenableFuture<?> awaitCapacity() {
+    return capacityWaiters.awaitCapacity(queuedTaskCount, this::getQueueLimit);
   }
 
   @Override
   protected void doExecute(Runnable task) {
-    while (true) {
-      int casValue = queuedTaskCount.get();
-      if (casValue >= queuedTaskLimit) {
-        rejectedExecutionHandler.handleRejectedTask(task);
-        return; // in case handler did not throw exception
-      } else if (queuedTaskCount.compareAndSet(casValue, casValue + 1)) {
-        try {
-          parentExecutor.execute(new DecrementingRunnable(task, queuedTaskCount));
-        } catch (RejectedExecutionException e) {
-          queuedTaskCount.decrementAndGet();
-          throw e;
-        }
-        break;
-      } // else loop and retry
+    if (! CapacityWaiters.tryAcquire(queuedTaskCount, queuedTaskLimit) && 
+        (blockTimeoutMillis == 0 || 
+           ! capacityWaiters.blockForCapacity(queuedTaskCount, this::getQueueLimit, 
+                                              blockTimeoutMillis))) {
+      rejectedExecutionHandler.handleRejectedTask(task);
+      return; // in case handler did not throw exception
+    }
+    
+    try {
+      parentExecutor.execute(new DecrementingRunnable(task, queuedTaskCount, capacityWaiters));
+    } catch (RejectedExecutionException e) {
+      queuedTaskCount.decrementAndGet();
+      capacityWaiters.signal();
+      throw e;
     }
   }
   
@@ -117,10 +180,17 @@ public class ExecutorQueueLimitRejector extends AbstractSubmitterExecutor {
   protected static class DecrementingRunnable implements Runnable, RunnableContainer {
     private final Runnable task;
     private final AtomicInteger queuedTaskCount;
+    private final CapacityWaiters capacityWaiters;
     
     public DecrementingRunnable(Runnable task, AtomicInteger queuedTaskCount) {
+      this(task, queuedTaskCount, null);
+    }
+    
+    public DecrementingRunnable(Runnable task, AtomicInteger queuedTaskCount, 
+                                CapacityWaiters capacityWaiters) {
       this.task = task;
       this.queuedTaskCount = queuedTaskCount;
+      this.capacityWaiters = capacityWaiters;
     }
 
     @Override
@@ -131,7 +201,173 @@ public class ExecutorQueueLimitRejector extends AbstractSubmitterExecutor {
     @Override
     public void run() {
       queuedTaskCount.decrementAndGet();
+      if (capacityWaiters != null) {
+        capacityWaiters.signal();
+      }
       task.run();
     }
   }
+  
+  /**
+   * Lock free FIFO queue of threads and futures waiting for queue capacity.  Each time capacity 
+   * may have become available the longest waiting waiter is woken.  A woken thread which finds 
+   * the capacity was taken by another thread will return to the front of the queue.
+   * 
+   * @since 5.30
+   */
+  protected static class CapacityWaiters {
+    protected static final int WAITING = 0;
+    protected static final int SIGNALED = 1;
+    protected static final int CANCELLED = -1;
+    
+    protected final ConcurrentLinkedDeque<Waiter> waiters = new ConcurrentLinkedDeque<>();
+    
+    /**
+     * Attempt to increment the count as long as it will not exceed the limit.
+     * 
+     * @param count Count of queued tasks to increment
+     * @param limit Maximum the count can be incremented to
+     * @return {@code true} if the count was incremented
+     */
+    public static boolean tryAcquire(AtomicInteger count, int limit) {
+      while (true) {
+        int casValue = count.get();
+        if (casValue >= limit) {
+          return false;
+        } else if (count.compareAndSet(casValue, casValue + 1)) {
+          return true;
+        } // else loop and retry
+      }
+    }
+    
+    /**
+     * Check if there are any threads or futures waiting for capacity.
+     * 
+     * @return {@code true} if there are waiters
+     */
+    public boolean hasWaiters() {
+      return ! waiters.isEmpty();
+    }
+    
+    /**
+     * Wake the longest waiting waiter, invoked when capacity may have become available.
+     */
+    public void signal() {
+      Waiter w;
+      while ((w = waiters.pollFirst()) != null) {
+        if (w.signal()) {
+          return;
+        }
+      }
+    }
+    
+    /**
+     * Wake up to the provided quantity of waiters, in the order they started waiting.
+     * 
+     * @param count Maximum quantity of waiters to wake
+     */
+    public void signal(int count) {
+      for (int i = 0; i < count && hasWaiters(); i++) {
+        signal();
+      }
+    }
+    
+    /**
+     * Returns a future which will complete once the count is below the limit.
+     * 
+     * @param count Count of queued tasks
+     * @param limit Supplier for the current queue limit
+     * @return Future which will complete once there is capacity
+     */
+    public ListenableFuture<?> awaitCapacity(AtomicInteger count, IntSupplier limit) {
+      if (count.get() < limit.getAsInt()) {
+        return ImmediateResultListenableFuture.NULL_RESULT;
+      }
+      
+      Waiter waiter = new Waiter(null);
+      waiters.addLast(waiter);
+      if (count.get() < limit.getAsInt()) {
+        // capacity may have become available before we were queued
+        signal();
+      }
+      return waiter.future;
+    }
+    
+    /**
+     * Blocks the calling thread until the count can be incremented without exceeding the limit. 
+     * If interrupted while waiting this will return {@code false} with the interrupted status 
+     * still set.
+     * 
+     * @param count Count of queued tasks to increment
+     * @param limit Supplier for the current queue limit
+     * @param timeoutMillis Maximum time in milliseconds to block
+     * @return {@code true} if the count was incremented, {@code false} if timed out or interrupted
+     */
+    public boolean blockForCapacity(AtomicInteger count, IntSupplier limit, long timeoutMillis) {
+      long startNanos = Clock.accurateTimeNanos();
+      long timeoutNanos = timeoutMillis * Clock.NANOS_IN_MILLISECOND;
+      Waiter waiter = new Waiter(Thread.currentThread());
+      waiters.addLast(waiter);
+      boolean acquired = false;
+      try {
+        while (true) {
+          if (tryAcquire(count, limit.getAsInt())) {
+            acquired = true;
+            return true;
+          } else if (waiter.state.get() == SIGNALED) {
+            // capacity was taken before we could acquire it, wait again from the front
+            waiter = new Waiter(Thread.currentThread());
+            waiters.addFirst(waiter);
+            continue;
+          }
+          
+          long remainingNanos = timeoutNanos - (Clock.accurateTimeNanos() - startNanos);
+          if (remainingNanos <= 0 || Thread.currentThread().isInterrupted()) {
+            return false;
+          }
+          LockSupport.parkNanos(this, remainingNanos);
+        }
+      } finally {
+        if (! waiter.state.compareAndSet(WAITING, CANCELLED) && 
+            (! acquired || count.get() < limit.getAsInt())) {
+          // we were signaled but there is still capacity, so pass the signal on
+          signal();
+        }
+      }
+    }
+    
+    /**
+     * Either a blocked thread, or a future to complete, waiting for capacity.
+     * 
+     * @since 5.30
+     */
+    protected static class Waiter {
+      protected final Thread thread;
+      protected final SettableListenableFuture<?> future;
+      protected final AtomicInteger state;
+      
+      protected Waiter(Thread thread) {
+        this.thread = thread;
+        this.future = thread == null ? new SettableListenableFuture<>(false) : null;
+        this.state = new AtomicInteger(WAITING);
+      }
+      
+      /**
+       * Wake this waiter.
+       * 
+       * @return {@code false} if the waiter was no longer waiting
+       */
+      protected boolean signal() {
+        if (! state.compareAndSet(WAITING, SIGNALED)) {
+          return false;
+        } else if (thread != null) {
+          LockSupport.unpark(thread);
+          return true;
+        } else {
+          // will be false if the future was cancelled
+          return future.setResult(null);
+        }
+      }
+    }
+  }
 }
@@ -2,8 +2,10 @@ package org.threadly.concurrent.wrapper.limiter;
 
 import java.util.Iterator;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.function.Function;
 
 import org.threadly.concurrent.AbstractSubmitterExecutor;
@@ -13,9 +15,12 @@ import org.threadly.concurrent.ReschedulingOperation;
 import org.threadly.concurrent.SubmitterExecutor;
 import org.threadly.concurrent.SubmitterScheduler;
 import org.threadly.concurrent.TaskPriority;
+import org.threadly.concurrent.future.FutureUtils;
 import org.threadly.concurrent.future.ImmediateResultListenableFuture;
 import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.concurrent.future.ListenableFutureTask;
 import org.threadly.concurrent.wrapper.priority.DefaultPriorityWrapper;
+import org.threadly.concurrent.wrapper.traceability.ThreadRenamingRunnable;
 import org.threadly.concurrent.wrapper.traceability.ThreadRenamingSubmitterScheduler;
 import org.threadly.util.ArgumentVerifier;
 import org.threadly.util.Clock;
@@ -27,28 +32,52 @@ import org.threadly.util.StringUtils;
  * {@link Object#hashCode()} and {@link Object#equals(Object)}.  For any given key, a rate is 
  * applied, but keys which don't match with the above checks will not impact each other.
  * <p>
- * Because different keys don't interact, this is not capable of providing a global rate limit 
- * (unless the key quantity is known and restricted).
+ * By default different keys don't interact, and all keys share the same rate.  If constructed 
+ * with a function to provide per key rates, each key will be limited at the rate returned for 
+ * it.  If constructed with a global rate, tasks must also conform to that rate across all keys. 
+ * In that case a single scheduling decision is made for each task (which must satisfy both its 
+ * key and the global limit), so tasks are never re-scheduled as they would be if two limiters 
+ * were chained together.  Global capacity is reserved as time intervals, so a key which is 
+ * throttled far into the future by its own rate does not hold back other keys from using the 
+ * global capacity before that point.
  * <p>
  * This differs from {@link KeyedExecutorLimiter} in that while that limits concurrency, this 
  * limits by rate (thus there may be periods where nothing is execution, or if executions are long 
  * things may run concurrently).  Please see {@link RateLimiterExecutor} for more details about how 
  * rate is limited.
+ * <p>
+ * State is only retained for keys which have been used recently.  Keys which have been idle for 
+ * a couple seconds are removed, and are tracked in a timing wheel so that only keys which may 
+ * have become idle need to be checked (rather than iterating all keys).  The state for each key 
+ * is only its rate and next schedule time, tasks for all keys are scheduled through a shared 
+ * scheduler.
  * 
  * @since 4.7.0
  */
 public class KeyedRateLimiterExecutor {
   protected static final short LIMITER_IDLE_TIMEOUT = 2_000;
   protected static final short CONCURRENT_HASH_MAP_INITIAL_SIZE = 16;
+  protected static final int EXPIRY_WHEEL_SIZE = 64;
+  protected static final int EXPIRY_WHEEL_TICK_MILLIS = LIMITER_IDLE_TIMEOUT / 2;
   
   protected final SubmitterScheduler scheduler;
   protected final RejectedExecutionHandler rejectedExecutionHandler;
   protected final SubmitterScheduler limiterCheckerScheduler;
   protected final double permitsPerSecond;
+  protected final Function<Object, Double> keyPermitsPerSecond;
+  protected final GlobalRateCalendar globalRateCalendar;
   protected final long maxScheduleDelayMillis;
   protected final String subPoolName;
   protected final boolean addKeyToThreadName;
+  protected final SubmitterScheduler threadNamedScheduler;
+  /**
+   * No longer populated, the state for each key is held in {@link #currentKeyLimits}.
+   * 
+   * @deprecated Keys are tracked by {@link KeyRateLimit}, this will be removed in a future release
+   */
+  @Deprecated
   protected final ConcurrentHashMap<Object, RateLimiterExecutor> currentLimiters;
+  protected final ConcurrentHashMap<Object, KeyRateLimit> currentKeyLimits;
   protected final LimiterChecker limiterChecker;
   
   /**
@@ -166,11 +195,73 @@ public class KeyedRateLimiterExecutor {
                                   long maxScheduleDelayMillis, 
                                   RejectedExecutionHandler rejectedExecutionHandler, 
                                   String subPoolName, boolean addKeyToThreadName) {
+    this(scheduler, permitsPerSecond, null, 0, maxScheduleDelayMillis, rejectedExecutionHandler, 
+         subPoolName, addKeyToThreadName);
+  }
+  
+  /**
+   * Constructs a new key rate limiting executor with per key rates and a global rate applied 
+   * across all keys.
+   * <p>
+   * The provided function will be invoked with the key to get the permits per second for a key 
+   * as it becomes active.  If the function returns {@code null} the default rate will be used. 
+   * Since the rate is retained only while the key is active, the function may be invoked again 
+   * for the same key after it has been idle.
+   * <p>
+   * This will schedule tasks out infinitely far in order to maintain rate.
+   * 
+   * @since 5.30
+   * @param scheduler Scheduler to defer executions to
+   * @param permitsPerSecond how many permits should be allowed per second per key by default
+   * @param keyPermitsPerSecond Function to provide the rate for a key, or {@code null} to use the default for all keys
+   * @param globalPermitsPerSecond permits per second allowed across all keys, or {@code 0} for no global limit
+   */
+  public KeyedRateLimiterExecutor(SubmitterScheduler scheduler, double permitsPerSecond, 
+                                  Function<Object, Double> keyPermitsPerSecond, 
+                                  double globalPermitsPerSecond) {
+    this(scheduler, permitsPerSecond, keyPermitsPerSecond, globalPermitsPerSecond, 
+         Long.MAX_VALUE, null, "", false);
+  }
+  
+  /**
+   * Constructs a new key rate limiting executor with per key rates and a global rate applied 
+   * across all keys.  Allowing the specification of thread naming behavior.  Providing null or 
+   * empty for the {@code subPoolName} and {@code false} for appending the key to the thread name 
+   * will result in no thread name adjustments occurring.
+   * <p>
+   * The provided function will be invoked with the key to get the permits per second for a key 
+   * as it becomes active.  If the function returns {@code null} the default rate will be used. 
+   * Since the rate is retained only while the key is active, the function may be invoked again 
+   * for the same key after it has been idle.
+   * <p>
+   * This constructor accepts a maximum schedule delay.  If a task requires being scheduled out 
+   * beyond this delay (for either its key or the global rate), then the provided 
+   * {@link RejectedExecutionHandler} will be invoked.
+   * 
+   * @since 5.30
+   * @param scheduler Scheduler to defer executions to
+   * @param permitsPerSecond how many permits should be allowed per second per key by default
+   * @param keyPermitsPerSecond Function to provide the rate for a key, or {@code null} to use the default for all keys
+   * @param globalPermitsPerSecond permits per second allowed across all keys, or {@code 0} for no global limit
+   * @param maxScheduleDelayMillis Maximum amount of time delay tasks in order to maintain rate
+   * @param rejectedExecutionHandler Handler to accept tasks which could not be executed
+   * @param subPoolName Prefix to give threads while executing tasks submitted through this limiter
+   * @param addKeyToThreadName {@code true} to append the task's key to the thread name
+   */
+  public KeyedRateLimiterExecutor(SubmitterScheduler scheduler, double permitsPerSecond, 
+                                  Function<Object, Double> keyPermitsPerSecond, 
+                                  double globalPermitsPerSecond, long maxScheduleDelayMillis, 
+                                  RejectedExecutionHandler rejectedExecutionHandler, 
+                                  String subPoolName, boolean addKeyToThreadName) {
     ArgumentVerifier.assertNotNull(scheduler, "scheduler");
     ArgumentVerifier.assertGreaterThanZero(permitsPerSecond, "permitsPerSecond");
+    ArgumentVerifier.assertNotNegative(globalPermitsPerSecond, "globalPermitsPerSecond");
     ArgumentVerifier.assertGreaterThanZero(maxScheduleDelayMillis, "maxScheduleDelayMillis");
 
     this.scheduler = scheduler;
+    if (rejectedExecutionHandler == null) {
+      rejectedExecutionHandler = RejectedExecutionHandler.THROW_REJECTED_EXECUTION_EXCEPTION;
+    }
     this.rejectedExecutionHandler = rejectedExecutionHandler;
     if (scheduler instanceof PrioritySchedulerService) {
       limiterCheckerScheduler = 
@@ -180,11 +271,24 @@ public class KeyedRateLimiterExecutor {
       limiterCheckerScheduler = scheduler;
     }
     this.permitsPerSecond = permitsPerSecond;
+    this.keyPermitsPerSecond = keyPermitsPerSecond;
+    if (globalPermitsPerSecond > 0) {
+      globalRateCalendar = new GlobalRateCalendar(globalPermitsPerSecond, maxScheduleDelayMillis);
+    } else {
+      globalRateCalendar = null;
+    }
     this.maxScheduleDelayMillis = maxScheduleDelayMillis;
     // make sure this is non-null so that it 'null' wont appear
     this.subPoolName = StringUtils.nullToEmpty(subPoolName);
     this.addKeyToThreadName = addKeyToThreadName;
-    this.currentLimiters = new ConcurrentHashMap<>(CONCURRENT_HASH_MAP_INITIAL_SIZE);
+    if (this.subPoolName.isEmpty() || addKeyToThreadName) {
+      // when the key is in the thread name, tasks are wrapped individually as they are scheduled
+      threadNamedScheduler = scheduler;
+    } else {
+      threadNamedScheduler = new ThreadRenamingSubmitterScheduler(scheduler, this.subPoolName, false);
+    }
+    this.currentLimiters = new ConcurrentHashMap<>(0);
+    this.currentKeyLimits = new ConcurrentHashMap<>(CONCURRENT_HASH_MAP_INITIAL_SIZE);
     this.limiterChecker = new LimiterChecker(scheduler, LIMITER_IDLE_TIMEOUT / 2);
   }
   
@@ -231,7 +335,7 @@ public class KeyedRateLimiterExecutor {
    * @return The number of task keys being monitored
    */
   public int getTrackedKeyCount() {
-    return currentLimiters.size();
+    return currentKeyLimits.size();
   }
   
   /**
@@ -243,14 +347,36 @@ public class KeyedRateLimiterExecutor {
    * @return minimum delay in milliseconds for the next task to be provided
    */
   public int getMinimumDelay(Object taskKey) {
-    RateLimiterExecutor rle = currentLimiters.get(taskKey);
-    if (rle == null) {
+    KeyRateLimit limit = currentKeyLimits.get(taskKey);
+    if (globalRateCalendar == null) {
+      return limit == null ? 0 : delayTill(Clock.lastKnownForwardProgressingMillis(), 
+                                           limit.nextScheduleTime);
+    }
+    double now = Clock.accurateForwardProgressingMillis();
+    double keyScheduleTime = limit == null ? now : limit.nextScheduleTime;
+    return delayTill(now, globalRateCalendar.getNextScheduleTime(now, keyScheduleTime));
+  }
+  
+  /**
+   * Check how far out tasks have been scheduled in order to maintain the global rate across all 
+   * keys.  If no global rate was provided this will always return zero.
+   * 
+   * @since 5.30
+   * @return minimum delay in milliseconds for the next task of any key
+   */
+  public int getGlobalMinimumDelay() {
+    if (globalRateCalendar == null) {
       return 0;
     } else {
-      return rle.getMinimumDelay();
+      double now = Clock.accurateForwardProgressingMillis();
+      return delayTill(now, globalRateCalendar.getNextScheduleTime(now, now));
     }
   }
   
+  private static int delayTill(double now, double scheduleTime) {
+    return (int)Math.max(0, Math.ceil(scheduleTime - now));
+  }
+  
   /**
    * In order to help assist with avoiding to schedule too much on the scheduler at any given 
    * time, this call returns a future that will block until the delay for the next task falls 
@@ -304,7 +430,10 @@ public class KeyedRateLimiterExecutor {
    * @return Time in milliseconds task was delayed to maintain rate, or {@code -1} if rejected but handler did not throw
    */
   public long execute(double permits, Object taskKey, Runnable task) {
-    return limiterForKey(taskKey, (l) -> l.execute(permits, task));
+    ArgumentVerifier.assertNotNull(task, "task");
+    ArgumentVerifier.assertNotNegative(permits, "permits");
+    
+    return rateLimitForKey(taskKey, (l) -> doExecute(l, permits, task));
   }
   
   /**
@@ -366,8 +495,29 @@ public class KeyedRateLimiterExecutor {
    * @return Future to represent when the execution has occurred and provide the given result
    */
   public <T> ListenableFuture<T> submit(double permits, Object taskKey, Runnable task, T result) {
-    // we go directly to the limiter here to get DoNothingRunnable optimizations (can't wrap task)
-    return limiterForKey(taskKey, (l) -> l.submit(permits, task, result));
+    ArgumentVerifier.assertNotNull(task, "task");
+    ArgumentVerifier.assertNotNegative(permits, "permits");
+    
+    return rateLimitForKey(taskKey, (l) -> {
+      if (task == DoNothingRunnable.instance()) {
+        long taskDelay = taskDelayForPermits(l, permits);
+        if (taskDelay == 0) {
+          // don't even need to burden the scheduler
+          return FutureUtils.immediateResultFuture(result);
+        }
+        ListenableFutureTask<T> lft = new ListenableFutureTask<>(false, task, result, scheduler);
+        if (taskDelay < 0) {
+          rejectedExecutionHandler.handleRejectedTask(lft);
+        } else {
+          scheduler.schedule(lft, taskDelay);
+        }
+        return lft;
+      } else {
+        ListenableFutureTask<T> lft = new ListenableFutureTask<>(false, task, result, scheduler);
+        doExecute(l, permits, lft);
+        return lft;
+      }
+    });
   }
   
   /**
@@ -398,35 +548,41 @@ public class KeyedRateLimiterExecutor {
    * @return Future to represent when the execution has occurred and provide the result from the callable
    */
   public <T> ListenableFuture<T> submit(double permits, Object taskKey, Callable<T> task) {
-    return limiterForKey(taskKey, (l) -> l.submit(permits, task));
+    ArgumentVerifier.assertNotNull(task, "task");
+    ArgumentVerifier.assertNotNegative(permits, "permits");
+    
+    ListenableFutureTask<T> lft = new ListenableFutureTask<>(false, task, scheduler);
+    rateLimitForKey(taskKey, (l) -> doExecute(l, permits, lft));
+    return lft;
   }
   
   /**
-   * This invokes a function with a provided {@link RateLimiterExecutor}.  This invocation is 
+   * This invokes a function with the {@link KeyRateLimit} for the key.  This invocation is 
    * atomic using {@link ConcurrentHashMap#compute(Object, java.util.function.BiFunction)} so that 
    * it will not interfere with others.
    * 
    * @param <T> Type of result from provided function
    * @param taskKey object key where {@code equals()} will be used to determine execution thread
-   * @return A {@link RateLimiterExecutor} that is shared by the key
+   * @param c Function to invoke with the {@link KeyRateLimit} shared by the key
+   * @return The result from the provided function
    */
   @SuppressWarnings("unchecked")
-  protected <T> T limiterForKey(Object taskKey, Function<RateLimiterExecutor, ? extends T> c) {
+  protected <T> T rateLimitForKey(Object taskKey, Function<KeyRateLimit, ? extends T> c) {
     ArgumentVerifier.assertNotNull(taskKey, "taskKey");
     
     Object[] capture = new Object[1];
-    currentLimiters.compute(taskKey, (k, v) -> {
+    currentKeyLimits.compute(taskKey, (k, v) -> {
       if (v == null) {
-        String keyedPoolName = subPoolName + (addKeyToThreadName ? taskKey.toString() : "");
-        SubmitterScheduler threadNamedScheduler;
-        if (StringUtils.isNullOrEmpty(keyedPoolName)) {
-          threadNamedScheduler = scheduler;
-        } else {
-          threadNamedScheduler = new ThreadRenamingSubmitterScheduler(scheduler, keyedPoolName, false);
+        double keyRate = permitsPerSecond;
+        if (keyPermitsPerSecond != null) {
+          Double rate = keyPermitsPerSecond.apply(taskKey);
+          if (rate != null) {
+            keyRate = rate;
+          }
         }
-        v = new RateLimiterExecutor(threadNamedScheduler, permitsPerSecond, 
-                                    maxScheduleDelayMillis, rejectedExecutionHandler);
-        limiterChecker.signalToRun();
+        long now = Clock.lastKnownForwardProgressingMillis();
+        v = new KeyRateLimit(taskKey, keyRate, now);
+        limiterChecker.addLimiter(v, now + LIMITER_IDLE_TIMEOUT);
       }
       // TODO - I would like to improve this
       //          This is awkward having to construct an Object[] just to get the result returned
@@ -436,8 +592,8 @@ public class KeyedRateLimiterExecutor {
       //          to happen.
       //          Other ideas I have:
       //            * Increase memory overhead by having the value be an Object[] of size 2
-      //                Index 0 would be the RateLimiterExecutor, 1 would be able to be used for the capture
-      //            * Extend RateLimiterExecutor and store a timestamp that is updated here in compute.
+      //                Index 0 would be the KeyRateLimit, 1 would be able to be used for the capture
+      //            * Extend KeyRateLimit and store a timestamp that is updated here in compute.
       //                This is probably the simplest, but does not completely solve the problem
       //                This would just ensure the timestamp is updated when looking to remove, but 
       //                If the action took X milliseconds after the update, then it may still be removed.
@@ -447,6 +603,79 @@ public class KeyedRateLimiterExecutor {
     });
     return (T)capture[0];
   }
+  
+  /**
+   * This invokes a function with a {@link RateLimiterExecutor} for the key.  Tasks executed on the 
+   * provided limiter are limited by the key's {@link KeyRateLimit}, however the limiter only 
+   * exists for the duration of the function and does not reflect the state of the key.
+   * 
+   * @deprecated Please use {@link #rateLimitForKey(Object, Function)}, this will be removed in a 
+   *               future release
+   * 
+   * @param <T> Type of result from provided function
+   * @param taskKey object key where {@code equals()} will be used to determine execution thread
+   * @param c Function to invoke with a limiter for the key
+   * @return The result from the provided function
+   */
+  @Deprecated
+  protected <T> T limiterForKey(Object taskKey, Function<RateLimiterExecutor, ? extends T> c) {
+    return rateLimitForKey(taskKey, (l) -> c.apply(new KeyRateLimiterView(l)));
+  }
+  
+  /**
+   * Reserves the permits for the key (and the global rate if set), returning how long the task 
+   * must be delayed.  Must be invoked within {@code compute} for the key, so that the key's 
+   * schedule time is not modified concurrently.
+   * 
+   * @param limit Rate state for the task's key
+   * @param permits number of permits for the task
+   * @return Time in milliseconds to delay the task, or {@code -1} if it should be rejected
+   */
+  protected long taskDelayForPermits(KeyRateLimit limit, double permits) {
+    double now = Clock.accurateForwardProgressingMillis();
+    double scheduleTime = Math.max(now, limit.nextScheduleTime);
+    if (scheduleTime - now > maxScheduleDelayMillis) {
+      return -1;
+    }
+    if (globalRateCalendar != null) {
+      // the global rate is only reserved once we know the key can accept the task
+      scheduleTime = globalRateCalendar.reservePermits(permits, now, scheduleTime);
+      if (Double.isNaN(scheduleTime)) {
+        return -1;
+      }
+    }
+    limit.nextScheduleTime = scheduleTime + (permits / limit.permitsPerSecond) * 1000;
+    double scheduleDelay = scheduleTime - now;
+    return scheduleDelay < 1 ? 0 : (long)scheduleDelay;
+  }
+  
+  /**
+   * Performs the execution by scheduling the task out as necessary to maintain the rate for the 
+   * key.  Must be invoked within {@code compute} for the key.
+   * 
+   * @param limit Rate state for the task's key
+   * @param permits number of permits for this task
+   * @param task Runnable to be executed once rate can be maintained
+   * @return Time in milliseconds task was delayed to maintain rate, or {@code -1} if rejected but handler did not throw
+   */
+  protected long doExecute(KeyRateLimit limit, double permits, Runnable task) {
+    long taskDelay = taskDelayForPermits(limit, permits);
+    if (taskDelay < 0) {
+      rejectedExecutionHandler.handleRejectedTask(task);
+    } else if (task != DoNothingRunnable.instance()) {
+      threadNamedScheduler.schedule(threadNamed(limit, task), taskDelay);
+    }
+    
+    return taskDelay;
+  }
+  
+  private Runnable threadNamed(KeyRateLimit limit, Runnable task) {
+    if (addKeyToThreadName) {
+      return new ThreadRenamingRunnable(task, subPoolName + limit.taskKey.toString(), false);
+    } else {
+      return task;
+    }
+  }
 
   /**
    * Returns an executor implementation where all tasks submitted on this executor will run on the 
@@ -492,39 +721,244 @@ public class KeyedRateLimiterExecutor {
     
     @Override
     protected void doExecute(Runnable task) {
-      limiterForKey(taskKey, (l) -> l.execute(permits, task));
+      rateLimitForKey(taskKey, (l) -> KeyedRateLimiterExecutor.this.doExecute(l, permits, task));
+    }
+  }
+  
+  /**
+   * Rate state for a single key.  In addition to the key's rate and when its next task may run, 
+   * this holds the key and the link used while it is queued in the {@link LimiterChecker} expiry 
+   * wheel.  Tasks are scheduled by the {@link KeyedRateLimiterExecutor} so nothing else is 
+   * retained per key.
+   * 
+   * @since 5.30
+   */
+  protected static class KeyRateLimit {
+    protected final Object taskKey;
+    protected final double permitsPerSecond;
+    // time (relative to forward progressing millis) the next task can run at, only modified in compute
+    protected volatile double nextScheduleTime;
+    // only modified by the thread adding to, or the checker removing from, a wheel bucket
+    protected KeyRateLimit nextInWheelBucket;
+    
+    protected KeyRateLimit(Object taskKey, double permitsPerSecond, double nextScheduleTime) {
+      this.taskKey = taskKey;
+      this.permitsPerSecond = permitsPerSecond;
+      this.nextScheduleTime = nextScheduleTime;
+      this.nextInWheelBucket = null;
     }
   }
   
   /**
-   * Task which checks over all limiters to see if any should be expired / removed.
+   * {@link RateLimiterExecutor} which applies executed tasks to a key's {@link KeyRateLimit}.  This 
+   * only exists to support {@link #limiterForKey(Object, Function)}.
+   */
+  private class KeyRateLimiterView extends RateLimiterExecutor {
+    private final KeyRateLimit limit;
+    
+    private KeyRateLimiterView(KeyRateLimit limit) {
+      super(KeyedRateLimiterExecutor.this.scheduler, limit.permitsPerSecond, 
+            KeyedRateLimiterExecutor.this.maxScheduleDelayMillis, 
+            KeyedRateLimiterExecutor.this.rejectedExecutionHandler);
+      
+      this.limit = limit;
+    }
+    
+    @Override
+    protected long doExecute(double permits, Runnable task) {
+      return KeyedRateLimiterExecutor.this.doExecute(limit, permits, task);
+    }
+  }
+  
+  /**
+   * Tracks reservations of the global rate as intervals of time.  A reservation for a quantity of 
+   * permits occupies the time those permits take at the global rate, starting from the first free 
+   * interval at or after the time requested.  Unlike the single schedule time used by 
+   * {@link RateLimiterExecutor}, free time before an existing reservation remains usable, so a key 
+   * which is limited far into the future does not delay other keys.  Adjacent intervals are 
+   * merged, and intervals which have passed are discarded.
+   * 
+   * @since 5.30
+   */
+  protected static class GlobalRateCalendar {
+    private static final double MERGE_TOLERANCE_MILLIS = 0.000_001;
+    
+    protected final double permitsPerSecond;
+    protected final long maxScheduleDelayMillis;
+    private final Object calendarLock;
+    private final TreeMap<Double, Double> reservedIntervals; // start -> end, guarded by calendarLock
+    
+    protected GlobalRateCalendar(double permitsPerSecond, long maxScheduleDelayMillis) {
+      this.permitsPerSecond = permitsPerSecond;
+      this.maxScheduleDelayMillis = maxScheduleDelayMillis;
+      this.calendarLock = new Object();
+      this.reservedIntervals = new TreeMap<>();
+    }
+    
+    /**
+     * Returns the earliest time a task could start at if submitted now, without reserving any 
+     * permits.
+     * 
+     * @param now Current time in forward progressing milliseconds
+     * @param earliestScheduleTime Soonest time the task may be scheduled at
+     * @return Earliest time at or after both provided times which is not reserved
+     */
+    protected double getNextScheduleTime(double now, double earliestScheduleTime) {
+      synchronized (calendarLock) {
+        removePassedIntervals(now);
+        return findFreeTime(Math.max(now, earliestScheduleTime), 0);
+      }
+    }
+    
+    /**
+     * Reserves the time needed for the provided permits in the first free interval which starts 
+     * no sooner than the provided earliest time.
+     * 
+     * @param permits number of permits for the task
+     * @param now Current time in forward progressing milliseconds
+     * @param earliestScheduleTime Soonest time the task may be scheduled at
+     * @return Time the task should run at, or {@link Double#NaN} if beyond the max schedule delay
+     */
+    protected double reservePermits(double permits, double now, double earliestScheduleTime) {
+      double duration = (permits / permitsPerSecond) * 1000;
+      synchronized (calendarLock) {
+        removePassedIntervals(now);
+        double scheduleTime = findFreeTime(Math.max(now, earliestScheduleTime), duration);
+        if (scheduleTime - now > maxScheduleDelayMillis) {
+          return Double.NaN;
+        } else if (duration > 0) {
+          addInterval(scheduleTime, scheduleTime + duration);
+        }
+        return scheduleTime;
+      }
+    }
+    
+    private void removePassedIntervals(double now) {
+      // intervals don't overlap, so the end times are ordered the same as the start times
+      Iterator<Double> it = reservedIntervals.values().iterator();
+      while (it.hasNext() && it.next() <= now) {
+        it.remove();
+      }
+    }
+    
+    private double findFreeTime(double time, double duration) {
+      Map.Entry<Double, Double> interval = reservedIntervals.floorEntry(time);
+      if (interval != null && interval.getValue() > time) {
+        time = interval.getValue();
+      }
+      // skip any gaps which are too small for the duration
+      while ((interval = reservedIntervals.higherEntry(time)) != null && 
+             interval.getKey() - time < duration) {
+        time = interval.getValue();
+      }
+      return time;
+    }
+    
+    private void addInterval(double start, double end) {
+      Map.Entry<Double, Double> previous = reservedIntervals.floorEntry(start);
+      if (previous != null && previous.getValue() >= start - MERGE_TOLERANCE_MILLIS) {
+        start = previous.getKey();
+      }
+      Map.Entry<Double, Double> next = reservedIntervals.higherEntry(start);
+      if (next != null && next.getKey() <= end + MERGE_TOLERANCE_MILLIS) {
+        reservedIntervals.remove(next.getKey());
+        end = next.getValue();
+      }
+      reservedIntervals.put(start, end);
+    }
+  }
+  
+  /**
+   * Task which checks limiters to see if any should be expired / removed.  Rather than checking 
+   * every limiter each run, limiters are placed into a timing wheel bucket for the time they 
+   * could first become idle.  Each run only the buckets which have elapsed since the last run are 
+   * checked.  Limiters which are still in use are placed into the bucket for their new possible 
+   * idle time, and limiters which are idle are removed.  Buckets are intrusive stacks linked 
+   * through {@link KeyRateLimit#nextInWheelBucket}, so tracking a key requires no 
+   * allocations.
    * 
    * @since 5.25
    */
   protected class LimiterChecker extends ReschedulingOperation {
+    protected final AtomicReferenceArray<KeyRateLimit> expiryWheel;
+    private volatile long processedTick;
+    
     protected LimiterChecker(SubmitterScheduler scheduler, long scheduleDelay) {
       super(scheduler, scheduleDelay);
+      
+      expiryWheel = new AtomicReferenceArray<>(EXPIRY_WHEEL_SIZE);
+      processedTick = Clock.lastKnownForwardProgressingMillis() / EXPIRY_WHEEL_TICK_MILLIS;
+    }
+    
+    /**
+     * Add a limiter to be checked once the provided time has passed.  A limiter must only be 
+     * tracked in the wheel once.  This will also ensure the checker is scheduled to run.
+     * 
+     * @param limiter Limiter to be checked for expiration
+     * @param expiryTime Time in forward progressing milliseconds the limiter may be idle by
+     */
+    protected void addLimiter(KeyRateLimit limiter, long expiryTime) {
+      // ensure we don't add to a bucket which was already processed for this round
+      long tick = Math.max(expiryTime / EXPIRY_WHEEL_TICK_MILLIS, processedTick + 1);
+      int bucket = (int)(tick % EXPIRY_WHEEL_SIZE);
+      while (true) {
+        KeyRateLimit head = expiryWheel.get(bucket);
+        limiter.nextInWheelBucket = head;
+        if (expiryWheel.compareAndSet(bucket, head, limiter)) {
+          break;
+        }
+      }
+      signalToRun();
+    }
+    
+    /**
+     * Check all limiters in wheel buckets which have elapsed up to the provided time.  Limiters 
+     * which have been idle for longer than {@link #LIMITER_IDLE_TIMEOUT} will be removed.
+     * 
+     * @param now Current time in forward progressing milliseconds
+     */
+    protected void expireIdleLimiters(long now) {
+      long nowTick = now / EXPIRY_WHEEL_TICK_MILLIS;
+      long startTick = processedTick + 1;
+      // if behind by more than a full rotation, each bucket only needs to be checked once
+      long endTick = Math.min(nowTick, startTick + EXPIRY_WHEEL_SIZE - 1);
+      processedTick = nowTick;
+      for (long tick = startTick; tick <= endTick; tick++) {
+        KeyRateLimit limiter = expiryWheel.getAndSet((int)(tick % EXPIRY_WHEEL_SIZE), null);
+        while (limiter != null) {
+          KeyRateLimit next = limiter.nextInWheelBucket;
+          limiter.nextInWheelBucket = null;
+          checkLimiter(limiter, now);
+          limiter = next;
+        }
+      }
+    }
+    
+    private void checkLimiter(KeyRateLimit limiter, long now) {
+      long lastScheduleTime = (long)limiter.nextScheduleTime;
+      if (now - lastScheduleTime > LIMITER_IDLE_TIMEOUT) {
+        // must remove in `compute` to ensure no tasks are being submitted while we are removing
+        boolean[] removedCapture = new boolean[1];
+        currentKeyLimits.computeIfPresent(limiter.taskKey, (k, v) -> {
+          if (v == limiter && now - (long)v.nextScheduleTime > LIMITER_IDLE_TIMEOUT) {
+            removedCapture[0] = true;
+            return null;
+          } else {
+            return v;
+          }
+        });
+        if (! removedCapture[0] && currentKeyLimits.get(limiter.taskKey) == limiter) {
+          addLimiter(limiter, (long)limiter.nextScheduleTime + LIMITER_IDLE_TIMEOUT);
+        }
+      } else {
+        addLimiter(limiter, lastScheduleTime + LIMITER_IDLE_TIMEOUT);
+      }
     }
 
     @Override
     public void run() {
-      Iterator<Map.Entry<Object, RateLimiterExecutor>> it = currentLimiters.entrySet().iterator();
-      long now = Clock.lastKnownForwardProgressingMillis();
-      while (it.hasNext()) {
-        Map.Entry<Object, RateLimiterExecutor> e = it.next();
-        if (now - e.getValue().getLastScheduleTime() > LIMITER_IDLE_TIMEOUT) {
-          // if optimistic check above failed, we must remove in `compute` to ensure
-          // no tasks are being submitted while we are removing the limiter
-          currentLimiters.computeIfPresent(e.getKey(), (k, v) -> {
-            if (now - v.getLastScheduleTime() > LIMITER_IDLE_TIMEOUT) {
-              return null;
-            } else {
-              return v;
-            }
-          });
-        }
-      }
-      if (! currentLimiters.isEmpty()) {
+      expireIdleLimiters(Clock.lastKnownForwardProgressingMillis());
+      if (! currentKeyLimits.isEmpty()) {
         signalToRun();
       }
     }
@@ -1,7 +1,12 @@
 package org.threadly.concurrent.wrapper.limiter;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.threadly.concurrent.ContainerHelper;
 import org.threadly.concurrent.PrioritySchedulerService;
 import org.threadly.concurrent.RunnableCallableAdapter;
 import org.threadly.concurrent.TaskPriority;
@@ -9,6 +14,7 @@ import org.threadly.concurrent.future.ListenableFuture;
 import org.threadly.concurrent.future.ListenableFutureTask;
 import org.threadly.concurrent.wrapper.limiter.ExecutorQueueLimitRejector.DecrementingRunnable;
 import org.threadly.util.ArgumentVerifier;
+import org.threadly.util.ExceptionUtils;
 
 /**
  * A simple way to limit any {@link PrioritySchedulerService} so that queues are managed.  In 
@@ -21,6 +27,23 @@ import org.threadly.util.ArgumentVerifier;
  * equivalent of supplying a limited sized blocking queue to a java.util.concurrent thread 
  * pool.
  * <p>
+ * Under overload it is often preferable to shed lower priority work first, so that 
+ * {@link TaskPriority#High} tasks can keep flowing.  A quantity of the queue limit can be reserved 
+ * so that only {@link TaskPriority#High} tasks can use it, {@link TaskPriority#Low} and 
+ * {@link TaskPriority#Starvable} tasks will be rejected once the queue reaches the limit minus the 
+ * reserved slots.  In addition lower priority eviction can be enabled, in which case if a 
+ * {@link TaskPriority#High} task would be rejected, an already queued lower priority task will be 
+ * removed to make room for it instead ({@link TaskPriority#Starvable} tasks being evicted before 
+ * {@link TaskPriority#Low} tasks, and the most recently queued tasks first).  Evicted tasks are 
+ * provided to the {@link RejectedExecutionHandler}.  Since the thread which submitted the evicted 
+ * task has already returned, any exception thrown from the handler for an evicted task will be 
+ * provided to {@link ExceptionUtils#handleException(Throwable)}, unless it is a 
+ * {@link RejectedExecutionException} for a task which is a {@link Future}, in which case the 
+ * future will be cancelled.
+ * <p>
+ * {@link #awaitCapacity()} can be used to be notified once the queue is below its limit, however 
+ * since capacity depends on the priority, blocking for capacity on submission is not supported.
+ * <p>
  * See {@link ExecutorQueueLimitRejector}, {@link SubmitterSchedulerQueueLimitRejector} and 
  * {@link SchedulerServiceQueueLimitRejector} as other possible implementations.
  *  
@@ -30,6 +53,11 @@ public class PrioritySchedulerServiceQueueLimitRejector extends SchedulerService
                                                         implements PrioritySchedulerService {
   protected final PrioritySchedulerService parentScheduler;
   protected final boolean dontLimitStarvable;
+  protected final int highPriorityReservedSlots;
+  protected final boolean evictLowerPriority;
+  protected final ConcurrentLinkedDeque<EvictableRunnable> evictableLowTasks;
+  protected final ConcurrentLinkedDeque<EvictableRunnable> evictableStarvableTasks;
+  protected final AtomicLong evictedTaskCount;
 
   /**
    * Constructs a new {@link PrioritySchedulerServiceQueueLimitRejector} with the provided 
@@ -85,10 +113,67 @@ public class PrioritySchedulerServiceQueueLimitRejector extends SchedulerService
   public PrioritySchedulerServiceQueueLimitRejector(PrioritySchedulerService parentScheduler, 
                                                     int queuedTaskLimit, boolean dontLimitStarvable, 
                                                     RejectedExecutionHandler rejectedExecutionHandler) {
+    this(parentScheduler, queuedTaskLimit, dontLimitStarvable, 0, false, rejectedExecutionHandler);
+  }
+  
+  /**
+   * Constructs a new {@link PrioritySchedulerServiceQueueLimitRejector} which will prefer to 
+   * shed lower priority tasks.  The reserved slots are a portion of the queue limit which only 
+   * {@link TaskPriority#High} tasks can use.  If eviction is enabled, then when a 
+   * {@link TaskPriority#High} task would otherwise be rejected a queued lower priority task will 
+   * be removed and provided to the handler instead.
+   * 
+   * @since 5.30
+   * @param parentScheduler Scheduler to execute and schedule tasks on to
+   * @param queuedTaskLimit Maximum number of queued tasks before executions should be rejected
+   * @param dontLimitStarvable Provide {@code true} to don't include starvable tasks against queue limit
+   * @param highPriorityReservedSlots Quantity of the queue limit only usable by high priority tasks
+   * @param evictLowerPriority {@code true} to evict queued lower priority tasks for high priority tasks
+   * @param rejectedExecutionHandler Handler to accept tasks which could not be executed due to queue size
+   */
+  public PrioritySchedulerServiceQueueLimitRejector(PrioritySchedulerService parentScheduler, 
+                                                    int queuedTaskLimit, boolean dontLimitStarvable, 
+                                                    int highPriorityReservedSlots, 
+                                                    boolean evictLowerPriority, 
+                                                    RejectedExecutionHandler rejectedExecutionHandler) {
     super(parentScheduler, queuedTaskLimit, rejectedExecutionHandler);
     
+    ArgumentVerifier.assertNotNegative(highPriorityReservedSlots, "highPriorityReservedSlots");
+    
     this.parentScheduler = parentScheduler;
     this.dontLimitStarvable = dontLimitStarvable;
+    this.highPriorityReservedSlots = highPriorityReservedSlots;
+    this.evictLowerPriority = evictLowerPriority;
+    this.evictableLowTasks = new ConcurrentLinkedDeque<>();
+    this.evictableStarvableTasks = new ConcurrentLinkedDeque<>();
+    this.evictedTaskCount = new AtomicLong();
+  }
+  
+  /**
+   * Returns the quantity of the queue limit which is reserved for {@link TaskPriority#High} tasks.
+   * 
+   * @since 5.30
+   * @return Queue slots only available to high priority tasks
+   */
+  public int getHighPriorityReservedSlots() {
+    return highPriorityReservedSlots;
+  }
+  
+  /**
+   * Returns the total quantity of queued lower priority tasks which have been evicted to make room 
+   * for {@link TaskPriority#High} tasks.
+   * 
+   * @since 5.30
+   * @return Total evicted task count
+   */
+  public long getEvictedTaskCount() {
+    return evictedTaskCount.get();
+  }
+  
+  @Override
+  protected void doSchedule(Runnable task, long delayInMillis) {
+    // route through the priority path so reserved slots and eviction also apply
+    doSchedule(task, delayInMillis, parentScheduler.getDefaultPriority());
   }
   
   protected void doSchedule(Runnable task, long delayInMillis, TaskPriority priority) {
@@ -97,22 +182,115 @@ public class PrioritySchedulerServiceQueueLimitRejector extends SchedulerService
       return;
     }
     
+    boolean highPriority = priority == TaskPriority.High;
     while (true) {
       int casValue = queuedTaskCount.get();
-      if (casValue >= getQueueLimit()) {
+      int limit = highPriority ? getQueueLimit() : getQueueLimit() - highPriorityReservedSlots;
+      if (casValue >= limit) {
+        if (highPriority && evictLowerPriority && evictLowerPriorityTask()) {
+          break;  // queue slot of the evicted task is now used by this task
+        }
         rejectedExecutionHandler.handleRejectedTask(task);
         return; // in case handler did not throw exception
       } else if (queuedTaskCount.compareAndSet(casValue, casValue + 1)) {
-        try {
-          parentScheduler.schedule(new DecrementingRunnable(task, queuedTaskCount), 
-                                   delayInMillis, priority);
-        } catch (RejectedExecutionException e) {
-          queuedTaskCount.decrementAndGet();
-          throw e;
-        }
         break;
       } // else loop and retry
     }
+    
+    if (highPriority || ! evictLowerPriority) {
+      try {
+        parentScheduler.schedule(new DecrementingRunnable(task, queuedTaskCount, capacityWaiters), 
+                                 delayInMillis, priority);
+      } catch (RejectedExecutionException e) {
+        queuedTaskCount.decrementAndGet();
+        capacityWaiters.signal();
+        throw e;
+      }
+    } else {
+      ConcurrentLinkedDeque<EvictableRunnable> evictableTasks = 
+          priority == TaskPriority.Starvable ? evictableStarvableTasks : evictableLowTasks;
+      EvictableRunnable er = new EvictableRunnable(task, evictableTasks);
+      // must be added before scheduled so that it can't run before being added
+      evictableTasks.addLast(er);
+      try {
+        parentScheduler.schedule(er, delayInMillis, priority);
+      } catch (RejectedExecutionException e) {
+        evictableTasks.remove(er);
+        queuedTaskCount.decrementAndGet();
+        capacityWaiters.signal();
+        throw e;
+      }
+    }
+  }
+  
+  /**
+   * Attempts to remove a queued lower priority task so that its queue slot can be used by a 
+   * {@link TaskPriority#High} task.  If successful the queued task count is not decremented, the 
+   * caller is expected to take the evicted task's place in the queue.
+   * 
+   * @return {@code true} if a task was evicted
+   */
+  protected boolean evictLowerPriorityTask() {
+    while (true) {
+      EvictableRunnable er = evictableStarvableTasks.pollLast();
+      if (er == null) {
+        er = evictableLowTasks.pollLast();
+        if (er == null) {
+          return false;
+        }
+      }
+      // if removal fails the task has already started, so try the next one
+      if (parentScheduler.remove(er)) {
+        evictedTaskCount.incrementAndGet();
+        handleEvictedTask(er.getContainedRunnable());
+        return true;
+      }
+    }
+  }
+  
+  /**
+   * Provides an evicted task to the {@link RejectedExecutionHandler}.  Since the thread which 
+   * submitted the task has already returned, exceptions thrown from the handler can not be 
+   * provided to it.
+   * 
+   * @param task Task which was removed from the queue
+   */
+  protected void handleEvictedTask(Runnable task) {
+    try {
+      rejectedExecutionHandler.handleRejectedTask(task);
+    } catch (RejectedExecutionException e) {
+      if (task instanceof Future) {
+        ((Future<?>)task).cancel(false);
+      } else {
+        ExceptionUtils.handleException(e);
+      }
+    } catch (Throwable t) {
+      ExceptionUtils.handleException(t);
+    }
+  }
+  
+  @Override
+  public boolean remove(Runnable task) {
+    if (super.remove(task)) {
+      if (evictLowerPriority && ! ContainerHelper.remove(evictableLowTasks, task)) {
+        ContainerHelper.remove(evictableStarvableTasks, task);
+      }
+      return true;
+    } else {
+      return false;
+    }
+  }
+  
+  @Override
+  public boolean remove(Callable<?> task) {
+    if (super.remove(task)) {
+      if (evictLowerPriority && ! ContainerHelper.remove(evictableLowTasks, task)) {
+        ContainerHelper.remove(evictableStarvableTasks, task);
+      }
+      return true;
+    } else {
+      return false;
+    }
   }
 
   @Override
@@ -208,4 +386,29 @@ public class PrioritySchedulerServiceQueueLimitRejector extends SchedulerService
   public int getWaitingForExecutionTaskCount(TaskPriority priority) {
     return parentScheduler.getWaitingForExecutionTaskCount(priority);
   }
+  
+  /**
+   * Lower priority task which tracks itself as evictable while queued.  Since tasks mostly start 
+   * in the order they were queued, removing itself from the front of the evictable tasks as it 
+   * starts is typically cheap.
+   * 
+   * @since 5.30
+   */
+  protected class EvictableRunnable extends DecrementingRunnable {
+    private final ConcurrentLinkedDeque<EvictableRunnable> evictableTasks;
+    
+    public EvictableRunnable(Runnable task, 
+                             ConcurrentLinkedDeque<EvictableRunnable> evictableTasks) {
+      super(task, queuedTaskCount, capacityWaiters);
+      
+      this.evictableTasks = evictableTasks;
+    }
+    
+    @Override
+    public void run() {
+      evictableTasks.removeFirstOccurrence(this);
+      
+      super.run();
+    }
+  }
 }
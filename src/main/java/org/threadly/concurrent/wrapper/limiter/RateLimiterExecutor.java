@@ -1,6 +1,7 @@
 package org.threadly.concurrent.wrapper.limiter;
 
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.threadly.concurrent.DoNothingRunnable;
 import org.threadly.concurrent.SubmitterExecutor;
@@ -26,16 +27,33 @@ import org.threadly.util.Clock;
  * will not block, if provided tasks too fast they could continue to be scheduled out further and 
  * further.  This should be used to flatten out possible bursts that could be used in the 
  * application, it is not designed to be a push back mechanism for the application.
+ * <p>
+ * By default the rate is enforced perfectly smoothly, time the limiter spends idle can not be 
+ * used to run later tasks sooner.  If constructed with a max burst (or once 
+ * {@link #setMaxBurstPermits(double)} is invoked), then like a token bucket up to that many 
+ * permits will be accumulated while the limiter is idle, and can then be used without delay. 
+ * This allows bursty producers which are still under the average rate to not be penalized.
+ * <p>
+ * Permit accounting is done with a compare and swap rather than a lock, so many threads can 
+ * submit tasks concurrently without contending on a monitor.
  * 
  * @since 4.6.0 (since 2.0.0 at org.threadly.concurrent.limiter)
  */
 public class RateLimiterExecutor implements SubmitterExecutor {
   protected final SubmitterScheduler scheduler;
   protected final RejectedExecutionHandler rejectedExecutionHandler;
+  /**
+   * No longer used, permits are accounted for with a compare and swap on the last schedule time.
+   * 
+   * @deprecated Permit accounting no longer locks, this will be removed in a future release
+   */
+  @Deprecated
   protected final Object permitLock;
   protected volatile double permitsPerSecond;
   protected volatile long maxScheduleDelayMillis;
-  private double lastScheduleTime;
+  protected volatile double maxBurstPermits;
+  // double bits of the time (relative to forward progressing millis) the next task can run at
+  private final AtomicLong lastScheduleTime;
   
   /**
    * Constructs a new {@link RateLimiterExecutor}.  Tasks will be scheduled on the provided 
@@ -89,6 +107,30 @@ public class RateLimiterExecutor implements SubmitterExecutor {
   public RateLimiterExecutor(SubmitterScheduler scheduler, double permitsPerSecond, 
                              long maxScheduleDelayMillis, 
                              RejectedExecutionHandler rejectedExecutionHandler) {
+    this(scheduler, permitsPerSecond, maxScheduleDelayMillis, rejectedExecutionHandler, 0);
+  }
+  
+  /**
+   * Constructs a new {@link RateLimiterExecutor}.  Tasks will be scheduled on the provided 
+   * scheduler, so it is assumed that the scheduler will have enough threads to handle the 
+   * average permit amount per task, per second.
+   * <p>
+   * This constructor accepts a maximum burst of permits.  While the limiter is idle up to this 
+   * many permits will be accumulated, allowing tasks to run without delay until they are used. 
+   * Once used the rate will be maintained as normal.  A max burst of zero will enforce the rate 
+   * perfectly smoothly.
+   * 
+   * @since 5.30
+   * @param scheduler scheduler to schedule/execute tasks on
+   * @param permitsPerSecond how many permits should be allowed per second
+   * @param maxScheduleDelayMillis Maximum amount of time delay tasks in order to maintain rate
+   * @param rejectedExecutionHandler Handler to accept tasks which could not be executed
+   * @param maxBurstPermits Maximum permits which can be accumulated while idle
+   */
+  public RateLimiterExecutor(SubmitterScheduler scheduler, double permitsPerSecond, 
+                             long maxScheduleDelayMillis, 
+                             RejectedExecutionHandler rejectedExecutionHandler, 
+                             double maxBurstPermits) {
     ArgumentVerifier.assertNotNull(scheduler, "scheduler");
     
     this.scheduler = scheduler;
@@ -97,9 +139,11 @@ public class RateLimiterExecutor implements SubmitterExecutor {
     }
     this.rejectedExecutionHandler = rejectedExecutionHandler;
     this.permitLock = new Object();
-    this.lastScheduleTime = Clock.lastKnownForwardProgressingMillis();
+    this.lastScheduleTime = 
+        new AtomicLong(Double.doubleToRawLongBits(Clock.lastKnownForwardProgressingMillis()));
     setPermitsPerSecond(permitsPerSecond);
     setMaxScheduleDelayMillis(maxScheduleDelayMillis);
+    setMaxBurstPermits(maxBurstPermits);
   }
   
   /**
@@ -133,6 +177,31 @@ public class RateLimiterExecutor implements SubmitterExecutor {
     this.maxScheduleDelayMillis = maxScheduleDelayMillis;
   }
   
+  /**
+   * Sets the maximum permits which can be accumulated while the limiter is idle.  Accumulated 
+   * permits allow tasks to run without delay even if they exceed the rate, until they are used. 
+   * A value of zero (the default) will enforce the rate perfectly smoothly.  The burst is 
+   * converted to time at the current permit rate each time a task is submitted.
+   * 
+   * @since 5.30
+   * @param maxBurstPermits Maximum permits which can be accumulated while idle
+   */
+  public void setMaxBurstPermits(double maxBurstPermits) {
+    ArgumentVerifier.assertNotNegative(maxBurstPermits, "maxBurstPermits");
+    
+    this.maxBurstPermits = maxBurstPermits;
+  }
+  
+  /**
+   * Returns the maximum permits which can be accumulated while the limiter is idle.
+   * 
+   * @since 5.30
+   * @return Maximum permits which can be accumulated while idle
+   */
+  public double getMaxBurstPermits() {
+    return maxBurstPermits;
+  }
+  
   /**
    * This call will check how far out we have already scheduled tasks to be run.  Because it is 
    * the applications responsibility to not provide tasks too fast for the limiter to run them, 
@@ -141,23 +210,20 @@ public class RateLimiterExecutor implements SubmitterExecutor {
    * @return minimum delay in milliseconds for the next task to be provided
    */
   public int getMinimumDelay() {
-    double accurateDelayMillis;
-    synchronized (permitLock) {
-      accurateDelayMillis = lastScheduleTime - Clock.lastKnownForwardProgressingMillis();
-    }
+    double accurateDelayMillis = 
+        Double.longBitsToDouble(lastScheduleTime.get()) - Clock.lastKnownForwardProgressingMillis();
     return (int)Math.max(0, Math.ceil(accurateDelayMillis));
   }
   
   /**
    * Call to get the time the last task was scheduled at.  This time is relative to 
-   * {@link Clock#lastKnownForwardProgressingMillis()}.  It may be in the future or present.
+   * {@link Clock#lastKnownForwardProgressingMillis()}.  It may be in the future or present, or 
+   * if idle with a max burst set, it may be in the past.
    * 
    * @return Time that last task was scheduled at
    */
   protected long getLastScheduleTime() {
-    synchronized (permitLock) {
-      return (long)lastScheduleTime;
-    }
+    return (long)Double.longBitsToDouble(lastScheduleTime.get());
   }
   
   /**
@@ -305,28 +371,27 @@ public class RateLimiterExecutor implements SubmitterExecutor {
   }
   
   private long taskDelayForPermits(double permits) {
+    double permitsPerSecond = this.permitsPerSecond;
     double effectiveDelay = (permits / permitsPerSecond) * 1000;
-    synchronized (permitLock) {
-      if (permits == 0 && lastScheduleTime < Clock.lastKnownForwardProgressingMillis()) {
-        // shortcut
-        return 0;
-      } else {
-        double scheduleDelay = lastScheduleTime - Clock.accurateForwardProgressingMillis();
-        if (scheduleDelay > maxScheduleDelayMillis) {
-          // let rejection handler invoke outside of lock
-          return -1;
-        } else if (scheduleDelay < 1) {
-          if (scheduleDelay < 0) {
-            lastScheduleTime = Clock.lastKnownForwardProgressingMillis() + effectiveDelay;
-          } else {
-            lastScheduleTime += effectiveDelay;
-          }
-          return 0;
-        } else {
-          lastScheduleTime += effectiveDelay;
-          return (long)scheduleDelay;
-        }
+    if (permits == 0 && 
+        Double.longBitsToDouble(lastScheduleTime.get()) < Clock.lastKnownForwardProgressingMillis()) {
+      // shortcut
+      return 0;
+    }
+    // idle time can only be used up to the burst, any time beyond that is lost
+    double burstMillis = (maxBurstPermits / permitsPerSecond) * 1000;
+    double now = Clock.accurateForwardProgressingMillis();
+    while (true) {
+      long currentBits = lastScheduleTime.get();
+      double currentScheduleTime = Double.longBitsToDouble(currentBits);
+      double scheduleDelay = currentScheduleTime - now;
+      if (scheduleDelay > maxScheduleDelayMillis) {
+        return -1;
       }
+      double nextScheduleTime = Math.max(currentScheduleTime, now - burstMillis) + effectiveDelay;
+      if (lastScheduleTime.compareAndSet(currentBits, Double.doubleToRawLongBits(nextScheduleTime))) {
+        return scheduleDelay < 1 ? 0 : (long)scheduleDelay;
+      } // else retry with updated schedule time
     }
   }
   
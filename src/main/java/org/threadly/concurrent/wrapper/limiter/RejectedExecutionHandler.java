@@ -3,9 +3,9 @@ package org.threadly.concurrent.wrapper.limiter;
 import java.util.concurrent.RejectedExecutionException;
 
 /**
- * Interface to be invoked when a limiter can not accept a task for any reason.  Since in threadly 
- * pools will only reject tasks if the pool is shutdown, this is currently specific to our 
- * limiting wrappers.
+ * Interface to be invoked when a limiter can not accept a task for any reason.  Most threadly 
+ * pools will only reject tasks if the pool is shutdown, so this is primarily used by our limiting 
+ * wrappers, as well as bounded {@link org.threadly.concurrent.UnfairExecutor} instances.
  * 
  * @since 4.8.0
  */
@@ -21,6 +21,20 @@ public interface RejectedExecutionHandler {
     }
   };
   
+  /**
+   * Handler which will run the rejected task on the thread which attempted to submit it.  This 
+   * provides back pressure to the submitting thread, but means that the task may run out of 
+   * order and on a thread not belonging to the pool.
+   * 
+   * @since 5.30
+   */
+  public static final RejectedExecutionHandler RUN_ON_CALLING_THREAD = new RejectedExecutionHandler() {
+    @Override
+    public void handleRejectedTask(Runnable task) {
+      task.run();
+    }
+  };
+  
   /**
    * Handle the task that was unable to be accepted by a pool.  This function may simply swallow 
    * the task, log, queue in a different way, or throw an exception.  Note that this task may not 
@@ -44,7 +44,25 @@ public class SchedulerServiceQueueLimitRejector extends SubmitterSchedulerQueueL
    */
   public SchedulerServiceQueueLimitRejector(SchedulerService parentScheduler, int queuedTaskLimit, 
                                             RejectedExecutionHandler rejectedExecutionHandler) {
-    super(parentScheduler, queuedTaskLimit, rejectedExecutionHandler);
+    this(parentScheduler, queuedTaskLimit, 0, rejectedExecutionHandler);
+  }
+  
+  /**
+   * Constructs a new {@link SchedulerServiceQueueLimitRejector} which will block submitting 
+   * threads while the queue is full.  If capacity does not become available within the block 
+   * timeout (or the thread is interrupted), the task will be provided to the rejected execution 
+   * handler.
+   * 
+   * @since 5.30
+   * @param parentScheduler Scheduler to execute and schedule tasks on to
+   * @param queuedTaskLimit Maximum number of queued tasks before executions should be rejected
+   * @param blockTimeoutMillis Maximum time to block for capacity, or {@code 0} to never block
+   * @param rejectedExecutionHandler Handler to accept tasks which could not be executed due to queue size
+   */
+  public SchedulerServiceQueueLimitRejector(SchedulerService parentScheduler, int queuedTaskLimit, 
+                                            long blockTimeoutMillis, 
+                                            RejectedExecutionHandler rejectedExecutionHandler) {
+    super(parentScheduler, queuedTaskLimit, blockTimeoutMillis, rejectedExecutionHandler);
     
     this.parentScheduler = parentScheduler;
   }
@@ -58,6 +76,7 @@ public class SchedulerServiceQueueLimitRejector extends SubmitterSchedulerQueueL
   public boolean remove(Runnable task) {
     if (parentScheduler.remove(task)) {
       queuedTaskCount.decrementAndGet();
+      capacityWaiters.signal();
       return true;
     } else {
       return false;
@@ -68,6 +87,7 @@ public class SchedulerServiceQueueLimitRejector extends SubmitterSchedulerQueueL
   public boolean remove(Callable<?> task) {
     if (parentScheduler.remove(task)) {
       queuedTaskCount.decrementAndGet();
+      capacityWaiters.signal();
       return true;
     } else {
       return false;
@@ -1,5 +1,7 @@
 package org.threadly.concurrent.wrapper.limiter;
 
+import java.util.List;
+
 import org.threadly.concurrent.AbstractPriorityScheduler;
 import org.threadly.concurrent.ReschedulingOperation;
 import org.threadly.concurrent.SchedulerService;
@@ -104,6 +106,14 @@ public class SingleThreadSchedulerSubPool extends AbstractPriorityScheduler {
     return result;
   }
   
+  @Override
+  protected List<OneTimeTaskWrapper> doExecuteAll(List<? extends Runnable> tasks, 
+                                                  TaskPriority priority) {
+    List<OneTimeTaskWrapper> result = noThreadScheduler.doExecuteAll(tasks, priority);
+    tickTask.signalToRun();
+    return result;
+  }
+  
   /**
    * Operation that should be signaled to run when there is something to execute on the 
    * NoThreadScheduler.  This will ensure that the scheduler is ticked in a single threaded manner.
@@ -132,6 +142,12 @@ public class SingleThreadSchedulerSubPool extends AbstractPriorityScheduler {
       return super.doSchedule(task, delayInMillis, priority);
     }
     
+    @Override
+    protected List<OneTimeTaskWrapper> doExecuteAll(List<? extends Runnable> tasks, 
+                                                    TaskPriority priority) {
+      return super.doExecuteAll(tasks, priority);
+    }
+    
     @Override
     protected QueueManager getQueueManager() {
       return super.getQueueManager();
@@ -5,6 +5,8 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.threadly.concurrent.AbstractSubmitterScheduler;
 import org.threadly.concurrent.SubmitterScheduler;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.concurrent.wrapper.limiter.ExecutorQueueLimitRejector.CapacityWaiters;
 import org.threadly.concurrent.wrapper.limiter.ExecutorQueueLimitRejector.DecrementingRunnable;
 import org.threadly.util.ArgumentVerifier;
 
@@ -18,6 +20,10 @@ import org.threadly.util.ArgumentVerifier;
  * handler will be invoked with the rejected tasks (which by default will throw a 
  * {@link RejectedExecutionException}).  This is the threadly equivalent of supplying a limited 
  * sized blocking queue to a java.util.concurrent thread pool.
+ * <p>
+ * Like {@link ExecutorQueueLimitRejector}, submitting threads can instead block for capacity if 
+ * constructed with a block timeout, or {@link #awaitCapacity()} can be used to be notified once 
+ * capacity is available.
  * 
  * See {@link ExecutorQueueLimitRejector}, {@link SchedulerServiceQueueLimitRejector} and 
  * {@link PrioritySchedulerServiceQueueLimitRejector} as other possible implementations.
@@ -28,6 +34,8 @@ public class SubmitterSchedulerQueueLimitRejector extends AbstractSubmitterSched
   protected final SubmitterScheduler parentScheduler;
   protected final RejectedExecutionHandler rejectedExecutionHandler;
   protected final AtomicInteger queuedTaskCount;
+  protected final long blockTimeoutMillis;
+  protected final CapacityWaiters capacityWaiters;
   private int queuedTaskLimit;
 
   /**
@@ -50,7 +58,26 @@ public class SubmitterSchedulerQueueLimitRejector extends AbstractSubmitterSched
    */
   public SubmitterSchedulerQueueLimitRejector(SubmitterScheduler parentScheduler, int queuedTaskLimit, 
                                               RejectedExecutionHandler rejectedExecutionHandler) {
+    this(parentScheduler, queuedTaskLimit, 0, rejectedExecutionHandler);
+  }
+  
+  /**
+   * Constructs a new {@link SubmitterSchedulerQueueLimitRejector} which will block submitting 
+   * threads while the queue is full.  If capacity does not become available within the block 
+   * timeout (or the thread is interrupted), the task will be provided to the rejected execution 
+   * handler.
+   * 
+   * @since 5.30
+   * @param parentScheduler Scheduler to execute and schedule tasks on to
+   * @param queuedTaskLimit Maximum number of queued tasks before executions should be rejected
+   * @param blockTimeoutMillis Maximum time to block for capacity, or {@code 0} to never block
+   * @param rejectedExecutionHandler Handler to accept tasks which could not be executed due to queue size
+   */
+  public SubmitterSchedulerQueueLimitRejector(SubmitterScheduler parentScheduler, int queuedTaskLimit, 
+                                              long blockTimeoutMillis, 
+                                              RejectedExecutionHandler rejectedExecutionHandler) {
     ArgumentVerifier.assertNotNull(parentScheduler, "parentExecutor");
+    ArgumentVerifier.assertNotNegative(blockTimeoutMillis, "blockTimeoutMillis");
     
     this.parentScheduler = parentScheduler;
     if (rejectedExecutionHandler == null) {
@@ -58,6 +85,8 @@ public class SubmitterSchedulerQueueLimitRejector extends AbstractSubmitterSched
     }
     this.rejectedExecutionHandler = rejectedExecutionHandler;
     this.queuedTaskCount = new AtomicInteger();
+    this.blockTimeoutMillis = blockTimeoutMillis;
+    this.capacityWaiters = new CapacityWaiters();
     this.queuedTaskLimit = queuedTaskLimit;
   }
 
@@ -100,24 +129,51 @@ public class SubmitterSchedulerQueueLimitRejector extends AbstractSubmitterSched
    */
   public void setQueueLimit(int newLimit) {
     this.queuedTaskLimit = newLimit;
+    
+    capacityWaiters.signal(newLimit - queuedTaskCount.get());
+  }
+  
+  /**
+   * Returns the maximum time a submitting thread will block waiting for capacity.
+   * 
+   * @since 5.30
+   * @return Block timeout in milliseconds, {@code 0} if submissions never block
+   */
+  public long getBlockTimeoutMillis() {
+    return blockTimeoutMillis;
+  }
+  
+  /**
+   * Returns a future which will complete once the queue has capacity to accept another task. 
+   * This does not reserve capacity, so a task submitted once the future completes may still be 
+   * rejected if other threads submit first.  Futures complete in the order they were requested, 
+   * and since they are completed as tasks start, listeners should be light weight or be provided 
+   * an executor to run on.
+   * 
+   * @since 5.30
+   * @return Future which completes once a task may be accepted
+   */
+  public ListenableFuture<?> awaitCapacity() {
+    return capacityWaiters.awaitCapacity(queuedTaskCount, this::getQueueLimit);
   }
 
   @Override
   protected void doSchedule(Runnable task, long delayInMillis) {
-    while (true) {
-      int casValue = queuedTaskCount.get();
-      if (casValue >= queuedTaskLimit) {
-        rejectedExecutionHandler.handleRejectedTask(task);
-        return; // in case handler did not throw exception
-      } else if (queuedTaskCount.compareAndSet(casValue, casValue + 1)) {
-        try {
-          parentScheduler.schedule(new DecrementingRunnable(task, queuedTaskCount), delayInMillis);
-        } catch (RejectedExecutionException e) {
-          queuedTaskCount.decrementAndGet();
-          throw e;
-        }
-        break;
-      } // else loop and retry
+    if (! CapacityWaiters.tryAcquire(queuedTaskCount, queuedTaskLimit) && 
+        (blockTimeoutMillis == 0 || 
+           ! capacityWaiters.blockForCapacity(queuedTaskCount, this::getQueueLimit, 
+                                              blockTimeoutMillis))) {
+      rejectedExecutionHandler.handleRejectedTask(task);
+      return; // in case handler did not throw exception
+    }
+    
+    try {
+      parentScheduler.schedule(new DecrementingRunnable(task, queuedTaskCount, capacityWaiters), 
+                               delayInMillis);
+    } catch (RejectedExecutionException e) {
+      queuedTaskCount.decrementAndGet();
+      capacityWaiters.signal();
+      throw e;
     }
   }
 }
@@ -73,6 +73,12 @@ public class TestableScheduler extends AbstractPriorityScheduler {
     return scheduler.doSchedule(task, delayInMillis, priority);
   }
 
+  @Override
+  protected List<OneTimeTaskWrapper> doExecuteAll(List<? extends Runnable> tasks, 
+                                                  TaskPriority priority) {
+    return scheduler.doExecuteAll(tasks, priority);
+  }
+
   @Override
   protected QueueManager getQueueManager() {
     return scheduler.getQueueManager();
@@ -285,5 +291,11 @@ public class TestableScheduler extends AbstractPriorityScheduler {
     protected OneTimeTaskWrapper doSchedule(Runnable task, long delayInMillis, TaskPriority priority) {
       return super.doSchedule(task, delayInMillis, priority);
     }
+    
+    @Override
+    protected List<OneTimeTaskWrapper> doExecuteAll(List<? extends Runnable> tasks, 
+                                                    TaskPriority priority) {
+      return super.doExecuteAll(tasks, priority);
+    }
   }
 }
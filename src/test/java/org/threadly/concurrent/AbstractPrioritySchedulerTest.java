@@ -2,11 +2,17 @@ package org.threadly.concurrent;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Test;
+import org.threadly.BlockingTestRunnable;
 import org.threadly.concurrent.AbstractPriorityScheduler.OneTimeTaskWrapper;
+import org.threadly.concurrent.future.ListenableFuture;
 import org.threadly.test.concurrent.TestRunnable;
 import org.threadly.test.concurrent.TestUtils;
 import org.threadly.util.Clock;
@@ -647,6 +653,152 @@ public abstract class AbstractPrioritySchedulerTest extends SchedulerServiceInte
     }
   }
   
+  @Test
+  public void cancelRemovesQueuedTaskTest() {
+    AbstractPrioritySchedulerFactory factory = getAbstractPrioritySchedulerFactory();
+    try {
+      AbstractPriorityScheduler scheduler = factory.makeAbstractPriorityScheduler(1);
+      for (TaskPriority priority : TaskPriority.values()) {
+        ListenableFuture<?> future = scheduler.submitScheduled(new TestRunnable(), 
+                                                               1000 * 10, priority);
+        assertEquals(1, scheduler.getQueuedTaskCount(priority));
+        
+        assertTrue(future.cancel(false));
+        
+        assertEquals(0, scheduler.getQueuedTaskCount(priority));
+      }
+    } finally {
+      factory.shutdown();
+    }
+  }
+  
+  @Test
+  public void removeIfTest() {
+    AbstractPrioritySchedulerFactory factory = getAbstractPrioritySchedulerFactory();
+    try {
+      AbstractPriorityScheduler scheduler = factory.makeAbstractPriorityScheduler(1);
+      List<TestRunnable> removedTasks = new ArrayList<>(TEST_QTY);
+      for (int i = 0; i < TEST_QTY; i++) {
+        TestRunnable removedTask = new TestRunnable();
+        removedTasks.add(removedTask);
+        scheduler.schedule(new TestRunnable(), 1000 * 10, TaskPriority.High);
+        scheduler.submitScheduled(removedTask, 1000 * 10, TaskPriority.Low);
+        scheduler.scheduleWithFixedDelay(removedTask, 1000 * 10, 1000, TaskPriority.Starvable);
+      }
+      
+      assertEquals(0, scheduler.removeIf((r) -> false));
+      assertEquals(TEST_QTY * 2, scheduler.removeIf(removedTasks::contains));
+      assertEquals(TEST_QTY, scheduler.getQueuedTaskCount(TaskPriority.High));
+      assertEquals(0, scheduler.getQueuedTaskCount(TaskPriority.Low));
+      assertEquals(0, scheduler.getQueuedTaskCount(TaskPriority.Starvable));
+    } finally {
+      factory.shutdown();
+    }
+  }
+  
+  @Test
+  public void executeAllTest() {
+    AbstractPrioritySchedulerFactory factory = getAbstractPrioritySchedulerFactory();
+    try {
+      AbstractPriorityScheduler scheduler = factory.makeAbstractPriorityScheduler(2);
+      for (TaskPriority priority : TaskPriority.values()) {
+        List<TestRunnable> runnables = new ArrayList<>(TEST_QTY);
+        for (int i = 0; i < TEST_QTY; i++) {
+          runnables.add(new TestRunnable());
+        }
+        
+        scheduler.executeAll(runnables, priority);
+        
+        for (TestRunnable tr : runnables) {
+          tr.blockTillFinished(1000 * 10); // throws exception if fails
+        }
+      }
+    } finally {
+      factory.shutdown();
+    }
+  }
+  
+  @Test
+  public void executeAllEmptyTest() {
+    AbstractPrioritySchedulerFactory factory = getAbstractPrioritySchedulerFactory();
+    try {
+      AbstractPriorityScheduler scheduler = factory.makeAbstractPriorityScheduler(1);
+      
+      scheduler.executeAll(Collections.emptyList());
+      
+      assertEquals(0, scheduler.getQueuedTaskCount());
+    } finally {
+      factory.shutdown();
+    }
+  }
+  
+  @Test
+  public void executeAllNullTaskFail() {
+    AbstractPrioritySchedulerFactory factory = getAbstractPrioritySchedulerFactory();
+    try {
+      AbstractPriorityScheduler scheduler = factory.makeAbstractPriorityScheduler(1);
+      try {
+        scheduler.executeAll(Arrays.asList(new TestRunnable(), null), TaskPriority.Low);
+        fail("Exception should have thrown");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+      // no tasks should have been queued
+      assertEquals(0, scheduler.getQueuedTaskCount(TaskPriority.Low));
+    } finally {
+      factory.shutdown();
+    }
+  }
+  
+  @Test
+  public void submitAllTest() throws InterruptedException, ExecutionException {
+    AbstractPrioritySchedulerFactory factory = getAbstractPrioritySchedulerFactory();
+    try {
+      AbstractPriorityScheduler scheduler = factory.makeAbstractPriorityScheduler(2);
+      List<TestRunnable> runnables = new ArrayList<>(TEST_QTY);
+      for (int i = 0; i < TEST_QTY; i++) {
+        runnables.add(new TestRunnable());
+      }
+      
+      List<ListenableFuture<?>> futures = scheduler.submitAll(runnables);
+      
+      assertEquals(TEST_QTY, futures.size());
+      for (int i = 0; i < TEST_QTY; i++) {
+        assertNull(futures.get(i).get());
+        assertTrue(runnables.get(i).ranOnce());
+      }
+    } finally {
+      factory.shutdown();
+    }
+  }
+  
+  @Test
+  public void submitAllCancelTest() throws InterruptedException, ExecutionException {
+    AbstractPrioritySchedulerFactory factory = getAbstractPrioritySchedulerFactory();
+    try {
+      AbstractPriorityScheduler scheduler = factory.makeAbstractPriorityScheduler(1);
+      BlockingTestRunnable btr = new BlockingTestRunnable();
+      TestRunnable cancelledRunnable = new TestRunnable();
+      TestRunnable tr = new TestRunnable();
+      List<ListenableFuture<?>> futures;
+      try {
+        scheduler.execute(btr, TaskPriority.Low);
+        btr.blockTillStarted();
+        
+        futures = scheduler.submitAll(Arrays.asList(cancelledRunnable, tr), TaskPriority.Low);
+        assertTrue(futures.get(0).cancel(false));
+      } finally {
+        btr.unblock();
+      }
+      
+      futures.get(1).get();
+      assertTrue(tr.ranOnce());
+      assertFalse(cancelledRunnable.ranOnce());
+    } finally {
+      factory.shutdown();
+    }
+  }
+  
   public interface AbstractPrioritySchedulerFactory extends SchedulerServiceFactory {
     public AbstractPriorityScheduler makeAbstractPriorityScheduler(int poolSize, 
                                                                    TaskPriority defaultPriority, 
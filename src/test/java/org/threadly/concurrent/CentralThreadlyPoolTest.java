@@ -6,11 +6,14 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.junit.Test;
 import org.threadly.BlockingTestRunnable;
 import org.threadly.ThreadlyTester;
+import org.threadly.concurrent.CentralThreadlyPool.GenericThreadAutoSizer;
 import org.threadly.test.concurrent.AsyncVerifier;
+import org.threadly.test.concurrent.TestCondition;
 import org.threadly.test.concurrent.TestRunnable;
 import org.threadly.test.concurrent.TestUtils;
 import org.threadly.util.StringUtils;
@@ -25,6 +28,129 @@ public class CentralThreadlyPoolTest extends ThreadlyTester {
     assertEquals(startingCount + 1, CentralThreadlyPool.getGenericThreadCount());
   }
   
+  @Test
+  public void enableGenericThreadAutoSizingFail() {
+    try {
+      CentralThreadlyPool.enableGenericThreadAutoSizing(0, 1, 100);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      CentralThreadlyPool.enableGenericThreadAutoSizing(2, 1, 100);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      CentralThreadlyPool.enableGenericThreadAutoSizing(1, 1, 0);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    assertNull(CentralThreadlyPool.getGenericThreadAutoSizer());
+  }
+  
+  @Test
+  public void enableAndDisableGenericThreadAutoSizingTest() {
+    int startingCount = CentralThreadlyPool.getGenericThreadCount();
+    GenericThreadAutoSizer sizer = 
+        CentralThreadlyPool.enableGenericThreadAutoSizing(startingCount + 2, startingCount + 4, 
+                                                          100, 10);
+    try {
+      assertTrue(sizer == CentralThreadlyPool.getGenericThreadAutoSizer());
+      // minimum should be immediately ensured
+      assertEquals(startingCount + 2, CentralThreadlyPool.getGenericThreadCount());
+      assertEquals(2, sizer.getAddedThreadCount());
+      try {
+        CentralThreadlyPool.enableGenericThreadAutoSizing(1, 1, 100);
+        fail("Exception should have thrown");
+      } catch (IllegalStateException e) {
+        // expected
+      }
+      
+      new TestCondition(() -> sizer.getSampleCount() > 0).blockTillTrue();
+    } finally {
+      CentralThreadlyPool.disableGenericThreadAutoSizing();
+    }
+    
+    assertNull(CentralThreadlyPool.getGenericThreadAutoSizer());
+    assertEquals(startingCount, CentralThreadlyPool.getGenericThreadCount());
+    assertEquals(0, sizer.getAddedThreadCount());
+  }
+  
+  @Test
+  public void disableGenericThreadAutoSizingWhileSamplingTest() {
+    int startingCount = CentralThreadlyPool.getGenericThreadCount();
+    for (int i = 0; i < TEST_QTY; i++) {
+      GenericThreadAutoSizer sizer = 
+          CentralThreadlyPool.enableGenericThreadAutoSizing(startingCount, startingCount + 4, 1, 1);
+      AtomicBoolean disabled = new AtomicBoolean();
+      Thread sampleThread = new Thread(() -> {
+        while (! disabled.get()) {
+          // each round grows and then shrinks the generic thread count
+          sizer.sample(1000, 1);
+          for (int j = 0; j < GenericThreadAutoSizer.SHRINK_SAMPLE_COUNT; j++) {
+            sizer.sample(0, 0);
+          }
+        }
+      });
+      sampleThread.start();
+      new Thread(() -> {
+        CentralThreadlyPool.disableGenericThreadAutoSizing();
+        disabled.set(true);
+      }).start();
+      
+      // would never complete if disabling deadlocked with a sample
+      new TestCondition(() -> disabled.get() && ! sampleThread.isAlive()).blockTillTrue();
+    }
+    
+    assertNull(CentralThreadlyPool.getGenericThreadAutoSizer());
+    assertEquals(startingCount, CentralThreadlyPool.getGenericThreadCount());
+  }
+  
+  @Test
+  public void genericThreadAutoSizerSampleTest() {
+    int startingCount = CentralThreadlyPool.getGenericThreadCount();
+    GenericThreadAutoSizer sizer = 
+        new GenericThreadAutoSizer(startingCount, startingCount + 2, 100, 1000);
+    try {
+      // over target, grow until the max is reached
+      sizer.sample(1000, 1);
+      assertTrue(CentralThreadlyPool.getGenericThreadCount() > startingCount);
+      sizer.sample(1000, 1);
+      sizer.sample(1000, 1);
+      assertEquals(startingCount + 2, CentralThreadlyPool.getGenericThreadCount());
+      assertEquals(2, sizer.getAddedThreadCount());
+      assertEquals(1000, sizer.getLastQueueLatencyMillis());
+      assertEquals(1, sizer.getLastUtilization(), 0);
+      long increaseCount = sizer.getIncreaseCount();
+      assertTrue(increaseCount > 0);
+      
+      // near target or busy samples should not shrink
+      for (int i = 0; i < GenericThreadAutoSizer.SHRINK_SAMPLE_COUNT * 2; i++) {
+        sizer.sample(i % 2 == 0 ? 80 : 0, i % 2 == 0 ? 0 : 1);
+      }
+      assertEquals(startingCount + 2, CentralThreadlyPool.getGenericThreadCount());
+      
+      // consistently idle, shrink one thread at a time, but not below what was not added
+      for (int i = 0; i < GenericThreadAutoSizer.SHRINK_SAMPLE_COUNT; i++) {
+        sizer.sample(0, 0);
+      }
+      assertEquals(startingCount + 1, CentralThreadlyPool.getGenericThreadCount());
+      for (int i = 0; i < GenericThreadAutoSizer.SHRINK_SAMPLE_COUNT * 3; i++) {
+        sizer.sample(0, 0);
+      }
+      assertEquals(startingCount, CentralThreadlyPool.getGenericThreadCount());
+      assertEquals(0, sizer.getAddedThreadCount());
+      assertEquals(2, sizer.getDecreaseCount());
+      assertEquals(increaseCount, sizer.getIncreaseCount());
+    } finally {
+      sizer.stop();
+    }
+    assertEquals(startingCount, CentralThreadlyPool.getGenericThreadCount());
+  }
+  
   private static void verifyGuaranteedThreadProtection(List<SchedulerService> executors, int expectedLimit) {
     List<BlockingTestRunnable> blockingRunnables = new ArrayList<>(expectedLimit);
     try {
@@ -9,6 +9,7 @@ import java.util.concurrent.Callable;
 
 import org.junit.Test;
 import org.threadly.ThreadlyTester;
+import org.threadly.concurrent.future.ListenableFutureTask;
 import org.threadly.test.concurrent.TestRunnable;
 
 @SuppressWarnings("javadoc")
@@ -70,6 +71,18 @@ public class ContainerHelperTest extends ThreadlyTester {
     assertFalse(ContainerHelper.isContained(new TestRunnable(), tc));
   }
   
+  @Test
+  public void containedRunnableFilterTest() {
+    TestRunnable tr = new TestRunnable();
+    
+    assertTrue(ContainerHelper.isContained(tr, (r) -> r == tr));
+    assertTrue(ContainerHelper.isContained(new TestRunnableContainer(tr), (r) -> r == tr));
+    assertTrue(ContainerHelper.isContained(new ListenableFutureTask<>(false, tr), 
+                                           (r) -> r == tr));
+    assertFalse(ContainerHelper.isContained(new TestRunnableContainer(new TestRunnable()), 
+                                            (r) -> r == tr));
+  }
+  
   @Test
   public void getContainedRunnablesTest() {
     List<TestRunnableContainer> containers = new ArrayList<>(TEST_QTY);
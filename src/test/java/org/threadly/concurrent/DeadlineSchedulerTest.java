@@ -0,0 +1,253 @@
+package org.threadly.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Test;
+import org.threadly.BlockingTestRunnable;
+import org.threadly.ThreadlyTester;
+import org.threadly.concurrent.DeadlineScheduler.ExpiredTaskPolicy;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.test.concurrent.TestRunnable;
+import org.threadly.test.concurrent.TestUtils;
+import org.threadly.util.TestExceptionHandler;
+
+@SuppressWarnings("javadoc")
+public class DeadlineSchedulerTest extends ThreadlyTester {
+  private DeadlineScheduler scheduler;
+  
+  @After
+  public void cleanup() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+  }
+  
+  @Test
+  public void constructorFail() {
+    try {
+      new DeadlineScheduler(1, null);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new DeadlineScheduler(1, ExpiredTaskPolicy.Drop, -1, 
+                            AbstractPriorityScheduler.DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, null);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void executeFail() {
+    scheduler = new DeadlineScheduler(1);
+    try {
+      scheduler.executeWithDeadline(null, 10);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      scheduler.executeWithDeadline(DoNothingRunnable.instance(), -1);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  /**
+   * Blocks the single pool thread while tasks are submitted, then waits for all of the 
+   * submitted tasks to finish.
+   */
+  private void runWhileBlocked(Runnable submitter) {
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    scheduler.execute(btr, TaskPriority.Low);
+    btr.blockTillStarted();
+    try {
+      submitter.run();
+    } finally {
+      btr.unblock();
+    }
+    // starvable tasks only run once nothing else is queued
+    TestRunnable finalTask = new TestRunnable();
+    scheduler.execute(finalTask, TaskPriority.Starvable);
+    finalTask.blockTillFinished();
+  }
+  
+  @Test
+  public void earliestDeadlineFirstTest() {
+    scheduler = new DeadlineScheduler(1);
+    List<Integer> executionOrder = Collections.synchronizedList(new ArrayList<>());
+    
+    runWhileBlocked(() -> {
+      for (int i = TEST_QTY - 1; i >= 0; i--) {
+        int deadline = i;
+        // spaced so that clock progression during submission can't change the order
+        scheduler.executeWithDeadline(() -> executionOrder.add(deadline), 1000 * 60 + deadline * 1000);
+      }
+    });
+    
+    assertEquals(TEST_QTY, executionOrder.size());
+    for (int i = 0; i < TEST_QTY; i++) {
+      assertEquals(i, (int)executionOrder.get(i));
+    }
+  }
+  
+  @Test
+  public void defaultDeadlineOrderTest() {
+    scheduler = new DeadlineScheduler(1);
+    List<String> executionOrder = Collections.synchronizedList(new ArrayList<>());
+    
+    runWhileBlocked(() -> {
+      scheduler.executeWithDeadline(() -> executionOrder.add("late"), 1000 * 60);
+      scheduler.execute(() -> executionOrder.add("default"));
+      scheduler.executeWithDeadline(() -> executionOrder.add("early"), 10);
+    });
+    
+    assertEquals(3, executionOrder.size());
+    assertEquals("early", executionOrder.get(0));
+    assertEquals("default", executionOrder.get(1));
+    assertEquals("late", executionOrder.get(2));
+  }
+  
+  @Test
+  public void submitTest() throws Exception {
+    scheduler = new DeadlineScheduler(2);
+    List<ListenableFuture<?>> futures = new ArrayList<>(TEST_QTY * 2);
+    for (int i = 0; i < TEST_QTY; i++) {
+      futures.add(scheduler.submitWithDeadline(new TestRunnable(), 1000));
+      futures.add(scheduler.submitWithDeadline(() -> true, 1000));
+    }
+    
+    for (ListenableFuture<?> lf : futures) {
+      lf.get();
+    }
+    assertEquals(0, scheduler.getExpiredTaskCount());
+  }
+  
+  @Test
+  public void submitWithLongResultTest() throws Exception {
+    scheduler = new DeadlineScheduler(1);
+    
+    assertEquals(Long.valueOf(5), scheduler.submit(DoNothingRunnable.instance(), 5L).get());
+  }
+  
+  @Test
+  public void executeExpiredTest() {
+    scheduler = new DeadlineScheduler(1, ExpiredTaskPolicy.Execute);
+    TestRunnable tr = new TestRunnable();
+    
+    runWhileBlocked(() -> {
+      scheduler.executeWithDeadline(tr, 0);
+      TestUtils.sleep(DELAY_TIME);
+    });
+    
+    assertEquals(1, tr.getRunCount());
+    assertEquals(0, scheduler.getExpiredTaskCount());
+  }
+  
+  @Test
+  public void dropExpiredTest() {
+    scheduler = new DeadlineScheduler(1, ExpiredTaskPolicy.Drop);
+    TestRunnable expired = new TestRunnable();
+    TestRunnable ready = new TestRunnable();
+    List<ListenableFuture<?>> futures = new ArrayList<>(1);
+    
+    runWhileBlocked(() -> {
+      scheduler.executeWithDeadline(expired, 0);
+      futures.add(scheduler.submitWithDeadline(DoNothingRunnable.instance(), 0));
+      // tasks without a deadline are never dropped
+      scheduler.execute(ready);
+      TestUtils.sleep(DELAY_TIME);
+    });
+    
+    assertEquals(0, expired.getRunCount());
+    assertTrue(futures.get(0).isCancelled());
+    assertEquals(1, ready.getRunCount());
+    assertEquals(2, scheduler.getExpiredTaskCount());
+  }
+  
+  @Test
+  public void failExpiredTest() throws InterruptedException {
+    TestExceptionHandler teh = new TestExceptionHandler();
+    scheduler = new DeadlineScheduler(1, ExpiredTaskPolicy.Fail, 
+                                      DeadlineScheduler.DEFAULT_DEADLINE_IN_MS, 
+                                      AbstractPriorityScheduler.DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, 
+                                      new ConfigurableThreadFactory("", false, true, 
+                                                                    Thread.NORM_PRIORITY, 
+                                                                    null, teh));
+    TestRunnable expired = new TestRunnable();
+    List<ListenableFuture<?>> futures = new ArrayList<>(1);
+    
+    runWhileBlocked(() -> {
+      scheduler.executeWithDeadline(expired, 0);
+      futures.add(scheduler.submitWithDeadline(DoNothingRunnable.instance(), 0));
+      TestUtils.sleep(DELAY_TIME);
+    });
+    
+    assertEquals(0, expired.getRunCount());
+    assertEquals(1, teh.getCallCount());
+    assertTrue(teh.getLastThrowable() instanceof TimeoutException);
+    try {
+      futures.get(0).get();
+      fail("Exception should have thrown");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof TimeoutException);
+    }
+    assertEquals(2, scheduler.getExpiredTaskCount());
+  }
+  
+  @Test
+  public void cancelRemovesTaskTest() {
+    scheduler = new DeadlineScheduler(1);
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    try {
+      scheduler.execute(btr);
+      btr.blockTillStarted();
+      
+      ListenableFuture<?> lf = scheduler.submitWithDeadline(DoNothingRunnable.instance(), 1000);
+      assertEquals(1, scheduler.getQueuedTaskCount());
+      assertEquals(1, scheduler.getWaitingForExecutionTaskCount(TaskPriority.High));
+      
+      assertTrue(lf.cancel(false));
+      assertEquals(0, scheduler.getQueuedTaskCount());
+    } finally {
+      btr.unblock();
+    }
+  }
+  
+  @Test
+  public void removeAndShutdownNowTest() {
+    scheduler = new DeadlineScheduler(1);
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    try {
+      scheduler.execute(btr);
+      btr.blockTillStarted();
+      
+      TestRunnable removed = new TestRunnable();
+      TestRunnable remaining = new TestRunnable();
+      scheduler.executeWithDeadline(removed, 1000);
+      scheduler.executeWithDeadline(remaining, 10);
+      
+      assertTrue(scheduler.remove(removed));
+      assertFalse(scheduler.remove(removed));
+      assertEquals(1, scheduler.removeIf((r) -> r == remaining));
+      
+      scheduler.executeWithDeadline(remaining, 1000);
+      List<Runnable> result = scheduler.shutdownNow();
+      assertEquals(1, result.size());
+      assertTrue(result.get(0) == remaining);
+    } finally {
+      btr.unblock();
+    }
+  }
+}
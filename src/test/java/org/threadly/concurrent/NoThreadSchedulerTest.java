@@ -19,6 +19,7 @@ import org.threadly.concurrent.AbstractPriorityScheduler.OneTimeTaskWrapper;
 import org.threadly.concurrent.future.ListenableFuture;
 import org.threadly.test.concurrent.AsyncVerifier;
 import org.threadly.test.concurrent.TestRunnable;
+import org.threadly.test.concurrent.TestUtils;
 import org.threadly.util.Clock;
 import org.threadly.util.ExceptionHandler;
 import org.threadly.util.SuppressedStackRuntimeException;
@@ -115,6 +116,39 @@ public class NoThreadSchedulerTest extends ThreadlyTester {
     }
   }
   
+  @Test
+  public void executeAllTest() {
+    List<TestRunnable> runnables = getRunnableList();
+    scheduler.executeAll(runnables);
+    
+    assertEquals(TEST_QTY, scheduler.getQueuedTaskCount());
+    // all should run now
+    assertEquals(TEST_QTY, scheduler.tick(null));
+    
+    Iterator<TestRunnable> it = runnables.iterator();
+    while (it.hasNext()) {
+      assertEquals(1, it.next().getRunCount());
+    }
+  }
+  
+  @Test
+  public void submitAllInOrderTest() {
+    List<Integer> runOrder = new ArrayList<>(TEST_QTY);
+    List<Runnable> runnables = new ArrayList<>(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      int index = i;
+      runnables.add(() -> runOrder.add(index));
+    }
+    List<ListenableFuture<?>> futures = scheduler.submitAll(runnables);
+    
+    assertEquals(TEST_QTY, scheduler.tick(null));
+    
+    for (int i = 0; i < TEST_QTY; i++) {
+      assertTrue(futures.get(i).isDone());
+      assertEquals(i, (int)runOrder.get(i));
+    }
+  }
+  
   @Test
   public void executeInOrderTest() {
     TestRunnable lastRun = null;
@@ -139,6 +173,80 @@ public class NoThreadSchedulerTest extends ThreadlyTester {
     scheduler.tick(null);
   }
   
+  @Test
+  public void tickBudgetFail() {
+    try {
+      scheduler.tick(null, 0, Long.MAX_VALUE);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      scheduler.tick(null, 1, 0);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void tickTaskBudgetTest() {
+    List<Integer> runOrder = new ArrayList<>(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      int index = i;
+      scheduler.execute(() -> runOrder.add(index));
+    }
+    
+    assertEquals(2, scheduler.tick(null, 2, Long.MAX_VALUE));
+    assertTrue(scheduler.hasTaskReadyToRun());
+    assertEquals(TEST_QTY - 2, scheduler.tick(null, Integer.MAX_VALUE, Long.MAX_VALUE));
+    assertFalse(scheduler.hasTaskReadyToRun());
+    // tasks which were not run must maintain their order
+    for (int i = 0; i < TEST_QTY; i++) {
+      assertEquals(i, (int)runOrder.get(i));
+    }
+  }
+  
+  @Test
+  public void tickTimeBudgetTest() {
+    TestRunnable slowTask = new TestRunnable(DELAY_TIME);
+    TestRunnable tr = new TestRunnable();
+    scheduler.execute(slowTask);
+    scheduler.execute(tr);
+    
+    assertEquals(1, scheduler.tick(null, Integer.MAX_VALUE, 
+                                   Clock.NANOS_IN_MILLISECOND * (DELAY_TIME / 2)));
+    assertEquals(0, tr.getRunCount());
+    assertTrue(scheduler.hasTaskReadyToRun());
+    assertEquals(1, scheduler.tick(null));
+    assertEquals(1, tr.getRunCount());
+  }
+  
+  @Test
+  public void tickBudgetPriorityTest() {
+    TestRunnable lowPriority = new TestRunnable();
+    TestRunnable highPriority = new TestRunnable();
+    scheduler.execute(lowPriority, TaskPriority.Low);
+    scheduler.execute(highPriority, TaskPriority.High);
+    
+    assertEquals(1, scheduler.tick(null, 1, Long.MAX_VALUE));
+    assertEquals(1, highPriority.getRunCount());
+    assertEquals(0, lowPriority.getRunCount());
+  }
+  
+  @Test
+  public void blockingTickTaskBudgetTest() throws InterruptedException {
+    for (int i = 0; i < TEST_QTY; i++) {
+      scheduler.schedule(DoNothingRunnable.instance(), DELAY_TIME);
+    }
+    
+    // should block till tasks are ready, then only run the budgeted quantity
+    assertEquals(1, scheduler.blockingTick(null, 1, Long.MAX_VALUE));
+    assertEquals(TEST_QTY - 1, scheduler.getQueuedTaskCount());
+    TestUtils.sleep(DELAY_TIME);
+    assertTrue(scheduler.hasTaskReadyToRun());
+  }
+  
   @Test
   public void scheduleInOrderTest() {
     TestRunnable lastRun = null;
@@ -0,0 +1,55 @@
+package org.threadly.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.threadly.concurrent.AbstractPriorityScheduler.TimingWheelQueueSet;
+import org.threadly.util.Clock;
+
+@SuppressWarnings("javadoc")
+public class NoThreadSchedulerTimingWheelTest extends NoThreadSchedulerTest {
+  @Before
+  @Override
+  public void setup() {
+    scheduler = new NoThreadScheduler(TaskPriority.High, 
+                                      AbstractPriorityScheduler.DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, 
+                                      true);
+  }
+  
+  @Test
+  public void usesTimingWheelTest() {
+    assertTrue(scheduler.queueManager.highPriorityQueueSet instanceof TimingWheelQueueSet);
+    assertTrue(scheduler.queueManager.lowPriorityQueueSet instanceof TimingWheelQueueSet);
+    assertTrue(scheduler.queueManager.starvablePriorityQueueSet instanceof TimingWheelQueueSet);
+  }
+  
+  @Test
+  public void scheduleManyInOrderTest() {
+    final AtomicLong now = new AtomicLong(Clock.accurateForwardProgressingMillis());
+    NoThreadScheduler testScheduler = 
+        new NoThreadScheduler(TaskPriority.High, 
+                              AbstractPriorityScheduler.DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, true) {
+      @Override
+      protected long nowInMillis(boolean accurate) {
+        return now.get();
+      }
+    };
+    final List<Integer> runOrder = new ArrayList<>(TEST_QTY * 10);
+    for (int i = TEST_QTY * 10 - 1; i >= 0; i--) {
+      final int delay = i * 100;  // spread across multiple levels of the wheel
+      testScheduler.schedule(() -> runOrder.add(delay), delay);
+    }
+    
+    now.addAndGet(TEST_QTY * 10 * 100);
+    assertEquals(TEST_QTY * 10, testScheduler.tick(null));
+    
+    for (int i = 1; i < runOrder.size(); i++) {
+      assertTrue(runOrder.get(i - 1) < runOrder.get(i));
+    }
+  }
+}
@@ -115,6 +115,66 @@ public class PrioritySchedulerQueueSetTest extends ThreadlyTester {
     assertFalse(queueSet.remove(runnable));
   }
   
+  @Test
+  public void removeTaskScheduledTest() {
+    long runTime = Clock.accurateForwardProgressingMillis() + DELAY_TIME;
+    List<TaskWrapper> tasks = new ArrayList<>(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      // same run time to ensure we find the exact instance
+      TaskWrapper task = new OneTimeTaskWrapper(DoNothingRunnable.instance(), 
+                                                queueSet.scheduleQueue, runTime);
+      tasks.add(task);
+      queueSet.addScheduled(task);
+    }
+    TaskWrapper removeTask = tasks.get(TEST_QTY / 2);
+    
+    assertTrue(queueSet.removeTask(removeTask));
+    assertFalse(queueSet.removeTask(removeTask));
+    assertEquals(TEST_QTY - 1, queueSet.scheduleQueue.size());
+    assertFalse(queueSet.scheduleQueue.contains(removeTask));
+    assertTrue(removeTask.invalidated);
+  }
+  
+  @Test
+  public void removeTaskExecuteQueueTest() {
+    TestRunnable tr = new TestRunnable();
+    OneTimeTaskWrapper task = new OneTimeTaskWrapper(tr, queueSet.executeQueue, 
+                                                     Clock.lastKnownForwardProgressingMillis());
+    queueSet.addExecute(task);
+    
+    assertTrue(queueSet.removeTask(task));
+    assertFalse(queueSet.removeTask(task));
+    
+    // task is discarded once it reaches the head of the queue
+    assertTrue(queueSet.getNextTask() == task);
+    assertTrue(task.canExecute(task.getExecuteReference()));
+    task.runTask();
+    assertEquals(0, tr.getRunCount());
+  }
+  
+  @Test
+  public void removeIfTest() {
+    List<TestRunnable> removeRunnables = new ArrayList<>(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      TestRunnable keep = new TestRunnable();
+      TestRunnable remove = new TestRunnable();
+      removeRunnables.add(remove);
+      queueSet.addExecute(new OneTimeTaskWrapper(keep, queueSet.executeQueue, 
+                                                 Clock.lastKnownForwardProgressingMillis()));
+      queueSet.addExecute(new OneTimeTaskWrapper(new ListenableFutureTask<>(false, remove), 
+                                                 queueSet.executeQueue, 
+                                                 Clock.lastKnownForwardProgressingMillis()));
+      queueSet.addScheduled(new OneTimeTaskWrapper(keep, queueSet.scheduleQueue, 
+                                                   Clock.lastKnownForwardProgressingMillis() + i));
+      queueSet.addScheduled(new OneTimeTaskWrapper(remove, queueSet.scheduleQueue, 
+                                                   Clock.lastKnownForwardProgressingMillis() + i));
+    }
+    
+    assertEquals(TEST_QTY * 2, queueSet.removeIf(removeRunnables::contains));
+    assertEquals(TEST_QTY * 2, queueSet.queueSize());
+    assertEquals(0, queueSet.removeIf(removeRunnables::contains));
+  }
+  
   @Test
   public void queueSizeTest() {
     assertEquals(0, queueSet.queueSize());
@@ -0,0 +1,223 @@
+package org.threadly.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Test;
+import org.threadly.BlockingTestRunnable;
+import org.threadly.concurrent.AbstractPriorityScheduler.OneTimeTaskWrapper;
+import org.threadly.concurrent.AbstractPriorityScheduler.PooledTaskWrapper;
+import org.threadly.concurrent.AbstractPriorityScheduler.TaskWrapperPool;
+import org.threadly.concurrent.PriorityScheduler.WorkerOptions;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.test.concurrent.TestRunnable;
+
+@SuppressWarnings("javadoc")
+public class PrioritySchedulerRecyclingTest extends PrioritySchedulerTest {
+  @Override
+  protected PrioritySchedulerServiceFactory getPrioritySchedulerFactory() {
+    return new RecyclingPrioritySchedulerFactory();
+  }
+  
+  private static PriorityScheduler makeRecyclingScheduler(int poolSize) {
+    return new PriorityScheduler(poolSize, TaskPriority.High, 
+                                 AbstractPriorityScheduler.DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, 
+                                 null, false, new WorkerOptions().setRecycleTaskWrappers(true));
+  }
+  
+  @Test
+  public void isRecyclingTaskWrappersTest() {
+    PriorityScheduler scheduler = new PriorityScheduler(1);
+    try {
+      assertFalse(scheduler.workerPool.isRecyclingTaskWrappers());
+      assertFalse(scheduler.doSchedule(DoNothingRunnable.instance(), 0, TaskPriority.High)
+                    instanceof PooledTaskWrapper);
+    } finally {
+      scheduler.shutdownNow();
+    }
+    scheduler = makeRecyclingScheduler(1);
+    try {
+      assertTrue(scheduler.workerPool.isRecyclingTaskWrappers());
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void wrappersReusedTest() {
+    PriorityScheduler scheduler = makeRecyclingScheduler(1);
+    try {
+      Set<OneTimeTaskWrapper> wrappers = Collections.newSetFromMap(new IdentityHashMap<>());
+      int taskCount = TaskWrapperPool.LOCAL_POOL_SIZE * 4;
+      for (int i = 0; i < taskCount; i++) {
+        TestRunnable tr = new TestRunnable();
+        OneTimeTaskWrapper wrapper = scheduler.doSchedule(tr, 0, TaskPriority.High);
+        assertTrue(wrapper instanceof PooledTaskWrapper);
+        wrappers.add(wrapper);
+        tr.blockTillFinished();
+      }
+      
+      // once the worker's local pool is full wrappers are provided back through the shared pool
+      assertTrue(wrappers.size() < taskCount);
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void wrappersReusedFromPoolThreadTest() throws InterruptedException, ExecutionException {
+    PriorityScheduler scheduler = makeRecyclingScheduler(1);
+    try {
+      Set<OneTimeTaskWrapper> wrappers = Collections.newSetFromMap(new IdentityHashMap<>());
+      scheduler.submit(new Runnable() {
+        private int runCount = 0;
+        
+        @Override
+        public void run() {
+          if (++runCount < TEST_QTY) {
+            wrappers.add(scheduler.doSchedule(this, 0, TaskPriority.High));
+          }
+        }
+      }).get();
+      // starvable tasks only run once the chain of high priority tasks has finished
+      scheduler.submit(DoNothingRunnable.instance(), TaskPriority.Starvable).get();
+      // each task executes the next, so the wrapper released by one is reused by the following
+      assertTrue(wrappers.size() <= 2);
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void submitNotPooledTest() {
+    PriorityScheduler scheduler = makeRecyclingScheduler(1);
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    try {
+      scheduler.execute(btr);
+      btr.blockTillStarted();
+      
+      // futures which reference their wrapper for cancellation must not be recycled
+      ListenableFuture<?> lf = scheduler.submit(DoNothingRunnable.instance(), TaskPriority.High);
+      OneTimeTaskWrapper wrapper = 
+          scheduler.taskQueueManager.highPriorityQueueSet.executeQueue.peek();
+      assertFalse(wrapper instanceof PooledTaskWrapper);
+      assertTrue(lf.cancel(false));
+    } finally {
+      btr.unblock();
+      scheduler.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void staleExecuteReferenceTest() {
+    PooledTaskWrapper wrapper = 
+        new PooledTaskWrapper(DoNothingRunnable.instance(), new ConcurrentLinkedQueue<>());
+    short oldReference = wrapper.getExecuteReference();
+    assertFalse(wrapper.canExecute(oldReference));  // not queued, state must be restored
+    
+    @SuppressWarnings("unchecked")
+    Queue<OneTimeTaskWrapper> queue = (Queue<OneTimeTaskWrapper>)wrapper.taskQueue;
+    queue.add(wrapper);
+    assertTrue(wrapper.canExecute(oldReference));
+    assertFalse(wrapper.canExecute(oldReference));
+    
+    TestRunnable tr = new TestRunnable();
+    wrapper.clear();
+    wrapper.reuse(tr, queue);
+    queue.add(wrapper);
+    assertFalse(wrapper.canExecute(oldReference));
+    assertTrue(wrapper.canExecute(wrapper.getExecuteReference()));
+    wrapper.runTask();
+    assertEquals(1, tr.getRunCount());
+  }
+  
+  @Test
+  public void removeWhileExecutingTest() {
+    PriorityScheduler scheduler = makeRecyclingScheduler(2);
+    try {
+      List<TestRunnable> kept = new ArrayList<>(TEST_QTY * 10);
+      for (int i = 0; i < TEST_QTY * 10; i++) {
+        TestRunnable removed = new TestRunnable();
+        TestRunnable tr = new TestRunnable();
+        kept.add(tr);
+        scheduler.execute(removed);
+        scheduler.execute(tr);
+        scheduler.remove(removed);
+      }
+      
+      // no remove should have taken a task other than the one requested
+      for (TestRunnable tr : kept) {
+        tr.blockTillFinished();
+        assertEquals(1, tr.getRunCount());
+      }
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+  
+  public static class RecyclingPrioritySchedulerFactory
+                          implements PrioritySchedulerServiceFactory {
+    private final List<PriorityScheduler> executors;
+    
+    public RecyclingPrioritySchedulerFactory() {
+      executors = new ArrayList<>(2);
+    }
+    
+    @Override
+    public AbstractPriorityScheduler makeAbstractPriorityScheduler(int poolSize, 
+                                                                   TaskPriority defaultPriority, 
+                                                                   long maxWaitForLowPriority) {
+      return makePriorityScheduler(poolSize, defaultPriority, maxWaitForLowPriority);
+    }
+    
+    @Override
+    public AbstractPriorityScheduler makeAbstractPriorityScheduler(int poolSize) {
+      return makePriorityScheduler(poolSize);
+    }
+    
+    @Override
+    public SchedulerService makeSchedulerService(int poolSize, boolean prestartIfAvailable) {
+      PriorityScheduler result = makePriorityScheduler(poolSize);
+      if (prestartIfAvailable) {
+        result.prestartAllThreads();
+      }
+      
+      return result;
+    }
+    
+    @Override
+    public PriorityScheduler makePriorityScheduler(int poolSize, TaskPriority defaultPriority, 
+                                                   long maxWaitForLowPriority) {
+      PriorityScheduler result = new PriorityScheduler(poolSize, defaultPriority, 
+                                                       maxWaitForLowPriority, null, false, 
+                                                       new WorkerOptions().setRecycleTaskWrappers(true));
+      executors.add(result);
+      
+      return result;
+    }
+    
+    @Override
+    public PriorityScheduler makePriorityScheduler(int poolSize) {
+      return makePriorityScheduler(poolSize, TaskPriority.High, 
+                                   AbstractPriorityScheduler.DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS);
+    }
+    
+    @Override
+    public void shutdown() {
+      Iterator<PriorityScheduler> it = executors.iterator();
+      while (it.hasNext()) {
+        it.next().shutdownNow();
+        it.remove();
+      }
+    }
+  }
+}
@@ -3,14 +3,20 @@ package org.threadly.concurrent;
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 import org.threadly.BlockingTestRunnable;
 import org.threadly.concurrent.AbstractPriorityScheduler.OneTimeTaskWrapper;
+import org.threadly.concurrent.PriorityScheduler.IdleWorkerNode;
+import org.threadly.concurrent.PriorityScheduler.Worker;
 import org.threadly.concurrent.future.ListenableFuture;
 import org.threadly.concurrent.wrapper.priority.DefaultPriorityWrapper;
 import org.threadly.test.concurrent.AsyncVerifier;
@@ -108,6 +114,43 @@ public class PrioritySchedulerTest extends AbstractPrioritySchedulerTest {
     }
   }
   
+  @Test
+  public void burstThreadsRetireTest() {
+    PrioritySchedulerServiceFactory factory = getPrioritySchedulerFactory();
+    PriorityScheduler scheduler = factory.makePriorityScheduler(4);
+    try {
+      scheduler.setCorePoolSize(1);
+      scheduler.setKeepAliveTime(DELAY_TIME);
+      assertEquals(1, scheduler.getCorePoolSize());
+      assertEquals(DELAY_TIME, scheduler.getKeepAliveTime());
+      
+      List<BlockingTestRunnable> burst = new ArrayList<>(4);
+      for (int i = 0; i < 4; i++) {
+        BlockingTestRunnable btr = new BlockingTestRunnable();
+        burst.add(btr);
+        scheduler.execute(btr);
+      }
+      for (BlockingTestRunnable btr : burst) {
+        btr.blockTillStarted();
+      }
+      assertEquals(4, scheduler.getCurrentPoolSize());
+      for (BlockingTestRunnable btr : burst) {
+        btr.unblock();
+      }
+      
+      new TestCondition(() -> scheduler.getCurrentPoolSize() == 1).blockTillTrue();
+      assertEquals(3, scheduler.getRetiredThreadCount());
+      assertEquals(4, scheduler.getCreatedThreadCount());
+      
+      // tasks must still run once threads have retired
+      for (TestRunnable tr : executeTestRunnables(scheduler, 0)) {
+        tr.blockTillFinished();
+      }
+    } finally {
+      factory.shutdown();
+    }
+  }
+  
   @Test
   public void increasePoolSizeWithWaitingTaskTest() {
     PrioritySchedulerServiceFactory factory = getPrioritySchedulerFactory();
@@ -132,6 +175,96 @@ public class PrioritySchedulerTest extends AbstractPrioritySchedulerTest {
     }
   }
   
+  @Test
+  public void executeAllStartsWorkersTest() {
+    PrioritySchedulerServiceFactory factory = getPrioritySchedulerFactory();
+    PriorityScheduler scheduler = factory.makePriorityScheduler(TEST_QTY);
+    List<BlockingTestRunnable> runnables = new ArrayList<>(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      runnables.add(new BlockingTestRunnable());
+    }
+    try {
+      scheduler.executeAll(runnables);
+      
+      // every task blocks, so every task must have its own thread
+      for (BlockingTestRunnable btr : runnables) {
+        btr.blockTillStarted();
+      }
+      assertEquals(TEST_QTY, scheduler.getCurrentPoolSize());
+    } finally {
+      for (BlockingTestRunnable btr : runnables) {
+        btr.unblock();
+      }
+      factory.shutdown();
+    }
+  }
+  
+  @Test
+  public void executeAllWakesIdleWorkersTest() {
+    PrioritySchedulerServiceFactory factory = getPrioritySchedulerFactory();
+    PriorityScheduler scheduler = factory.makePriorityScheduler(TEST_QTY);
+    List<BlockingTestRunnable> runnables = new ArrayList<>(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      runnables.add(new BlockingTestRunnable());
+    }
+    try {
+      scheduler.prestartAllThreads();
+      new TestCondition(() -> scheduler.workerPool.idleWorkerCount.sum() == TEST_QTY)
+          .blockTillTrue();
+      
+      scheduler.executeAll(runnables);
+      
+      for (BlockingTestRunnable btr : runnables) {
+        btr.blockTillStarted();
+      }
+      assertEquals(TEST_QTY, scheduler.getCurrentPoolSize());
+    } finally {
+      for (BlockingTestRunnable btr : runnables) {
+        btr.unblock();
+      }
+      factory.shutdown();
+    }
+  }
+  
+  @Test
+  public void idleWorkerChainStressTest() {
+    final int poolSize = TEST_PROFILE == TestLoad.Stress ? 256 : 16;
+    final int burstCount = TEST_PROFILE == TestLoad.Stress ? 1000 : 20;
+    PrioritySchedulerServiceFactory factory = getPrioritySchedulerFactory();
+    final PriorityScheduler scheduler = factory.makePriorityScheduler(poolSize);
+    try {
+      scheduler.prestartAllThreads();
+      AtomicInteger runCount = new AtomicInteger();
+      Runnable task = runCount::incrementAndGet;
+      // mix of immediate and delayed tasks so workers are constantly leaving and joining the chain
+      for (int i = 0; i < burstCount; i++) {
+        for (int j = 0; j < poolSize; j++) {
+          if (j % 2 == 0) {
+            scheduler.execute(task);
+          } else {
+            scheduler.schedule(task, j % 3);
+          }
+        }
+      }
+      new TestCondition(() -> runCount.get() == burstCount * poolSize).blockTillTrue(1000 * 20);
+      
+      // once all workers are idle each must be in the chain exactly once
+      new TestCondition(() -> scheduler.workerPool.idleWorkerCount.sum() == poolSize)
+          .blockTillTrue();
+      Set<Worker> idleWorkers = new HashSet<>();
+      IdleWorkerNode node = scheduler.workerPool.firstIdleWorkerNode();
+      while (node != null) {
+        if (! node.removed) {
+          assertTrue(idleWorkers.add(node.worker));
+        }
+        node = node.nextIdleWorker;
+      }
+      assertEquals(poolSize, idleWorkers.size());
+    } finally {
+      factory.shutdown();
+    }
+  }
+  
   @Test
   public void getCurrentPoolSizeTest() {
     PrioritySchedulerServiceFactory factory = getPrioritySchedulerFactory();
@@ -182,7 +315,7 @@ public class PrioritySchedulerTest extends AbstractPrioritySchedulerTest {
       interruptSentAV.waitForTest(); // verify thread was interrupted as expected
       
       // verify worker was returned to pool
-      new TestCondition(() -> scheduler.workerPool.idleWorker.get() != null).blockTillTrue();
+      new TestCondition(() -> scheduler.workerPool.firstIdleWorkerNode() != null).blockTillTrue();
       // verify pool size is still correct
       assertEquals(1, scheduler.getCurrentPoolSize());
       
@@ -289,6 +422,12 @@ public class PrioritySchedulerTest extends AbstractPrioritySchedulerTest {
       } catch (RejectedExecutionException e) {
         // expected
       }
+      try {
+        scheduler.executeAll(Collections.singletonList(DoNothingRunnable.instance()));
+        fail("Execption should have been thrown");
+      } catch (RejectedExecutionException e) {
+        // expected
+      }
     } finally {
       factory.shutdown();
     }
@@ -484,13 +623,12 @@ public class PrioritySchedulerTest extends AbstractPrioritySchedulerTest {
       // schedule one task a ways out
       scheduler.schedule(DoNothingRunnable.instance(), 1000 * 60 * 10);
       // ensure first thread has blocked
-      new TestCondition(() -> scheduler.workerPool.idleWorker.get() != null).blockTillTrue();
+      new TestCondition(() -> scheduler.workerPool.firstIdleWorkerNode() != null).blockTillTrue();
       
       // start second thread
       scheduler.prestartAllThreads();
       // ensure second thread has blocked
-      new TestCondition(() -> scheduler.workerPool.idleWorker.get().nextIdleWorker != null)
-        .blockTillTrue();
+      new TestCondition(() -> scheduler.workerPool.idleWorkerCount.sum() == 2).blockTillTrue();
       
       // schedule soon to run task
       TestRunnable tr = new TestRunnable();
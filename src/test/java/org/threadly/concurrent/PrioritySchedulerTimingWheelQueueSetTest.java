@@ -0,0 +1,220 @@
+package org.threadly.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.threadly.ThreadlyTester;
+import org.threadly.concurrent.AbstractPriorityScheduler.OneTimeTaskWrapper;
+import org.threadly.concurrent.AbstractPriorityScheduler.QueueSetListener;
+import org.threadly.concurrent.AbstractPriorityScheduler.RecurringDelayTaskWrapper;
+import org.threadly.concurrent.AbstractPriorityScheduler.TaskWrapper;
+import org.threadly.concurrent.AbstractPriorityScheduler.TimingWheelQueueSet;
+import org.threadly.test.concurrent.TestRunnable;
+import org.threadly.util.Clock;
+
+@SuppressWarnings("javadoc")
+public class PrioritySchedulerTimingWheelQueueSetTest extends ThreadlyTester {
+  private long startTime;
+  private TimingWheelQueueSet queueSet;
+
+  @Before
+  public void setup() {
+    // tasks prior to the current time are considered already due, so start from now
+    startTime = Clock.accurateForwardProgressingMillis();
+    queueSet = new TimingWheelQueueSet(new TestQueueSetListener());
+  }
+
+  @After
+  public void cleanup() {
+    queueSet = null;
+  }
+
+  private OneTimeTaskWrapper makeTask(long runTime) {
+    return new OneTimeTaskWrapper(new TestRunnable(), queueSet.getScheduleTaskQueue(), runTime);
+  }
+
+  private TaskWrapper consumeNext() {
+    TaskWrapper task = queueSet.getNextTask();
+    if (task != null) {
+      assertTrue(task.canExecute(task.getExecuteReference()));
+    }
+    return task;
+  }
+
+  @Test
+  public void addScheduledTest() {
+    queueSet.addScheduled(makeTask(startTime + 10));
+
+    assertEquals(0, queueSet.executeQueue.size());
+    assertEquals(0, queueSet.scheduleQueue.size());
+    assertEquals(1, queueSet.getScheduleTaskQueue().size());
+    assertEquals(1, queueSet.queueSize());
+  }
+
+  @Test
+  public void getNextTaskEmptyTest() {
+    assertNull(queueSet.getNextTask());
+  }
+
+  @Test
+  public void getNextTaskOrderTest() {
+    List<Long> runTimes = new ArrayList<>();
+    Random r = new Random(TEST_QTY);
+    for (int i = 0; i < TEST_QTY * 10; i++) {
+      // spread across multiple levels of the wheel
+      long delay = i % 2 == 0 ? r.nextInt(1000) : r.nextInt(1000 * 60 * 60);
+      runTimes.add(startTime + delay);
+      queueSet.addScheduled(makeTask(startTime + delay));
+    }
+    Collections.sort(runTimes);
+
+    for (long expectedRunTime : runTimes) {
+      TaskWrapper task = consumeNext();
+      assertNotNull(task);
+      assertEquals(expectedRunTime, task.getPureRunTime());
+    }
+    assertNull(queueSet.getNextTask());
+    assertEquals(0, queueSet.queueSize());
+  }
+
+  @Test
+  public void getNextTaskOverflowTest() {
+    long farRunTime = startTime + (1L << 40);
+    queueSet.addScheduled(makeTask(farRunTime));
+    queueSet.addScheduled(makeTask(startTime + 10));
+
+    assertEquals(startTime + 10, consumeNext().getPureRunTime());
+    assertEquals(farRunTime, consumeNext().getPureRunTime());
+    assertNull(queueSet.getNextTask());
+  }
+
+  @Test
+  public void addScheduledBeforeWheelTimeTest() {
+    queueSet.addScheduled(makeTask(startTime + 1000));
+    assertEquals(startTime + 1000, consumeNext().getPureRunTime());
+
+    // task which is already past due for where the wheel is at must still be provided
+    TaskWrapper lateTask = makeTask(startTime);
+    queueSet.addScheduled(makeTask(startTime + 2000));
+    queueSet.addScheduled(lateTask);
+
+    assertTrue(queueSet.getNextTask() == lateTask);
+  }
+
+  @Test
+  public void getNextTaskExecuteFirstTest() {
+    OneTimeTaskWrapper executeTask = new OneTimeTaskWrapper(DoNothingRunnable.instance(),
+                                                            queueSet.executeQueue, startTime);
+    queueSet.executeQueue.add(executeTask);
+    queueSet.addScheduled(makeTask(startTime + 10));
+
+    assertTrue(queueSet.getNextTask() == executeTask);
+  }
+
+  @Test
+  public void getNextTaskScheduleFirstTest() {
+    OneTimeTaskWrapper executeTask = new OneTimeTaskWrapper(DoNothingRunnable.instance(),
+                                                            queueSet.executeQueue, startTime + 10);
+    OneTimeTaskWrapper scheduleTask = makeTask(startTime);
+    queueSet.executeQueue.add(executeTask);
+    queueSet.addScheduled(scheduleTask);
+
+    assertTrue(queueSet.getNextTask() == scheduleTask);
+  }
+
+  @Test
+  public void removeRunnableTest() {
+    TestRunnable tr = new TestRunnable();
+    queueSet.addScheduled(makeTask(startTime + 10));
+    queueSet.addScheduled(new OneTimeTaskWrapper(tr, queueSet.getScheduleTaskQueue(),
+                                                 startTime + 20));
+
+    assertTrue(queueSet.remove(tr));
+    assertFalse(queueSet.remove(tr));
+    assertEquals(1, queueSet.queueSize());
+    assertEquals(startTime + 10, consumeNext().getPureRunTime());
+    assertNull(queueSet.getNextTask());
+  }
+
+  @Test
+  public void removeTaskTest() {
+    TaskWrapper removeTask = makeTask(startTime + 10);
+    queueSet.addScheduled(removeTask);
+    queueSet.addScheduled(makeTask(startTime + 20));
+    
+    assertTrue(queueSet.removeTask(removeTask));
+    assertFalse(queueSet.removeTask(removeTask));
+    assertEquals(1, queueSet.queueSize());
+    assertEquals(startTime + 20, consumeNext().getPureRunTime());
+    assertNull(queueSet.getNextTask());
+  }
+  
+  @Test
+  public void removeIfTest() {
+    List<TestRunnable> removeRunnables = new ArrayList<>(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      TestRunnable remove = new TestRunnable();
+      removeRunnables.add(remove);
+      queueSet.addScheduled(makeTask(startTime + (i * 1000)));
+      queueSet.addScheduled(new OneTimeTaskWrapper(remove, queueSet.getScheduleTaskQueue(), 
+                                                   startTime + (i * 1000)));
+    }
+    
+    assertEquals(TEST_QTY, queueSet.removeIf(removeRunnables::contains));
+    assertEquals(TEST_QTY, queueSet.queueSize());
+    for (int i = 0; i < TEST_QTY; i++) {
+      assertFalse(removeRunnables.contains(consumeNext().task));
+    }
+    assertNull(queueSet.getNextTask());
+  }
+
+  @Test
+  public void recurringTaskTest() {
+    TestRunnable tr = new TestRunnable();
+    RecurringDelayTaskWrapper task =
+        new RecurringDelayTaskWrapper(tr, queueSet, startTime + 10, 10);
+    queueSet.addScheduled(task);
+    queueSet.addScheduled(makeTask(startTime + 15));
+
+    assertTrue(consumeNext() == task);
+    // while executing the recurring task is not provided
+    assertEquals(startTime + 15, queueSet.getNextTask().getPureRunTime());
+    assertEquals(2, queueSet.queueSize());
+
+    task.runTask();
+
+    assertEquals(1, tr.getRunCount());
+    assertEquals(2, queueSet.queueSize());
+    assertTrue(queueSet.remove(tr));
+    assertEquals(startTime + 15, consumeNext().getPureRunTime());
+    assertNull(queueSet.getNextTask());
+  }
+
+  @Test
+  public void drainQueueIntoTest() {
+    for (int i = 0; i < TEST_QTY; i++) {
+      queueSet.addScheduled(makeTask(startTime + (i * 1000)));
+    }
+    List<TaskWrapper> depositList = new ArrayList<>();
+
+    queueSet.drainQueueInto(depositList);
+
+    assertEquals(TEST_QTY, depositList.size());
+    assertEquals(0, queueSet.queueSize());
+    assertNull(queueSet.getNextTask());
+  }
+
+  private static class TestQueueSetListener implements QueueSetListener {
+    @Override
+    public void handleQueueUpdate() {
+      // ignored
+    }
+  }
+}
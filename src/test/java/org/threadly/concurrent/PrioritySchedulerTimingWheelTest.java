@@ -0,0 +1,82 @@
+package org.threadly.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.threadly.ThreadlyTester;
+import org.threadly.concurrent.AbstractPriorityScheduler.TimingWheelQueueSet;
+import org.threadly.test.concurrent.TestRunnable;
+
+@SuppressWarnings("javadoc")
+public class PrioritySchedulerTimingWheelTest extends ThreadlyTester {
+  private PriorityScheduler scheduler;
+  
+  @Before
+  public void setup() {
+    scheduler = new PriorityScheduler(2, TaskPriority.High, 
+                                      AbstractPriorityScheduler.DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, 
+                                      null, true);
+  }
+  
+  @After
+  public void cleanup() {
+    scheduler.shutdownNow();
+    scheduler = null;
+  }
+  
+  @Test
+  public void usesTimingWheelTest() {
+    assertTrue(scheduler.taskQueueManager.highPriorityQueueSet instanceof TimingWheelQueueSet);
+    assertTrue(scheduler.taskQueueManager.lowPriorityQueueSet instanceof TimingWheelQueueSet);
+    assertTrue(scheduler.taskQueueManager.starvablePriorityQueueSet instanceof TimingWheelQueueSet);
+  }
+  
+  @Test
+  public void scheduleTest() {
+    List<TestRunnable> runnables = new ArrayList<>(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      TestRunnable tr = new TestRunnable();
+      scheduler.schedule(tr, DELAY_TIME, i % 2 == 0 ? TaskPriority.High : TaskPriority.Low);
+      runnables.add(tr);
+    }
+    
+    for (TestRunnable tr : runnables) {
+      assertTrue(tr.getDelayTillFirstRun() >= DELAY_TIME);
+    }
+  }
+  
+  @Test
+  public void recurringTest() {
+    TestRunnable tr = new TestRunnable();
+    scheduler.scheduleWithFixedDelay(tr, 0, DELAY_TIME);
+    
+    tr.blockTillFinished(DELAY_TIME * (CYCLE_COUNT + 2) * 10, CYCLE_COUNT);
+    assertTrue(scheduler.remove(tr));
+  }
+  
+  @Test
+  public void removeScheduledTest() {
+    TestRunnable tr = new TestRunnable();
+    scheduler.schedule(tr, 1000 * 60);
+    
+    assertEquals(1, scheduler.getQueuedTaskCount());
+    assertTrue(scheduler.remove(tr));
+    assertEquals(0, scheduler.getQueuedTaskCount());
+  }
+  
+  @Test
+  public void shutdownNowReturnsScheduledTest() {
+    TestRunnable tr = new TestRunnable();
+    scheduler.schedule(tr, 1000 * 60);
+    
+    List<Runnable> result = scheduler.shutdownNow();
+    
+    assertEquals(1, result.size());
+    assertTrue(result.get(0) == tr);
+  }
+}
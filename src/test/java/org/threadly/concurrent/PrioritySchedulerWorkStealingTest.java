@@ -0,0 +1,280 @@
+package org.threadly.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.threadly.BlockingTestRunnable;
+import org.threadly.concurrent.PriorityScheduler.WorkerOptions;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.test.concurrent.TestRunnable;
+
+@SuppressWarnings("javadoc")
+public class PrioritySchedulerWorkStealingTest extends PrioritySchedulerTest {
+  @Override
+  protected PrioritySchedulerServiceFactory getPrioritySchedulerFactory() {
+    return new WorkStealingPrioritySchedulerFactory();
+  }
+  
+  @Test
+  public void isWorkStealingTest() {
+    PriorityScheduler scheduler = 
+        new PriorityScheduler(1, TaskPriority.High, 
+                              AbstractPriorityScheduler.DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, 
+                              null, false, new WorkerOptions().setWorkStealing(true));
+    try {
+      assertTrue(scheduler.workerPool.isWorkStealing());
+      // not a pool thread
+      assertNull(scheduler.workerPool.getCurrentWorker());
+    } finally {
+      scheduler.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void localTasksRunTest() throws InterruptedException, ExecutionException {
+    PrioritySchedulerServiceFactory factory = getPrioritySchedulerFactory();
+    try {
+      PriorityScheduler scheduler = factory.makePriorityScheduler(2);
+      List<TestRunnable> localTasks = new ArrayList<>(TEST_QTY);
+      scheduler.submit(() -> {
+        assertNotNull(scheduler.workerPool.getCurrentWorker());
+        for (int i = 0; i < TEST_QTY; i++) {
+          TestRunnable tr = new TestRunnable();
+          localTasks.add(tr);
+          scheduler.execute(tr);
+        }
+      }).get();
+      
+      for (TestRunnable tr : localTasks) {
+        tr.blockTillFinished();
+      }
+    } finally {
+      factory.shutdown();
+    }
+  }
+  
+  @Test
+  public void localTaskStolenTest() throws InterruptedException, ExecutionException, TimeoutException {
+    PrioritySchedulerServiceFactory factory = getPrioritySchedulerFactory();
+    try {
+      PriorityScheduler scheduler = factory.makePriorityScheduler(2);
+      scheduler.prestartAllThreads();
+      // the submitting task blocks, so the local task must be stolen by the other worker
+      scheduler.submit(() -> {
+        TestRunnable tr = new TestRunnable();
+        ListenableFuture<?> lf = scheduler.submit(tr);
+        assertEquals(1, scheduler.workerPool.getCurrentWorker().localQueue.size() + 
+                          tr.getRunCount());
+        lf.get();
+        return null;
+      }).get(10_000, java.util.concurrent.TimeUnit.MILLISECONDS);
+    } finally {
+      factory.shutdown();
+    }
+  }
+  
+  @Test
+  public void lowPriorityNotLocalTest() throws InterruptedException, ExecutionException {
+    PrioritySchedulerServiceFactory factory = getPrioritySchedulerFactory();
+    try {
+      PriorityScheduler scheduler = factory.makePriorityScheduler(1);
+      BlockingTestRunnable btr = new BlockingTestRunnable();
+      scheduler.submit(() -> {
+        scheduler.execute(btr, TaskPriority.Low);
+        assertTrue(scheduler.workerPool.getCurrentWorker().localQueue.isEmpty());
+        assertEquals(1, scheduler.getQueuedTaskCount(TaskPriority.Low));
+      }).get();
+      btr.unblock();
+      btr.blockTillFinished();
+    } finally {
+      factory.shutdown();
+    }
+  }
+  
+  @Test
+  public void localTaskCountAndRemoveTest() throws InterruptedException, ExecutionException {
+    PrioritySchedulerServiceFactory factory = getPrioritySchedulerFactory();
+    try {
+      PriorityScheduler scheduler = factory.makePriorityScheduler(1);
+      scheduler.submit(() -> {
+        TestRunnable removed = new TestRunnable();
+        TestRunnable filtered = new TestRunnable();
+        scheduler.execute(removed);
+        scheduler.submit(filtered);
+        
+        assertEquals(2, scheduler.getQueuedTaskCount(TaskPriority.High));
+        assertTrue(scheduler.remove(removed));
+        assertEquals(1, scheduler.getQueuedTaskCount(TaskPriority.High));
+        assertEquals(1, scheduler.removeIf((r) -> r == filtered));
+        assertEquals(0, scheduler.getQueuedTaskCount(TaskPriority.High));
+      }).get();
+    } finally {
+      factory.shutdown();
+    }
+  }
+  
+  @Test
+  public void shutdownRunsLocalTasksTest() throws InterruptedException {
+    PriorityScheduler scheduler = 
+        new PriorityScheduler(1, TaskPriority.High, 
+                              AbstractPriorityScheduler.DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, 
+                              null, false, new WorkerOptions().setWorkStealing(true));
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    TestRunnable localTask = new TestRunnable();
+    scheduler.execute(() -> {
+      scheduler.execute(localTask);
+      btr.run();
+    });
+    btr.blockTillStarted();
+    scheduler.shutdown();
+    btr.unblock();
+    
+    localTask.blockTillFinished();
+    scheduler.awaitTermination();
+  }
+  
+  @Test
+  public void shutdownNowReturnsLocalTasksTest() {
+    PriorityScheduler scheduler = 
+        new PriorityScheduler(1, TaskPriority.High, 
+                              AbstractPriorityScheduler.DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, 
+                              null, false, new WorkerOptions().setWorkStealing(true));
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    TestRunnable localTask = new TestRunnable();
+    scheduler.execute(() -> {
+      scheduler.execute(localTask);
+      btr.run();
+    });
+    try {
+      btr.blockTillStarted();
+      
+      List<Runnable> result = scheduler.shutdownNow();
+      
+      assertEquals(1, result.size());
+      assertTrue(result.get(0) == localTask);
+    } finally {
+      btr.unblock();
+    }
+  }
+  
+  @Test
+  public void movedLocalTaskCancelTest() {
+    PriorityScheduler scheduler = 
+        new PriorityScheduler(1, TaskPriority.High, 
+                              AbstractPriorityScheduler.DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, 
+                              null, false, new WorkerOptions().setWorkStealing(true));
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    AtomicReference<ListenableFuture<?>> localFuture = new AtomicReference<>();
+    scheduler.execute(() -> {
+      localFuture.set(scheduler.submit(DoNothingRunnable.instance(), TaskPriority.High));
+      btr.run();
+    });
+    try {
+      btr.blockTillStarted();
+      assertTrue(scheduler.workerPool.moveLocalTasksToSharedQueue());
+      
+      assertTrue(localFuture.get().cancel(false));
+      // the moved wrapper must be the one the future invalidated
+      assertTrue(scheduler.taskQueueManager.highPriorityQueueSet.executeQueue.peek().invalidated);
+    } finally {
+      btr.unblock();
+      scheduler.shutdownNow();
+    }
+  }
+  
+  @Override
+  @Test
+  public void lowPriorityFlowControlTest() {
+    PrioritySchedulerServiceFactory factory = getPrioritySchedulerFactory();
+    final AtomicBoolean testRunning = new AtomicBoolean(true);
+    try {
+      final PriorityScheduler scheduler = 
+          factory.makePriorityScheduler(1, TaskPriority.High, DELAY_TIME);
+      
+      new Runnable() {
+        @Override
+        public void run() {
+          if (testRunning.get()) {
+            // high priority tasks from a worker are queued locally, so count them as well
+            while (scheduler.getQueuedTaskCount(TaskPriority.High) < 5) {
+              scheduler.execute(this, TaskPriority.High);
+            }
+          }
+        }
+      }.run();
+      
+      TestRunnable lowPriorityRunnable = new TestRunnable();
+      scheduler.execute(lowPriorityRunnable, TaskPriority.Low);
+      
+      assertTrue(lowPriorityRunnable.getDelayTillFirstRun() >= DELAY_TIME);
+    } finally {
+      testRunning.set(false);
+      factory.shutdown();
+    }
+  }
+  
+  public static class WorkStealingPrioritySchedulerFactory 
+                          implements PrioritySchedulerServiceFactory {
+    private final List<PriorityScheduler> executors;
+    
+    public WorkStealingPrioritySchedulerFactory() {
+      executors = new ArrayList<>(2);
+    }
+
+    @Override
+    public AbstractPriorityScheduler makeAbstractPriorityScheduler(int poolSize,
+                                                                   TaskPriority defaultPriority,
+                                                                   long maxWaitForLowPriority) {
+      return makePriorityScheduler(poolSize, defaultPriority, maxWaitForLowPriority);
+    }
+
+    @Override
+    public AbstractPriorityScheduler makeAbstractPriorityScheduler(int poolSize) {
+      return makePriorityScheduler(poolSize);
+    }
+
+    @Override
+    public SchedulerService makeSchedulerService(int poolSize, boolean prestartIfAvailable) {
+      PriorityScheduler result = makePriorityScheduler(poolSize);
+      if (prestartIfAvailable) {
+        result.prestartAllThreads();
+      }
+      
+      return result;
+    }
+
+    @Override
+    public PriorityScheduler makePriorityScheduler(int poolSize, TaskPriority defaultPriority,
+                                                   long maxWaitForLowPriority) {
+      PriorityScheduler result = 
+          new PriorityScheduler(poolSize, defaultPriority, maxWaitForLowPriority, null, false, 
+                                new WorkerOptions().setWorkStealing(true));
+      executors.add(result);
+      
+      return result;
+    }
+
+    @Override
+    public PriorityScheduler makePriorityScheduler(int poolSize) {
+      return makePriorityScheduler(poolSize, TaskPriority.High, 
+                                   AbstractPriorityScheduler.DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS);
+    }
+
+    @Override
+    public void shutdown() {
+      Iterator<PriorityScheduler> it = executors.iterator();
+      while (it.hasNext()) {
+        it.next().shutdownNow();
+        it.remove();
+      }
+    }
+  }
+}
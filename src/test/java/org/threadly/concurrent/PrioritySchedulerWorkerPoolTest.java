@@ -10,6 +10,7 @@ import org.threadly.concurrent.AbstractPriorityScheduler.QueueManager;
 import org.threadly.concurrent.PriorityScheduler.Worker;
 import org.threadly.concurrent.PriorityScheduler.WorkerPool;
 import org.threadly.test.concurrent.TestCondition;
+import org.threadly.test.concurrent.TestUtils;
 
 @SuppressWarnings("javadoc")
 public class PrioritySchedulerWorkerPoolTest extends ThreadlyTester {
@@ -80,6 +81,79 @@ public class PrioritySchedulerWorkerPoolTest extends ThreadlyTester {
     fail("Exception should have been thrown");
   }
   
+  @Test
+  public void corePoolSizeDefaultTest() {
+    workerPool.setPoolSize(10);
+    
+    // core size follows the max size until set lower
+    assertEquals(10, workerPool.getCorePoolSize());
+    workerPool.setCorePoolSize(4);
+    workerPool.setPoolSize(20);
+    assertEquals(4, workerPool.getCorePoolSize());
+    workerPool.setPoolSize(3);
+    assertEquals(3, workerPool.getCorePoolSize());
+    workerPool.adjustPoolSize(2);
+    assertEquals(5, workerPool.getCorePoolSize());
+    workerPool.adjustPoolSize(-4);
+    assertEquals(1, workerPool.getCorePoolSize());
+  }
+  
+  @Test
+  public void setKeepAliveCorePoolSizeFail() {
+    try {
+      workerPool.setCorePoolSize(0);
+      fail("Exception should have been thrown");
+    } catch (IllegalArgumentException expected) {
+      // ignored
+    }
+    try {
+      workerPool.setCorePoolSize(2);  // larger than max
+      fail("Exception should have been thrown");
+    } catch (IllegalArgumentException expected) {
+      // ignored
+    }
+    try {
+      workerPool.setKeepAliveTime(-1);
+      fail("Exception should have been thrown");
+    } catch (IllegalArgumentException expected) {
+      // ignored
+    }
+  }
+  
+  @Test
+  public void idleWorkersRetireTest() {
+    workerPool.setPoolSize(4);
+    workerPool.setKeepAliveTime(DELAY_TIME);
+    workerPool.prestartAllThreads();
+    assertEquals(4, workerPool.getCurrentPoolSize());
+    long createdCount = workerPool.getCreatedWorkerCount();
+    assertEquals(0, workerPool.getRetiredWorkerCount());
+    
+    workerPool.setCorePoolSize(1);
+    
+    new TestCondition(() -> workerPool.getCurrentPoolSize() == 1).blockTillTrue();
+    assertEquals(3, workerPool.getRetiredWorkerCount());
+    assertEquals(createdCount, workerPool.getCreatedWorkerCount());
+    // core workers must not expire
+    TestUtils.sleep(DELAY_TIME * 2);
+    assertEquals(1, workerPool.getCurrentPoolSize());
+    assertEquals(3, workerPool.getRetiredWorkerCount());
+  }
+  
+  @Test
+  public void reduceKeepAliveTimeWakesWorkersTest() {
+    workerPool.setPoolSize(3);
+    workerPool.setCorePoolSize(1);
+    workerPool.prestartAllThreads();
+    assertEquals(3, workerPool.getCurrentPoolSize());
+    
+    // workers are waiting for the default keep alive time, and must check again once reduced
+    workerPool.setKeepAliveTime(0);
+    
+    new TestCondition(() -> workerPool.getCurrentPoolSize() == 1).blockTillTrue();
+    assertEquals(2, workerPool.getRetiredWorkerCount());
+  }
+  
   @Test
   public void prestartAllThreadsTest() {
     int corePoolSize = 5;
@@ -99,13 +173,14 @@ public class PrioritySchedulerWorkerPoolTest extends ThreadlyTester {
     w.start();
 
     // wait for worker to become idle
-    new TestCondition(() -> workerPool.idleWorker.get(), (o) -> o == w).blockTillTrue();
+    new TestCondition(() -> workerPool.firstIdleWorkerNode(), 
+                      (o) -> o != null && o.worker == w).blockTillTrue();
     
     workerPool.startShutdown();
     workerPool.finishShutdown();
     
     // verify idle worker is gone
-    new TestCondition(() -> workerPool.idleWorker.get() == null).blockTillTrue();
+    new TestCondition(() -> workerPool.firstIdleWorkerNode() == null).blockTillTrue();
     
     // should return immediately now that we are shut down
     workerPool.workerIdle(new Worker(workerPool, workerPool.threadFactory));
@@ -0,0 +1,104 @@
+package org.threadly.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.threadly.ThreadlyTester;
+import org.threadly.test.concurrent.TestCondition;
+
+@SuppressWarnings("javadoc")
+public class SelectorEventLoopGroupTest extends ThreadlyTester {
+  private SelectorEventLoopGroup group;
+  
+  @Before
+  public void setup() throws IOException {
+    group = new SelectorEventLoopGroup(4);
+  }
+  
+  @After
+  public void cleanup() throws InterruptedException {
+    group.shutdown();
+    assertTrue(group.awaitTermination(10_000));
+    group = null;
+  }
+  
+  @Test
+  public void constructorFail() throws IOException {
+    try {
+      new SelectorEventLoopGroup(0);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void getLoopAffinityTest() {
+    assertEquals(4, group.getLoopCount());
+    for (int i = 0; i < TEST_QTY; i++) {
+      Object key = "key" + i;
+      assertTrue(group.getLoop(key) == group.getLoop(key));
+    }
+  }
+  
+  @Test
+  public void nextRoundRobinTest() {
+    Set<SelectorEventLoop> loops = new HashSet<>();
+    for (int i = 0; i < group.getLoopCount(); i++) {
+      loops.add(group.next());
+    }
+    assertEquals(group.getLoopCount(), loops.size());
+  }
+  
+  @Test
+  public void keyedTasksRunOnSameThreadTest() throws Exception {
+    Object key = new Object();
+    Set<Thread> threads = new HashSet<>();
+    for (int i = 0; i < TEST_QTY; i++) {
+      group.getLoop(key).submit(() -> threads.add(Thread.currentThread())).get();
+    }
+    assertEquals(1, threads.size());
+  }
+  
+  @Test
+  public void registerTest() throws Exception {
+    Pipe pipe = Pipe.open();
+    try {
+      pipe.source().configureBlocking(false);
+      AtomicInteger readCount = new AtomicInteger();
+      Set<Thread> threads = Collections.synchronizedSet(new HashSet<>());
+      SelectionKey key = group.register(pipe.source(), SelectionKey.OP_READ, (k) -> {
+        threads.add(Thread.currentThread());
+        readCount.addAndGet(pipe.source().read(ByteBuffer.allocate(8)));
+      }).get();
+      assertTrue(key.isValid());
+      
+      pipe.sink().write(ByteBuffer.wrap(new byte[] { 1, 2 }));
+      new TestCondition(() -> readCount.get() == 2).blockTillTrue();
+      assertEquals(1, threads.size());
+    } finally {
+      pipe.source().close();
+      pipe.sink().close();
+    }
+  }
+  
+  @Test
+  public void shutdownTest() throws InterruptedException {
+    group.shutdown();
+    
+    assertTrue(group.isShutdown());
+    assertTrue(group.awaitTermination(10_000));
+    assertFalse(group.next().getSelector().isOpen());
+  }
+}
@@ -0,0 +1,148 @@
+package org.threadly.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.threadly.ThreadlyTester;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.test.concurrent.TestRunnable;
+import org.threadly.test.concurrent.TestUtils;
+import org.threadly.util.Clock;
+import org.threadly.util.TestExceptionHandler;
+
+@SuppressWarnings("javadoc")
+public class SelectorEventLoopTest extends ThreadlyTester {
+  private SelectorEventLoop loop;
+  private Pipe pipe;
+  
+  @Before
+  public void setup() throws IOException {
+    loop = new SelectorEventLoop();
+    pipe = Pipe.open();
+    pipe.source().configureBlocking(false);
+  }
+  
+  @After
+  public void cleanup() throws IOException {
+    loop.getSelector().close();
+    pipe.source().close();
+    pipe.sink().close();
+    loop = null;
+    pipe = null;
+  }
+  
+  @Test
+  public void constructorFail() {
+    try {
+      new SelectorEventLoop(null);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void selectTickRunsReadyTasksTest() throws IOException {
+    TestRunnable tr = new TestRunnable();
+    loop.execute(tr);
+    
+    assertEquals(1, loop.selectTick(null));
+    assertEquals(1, tr.getRunCount());
+  }
+  
+  @Test
+  public void executeWakesSelectTest() throws IOException {
+    TestRunnable tr = new TestRunnable();
+    new Thread(() -> {
+      TestUtils.sleep(DELAY_TIME);
+      loop.execute(tr);
+    }).start();
+    
+    long start = Clock.accurateForwardProgressingMillis();
+    while (tr.getRunCount() == 0) {
+      loop.selectTick(null);
+    }
+    // without a wakeup the selector would block forever since there are no channels
+    assertTrue(Clock.accurateForwardProgressingMillis() - start < 10_000);
+  }
+  
+  @Test
+  public void scheduledTaskLimitsSelectTest() throws IOException {
+    TestRunnable tr = new TestRunnable();
+    loop.schedule(tr, DELAY_TIME);
+    
+    while (tr.getRunCount() == 0) {
+      loop.selectTick(null);
+    }
+    assertTrue(tr.getDelayTillFirstRun() >= DELAY_TIME);
+  }
+  
+  @Test
+  public void cancelTickTest() throws IOException {
+    new Thread(() -> {
+      TestUtils.sleep(DELAY_TIME);
+      loop.cancelTick();
+    }).start();
+    
+    assertEquals(0, loop.selectTick(null));
+    // cancel should have been reset
+    TestRunnable tr = new TestRunnable();
+    loop.execute(tr);
+    assertEquals(1, loop.selectTick(null));
+  }
+  
+  @Test
+  public void registerAndHandleSelectionTest() throws Exception {
+    ByteBuffer readBuffer = ByteBuffer.allocate(8);
+    AtomicInteger selectCount = new AtomicInteger();
+    ListenableFuture<SelectionKey> keyFuture = 
+        loop.register(pipe.source(), SelectionKey.OP_READ, (key) -> {
+          selectCount.incrementAndGet();
+          pipe.source().read(readBuffer);
+        });
+    // registration from another thread is done by the loop
+    assertFalse(keyFuture.isDone());
+    loop.selectTick(null);
+    assertTrue(keyFuture.get().isValid());
+    
+    pipe.sink().write(ByteBuffer.wrap(new byte[] { 1, 2, 3 }));
+    while (selectCount.get() == 0) {
+      loop.selectTick(null);
+    }
+    assertEquals(3, readBuffer.position());
+  }
+  
+  @Test
+  public void registerFromLoopThreadTest() throws Exception {
+    ListenableFuture<ListenableFuture<SelectionKey>> lf = 
+        loop.submit(() -> loop.register(pipe.source(), SelectionKey.OP_READ, (key) -> { }));
+    loop.selectTick(null);
+    
+    assertTrue(lf.get().isDone());
+    assertTrue(lf.get().get().isValid());
+  }
+  
+  @Test
+  public void handlerExceptionTest() throws Exception {
+    TestExceptionHandler teh = new TestExceptionHandler();
+    IOException failure = new IOException();
+    loop.register(pipe.source(), SelectionKey.OP_READ, (key) -> {
+      pipe.source().read(ByteBuffer.allocate(8));
+      throw failure;
+    });
+    pipe.sink().write(ByteBuffer.wrap(new byte[] { 1 }));
+    
+    while (teh.getCallCount() == 0) {
+      loop.selectTick(teh);
+    }
+    assertTrue(teh.getLastThrowable() == failure);
+  }
+}
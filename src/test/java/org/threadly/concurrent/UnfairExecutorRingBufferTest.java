@@ -0,0 +1,256 @@
+package org.threadly.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+import org.threadly.BlockingTestRunnable;
+import org.threadly.concurrent.UnfairExecutor.AtomicStripeGenerator;
+import org.threadly.concurrent.UnfairExecutor.TaskRingBuffer;
+import org.threadly.concurrent.UnfairExecutor.TaskStripeGenerator;
+import org.threadly.concurrent.wrapper.limiter.RejectedExecutionHandler;
+import org.threadly.test.concurrent.TestRunnable;
+
+@SuppressWarnings("javadoc")
+public class UnfairExecutorRingBufferTest extends SubmitterExecutorInterfaceTest {
+  private static final TaskStripeGenerator SINGLE_STRIPE_GENERATOR = (task) -> 0;
+  
+  @Override
+  protected SubmitterExecutorFactory getSubmitterExecutorFactory() {
+    return new RingBufferUnfairExecutorFactory();
+  }
+  
+  private static UnfairExecutor makeExecutor(int threadCount, TaskStripeGenerator stripeGenerator, 
+                                             int queueCapacity, 
+                                             RejectedExecutionHandler rejectedExecutionHandler) {
+    return new UnfairExecutor(threadCount, 
+                              new ConfigurableThreadFactory(UnfairExecutor.class.getSimpleName() + "-", 
+                                                            true, true, Thread.NORM_PRIORITY, 
+                                                            null, null), 
+                              stripeGenerator, null, queueCapacity, rejectedExecutionHandler);
+  }
+  
+  @Test
+  @Override
+  public void executeInOrderTest() {
+    // ignored, this test makes no sense for this executor
+  }
+  
+  @Test
+  public void constructorFail() {
+    try {
+      makeExecutor(1, SINGLE_STRIPE_GENERATOR, -1, null);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      makeExecutor(1, SINGLE_STRIPE_GENERATOR, 0, 
+                   RejectedExecutionHandler.THROW_REJECTED_EXECUTION_EXCEPTION);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void ringBufferTest() {
+    assertEquals(2, new TaskRingBuffer(1).capacity);
+    TaskRingBuffer buffer = new TaskRingBuffer(3);
+    assertEquals(4, buffer.capacity);
+    assertNull(buffer.poll());
+    
+    // wrap around several times to verify slots are reused
+    for (int lap = 0; lap < 3; lap++) {
+      List<Runnable> tasks = new ArrayList<>(buffer.capacity);
+      for (int i = 0; i < buffer.capacity; i++) {
+        Runnable task = new TestRunnable();
+        tasks.add(task);
+        assertTrue(buffer.offer(task));
+      }
+      assertFalse(buffer.offer(DoNothingRunnable.instance()));
+      assertEquals(buffer.capacity, buffer.size());
+      for (Runnable task : tasks) {
+        assertTrue(buffer.poll() == task);
+      }
+      assertNull(buffer.poll());
+      assertEquals(0, buffer.size());
+    }
+  }
+  
+  @Test
+  public void boundedRejectTest() {
+    UnfairExecutor ue = makeExecutor(1, SINGLE_STRIPE_GENERATOR, 2, 
+                                     RejectedExecutionHandler.THROW_REJECTED_EXECUTION_EXCEPTION);
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    try {
+      ue.execute(btr);
+      btr.blockTillStarted();
+      
+      ue.execute(DoNothingRunnable.instance());
+      ue.execute(DoNothingRunnable.instance());
+      assertEquals(2, ue.getQueuedTaskCount());
+      try {
+        ue.execute(DoNothingRunnable.instance());
+        fail("Exception should have thrown");
+      } catch (RejectedExecutionException e) {
+        // expected
+      }
+    } finally {
+      btr.unblock();
+      ue.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void boundedCallerRunsTest() {
+    UnfairExecutor ue = makeExecutor(1, SINGLE_STRIPE_GENERATOR, 2, 
+                                     RejectedExecutionHandler.RUN_ON_CALLING_THREAD);
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    try {
+      ue.execute(btr);
+      btr.blockTillStarted();
+      
+      TestRunnable queued = new TestRunnable();
+      AtomicReference<Thread> runThread = new AtomicReference<>();
+      ue.execute(queued);
+      ue.execute(DoNothingRunnable.instance());
+      ue.execute(() -> runThread.set(Thread.currentThread()));
+      
+      assertEquals(0, queued.getRunCount());
+      assertTrue(runThread.get() == Thread.currentThread());
+      
+      btr.unblock();
+      queued.blockTillFinished();
+    } finally {
+      btr.unblock();
+      ue.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void overflowTest() {
+    UnfairExecutor ue = makeExecutor(1, SINGLE_STRIPE_GENERATOR, 2, null);
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    try {
+      ue.execute(btr);
+      btr.blockTillStarted();
+      
+      List<TestRunnable> runnables = new ArrayList<>(TEST_QTY);
+      for (int i = 0; i < TEST_QTY; i++) {
+        TestRunnable tr = new TestRunnable();
+        runnables.add(tr);
+        ue.execute(tr);
+      }
+      assertEquals(TEST_QTY, ue.getQueuedTaskCount());
+      
+      // tasks in the overflow queue must run before shutdown completes
+      ue.shutdown();
+      btr.unblock();
+      for (TestRunnable tr : runnables) {
+        tr.blockTillFinished();
+      }
+    } finally {
+      btr.unblock();
+      ue.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void workerQueueDepthsTest() {
+    UnfairExecutor ue = makeExecutor(2, AtomicStripeGenerator.instance(), 16, null);
+    List<BlockingTestRunnable> blockers = new ArrayList<>(2);
+    try {
+      for (int i = 0; i < 2; i++) {
+        BlockingTestRunnable btr = new BlockingTestRunnable();
+        blockers.add(btr);
+        ue.execute(btr);
+      }
+      for (BlockingTestRunnable btr : blockers) {
+        btr.blockTillStarted();
+      }
+      
+      for (int i = 0; i < 6; i++) {
+        ue.execute(DoNothingRunnable.instance());
+      }
+      int[] depths = ue.getWorkerQueueDepths();
+      assertEquals(2, depths.length);
+      assertEquals(3, depths[0]);
+      assertEquals(3, depths[1]);
+      assertEquals(6, ue.getQueuedTaskCount());
+    } finally {
+      for (BlockingTestRunnable btr : blockers) {
+        btr.unblock();
+      }
+      ue.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void multiVictimStealTest() {
+    UnfairExecutor ue = makeExecutor(5, SINGLE_STRIPE_GENERATOR, 64, null);
+    List<BlockingTestRunnable> blockers = new ArrayList<>(5);
+    try {
+      // all tasks go to a single worker, other workers must steal for them to run concurrently
+      for (int i = 0; i < 5; i++) {
+        BlockingTestRunnable btr = new BlockingTestRunnable();
+        blockers.add(btr);
+        ue.execute(btr);
+      }
+      for (BlockingTestRunnable btr : blockers) {
+        btr.blockTillStarted();
+      }
+    } finally {
+      for (BlockingTestRunnable btr : blockers) {
+        btr.unblock();
+      }
+      ue.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void shutdownNowTest() {
+    UnfairExecutor ue = makeExecutor(1, SINGLE_STRIPE_GENERATOR, 4, null);
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    try {
+      ue.execute(btr);
+      btr.blockTillStarted();
+      
+      List<TestRunnable> runnables = new ArrayList<>(TEST_QTY);
+      for (int i = 0; i < TEST_QTY; i++) {
+        TestRunnable tr = new TestRunnable();
+        runnables.add(tr);
+        ue.execute(tr);
+      }
+      
+      List<Runnable> result = ue.shutdownNow();
+      assertEquals(TEST_QTY, result.size());
+      assertTrue(result.containsAll(runnables));
+    } finally {
+      btr.unblock();
+    }
+  }
+  
+  private static class RingBufferUnfairExecutorFactory implements SubmitterExecutorFactory {
+    private final List<UnfairExecutor> executors = new ArrayList<>(1);
+    
+    @Override
+    public UnfairExecutor makeSubmitterExecutor(int poolSize, boolean prestartIfAvailable) {
+      UnfairExecutor result = makeExecutor(poolSize, AtomicStripeGenerator.instance(), 16, null);
+      executors.add(result);
+      
+      return result;
+    }
+    
+    @Override
+    public void shutdown() {
+      for (UnfairExecutor ue : executors) {
+        ue.shutdownNow();
+      }
+    }
+  }
+}
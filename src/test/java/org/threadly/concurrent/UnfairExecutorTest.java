@@ -3,15 +3,20 @@ package org.threadly.concurrent;
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Test;
 import org.threadly.BlockingTestRunnable;
 import org.threadly.ThreadlyTester;
 import org.threadly.concurrent.SubmitterExecutorInterfaceTest.SubmitterExecutorFactory;
 import org.threadly.concurrent.UnfairExecutor.TaskStripeGenerator;
+import org.threadly.test.concurrent.TestCondition;
 import org.threadly.test.concurrent.TestRunnable;
 import org.threadly.util.Clock;
 
@@ -160,6 +165,165 @@ public class UnfairExecutorTest extends ThreadlyTester {
     ue.execute(DoNothingRunnable.instance());
   }
 
+  @Test
+  public void keyedExecuteFail() {
+    UnfairExecutor ue = new UnfairExecutor(1);
+    try {
+      try {
+        ue.execute(null, DoNothingRunnable.instance());
+        fail("Exception should have thrown");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+      try {
+        ue.execute(new Object(), null);
+        fail("Exception should have thrown");
+      } catch (IllegalArgumentException e) {
+        // expected
+      }
+      ue.shutdown();
+      try {
+        ue.execute(new Object(), DoNothingRunnable.instance());
+        fail("Exception should have thrown");
+      } catch (RejectedExecutionException e) {
+        // expected
+      }
+    } finally {
+      ue.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void keyedExecuteInOrderTest() {
+    UnfairExecutor ue = new UnfairExecutor(5);
+    try {
+      int keyCount = 10;
+      List<List<Integer>> results = new ArrayList<>(keyCount);
+      List<Set<Thread>> threads = new ArrayList<>(keyCount);
+      for (int i = 0; i < keyCount; i++) {
+        results.add(Collections.synchronizedList(new ArrayList<>(TEST_QTY)));
+        threads.add(Collections.synchronizedSet(new HashSet<>()));
+      }
+      TestRunnable lastRunnable = null;
+      for (int i = 0; i < TEST_QTY; i++) {
+        for (int k = 0; k < keyCount; k++) {
+          List<Integer> keyResult = results.get(k);
+          Set<Thread> keyThreads = threads.get(k);
+          int value = i;
+          ue.execute("key" + k, () -> {
+            keyResult.add(value);
+            keyThreads.add(Thread.currentThread());
+          });
+        }
+        // mix in unkeyed tasks which may be stolen by other threads
+        lastRunnable = new TestRunnable();
+        ue.execute(lastRunnable);
+      }
+      lastRunnable.blockTillFinished();
+      
+      new TestCondition(() -> {
+        for (List<Integer> keyResult : results) {
+          if (keyResult.size() != TEST_QTY) {
+            return false;
+          }
+        }
+        return true;
+      }).blockTillTrue();
+      for (int k = 0; k < keyCount; k++) {
+        assertEquals(1, threads.get(k).size());
+        List<Integer> keyResult = results.get(k);
+        for (int i = 0; i < TEST_QTY; i++) {
+          assertEquals(i, (int)keyResult.get(i));
+        }
+      }
+    } finally {
+      ue.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void keyedTasksDontStarveQueuedTasksTest() {
+    UnfairExecutor ue = new UnfairExecutor(1);
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    try {
+      Object key = new Object();
+      ue.execute(key, btr);
+      btr.blockTillStarted();
+      AtomicInteger keyedRunCount = new AtomicInteger();
+      for (int i = 0; i < UnfairExecutor.MAX_SEQUENTIAL_KEYED_TASKS * 2; i++) {
+        ue.execute(key, keyedRunCount::incrementAndGet);
+      }
+      AtomicInteger keyedRunBeforeTask = new AtomicInteger(-1);
+      TestRunnable tr = new TestRunnable() {
+        @Override
+        public void handleRunStart() {
+          keyedRunBeforeTask.set(keyedRunCount.get());
+        }
+      };
+      ue.execute(tr);
+      
+      btr.unblock();
+      tr.blockTillFinished();
+      // the blocking task (and possibly the startup task) count towards the keyed tasks run in a row
+      assertTrue(keyedRunBeforeTask.get() >= 0);
+      assertTrue(keyedRunBeforeTask.get() < UnfairExecutor.MAX_SEQUENTIAL_KEYED_TASKS);
+    } finally {
+      btr.unblock();
+      ue.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void keyedShutdownTest() {
+    UnfairExecutor ue = new UnfairExecutor(2);
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    try {
+      Object key = new Object();
+      ue.execute(key, btr);
+      btr.blockTillStarted();
+      List<TestRunnable> runnables = new ArrayList<>(TEST_QTY);
+      for (int i = 0; i < TEST_QTY; i++) {
+        TestRunnable tr = new TestRunnable();
+        runnables.add(tr);
+        ue.execute(key, tr);
+      }
+      assertEquals(TEST_QTY, ue.getQueuedTaskCount());
+      
+      ue.shutdown();
+      btr.unblock();
+      
+      for (TestRunnable tr : runnables) {
+        tr.blockTillFinished();
+      }
+    } finally {
+      btr.unblock();
+      ue.shutdownNow();
+    }
+  }
+  
+  @Test
+  public void keyedShutdownNowTest() {
+    UnfairExecutor ue = new UnfairExecutor(2);
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    try {
+      Object key = new Object();
+      ue.execute(key, btr);
+      btr.blockTillStarted();
+      List<TestRunnable> runnables = new ArrayList<>(TEST_QTY);
+      for (int i = 0; i < TEST_QTY; i++) {
+        TestRunnable tr = new TestRunnable();
+        runnables.add(tr);
+        ue.execute(key, tr);
+      }
+      
+      List<Runnable> canceledRunnables = ue.shutdownNow();
+      assertEquals(TEST_QTY, canceledRunnables.size());
+      assertTrue(canceledRunnables.containsAll(runnables));
+    } finally {
+      btr.unblock();
+    }
+  }
+  
   protected static class UnfairExecutorFactory implements SubmitterExecutorFactory {
     private final TaskStripeGenerator stripeGenerator;
     private List<UnfairExecutor> executors = new ArrayList<>(1);
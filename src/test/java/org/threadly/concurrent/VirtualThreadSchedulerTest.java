@@ -0,0 +1,231 @@
+package org.threadly.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.threadly.BlockingTestRunnable;
+import org.threadly.ThreadlyTester;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.test.concurrent.TestCondition;
+import org.threadly.test.concurrent.TestRunnable;
+import org.threadly.test.concurrent.TestUtils;
+import org.threadly.util.TestExceptionHandler;
+
+@SuppressWarnings("javadoc")
+public class VirtualThreadSchedulerTest extends ThreadlyTester {
+  private TestExceptionHandler exceptionHandler;
+  private VirtualThreadScheduler scheduler;
+  
+  @Before
+  public void setup() {
+    exceptionHandler = new TestExceptionHandler();
+    scheduler = makeScheduler(exceptionHandler);
+  }
+  
+  @After
+  public void cleanup() {
+    scheduler.shutdownNow();
+    scheduler = null;
+    exceptionHandler = null;
+  }
+  
+  // virtual threads may not be available on the running JVM, platform threads behave the same
+  private static VirtualThreadScheduler makeScheduler(TestExceptionHandler exceptionHandler) {
+    ThreadFactory threadFactory = 
+        new ConfigurableThreadFactory("", false, true, Thread.NORM_PRIORITY, null, exceptionHandler);
+    return new VirtualThreadScheduler(TaskPriority.High, 
+                                      AbstractPriorityScheduler.DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, 
+                                      threadFactory);
+  }
+  
+  @Test
+  public void constructorTest() throws InterruptedException {
+    if (VirtualThreadScheduler.isVirtualThreadSupported()) {
+      VirtualThreadScheduler scheduler = new VirtualThreadScheduler();
+      try {
+        TestRunnable tr = new TestRunnable();
+        scheduler.execute(tr);
+        tr.blockTillFinished();
+        assertEquals(TaskPriority.High, scheduler.getDefaultPriority());
+      } finally {
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(10_000));
+      }
+    } else {
+      try {
+        new VirtualThreadScheduler();
+        fail("Exception should have thrown");
+      } catch (UnsupportedOperationException e) {
+        // expected
+      }
+    }
+  }
+  
+  @Test
+  public void constructorFail() {
+    try {
+      new VirtualThreadScheduler(TaskPriority.High, 1, null);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void executeConcurrentlyTest() {
+    List<BlockingTestRunnable> runnables = new ArrayList<>(TEST_QTY);
+    try {
+      for (int i = 0; i < TEST_QTY; i++) {
+        BlockingTestRunnable btr = new BlockingTestRunnable();
+        runnables.add(btr);
+        scheduler.execute(btr);
+      }
+      // every task has its own thread, so none should wait for another to complete
+      for (BlockingTestRunnable btr : runnables) {
+        btr.blockTillStarted();
+      }
+      assertEquals(TEST_QTY, scheduler.getActiveTaskCount());
+    } finally {
+      for (BlockingTestRunnable btr : runnables) {
+        btr.unblock();
+      }
+    }
+    new TestCondition(() -> scheduler.getActiveTaskCount() == 0).blockTillTrue();
+  }
+  
+  @Test
+  public void submitTest() throws Exception {
+    List<ListenableFuture<?>> futures = new ArrayList<>(TEST_QTY * 3);
+    for (int i = 0; i < TEST_QTY; i++) {
+      futures.add(scheduler.submit(new TestRunnable()));
+      futures.add(scheduler.submit(new TestRunnable(), TaskPriority.Low));
+      futures.add(scheduler.submitScheduled(() -> true, DELAY_TIME, TaskPriority.Starvable));
+    }
+    
+    for (ListenableFuture<?> lf : futures) {
+      lf.get();
+    }
+  }
+  
+  @Test
+  public void scheduleTest() {
+    TestRunnable tr1 = new TestRunnable();
+    TestRunnable tr2 = new TestRunnable();
+    scheduler.schedule(tr1, DELAY_TIME);
+    scheduler.schedule(tr2, DELAY_TIME, TaskPriority.Low);
+    
+    assertTrue(tr1.getDelayTillFirstRun() >= DELAY_TIME);
+    assertTrue(tr2.getDelayTillFirstRun() >= DELAY_TIME);
+  }
+  
+  @Test
+  public void taskExceptionTest() {
+    RuntimeException failure = new RuntimeException();
+    scheduler.execute(() -> { throw failure; });
+    
+    new TestCondition(() -> exceptionHandler.getCallCount() == 1).blockTillTrue();
+    assertTrue(exceptionHandler.getLastThrowable() == failure);
+    new TestCondition(() -> scheduler.getActiveTaskCount() == 0).blockTillTrue();
+  }
+  
+  @Test
+  public void recurringFixedDelayTest() {
+    TestRunnable tr = new TestRunnable();
+    scheduler.scheduleWithFixedDelay(tr, 0, DELAY_TIME, TaskPriority.Low);
+    
+    tr.blockTillFinished(DELAY_TIME * (CYCLE_COUNT + 2) * 10, CYCLE_COUNT);
+    assertTrue(scheduler.remove(tr));
+    assertFalse(scheduler.remove(tr));
+    assertTrue(tr.getDelayTillRun(2) >= DELAY_TIME);
+  }
+  
+  @Test
+  public void recurringFixedRateTest() {
+    TestRunnable tr = new TestRunnable();
+    scheduler.scheduleAtFixedRate(tr, DELAY_TIME, DELAY_TIME);
+    
+    tr.blockTillFinished(DELAY_TIME * (CYCLE_COUNT + 2) * 10, CYCLE_COUNT);
+    assertTrue(scheduler.remove(tr));
+    assertTrue(tr.getDelayTillFirstRun() >= DELAY_TIME);
+  }
+  
+  @Test
+  public void recurringNotConcurrentTest() {
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    scheduler.scheduleAtFixedRate(btr, 0, 1);
+    try {
+      btr.blockTillStarted();
+      TestUtils.sleep(DELAY_TIME);
+      // the next execution is only scheduled once the running one completes
+      assertEquals(1, scheduler.getActiveTaskCount());
+      assertEquals(0, scheduler.getQueuedTaskCount());
+    } finally {
+      btr.unblock();
+    }
+    new TestCondition(() -> btr.getRunCount() > 1).blockTillTrue();
+    assertTrue(scheduler.remove(btr));
+  }
+  
+  @Test
+  public void queuedTaskCountAndRemoveTest() {
+    TestRunnable removed = new TestRunnable();
+    TestRunnable remaining = new TestRunnable();
+    scheduler.schedule(removed, 1000 * 10);
+    scheduler.schedule(remaining, 1000 * 10, TaskPriority.Low);
+    ListenableFuture<?> lf = scheduler.submitScheduled(DoNothingRunnable.instance(), 1000 * 10);
+    
+    assertEquals(3, scheduler.getQueuedTaskCount());
+    assertEquals(1, scheduler.getQueuedTaskCount(TaskPriority.Low));
+    assertEquals(0, scheduler.getWaitingForExecutionTaskCount());
+    assertTrue(scheduler.remove(removed));
+    assertFalse(scheduler.remove(removed));
+    assertTrue(lf.cancel(false));
+    assertEquals(1, scheduler.getQueuedTaskCount());
+    
+    List<Runnable> result = scheduler.shutdownNow();
+    assertEquals(1, result.size());
+    assertTrue(result.get(0) == remaining);
+  }
+  
+  @Test
+  public void shutdownTest() throws InterruptedException {
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    TestRunnable delayed = new TestRunnable();
+    TestRunnable recurring = new TestRunnable();
+    scheduler.execute(btr);
+    scheduler.schedule(delayed, 1000 * 10);
+    scheduler.scheduleWithFixedDelay(recurring, 1000 * 10, 1000 * 10);
+    btr.blockTillStarted();
+    
+    scheduler.shutdown();
+    assertTrue(scheduler.isShutdown());
+    try {
+      scheduler.execute(DoNothingRunnable.instance());
+      fail("Exception should have thrown");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+    // running tasks must complete before the scheduler is terminated
+    assertFalse(scheduler.awaitTermination(DELAY_TIME));
+    assertFalse(scheduler.isTerminated());
+    
+    btr.unblock();
+    assertTrue(scheduler.awaitTermination(10_000));
+    assertTrue(scheduler.isTerminated());
+    assertEquals(0, delayed.getRunCount());
+    assertEquals(0, recurring.getRunCount());
+  }
+  
+  @Test
+  public void awaitTerminationNotShutdownTest() throws InterruptedException {
+    assertFalse(scheduler.awaitTermination(DELAY_TIME));
+    assertFalse(scheduler.isTerminated());
+  }
+}
@@ -0,0 +1,172 @@
+package org.threadly.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.threadly.ThreadlyTester;
+import org.threadly.concurrent.PriorityScheduler.WorkerOptions;
+import org.threadly.concurrent.UnfairExecutor.AtomicStripeGenerator;
+import org.threadly.concurrent.WaitStrategy.BusySpinWaitStrategy;
+import org.threadly.concurrent.WaitStrategy.ParkWaitStrategy;
+import org.threadly.concurrent.WaitStrategy.SpinParkWaitStrategy;
+import org.threadly.concurrent.WaitStrategy.SpinYieldWaitStrategy;
+import org.threadly.test.concurrent.TestRunnable;
+
+@SuppressWarnings("javadoc")
+public class WaitStrategyTest extends ThreadlyTester {
+  private static final List<WaitStrategy> STRATEGIES;
+  
+  static {
+    List<WaitStrategy> strategies = new ArrayList<>(4);
+    strategies.add(ParkWaitStrategy.instance());
+    strategies.add(BusySpinWaitStrategy.instance());
+    strategies.add(new SpinYieldWaitStrategy(16));
+    strategies.add(new SpinParkWaitStrategy(16, 2));
+    STRATEGIES = strategies;
+  }
+  
+  @Test
+  public void parkWaitStrategyTimeoutTest() {
+    // must return once the timeout has elapsed
+    ParkWaitStrategy.instance().idle(0, 1_000);
+  }
+  
+  @Test
+  public void busySpinWaitStrategyTest() {
+    BusySpinWaitStrategy.instance().idle(Integer.MAX_VALUE, Long.MAX_VALUE);
+  }
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void spinYieldWaitStrategyConstructorFail() {
+    new SpinYieldWaitStrategy(-1);
+  }
+  
+  @Test
+  public void spinYieldWaitStrategyTest() {
+    SpinYieldWaitStrategy ws = new SpinYieldWaitStrategy(2);
+    for (int i = 0; i < TEST_QTY; i++) {
+      ws.idle(i, Long.MAX_VALUE);
+    }
+  }
+  
+  @Test
+  public void spinParkWaitStrategyConstructorFail() {
+    try {
+      new SpinParkWaitStrategy(-1, 1);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new SpinParkWaitStrategy(1, -1);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void spinParkWaitStrategyReduceSpinTest() {
+    SpinParkWaitStrategy ws = new SpinParkWaitStrategy(16, 2);
+    assertEquals(16, ws.getSpinCount());
+    
+    for (int i = 0; i < 18; i++) {
+      ws.idle(i, 1_000);
+      assertEquals(16, ws.getSpinCount());
+    }
+    ws.idle(18, 1_000);  // first park
+    assertEquals(8, ws.getSpinCount());
+    ws.idle(19, 1_000);  // following parks don't reduce further
+    assertEquals(8, ws.getSpinCount());
+    
+    // blocking before the task was found should not increase the spin count
+    ws.taskFound(20);
+    assertEquals(8, ws.getSpinCount());
+  }
+  
+  @Test
+  public void spinParkWaitStrategyIncreaseSpinTest() {
+    SpinParkWaitStrategy ws = new SpinParkWaitStrategy(16, 2);
+    ws.idle(18, 1_000);
+    ws.idle(8 + 2, 1_000);
+    assertEquals(4, ws.getSpinCount());
+    
+    ws.taskFound(1);
+    assertEquals(8, ws.getSpinCount());
+    ws.taskFound(1);
+    ws.taskFound(1);
+    assertEquals(16, ws.getSpinCount());  // capped at max
+  }
+  
+  @Test
+  public void spinParkWaitStrategyZeroSpinTest() {
+    SpinParkWaitStrategy ws = new SpinParkWaitStrategy(0, 0);
+    ws.idle(0, 1_000);
+    assertEquals(0, ws.getSpinCount());
+    ws.taskFound(0);
+    assertEquals(0, ws.getSpinCount());
+  }
+  
+  @Test
+  public void prioritySchedulerStrategiesTest() {
+    for (WaitStrategy ws : STRATEGIES) {
+      PriorityScheduler ps = 
+          new PriorityScheduler(2, TaskPriority.High, 
+                                AbstractPriorityScheduler.DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, 
+                                new ConfigurableThreadFactory(), false, 
+                                new WorkerOptions().setWaitStrategy(ws));
+      try {
+        verifyTasksRun(ps);
+      } finally {
+        ps.shutdownNow();
+      }
+    }
+  }
+  
+  @Test
+  public void unfairExecutorStrategiesTest() {
+    for (WaitStrategy ws : STRATEGIES) {
+      UnfairExecutor ue = new UnfairExecutor(2, new ConfigurableThreadFactory(), 
+                                             AtomicStripeGenerator.instance(), ws);
+      try {
+        verifyTasksRun(ue);
+      } finally {
+        ue.shutdownNow();
+      }
+    }
+  }
+  
+  @Test
+  public void singleThreadSchedulerStrategiesTest() {
+    for (WaitStrategy ws : STRATEGIES) {
+      SingleThreadScheduler sts = 
+          new SingleThreadScheduler(TaskPriority.High, 
+                                    AbstractPriorityScheduler.DEFAULT_LOW_PRIORITY_MAX_WAIT_IN_MS, 
+                                    new ConfigurableThreadFactory(), false, ws);
+      try {
+        verifyTasksRun(sts);
+      } finally {
+        sts.shutdownNow();
+      }
+    }
+  }
+  
+  private static void verifyTasksRun(SubmitterExecutor executor) {
+    List<TestRunnable> runnables = new ArrayList<>(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      TestRunnable tr = new TestRunnable();
+      runnables.add(tr);
+      executor.execute(tr);
+      if (i % 2 == 0) {
+        // allow threads to go idle between some tasks
+        tr.blockTillFinished();
+      }
+    }
+    for (TestRunnable tr : runnables) {
+      tr.blockTillFinished();
+    }
+  }
+}
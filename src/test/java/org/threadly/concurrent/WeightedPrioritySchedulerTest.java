@@ -0,0 +1,271 @@
+package org.threadly.concurrent;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+import org.threadly.BlockingTestRunnable;
+import org.threadly.ThreadlyTester;
+import org.threadly.concurrent.AbstractPriorityScheduler.WeightedQueueManager;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.test.concurrent.TestRunnable;
+
+@SuppressWarnings("javadoc")
+public class WeightedPrioritySchedulerTest extends ThreadlyTester {
+  private WeightedPriorityScheduler scheduler;
+  
+  @After
+  public void cleanup() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+      scheduler = null;
+    }
+  }
+  
+  @Test
+  public void constructorFail() {
+    try {
+      new WeightedPriorityScheduler(1, null);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new WeightedPriorityScheduler(1, new int[0]);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new WeightedPriorityScheduler(1, new int[] { 1, 0 });
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new WeightedPriorityScheduler(1, new int[] { WeightedQueueManager.MAX_WEIGHT + 1 });
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new WeightedPriorityScheduler(1, new int[WeightedQueueManager.MAX_CLASSES + 1]);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void getClassWeightTest() {
+    scheduler = new WeightedPriorityScheduler(1, new int[] { 8, 4, 1 });
+    
+    assertEquals(3, scheduler.getClassCount());
+    assertEquals(8, scheduler.getClassWeight(0));
+    assertEquals(4, scheduler.getClassWeight(1));
+    assertEquals(1, scheduler.getClassWeight(2));
+  }
+  
+  @Test
+  public void invalidClassFail() {
+    scheduler = new WeightedPriorityScheduler(1, new int[] { 2, 1 });
+    try {
+      scheduler.executeInClass(DoNothingRunnable.instance(), 2);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      scheduler.executeInClass(DoNothingRunnable.instance(), -1);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void executeAndSubmitTest() throws Exception {
+    scheduler = new WeightedPriorityScheduler(2, new int[] { 4, 2, 1 });
+    List<TestRunnable> runnables = new ArrayList<>(TEST_QTY);
+    List<ListenableFuture<?>> futures = new ArrayList<>(TEST_QTY);
+    for (int i = 0; i < TEST_QTY; i++) {
+      TestRunnable tr = new TestRunnable();
+      runnables.add(tr);
+      scheduler.executeInClass(tr, i % 3);
+      futures.add(scheduler.submitToClass(new TestRunnable(), i % 3));
+      futures.add(scheduler.submitToClass(() -> true, i % 3));
+    }
+    
+    for (TestRunnable tr : runnables) {
+      tr.blockTillFinished();
+    }
+    for (ListenableFuture<?> lf : futures) {
+      lf.get();
+    }
+    long executedCount = 0;
+    for (int i = 0; i < scheduler.getClassCount(); i++) {
+      executedCount += scheduler.getExecutedTaskCount(i);
+      assertTrue(scheduler.getAverageQueueWaitMillis(i) >= 0);
+    }
+    assertEquals(TEST_QTY * 3, executedCount);
+  }
+  
+  @Test
+  public void submitWithIntResultTest() throws Exception {
+    scheduler = new WeightedPriorityScheduler(1, new int[] { 2, 1 });
+    
+    assertEquals(Integer.valueOf(5), scheduler.submit(DoNothingRunnable.instance(), 5).get());
+  }
+  
+  @Test
+  public void scheduleTest() {
+    scheduler = new WeightedPriorityScheduler(1, new int[] { 2, 1 });
+    TestRunnable tr1 = new TestRunnable();
+    TestRunnable tr2 = new TestRunnable();
+    scheduler.schedule(tr1, DELAY_TIME, 0);
+    scheduler.submitScheduled(tr2, null, DELAY_TIME, 1);
+    
+    assertTrue(tr1.getDelayTillFirstRun() >= DELAY_TIME);
+    assertTrue(tr2.getDelayTillFirstRun() >= DELAY_TIME);
+  }
+  
+  @Test
+  public void recurringTest() {
+    scheduler = new WeightedPriorityScheduler(1, new int[] { 2, 1 });
+    TestRunnable tr = new TestRunnable();
+    scheduler.scheduleWithFixedDelay(tr, 0, DELAY_TIME, TaskPriority.Low);
+    
+    tr.blockTillFinished(DELAY_TIME * (CYCLE_COUNT + 2) * 10, CYCLE_COUNT);
+    assertTrue(scheduler.remove(tr));
+    assertTrue(scheduler.getExecutedTaskCount(1) >= CYCLE_COUNT);
+  }
+  
+  @Test
+  public void taskPriorityMappingTest() {
+    scheduler = new WeightedPriorityScheduler(1, new int[] { 4, 2, 1 });
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    try {
+      scheduler.execute(btr);
+      btr.blockTillStarted();
+      
+      scheduler.execute(DoNothingRunnable.instance(), TaskPriority.High);
+      scheduler.execute(DoNothingRunnable.instance(), TaskPriority.Low);
+      scheduler.executeInClass(DoNothingRunnable.instance(), 1);
+      scheduler.execute(DoNothingRunnable.instance(), TaskPriority.Starvable);
+      
+      assertEquals(1, scheduler.getQueuedTaskCount(0));
+      assertEquals(1, scheduler.getQueuedTaskCount(1));
+      assertEquals(1, scheduler.getQueuedTaskCount(2));
+      assertEquals(1, scheduler.getQueuedTaskCount(TaskPriority.High));
+      assertEquals(1, scheduler.getQueuedTaskCount(TaskPriority.Low));
+      assertEquals(4, scheduler.getQueuedTaskCount());
+      assertEquals(1, scheduler.getWaitingForExecutionTaskCount(2));
+    } finally {
+      btr.unblock();
+    }
+  }
+  
+  @Test
+  public void removeAndShutdownNowTest() {
+    scheduler = new WeightedPriorityScheduler(1, new int[] { 4, 2, 1 });
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    try {
+      scheduler.execute(btr);
+      btr.blockTillStarted();
+      
+      TestRunnable removed = new TestRunnable();
+      TestRunnable remaining = new TestRunnable();
+      scheduler.executeInClass(removed, 1);
+      scheduler.executeInClass(remaining, 1);
+      
+      assertTrue(scheduler.remove(removed));
+      assertFalse(scheduler.remove(removed));
+      assertEquals(1, scheduler.removeIf((r) -> r == remaining));
+      
+      scheduler.executeInClass(remaining, 1);
+      List<Runnable> result = scheduler.shutdownNow();
+      assertEquals(1, result.size());
+      assertTrue(result.get(0) == remaining);
+    } finally {
+      btr.unblock();
+    }
+  }
+  
+  private List<Integer> runBacklog(int[] classTaskCounts) {
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    scheduler.execute(btr);
+    btr.blockTillStarted();
+    
+    List<Integer> executionOrder = Collections.synchronizedList(new ArrayList<>());
+    for (int i = 0; i < classTaskCounts.length; i++) {
+      for (int j = 0; j < classTaskCounts[i]; j++) {
+        int weightedClass = i;
+        scheduler.executeInClass(() -> executionOrder.add(weightedClass), weightedClass);
+      }
+    }
+    // add a final task to know once all others have run
+    TestRunnable finalTask = new TestRunnable();
+    scheduler.execute(finalTask, TaskPriority.Starvable);
+    
+    btr.unblock();
+    finalTask.blockTillFinished();
+    return executionOrder;
+  }
+  
+  private static int countClass(List<Integer> executionOrder, int count, int weightedClass) {
+    int result = 0;
+    for (int i = 0; i < count; i++) {
+      if (executionOrder.get(i) == weightedClass) {
+        result++;
+      }
+    }
+    return result;
+  }
+  
+  @Test
+  public void weightedShareTest() {
+    scheduler = new WeightedPriorityScheduler(1, new int[] { 3, 1 });
+    
+    List<Integer> executionOrder = runBacklog(new int[] { 100, 100 });
+    
+    assertEquals(200, executionOrder.size());
+    // while both classes have tasks the first class should receive three times the executions
+    int firstClassCount = countClass(executionOrder, 100, 0);
+    assertTrue(firstClassCount >= 74 && firstClassCount <= 76);
+    assertEquals(101, scheduler.getExecutedTaskCount(0));  // includes blocking task
+    assertEquals(100, scheduler.getExecutedTaskCount(1));
+  }
+  
+  @Test
+  public void idleClassNoCreditTest() {
+    scheduler = new WeightedPriorityScheduler(1, new int[] { 1, 1 });
+    
+    // only the first class executes, the second class should not build up credit from this
+    runBacklog(new int[] { 100, 0 });
+    List<Integer> executionOrder = runBacklog(new int[] { 20, 20 });
+    
+    int secondClassCount = countClass(executionOrder, 20, 1);
+    assertTrue(secondClassCount >= 9 && secondClassCount <= 11);
+  }
+  
+  @Test
+  public void manyClassesTest() {
+    int[] weights = new int[10];
+    int[] taskCounts = new int[weights.length];
+    for (int i = 0; i < weights.length; i++) {
+      weights[i] = i + 1;
+      taskCounts[i] = TEST_QTY;
+    }
+    scheduler = new WeightedPriorityScheduler(1, weights);
+    
+    List<Integer> executionOrder = runBacklog(taskCounts);
+    
+    assertEquals(TEST_QTY * weights.length, executionOrder.size());
+    // the heaviest class should finish its tasks before the lightest class
+    assertTrue(executionOrder.lastIndexOf(weights.length - 1) < executionOrder.lastIndexOf(0));
+  }
+}
@@ -0,0 +1,241 @@
+package org.threadly.concurrent.wrapper;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.threadly.ThreadlyTester;
+import org.threadly.concurrent.PriorityScheduler;
+import org.threadly.concurrent.SameThreadSubmitterExecutor;
+import org.threadly.test.concurrent.TestCondition;
+import org.threadly.test.concurrent.TestableScheduler;
+import org.threadly.util.ExceptionUtils;
+import org.threadly.util.SuppressedStackRuntimeException;
+import org.threadly.util.TestExceptionHandler;
+
+@SuppressWarnings("javadoc")
+public class KeyDistributedBatchingExecutorTest extends ThreadlyTester {
+  private static final int MAX_BATCH_SIZE = 3;
+  private static final int LINGER_TIME = 100;
+  
+  private TestableScheduler scheduler;
+  private List<List<Integer>> batches;
+  private KeyDistributedBatchingExecutor<Integer> batcher;
+  
+  @Before
+  public void setup() {
+    scheduler = new TestableScheduler();
+    batches = Collections.synchronizedList(new ArrayList<>());
+    batcher = new KeyDistributedBatchingExecutor<>(scheduler, MAX_BATCH_SIZE, 0, batches::add);
+  }
+  
+  @Test
+  public void constructorFail() {
+    try {
+      new KeyDistributedBatchingExecutor<>(null, 1, (l) -> { });
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new KeyDistributedBatchingExecutor<>(scheduler, 0, (l) -> { });
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new KeyDistributedBatchingExecutor<>(scheduler, 1, -1, (l) -> { });
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new KeyDistributedBatchingExecutor<>(scheduler, 1, null);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void addFail() {
+    batcher.add(null, 1);
+  }
+  
+  @Test
+  public void pendingItemsBatchedTest() {
+    batcher.add("foo", 1);
+    batcher.add("foo", 2);
+    batcher.add("bar", 3);
+    assertEquals(2, batcher.getPendingItemCount("foo"));
+    assertEquals(1, batcher.getPendingItemCount("bar"));
+    
+    assertEquals(2, scheduler.tick());
+    
+    assertEquals(2, batches.size());
+    assertTrue(batches.contains(Arrays.asList(1, 2)));
+    assertTrue(batches.contains(Arrays.asList(3)));
+    assertEquals(0, batcher.getPendingItemCount("foo"));
+    assertTrue(batcher.batchWorkers.isEmpty());
+  }
+  
+  @Test
+  public void maxBatchSizeTest() {
+    for (int i = 0; i < MAX_BATCH_SIZE * 2 + 1; i++) {
+      batcher.add("foo", i);
+    }
+    
+    // worker yields and re-executes between each batch
+    assertEquals(3, scheduler.tick());
+    assertEquals(3, batches.size());
+    assertEquals(Arrays.asList(0, 1, 2), batches.get(0));
+    assertEquals(Arrays.asList(3, 4, 5), batches.get(1));
+    assertEquals(Arrays.asList(6), batches.get(2));
+    assertTrue(batcher.batchWorkers.isEmpty());
+  }
+  
+  @Test
+  public void itemsAddedWhileProcessingTest() {
+    batcher.add("foo", 1);
+    scheduler.tick();
+    batcher.add("foo", 2);
+    batcher.add("foo", 3);
+    scheduler.tick();
+    
+    assertEquals(Arrays.asList(1), batches.get(0));
+    assertEquals(Arrays.asList(2, 3), batches.get(1));
+  }
+  
+  @Test
+  public void lingerTest() {
+    KeyDistributedBatchingExecutor<Integer> batcher = 
+        new KeyDistributedBatchingExecutor<>(scheduler, MAX_BATCH_SIZE, LINGER_TIME, batches::add);
+    batcher.add("foo", 1);
+    
+    assertEquals(0, scheduler.advance(0));
+    batcher.add("foo", 2);
+    assertEquals(0, scheduler.advance(LINGER_TIME - 1));
+    assertTrue(batches.isEmpty());
+    
+    assertEquals(1, scheduler.advance(1));
+    assertEquals(1, batches.size());
+    assertEquals(Arrays.asList(1, 2), batches.get(0));
+  }
+  
+  @Test
+  public void lingerEndedByFullBatchTest() {
+    KeyDistributedBatchingExecutor<Integer> batcher = 
+        new KeyDistributedBatchingExecutor<>(scheduler, MAX_BATCH_SIZE, LINGER_TIME, batches::add);
+    for (int i = 0; i < MAX_BATCH_SIZE; i++) {
+      batcher.add("foo", i);
+    }
+    
+    assertEquals(1, scheduler.tick());
+    assertEquals(Arrays.asList(0, 1, 2), batches.get(0));
+    
+    // original linger task should do nothing
+    scheduler.advance(LINGER_TIME);
+    assertEquals(1, batches.size());
+  }
+  
+  @Test
+  public void lingerScheduledOutsideOfComputeTest() {
+    AtomicReference<KeyDistributedBatchingExecutor<Integer>> batcherRef = new AtomicReference<>();
+    List<Integer> pendingWhenScheduled = new ArrayList<>();
+    TestableScheduler scheduler = new TestableScheduler() {
+      @Override
+      public void schedule(Runnable task, long delayInMs) {
+        // would be a recursive update if this was invoked within compute for the key
+        pendingWhenScheduled.add(batcherRef.get().getPendingItemCount("foo"));
+        super.schedule(task, delayInMs);
+      }
+    };
+    batcherRef.set(new KeyDistributedBatchingExecutor<>(scheduler, MAX_BATCH_SIZE, LINGER_TIME, 
+                                                        batches::add));
+    batcherRef.get().add("foo", 1);
+    
+    assertEquals(Collections.singletonList(1), pendingWhenScheduled);
+    assertEquals(1, scheduler.advance(LINGER_TIME));
+    assertEquals(Collections.singletonList(Collections.singletonList(1)), batches);
+  }
+  
+  @Test
+  public void flushTest() {
+    KeyDistributedBatchingExecutor<Integer> batcher = 
+        new KeyDistributedBatchingExecutor<>(scheduler, MAX_BATCH_SIZE, LINGER_TIME, batches::add);
+    batcher.add("foo", 1);
+    batcher.add("bar", 2);
+    batcher.flush();
+    
+    assertEquals(2, scheduler.tick());
+    assertEquals(2, batches.size());
+    
+    scheduler.advance(LINGER_TIME);
+    assertEquals(2, batches.size());
+  }
+  
+  @Test
+  public void consumerExceptionTest() {
+    TestExceptionHandler teh = new TestExceptionHandler();
+    ExceptionUtils.setThreadExceptionHandler(teh);
+    try {
+      RuntimeException failure = new SuppressedStackRuntimeException();
+      KeyDistributedBatchingExecutor<Integer> batcher = 
+          new KeyDistributedBatchingExecutor<>(SameThreadSubmitterExecutor.instance(), 
+                                               MAX_BATCH_SIZE, (batch) -> { throw failure; });
+      batcher.add("foo", 1);
+      
+      assertEquals(1, teh.getCallCount());
+      assertTrue(teh.getLastThrowable() == failure);
+      assertTrue(batcher.batchWorkers.isEmpty());
+    } finally {
+      ExceptionUtils.setThreadExceptionHandler(null);
+    }
+  }
+  
+  @Test
+  public void concurrentOrderTest() {
+    PriorityScheduler ps = new PriorityScheduler(4);
+    try {
+      int keyCount = 4;
+      List<List<Integer>> results = new ArrayList<>(keyCount);
+      for (int i = 0; i < keyCount; i++) {
+        results.add(Collections.synchronizedList(new ArrayList<>()));
+      }
+      KeyDistributedBatchingExecutor<int[]> batcher = 
+          new KeyDistributedBatchingExecutor<>(ps, MAX_BATCH_SIZE, 1, (batch) -> {
+            assertTrue(batch.size() <= MAX_BATCH_SIZE);
+            for (int[] item : batch) {
+              results.get(item[0]).add(item[1]);
+            }
+          });
+      for (int i = 0; i < TEST_QTY * 10; i++) {
+        for (int k = 0; k < keyCount; k++) {
+          batcher.add(k, new int[] { k, i });
+        }
+      }
+      
+      new TestCondition(() -> {
+        for (List<Integer> keyResult : results) {
+          if (keyResult.size() != TEST_QTY * 10) {
+            return false;
+          }
+        }
+        return true;
+      }).blockTillTrue();
+      for (List<Integer> keyResult : results) {
+        for (int i = 0; i < keyResult.size(); i++) {
+          assertEquals(i, (int)keyResult.get(i));
+        }
+      }
+    } finally {
+      ps.shutdownNow();
+    }
+  }
+}
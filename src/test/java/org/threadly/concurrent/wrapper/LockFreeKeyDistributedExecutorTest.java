@@ -0,0 +1,172 @@
+package org.threadly.concurrent.wrapper;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.threadly.BlockingTestRunnable;
+import org.threadly.concurrent.DoNothingRunnable;
+import org.threadly.concurrent.SameThreadSubmitterExecutor;
+import org.threadly.concurrent.UnfairExecutor;
+import org.threadly.concurrent.future.FutureUtils;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.test.concurrent.TestRunnable;
+
+@SuppressWarnings("javadoc")
+public class LockFreeKeyDistributedExecutorTest extends KeyDistributedExecutorTest {
+  @Before
+  @Override
+  public void setup() {
+    executor = new UnfairExecutor((TEST_QTY * 2) + 1);
+    distributor = new LockFreeKeyDistributedExecutor(executor);
+  }
+  
+  @Test
+  public void lockFreeConstructorFail() {
+    try {
+      new LockFreeKeyDistributedExecutor(null);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new LockFreeKeyDistributedExecutor(executor, 0);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new LockFreeKeyDistributedExecutor(executor, 1, -1);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void workerRecycledTest() {
+    LockFreeKeyDistributedExecutor kde = 
+        new LockFreeKeyDistributedExecutor(SameThreadSubmitterExecutor.instance());
+    TestRunnable tr = new TestRunnable();
+    kde.execute("foo", tr);
+    
+    assertEquals(1, tr.getRunCount());
+    assertTrue(kde.keyWorkers.isEmpty());
+    assertEquals(1, kde.recycledWorkerCount.get());
+    
+    // next key should reuse the idle worker
+    kde.execute("bar", () -> {
+      assertEquals(0, kde.recycledWorkerCount.get());
+      assertEquals(1, kde.getTaskQueueSize("bar"));
+    });
+    assertEquals(1, kde.recycledWorkerCount.get());
+    assertEquals(0, kde.getTaskQueueSize("bar"));
+  }
+  
+  @Test
+  public void recyclingDisabledTest() {
+    LockFreeKeyDistributedExecutor kde = 
+        new LockFreeKeyDistributedExecutor(SameThreadSubmitterExecutor.instance(), 
+                                           Integer.MAX_VALUE, 0);
+    TestRunnable tr = new TestRunnable();
+    kde.execute("foo", tr);
+    
+    assertEquals(1, tr.getRunCount());
+    assertTrue(kde.keyWorkers.isEmpty());
+    assertEquals(0, kde.recycledWorkerCount.get());
+  }
+  
+  @Test
+  public void lockFreeGetTaskQueueSizeTest() {
+    Object taskKey = new Object();
+    LockFreeKeyDistributedExecutor kde = new LockFreeKeyDistributedExecutor(executor);
+    
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    try {
+      kde.execute(taskKey, btr);
+      kde.execute(taskKey, DoNothingRunnable.instance());
+      kde.execute(taskKey, DoNothingRunnable.instance());
+      btr.blockTillStarted();
+      
+      // running task is included in the size
+      assertEquals(3, kde.getTaskQueueSize(taskKey));
+      assertEquals((Integer)3, kde.getTaskQueueSizeMap().get(taskKey));
+    } finally {
+      btr.unblock();
+    }
+  }
+  
+  @Test
+  public void lockFreeLimitExecutionPerCycleTest() {
+    AtomicInteger execCount = new AtomicInteger(0);
+    LockFreeKeyDistributedExecutor distributor = new LockFreeKeyDistributedExecutor((command) -> {
+      execCount.incrementAndGet();
+      
+      new Thread(command).start();
+    }, 1);
+    
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    distributor.execute(this, btr);
+    btr.blockTillStarted();
+    
+    // add second task while we know worker is active
+    TestRunnable secondTask = new TestRunnable();
+    distributor.execute(this, secondTask);
+    
+    assertEquals(1, distributor.keyWorkers.size());
+    assertEquals(2, distributor.getTaskQueueSize(this));
+    
+    btr.unblock();
+    
+    secondTask.blockTillFinished();
+    
+    // verify worker execed out between task
+    assertEquals(2, execCount.get());
+  }
+  
+  @Test
+  public void keyChurnOrderTest() throws Exception {
+    int keyCount = 20;
+    UnfairExecutor producerPool = new UnfairExecutor(4);
+    try {
+      List<List<Integer>> results = new ArrayList<>(keyCount);
+      for (int i = 0; i < keyCount; i++) {
+        results.add(Collections.synchronizedList(new ArrayList<>()));
+      }
+      // keys frequently go idle while producers are adding, forcing workers to retire and recycle
+      List<ListenableFuture<?>> futures = new ArrayList<>(keyCount);
+      for (int k = 0; k < keyCount; k++) {
+        int key = k;
+        futures.add(producerPool.submit(() -> {
+          for (int i = 0; i < TEST_QTY * 10; i++) {
+            int value = i;
+            distributor.execute(key, () -> results.get(key).add(value));
+            if (i % 10 == 0) {
+              Thread.yield();
+            }
+          }
+        }));
+      }
+      FutureUtils.blockTillAllCompleteOrFirstError(futures);
+      
+      List<ListenableFuture<?>> lastTasks = new ArrayList<>(keyCount);
+      for (int k = 0; k < keyCount; k++) {
+        lastTasks.add(distributor.submit(k, DoNothingRunnable.instance()));
+      }
+      FutureUtils.blockTillAllCompleteOrFirstError(lastTasks);
+      for (List<Integer> keyResult : results) {
+        assertEquals(TEST_QTY * 10, keyResult.size());
+        for (int i = 0; i < keyResult.size(); i++) {
+          assertEquals(i, (int)keyResult.get(i));
+        }
+      }
+    } finally {
+      producerPool.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,74 @@
+package org.threadly.concurrent.wrapper;
+
+import static org.junit.Assert.*;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.threadly.BlockingTestRunnable;
+import org.threadly.concurrent.DoNothingRunnable;
+import org.threadly.concurrent.UnfairExecutor;
+
+@SuppressWarnings("javadoc")
+public class StripedKeyDistributedExecutorTest extends KeyDistributedExecutorTest {
+  private static final int STRIPE_COUNT = 7;
+  
+  @Before
+  @Override
+  public void setup() {
+    executor = new UnfairExecutor((TEST_QTY * 2) + 1);
+    distributor = new StripedKeyDistributedExecutor(executor, STRIPE_COUNT);
+  }
+  
+  @Test
+  public void stripedConstructorFail() {
+    try {
+      new StripedKeyDistributedExecutor(null, 1);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new StripedKeyDistributedExecutor(executor, 0);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new StripedKeyDistributedExecutor(executor, 1, 0);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void getStripeTest() {
+    StripedKeyDistributedExecutor kde = (StripedKeyDistributedExecutor)distributor;
+    assertEquals(STRIPE_COUNT, kde.getStripeCount());
+    for (int i = 0; i < TEST_QTY; i++) {
+      assertTrue(kde.getStripe(i) == kde.getStripe(i));
+    }
+  }
+  
+  @Test
+  public void sharedStripeQueueSizeTest() {
+    StripedKeyDistributedExecutor kde = new StripedKeyDistributedExecutor(executor, 1);
+    BlockingTestRunnable btr = new BlockingTestRunnable();
+    try {
+      kde.execute("foo", btr);
+      btr.blockTillStarted();
+      // a different key on the same stripe must wait
+      kde.execute("bar", DoNothingRunnable.instance());
+      
+      assertEquals(2, kde.getTaskQueueSize("foo"));
+      assertEquals(2, kde.getTaskQueueSize("bar"));
+      Map<Object, Integer> sizeMap = kde.getTaskQueueSizeMap();
+      assertEquals(1, sizeMap.size());
+      assertEquals((Integer)2, sizeMap.get(0));
+    } finally {
+      btr.unblock();
+    }
+  }
+}
@@ -0,0 +1,154 @@
+package org.threadly.concurrent.wrapper.limiter;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.threadly.ThreadlyTester;
+import org.threadly.concurrent.DoNothingRunnable;
+import org.threadly.concurrent.SameThreadSubmitterExecutor;
+import org.threadly.util.Clock;
+
+@SuppressWarnings("javadoc")
+public class AdaptiveExecutorLimiterTest extends ThreadlyTester {
+  private static final long BASE_LATENCY_NANOS = Clock.NANOS_IN_MILLISECOND;
+  
+  private static AdaptiveExecutorLimiter makeLimiter(int min, int max, int initial) {
+    return new AdaptiveExecutorLimiter(SameThreadSubmitterExecutor.instance(), min, max, initial);
+  }
+  
+  private static void sampleWindow(AdaptiveExecutorLimiter limiter, long latencyNanos, 
+                                   int runningCount) {
+    for (int i = 0; i < AdaptiveExecutorLimiter.MIN_WINDOW_SAMPLES; i++) {
+      limiter.handleSample(latencyNanos, runningCount);
+    }
+  }
+  
+  @Test
+  @SuppressWarnings("unused")
+  public void constructorFail() {
+    try {
+      new AdaptiveExecutorLimiter(null, 1, 10);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      makeLimiter(0, 10, 1);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      makeLimiter(10, 5, 10);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      makeLimiter(5, 10, 11);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void getterTest() {
+    AdaptiveExecutorLimiter limiter = new AdaptiveExecutorLimiter(SameThreadSubmitterExecutor.instance(), 2, 20);
+    
+    assertEquals(2, limiter.getMinConcurrency());
+    assertEquals(20, limiter.getMaxConcurrencyBound());
+    assertEquals(2, limiter.getMaxConcurrency());
+    assertEquals(-1, limiter.getNoLoadLatencyMillis(), 0);
+  }
+  
+  @Test
+  public void setMaxConcurrencyFail() {
+    AdaptiveExecutorLimiter limiter = makeLimiter(2, 20, 10);
+    try {
+      limiter.setMaxConcurrency(1);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      limiter.setMaxConcurrency(21);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void executeRecordsLatencyTest() {
+    AdaptiveExecutorLimiter limiter = makeLimiter(1, 10, 1);
+    for (int i = 0; i < AdaptiveExecutorLimiter.MIN_WINDOW_SAMPLES; i++) {
+      limiter.execute(DoNothingRunnable.instance());
+    }
+    
+    assertTrue(limiter.getNoLoadLatencyMillis() >= 0);
+    assertEquals(0, limiter.runningTasks.get());
+  }
+  
+  @Test
+  public void increaseWithStableLatencyTest() {
+    AdaptiveExecutorLimiter limiter = makeLimiter(1, 100, 10);
+    for (int i = 0; i < 10; i++) {
+      sampleWindow(limiter, BASE_LATENCY_NANOS, limiter.getMaxConcurrency());
+    }
+    
+    assertTrue(limiter.getMaxConcurrency() > 10);
+    assertEquals(1, limiter.getNoLoadLatencyMillis(), 0);
+  }
+  
+  @Test
+  public void noIncreaseWhenUnderutilizedTest() {
+    AdaptiveExecutorLimiter limiter = makeLimiter(1, 100, 10);
+    for (int i = 0; i < 10; i++) {
+      sampleWindow(limiter, BASE_LATENCY_NANOS, 1);
+    }
+    
+    assertEquals(10, limiter.getMaxConcurrency());
+  }
+  
+  @Test
+  public void decreaseWithLatencyIncreaseTest() {
+    AdaptiveExecutorLimiter limiter = makeLimiter(5, 100, 50);
+    sampleWindow(limiter, BASE_LATENCY_NANOS, 50);
+    int startLimit = limiter.getMaxConcurrency();
+    
+    sampleWindow(limiter, BASE_LATENCY_NANOS * 10, startLimit);
+    assertTrue(limiter.getMaxConcurrency() < startLimit);
+    
+    for (int i = 0; i < 100; i++) {
+      sampleWindow(limiter, BASE_LATENCY_NANOS * 10, limiter.getMaxConcurrency());
+    }
+    // no-load estimate drifts up, but only slowly
+    assertTrue(limiter.getNoLoadLatencyMillis() > 1);
+    assertTrue(limiter.getNoLoadLatencyMillis() < 10);
+    assertTrue(limiter.getMaxConcurrency() >= 5);
+  }
+  
+  @Test
+  public void limitBoundsTest() {
+    AdaptiveExecutorLimiter limiter = makeLimiter(2, 8, 2);
+    for (int i = 0; i < 100; i++) {
+      sampleWindow(limiter, BASE_LATENCY_NANOS, limiter.getMaxConcurrency());
+    }
+    assertEquals(8, limiter.getMaxConcurrency());
+    
+    for (int i = 0; i < 50; i++) {
+      sampleWindow(limiter, BASE_LATENCY_NANOS * 100, limiter.getMaxConcurrency());
+    }
+    assertEquals(2, limiter.getMaxConcurrency());
+  }
+  
+  @Test
+  public void setMaxConcurrencyResetsEstimateTest() {
+    AdaptiveExecutorLimiter limiter = makeLimiter(1, 100, 10);
+    limiter.setMaxConcurrency(50);
+    sampleWindow(limiter, BASE_LATENCY_NANOS, 50);
+    
+    assertTrue(limiter.getMaxConcurrency() >= 50);
+  }
+}
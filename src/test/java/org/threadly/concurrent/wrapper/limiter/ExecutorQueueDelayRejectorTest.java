@@ -0,0 +1,218 @@
+package org.threadly.concurrent.wrapper.limiter;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.Test;
+import org.threadly.concurrent.DoNothingRunnable;
+import org.threadly.concurrent.PrioritySchedulerTest.PrioritySchedulerFactory;
+import org.threadly.concurrent.SubmitterExecutor;
+import org.threadly.concurrent.SubmitterExecutorInterfaceTest;
+import org.threadly.concurrent.wrapper.limiter.ExecutorQueueDelayRejector.QueueDelayState;
+import org.threadly.test.concurrent.TestUtils;
+import org.threadly.test.concurrent.TestableScheduler;
+import org.threadly.util.Clock;
+
+@SuppressWarnings("javadoc")
+public class ExecutorQueueDelayRejectorTest extends SubmitterExecutorInterfaceTest {
+  private static final int TARGET_DELAY = 10;
+  private static final int INTERVAL = 100;
+  
+  @Override
+  protected SubmitterExecutorFactory getSubmitterExecutorFactory() {
+    return new ExecutorQueueDelayRejectorFactory();
+  }
+  
+  private static ExecutorQueueDelayRejector makeRejector() {
+    return new ExecutorQueueDelayRejector(new TestableScheduler(), TARGET_DELAY, INTERVAL);
+  }
+  
+  private static void startShedding(ExecutorQueueDelayRejector queueRejector, long now) {
+    // shedding only continues while tasks are queued
+    queueRejector.execute(DoNothingRunnable.instance());
+    queueRejector.handleTaskStarted(TARGET_DELAY, now);
+    queueRejector.handleTaskStarted(TARGET_DELAY, now + INTERVAL);
+  }
+  
+  @Test
+  @SuppressWarnings("unused")
+  public void constructorFail() {
+    try {
+      new ExecutorQueueDelayRejector(null);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new ExecutorQueueDelayRejector(new TestableScheduler(), -1, INTERVAL);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      new ExecutorQueueDelayRejector(new TestableScheduler(), TARGET_DELAY, 0);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void getQueuedTaskCountTest() {
+    TestableScheduler testableScheduler = new TestableScheduler();
+    ExecutorQueueDelayRejector queueRejector = 
+        new ExecutorQueueDelayRejector(testableScheduler, TARGET_DELAY, INTERVAL);
+    
+    for (int i = 0; i < TEST_QTY; i++) {
+      assertEquals(i, queueRejector.getQueuedTaskCount());
+      queueRejector.execute(DoNothingRunnable.instance());
+    }
+    
+    testableScheduler.tick();
+    
+    assertEquals(0, queueRejector.getQueuedTaskCount());
+    assertEquals(QueueDelayState.Normal, queueRejector.getState());
+  }
+  
+  @Test
+  public void briefDelayAboveTargetTest() {
+    ExecutorQueueDelayRejector queueRejector = makeRejector();
+    long now = Clock.accurateForwardProgressingMillis();
+    
+    queueRejector.handleTaskStarted(TARGET_DELAY, now);
+    assertEquals(QueueDelayState.AboveTarget, queueRejector.getState());
+    queueRejector.handleTaskStarted(TARGET_DELAY, now + INTERVAL - 1);
+    assertEquals(QueueDelayState.AboveTarget, queueRejector.getState());
+    assertFalse(queueRejector.shouldReject(now + INTERVAL - 1));
+    
+    // one fast task resets the interval
+    queueRejector.handleTaskStarted(0, now + INTERVAL - 1);
+    assertEquals(QueueDelayState.Normal, queueRejector.getState());
+    queueRejector.handleTaskStarted(TARGET_DELAY, now + INTERVAL);
+    assertEquals(QueueDelayState.AboveTarget, queueRejector.getState());
+  }
+  
+  @Test
+  public void sheddingRejectionRateTest() {
+    ExecutorQueueDelayRejector queueRejector = makeRejector();
+    long now = Clock.accurateForwardProgressingMillis();
+    startShedding(queueRejector, now);
+    now += INTERVAL;
+    assertEquals(QueueDelayState.Shedding, queueRejector.getState());
+    
+    assertTrue(queueRejector.shouldReject(now));
+    assertFalse(queueRejector.shouldReject(now + INTERVAL - 1));
+    assertTrue(queueRejector.shouldReject(now += INTERVAL));
+    // time between rejections shrinks as rejections continue
+    long secondDelay = (long)(INTERVAL / Math.sqrt(2));
+    assertFalse(queueRejector.shouldReject(now + secondDelay - 1));
+    assertTrue(queueRejector.shouldReject(now + secondDelay));
+    assertEquals(3, queueRejector.getSheddingRejectCount());
+  }
+  
+  @Test
+  public void stopSheddingTest() {
+    ExecutorQueueDelayRejector queueRejector = makeRejector();
+    long now = Clock.accurateForwardProgressingMillis();
+    startShedding(queueRejector, now);
+    
+    queueRejector.handleTaskStarted(TARGET_DELAY - 1, now + INTERVAL);
+    assertEquals(QueueDelayState.Normal, queueRejector.getState());
+    assertFalse(queueRejector.shouldReject(now + INTERVAL));
+  }
+  
+  @Test
+  public void resumeSheddingRateTest() {
+    ExecutorQueueDelayRejector queueRejector = makeRejector();
+    long now = Clock.accurateForwardProgressingMillis();
+    startShedding(queueRejector, now);
+    for (int i = 0; i < 10; i++) {
+      now += INTERVAL;
+      assertTrue(queueRejector.shouldReject(now));
+    }
+    queueRejector.handleTaskStarted(0, now);
+    
+    startShedding(queueRejector, now);
+    // resumed from the prior rejection count rather than starting over
+    assertEquals(10, queueRejector.getSheddingRejectCount());
+  }
+  
+  @Test
+  public void rejectWhileSheddingTest() {
+    TestableScheduler testableScheduler = new TestableScheduler();
+    ExecutorQueueDelayRejector queueRejector = 
+        new ExecutorQueueDelayRejector(testableScheduler, TARGET_DELAY, INTERVAL);
+    startShedding(queueRejector, Clock.accurateForwardProgressingMillis() - INTERVAL);
+    
+    try {
+      queueRejector.execute(DoNothingRunnable.instance());
+      fail("Exception should have thrown");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+    // tasks are only periodically rejected
+    queueRejector.execute(DoNothingRunnable.instance());
+    
+    assertEquals(1, queueRejector.getRejectedTaskCount());
+    assertEquals(2, queueRejector.getQueuedTaskCount());
+    assertEquals(2, testableScheduler.tick());
+  }
+  
+  @Test
+  public void stopSheddingOnceDrainedTest() {
+    TestableScheduler testableScheduler = new TestableScheduler();
+    ExecutorQueueDelayRejector queueRejector = 
+        new ExecutorQueueDelayRejector(testableScheduler, TARGET_DELAY, INTERVAL);
+    startShedding(queueRejector, Clock.accurateForwardProgressingMillis() - INTERVAL);
+    assertEquals(QueueDelayState.Shedding, queueRejector.getState());
+    // overload ends and the queue drains, without any task reporting a low delay
+    TestUtils.sleep(TARGET_DELAY * 2);
+    assertEquals(1, testableScheduler.tick());
+    assertEquals(QueueDelayState.Shedding, queueRejector.getState());
+    assertEquals(0, queueRejector.getQueuedTaskCount());
+    
+    queueRejector.execute(DoNothingRunnable.instance());
+    
+    assertEquals(QueueDelayState.Normal, queueRejector.getState());
+    assertEquals(0, queueRejector.getRejectedTaskCount());
+    assertEquals(1, queueRejector.getQueuedTaskCount());
+  }
+  
+  @Test
+  public void rejectedExecutionExceptionCountTest() {
+    ExecutorQueueDelayRejector queueRejector = new ExecutorQueueDelayRejector(new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        throw new RejectedExecutionException();
+      }
+    });
+    
+    try {
+      queueRejector.execute(DoNothingRunnable.instance());
+      fail("Exception should have thrown");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+    
+    assertEquals(0, queueRejector.getQueuedTaskCount());
+    assertEquals(0, queueRejector.getRejectedTaskCount());
+  }
+  
+  private static class ExecutorQueueDelayRejectorFactory implements SubmitterExecutorFactory {
+    private final PrioritySchedulerFactory schedulerFactory = new PrioritySchedulerFactory();
+    
+    @Override
+    public SubmitterExecutor makeSubmitterExecutor(int poolSize, boolean prestartIfAvailable) {
+      SubmitterExecutor executor = schedulerFactory.makeSubmitterExecutor(poolSize, prestartIfAvailable);
+      // interface tests may queue for a while, make sure they are never shed
+      return new ExecutorQueueDelayRejector(executor, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+    
+    @Override
+    public void shutdown() {
+      schedulerFactory.shutdown();
+    }
+  }
+}
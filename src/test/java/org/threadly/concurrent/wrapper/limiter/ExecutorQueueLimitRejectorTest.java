@@ -2,6 +2,9 @@ package org.threadly.concurrent.wrapper.limiter;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.concurrent.RejectedExecutionException;
 
@@ -10,7 +13,11 @@ import org.threadly.concurrent.DoNothingRunnable;
 import org.threadly.concurrent.PrioritySchedulerTest.PrioritySchedulerFactory;
 import org.threadly.concurrent.SubmitterExecutor;
 import org.threadly.concurrent.SubmitterExecutorInterfaceTest;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.test.concurrent.TestCondition;
+import org.threadly.test.concurrent.TestRunnable;
 import org.threadly.test.concurrent.TestableScheduler;
+import org.threadly.util.Clock;
 
 @SuppressWarnings("javadoc")
 public class ExecutorQueueLimitRejectorTest extends SubmitterExecutorInterfaceTest {
@@ -95,6 +102,96 @@ public class ExecutorQueueLimitRejectorTest extends SubmitterExecutorInterfaceTe
     assertEquals(0, queueRejector.getQueuedTaskCount());
   }
   
+  @Test (expected = IllegalArgumentException.class)
+  @SuppressWarnings("unused")
+  public void blockingConstructorFail() {
+    new ExecutorQueueLimitRejector(new TestableScheduler(), TEST_QTY, -1, null);
+  }
+  
+  @Test
+  public void awaitCapacityAlreadyAvailableTest() {
+    ExecutorQueueLimitRejector queueRejector = 
+        new ExecutorQueueLimitRejector(new TestableScheduler(), TEST_QTY);
+    
+    assertTrue(queueRejector.awaitCapacity().isDone());
+  }
+  
+  @Test
+  public void awaitCapacityTest() {
+    List<Runnable> queuedTasks = new ArrayList<>();
+    ExecutorQueueLimitRejector queueRejector = new ExecutorQueueLimitRejector(queuedTasks::add, 2);
+    queueRejector.execute(DoNothingRunnable.instance());
+    queueRejector.execute(DoNothingRunnable.instance());
+    
+    ListenableFuture<?> cancelledFuture = queueRejector.awaitCapacity();
+    ListenableFuture<?> future1 = queueRejector.awaitCapacity();
+    ListenableFuture<?> future2 = queueRejector.awaitCapacity();
+    assertFalse(future1.isDone());
+    assertTrue(cancelledFuture.cancel(false));
+    
+    // woken in order, one for each task started, skipping cancelled waiters
+    queuedTasks.remove(0).run();
+    assertTrue(future1.isDone());
+    assertFalse(future2.isDone());
+    
+    queuedTasks.remove(0).run();
+    assertTrue(future2.isDone());
+  }
+  
+  @Test
+  public void awaitCapacityIncreaseLimitTest() {
+    ExecutorQueueLimitRejector queueRejector = 
+        new ExecutorQueueLimitRejector(new TestableScheduler(), 1);
+    queueRejector.execute(DoNothingRunnable.instance());
+    ListenableFuture<?> future1 = queueRejector.awaitCapacity();
+    ListenableFuture<?> future2 = queueRejector.awaitCapacity();
+    
+    queueRejector.setQueueLimit(2);
+    assertTrue(future1.isDone());
+    assertFalse(future2.isDone());
+  }
+  
+  @Test
+  public void blockForCapacityTest() throws InterruptedException {
+    List<Runnable> queuedTasks = new CopyOnWriteArrayList<>();
+    ExecutorQueueLimitRejector queueRejector = 
+        new ExecutorQueueLimitRejector(queuedTasks::add, 1, 10_000, null);
+    assertEquals(10_000, queueRejector.getBlockTimeoutMillis());
+    queueRejector.execute(DoNothingRunnable.instance());
+    
+    TestRunnable blockedTask = new TestRunnable();
+    Thread submitThread = new Thread(() -> queueRejector.execute(blockedTask));
+    submitThread.start();
+    new TestCondition(() -> queueRejector.capacityWaiters.hasWaiters()).blockTillTrue();
+    assertEquals(1, queuedTasks.size());
+    
+    queuedTasks.remove(0).run();
+    submitThread.join(10_000);
+    
+    assertFalse(submitThread.isAlive());
+    assertEquals(1, queuedTasks.size());
+    assertEquals(1, queueRejector.getQueuedTaskCount());
+    queuedTasks.remove(0).run();
+    assertTrue(blockedTask.ranOnce());
+  }
+  
+  @Test
+  public void blockForCapacityTimeoutTest() {
+    ExecutorQueueLimitRejector queueRejector = 
+        new ExecutorQueueLimitRejector(new TestableScheduler(), 1, DELAY_TIME, null);
+    queueRejector.execute(DoNothingRunnable.instance());
+    
+    long start = Clock.accurateForwardProgressingMillis();
+    try {
+      queueRejector.execute(DoNothingRunnable.instance());
+      fail("Exception should have thrown");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+    assertTrue(Clock.accurateForwardProgressingMillis() - start >= DELAY_TIME);
+    assertEquals(1, queueRejector.getQueuedTaskCount());
+  }
+  
   private static class ExecutorQueueRejectorFactory implements SubmitterExecutorFactory {
     private final PrioritySchedulerFactory schedulerFactory = new PrioritySchedulerFactory();
     
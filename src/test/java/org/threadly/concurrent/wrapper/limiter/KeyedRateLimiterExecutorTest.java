@@ -6,6 +6,7 @@ import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -54,6 +55,104 @@ public class KeyedRateLimiterExecutorTest extends SubmitterExecutorInterfaceTest
     } catch (IllegalArgumentException e) {
       // expected
     }
+    try {
+      new KeyedRateLimiterExecutor(scheduler, 1, null, -1);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void keyPermitsPerSecondTest() {
+    limiter = new KeyedRateLimiterExecutor(scheduler, 1, 
+                                           (key) -> "fast".equals(key) ? 10. : null, 0);
+    limiter.execute(10, "fast", DoNothingRunnable.instance());
+    limiter.execute(10, "slow", DoNothingRunnable.instance());
+    
+    assertEquals(1000, limiter.getMinimumDelay("fast"), 500);
+    assertEquals(10000, limiter.getMinimumDelay("slow"), 1000);
+    assertEquals(0, limiter.getGlobalMinimumDelay());
+  }
+  
+  @Test
+  public void globalLimitTest() {
+    limiter = new KeyedRateLimiterExecutor(scheduler, 10, null, 1);
+    assertEquals(0, limiter.execute(2, "foo", DoNothingRunnable.instance()));
+    
+    // different key, but must wait for the global rate
+    long delay = limiter.execute(1, "bar", DoNothingRunnable.instance());
+    assertEquals(2000, delay, 500);
+    assertEquals(3000, limiter.getGlobalMinimumDelay(), 500);
+    // key is accounted from when the task was actually scheduled
+    assertEquals(2100, limiter.currentKeyLimits.get("bar").nextScheduleTime - 
+                         Clock.lastKnownForwardProgressingMillis(), 500);
+    assertEquals(3000, limiter.getMinimumDelay("bar"), 500);
+    assertEquals(3000, limiter.getMinimumDelay("baz"), 500);
+  }
+  
+  @Test
+  @SuppressWarnings("deprecation")
+  public void deprecatedLimiterForKeyTest() {
+    limiter.execute(2, "foo", DoNothingRunnable.instance());
+    TestRunnable tr = new TestRunnable();
+    long delay = limiter.limiterForKey("foo", (l) -> l.execute(1, tr));
+    
+    // the provided limiter must apply the key's rate
+    assertEquals(2000, delay, 500);
+    assertEquals(3000, limiter.getMinimumDelay("foo"), 500);
+    scheduler.advance(delay);
+    assertEquals(1, tr.getRunCount());
+    assertTrue(limiter.currentLimiters.isEmpty());
+  }
+  
+  @Test
+  public void globalLimitSingleScheduleTest() {
+    limiter = new KeyedRateLimiterExecutor(scheduler, 10, null, 1);
+    TestRunnable tr1 = new TestRunnable();
+    TestRunnable tr2 = new TestRunnable();
+    limiter.execute("foo", tr1);
+    limiter.execute("bar", tr2);
+    
+    scheduler.tick();
+    assertEquals(1, tr1.getRunCount());
+    assertEquals(0, tr2.getRunCount());
+    scheduler.advance(1000);
+    assertEquals(1, tr2.getRunCount());
+  }
+  
+  @Test
+  public void globalLimitThrottledKeyDoesNotDelayIdleKeyTest() {
+    limiter = new KeyedRateLimiterExecutor(scheduler, 1, null, 1000);
+    for (int i = 0; i < 10; i++) {
+      limiter.execute(1, "slowKey", DoNothingRunnable.instance());
+    }
+    assertEquals(10000, limiter.getMinimumDelay("slowKey"), 1000);
+    
+    // global capacity between the slow key's tasks should still be usable by other keys
+    assertTrue(limiter.getMinimumDelay("otherKey") < 100);
+    for (int i = 0; i < 10; i++) {
+      assertTrue(limiter.execute(1, "otherKey" + i, DoNothingRunnable.instance()) < 100);
+    }
+    assertEquals(10000, limiter.execute(1, "slowKey", DoNothingRunnable.instance()), 1000);
+  }
+  
+  @Test
+  public void globalLimitFillsGapsTest() {
+    limiter = new KeyedRateLimiterExecutor(scheduler, 1, null, 2);
+    assertEquals(0, limiter.execute(1, "foo", DoNothingRunnable.instance()));
+    assertEquals(1000, limiter.execute(1, "foo", DoNothingRunnable.instance()), 100);
+    // the half second between the tasks for foo is available
+    assertEquals(500, limiter.execute(1, "bar", DoNothingRunnable.instance()), 100);
+    // but not large enough for a task which needs a full second
+    assertEquals(1500, limiter.execute(2, "baz", DoNothingRunnable.instance()), 100);
+  }
+  
+  @Test (expected = RejectedExecutionException.class)
+  public void rejectDueToGlobalScheduleDelay() {
+    limiter = new KeyedRateLimiterExecutor(scheduler, 10, null, 1, 1000, null, null, false);
+    limiter.execute(2000, "foo", DoNothingRunnable.instance());
+    limiter.execute("bar", DoNothingRunnable.instance());
   }
   
   @Test
@@ -209,16 +308,65 @@ public class KeyedRateLimiterExecutorTest extends SubmitterExecutorInterfaceTest
     limiter.execute(permits, key, new TestRunnable());
     assertEquals(2, scheduler.advance(KeyedRateLimiterExecutor.LIMITER_IDLE_TIMEOUT));
     assertEquals(1, limiter.getTrackedKeyCount());
-    assertFalse(limiter.currentLimiters.isEmpty());
+    assertFalse(limiter.currentKeyLimits.isEmpty());
     if (TEST_PROFILE == TestLoad.Stress) {  // too slow for normal tests right now
       TestUtils.sleep((long)(KeyedRateLimiterExecutor.LIMITER_IDLE_TIMEOUT + (1000 * permits)));
       TestUtils.blockTillClockAdvances();
       assertEquals(1, scheduler.advance(KeyedRateLimiterExecutor.LIMITER_IDLE_TIMEOUT));
-      assertTrue(limiter.currentLimiters.isEmpty());
+      assertTrue(limiter.currentKeyLimits.isEmpty());
       assertEquals(0, limiter.getTrackedKeyCount());
     }
   }
   
+  @Test
+  public void expireIdleLimitersTest() {
+    limiter.execute(.1, "idle", DoNothingRunnable.instance());
+    limiter.execute(100, "busy", DoNothingRunnable.instance());
+    assertEquals(2, limiter.getTrackedKeyCount());
+    
+    long now = Clock.lastKnownForwardProgressingMillis();
+    limiter.limiterChecker.expireIdleLimiters(now + (KeyedRateLimiterExecutor.LIMITER_IDLE_TIMEOUT * 2));
+    assertEquals(1, limiter.getTrackedKeyCount());
+    assertNull(limiter.currentKeyLimits.get("idle"));
+    
+    // busy key should have been placed back into the wheel to be checked again
+    limiter.limiterChecker.expireIdleLimiters(now + 200_000);
+    assertEquals(0, limiter.getTrackedKeyCount());
+  }
+  
+  @Test
+  public void expireIdleLimitersReaddedKeyTest() {
+    limiter.execute(.1, "foo", DoNothingRunnable.instance());
+    long now = Clock.lastKnownForwardProgressingMillis();
+    limiter.limiterChecker.expireIdleLimiters(now + (KeyedRateLimiterExecutor.LIMITER_IDLE_TIMEOUT * 2));
+    assertEquals(0, limiter.getTrackedKeyCount());
+    
+    // key becomes active again and must be tracked for expiration again
+    limiter.execute(.1, "foo", DoNothingRunnable.instance());
+    assertEquals(1, limiter.getTrackedKeyCount());
+    limiter.limiterChecker.expireIdleLimiters(now + (KeyedRateLimiterExecutor.LIMITER_IDLE_TIMEOUT * 4));
+    assertEquals(0, limiter.getTrackedKeyCount());
+  }
+  
+  @Test
+  public void threadNameTest() {
+    verifyThreadName(new KeyedRateLimiterExecutor(scheduler, 1, "pool-", true), "pool-foo");
+    verifyThreadName(new KeyedRateLimiterExecutor(scheduler, 1, "pool", false), "pool");
+  }
+  
+  private void verifyThreadName(KeyedRateLimiterExecutor krle, String expectedName) {
+    AtomicReference<String> threadName = new AtomicReference<>();
+    krle.execute("foo", new TestRunnable() {
+      @Override
+      public void handleRunStart() {
+        threadName.set(Thread.currentThread().getName());
+      }
+    });
+    scheduler.advance(0);
+    
+    assertTrue(threadName.get().startsWith(expectedName));
+  }
+  
   @Test (expected = RejectedExecutionException.class)
   public void rejectDueToScheduleDelay() {
     limiter = new KeyedRateLimiterExecutor(scheduler, 1, 1000);
@@ -2,6 +2,9 @@ package org.threadly.concurrent.wrapper.limiter;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.RejectedExecutionException;
 
 import org.junit.Test;
@@ -14,6 +17,8 @@ import org.threadly.concurrent.SubmitterExecutor;
 import org.threadly.concurrent.SubmitterScheduler;
 import org.threadly.concurrent.TaskPriority;
 import org.threadly.concurrent.TestCallable;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.test.concurrent.TestRunnable;
 import org.threadly.test.concurrent.TestableScheduler;
 
 @SuppressWarnings("javadoc")
@@ -162,6 +167,141 @@ public class PrioritySchedulerServiceQueueLimitRejectorTest extends SchedulerSer
     assertEquals(TEST_QTY, testableScheduler.tick());
   }
   
+  @Test
+  @SuppressWarnings("unused")
+  public void reservedSlotsConstructorFail() {
+    try {
+      new PrioritySchedulerServiceQueueLimitRejector(new TestableScheduler(), TEST_QTY, false, -1, false, null);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void highPriorityReservedSlotsTest() {
+    TestableScheduler testableScheduler = new TestableScheduler();
+    PrioritySchedulerServiceQueueLimitRejector queueRejector = 
+        new PrioritySchedulerServiceQueueLimitRejector(testableScheduler, TEST_QTY, false, 2, false, null);
+    assertEquals(2, queueRejector.getHighPriorityReservedSlots());
+    
+    for (int i = 0; i < TEST_QTY - 2; i++) {
+      queueRejector.execute(DoNothingRunnable.instance(), 
+                            i % 2 == 0 ? TaskPriority.Low : TaskPriority.Starvable);
+    }
+    try {
+      queueRejector.execute(DoNothingRunnable.instance(), TaskPriority.Low);
+      fail("Exception should have thrown");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+    queueRejector.execute(DoNothingRunnable.instance(), TaskPriority.High);
+    queueRejector.execute(DoNothingRunnable.instance(), TaskPriority.High);
+    try {
+      queueRejector.execute(DoNothingRunnable.instance(), TaskPriority.High);
+      fail("Exception should have thrown");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+    
+    assertEquals(TEST_QTY, testableScheduler.tick());
+    assertEquals(0, queueRejector.getQueuedTaskCount());
+  }
+  
+  @Test
+  public void evictLowerPriorityTest() {
+    TestableScheduler testableScheduler = new TestableScheduler();
+    List<Runnable> rejectedTasks = new ArrayList<>();
+    PrioritySchedulerServiceQueueLimitRejector queueRejector = 
+        new PrioritySchedulerServiceQueueLimitRejector(testableScheduler, TEST_QTY, false, 0, true, 
+                                                       rejectedTasks::add);
+    List<TestRunnable> lowTasks = new ArrayList<>();
+    for (int i = 0; i < TEST_QTY - 1; i++) {
+      TestRunnable tr = new TestRunnable();
+      lowTasks.add(tr);
+      queueRejector.execute(tr, TaskPriority.Low);
+    }
+    TestRunnable starvableTask = new TestRunnable();
+    queueRejector.execute(starvableTask, TaskPriority.Starvable);
+    
+    // starvable is evicted first, then the most recently queued low priority task
+    TestRunnable highTask1 = new TestRunnable();
+    queueRejector.execute(highTask1, TaskPriority.High);
+    assertEquals(Collections.singletonList(starvableTask), rejectedTasks);
+    TestRunnable highTask2 = new TestRunnable();
+    queueRejector.execute(highTask2, TaskPriority.High);
+    assertEquals(2, rejectedTasks.size());
+    assertTrue(rejectedTasks.get(1) == lowTasks.get(lowTasks.size() - 1));
+    assertEquals(2, queueRejector.getEvictedTaskCount());
+    assertEquals(TEST_QTY, queueRejector.getQueuedTaskCount());
+    
+    assertEquals(TEST_QTY, testableScheduler.tick());
+    assertEquals(0, queueRejector.getQueuedTaskCount());
+    assertTrue(highTask1.ranOnce());
+    assertTrue(highTask2.ranOnce());
+    assertFalse(starvableTask.ranOnce());
+    assertFalse(lowTasks.get(lowTasks.size() - 1).ranOnce());
+    assertTrue(queueRejector.evictableLowTasks.isEmpty());
+  }
+  
+  @Test
+  public void defaultPriorityEvictedTest() {
+    TestableScheduler testableScheduler = new TestableScheduler(TaskPriority.Low, 500);
+    PrioritySchedulerServiceQueueLimitRejector queueRejector = 
+        new PrioritySchedulerServiceQueueLimitRejector(testableScheduler, 1, false, 0, true, null);
+    ListenableFuture<?> lowFuture = queueRejector.submit(DoNothingRunnable.instance());
+    
+    queueRejector.execute(DoNothingRunnable.instance(), TaskPriority.High);
+    
+    assertTrue(lowFuture.isCancelled());
+    assertEquals(1, queueRejector.getEvictedTaskCount());
+  }
+  
+  @Test
+  public void evictNothingQueuedTest() {
+    TestableScheduler testableScheduler = new TestableScheduler();
+    PrioritySchedulerServiceQueueLimitRejector queueRejector = 
+        new PrioritySchedulerServiceQueueLimitRejector(testableScheduler, TEST_QTY, false, 0, true, null);
+    for (int i = 0; i < TEST_QTY; i++) {
+      queueRejector.execute(DoNothingRunnable.instance(), TaskPriority.High);
+    }
+    
+    try {
+      queueRejector.execute(DoNothingRunnable.instance(), TaskPriority.High);
+      fail("Exception should have thrown");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+    assertEquals(0, queueRejector.getEvictedTaskCount());
+  }
+  
+  @Test
+  public void evictedFutureCancelledTest() {
+    TestableScheduler testableScheduler = new TestableScheduler();
+    PrioritySchedulerServiceQueueLimitRejector queueRejector = 
+        new PrioritySchedulerServiceQueueLimitRejector(testableScheduler, 1, false, 0, true, null);
+    ListenableFuture<?> lowFuture = queueRejector.submit(DoNothingRunnable.instance(), TaskPriority.Low);
+    
+    // default handler throws, but the exception should not be provided to the high priority submitter
+    queueRejector.execute(DoNothingRunnable.instance(), TaskPriority.High);
+    
+    assertTrue(lowFuture.isCancelled());
+    assertEquals(1, testableScheduler.tick());
+  }
+  
+  @Test
+  public void removeEvictableTaskTest() {
+    TestableScheduler testableScheduler = new TestableScheduler();
+    PrioritySchedulerServiceQueueLimitRejector queueRejector = 
+        new PrioritySchedulerServiceQueueLimitRejector(testableScheduler, TEST_QTY, false, 0, true, null);
+    TestRunnable tr = new TestRunnable();
+    queueRejector.execute(tr, TaskPriority.Low);
+    
+    assertTrue(queueRejector.remove(tr));
+    assertTrue(queueRejector.evictableLowTasks.isEmpty());
+    assertEquals(0, queueRejector.getQueuedTaskCount());
+  }
+  
   @Test
   public void getDefaultPriorityTest() {
     TestableScheduler testableScheduler = new TestableScheduler();
@@ -2,6 +2,8 @@ package org.threadly.concurrent.wrapper.limiter;
 
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.RejectedExecutionException;
@@ -19,6 +21,7 @@ import org.threadly.concurrent.SubmitterExecutorInterfaceTest;
 import org.threadly.concurrent.TestCallable;
 import org.threadly.concurrent.future.ListenableFuture;
 import org.threadly.test.concurrent.TestableScheduler;
+import org.threadly.test.concurrent.TestUtils;
 import org.threadly.util.Clock;
 
 @SuppressWarnings("javadoc")
@@ -58,6 +61,70 @@ public class RateLimiterExecutorTest extends SubmitterExecutorInterfaceTest {
     } catch (IllegalArgumentException e) {
       // expected
     }
+    try {
+      new RateLimiterExecutor(scheduler, 10, Long.MAX_VALUE, null, -1);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void getAndSetMaxBurstPermitsTest() {
+    assertEquals(0, limiter.getMaxBurstPermits(), 0);
+    limiter.setMaxBurstPermits(10);
+    assertEquals(10, limiter.getMaxBurstPermits(), 0);
+    try {
+      limiter.setMaxBurstPermits(-1);
+      fail("Exception should have thrown");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+  }
+  
+  @Test
+  public void burstAfterIdleTest() {
+    limiter = new RateLimiterExecutor(scheduler, 1000, Long.MAX_VALUE, null, 50);
+    TestUtils.sleep(100);
+    
+    // accumulated permits (plus the one always available) run without delay
+    for (int i = 0; i < 51; i++) {
+      assertEquals(0, limiter.execute(1, DoNothingRunnable.instance()));
+    }
+    limiter.execute(100, DoNothingRunnable.instance());
+    assertTrue(limiter.execute(1, DoNothingRunnable.instance()) > 50);
+  }
+  
+  @Test
+  public void noBurstAfterIdleTest() {
+    limiter = new RateLimiterExecutor(scheduler, 1000);
+    TestUtils.sleep(100);
+    
+    limiter.execute(100, DoNothingRunnable.instance());
+    assertTrue(limiter.execute(1, DoNothingRunnable.instance()) > 50);
+  }
+  
+  @Test
+  public void concurrentPermitAccountingTest() throws InterruptedException {
+    int threadCount = 16;
+    int permitsPerThread = 100;
+    limiter = new RateLimiterExecutor(scheduler, 1000);
+    List<Thread> threads = new ArrayList<>(threadCount);
+    for (int i = 0; i < threadCount; i++) {
+      Thread t = new Thread(() -> {
+        for (int p = 0; p < permitsPerThread; p++) {
+          limiter.execute(1, DoNothingRunnable.instance());
+        }
+      });
+      threads.add(t);
+      t.start();
+    }
+    for (Thread t : threads) {
+      t.join();
+    }
+    
+    // no permits should be lost when submitted concurrently
+    assertEquals(threadCount * permitsPerThread, limiter.getMinimumDelay(), 250);
   }
   
   @Test
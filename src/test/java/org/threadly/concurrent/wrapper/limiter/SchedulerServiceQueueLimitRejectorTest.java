@@ -11,6 +11,8 @@ import org.threadly.concurrent.SchedulerService;
 import org.threadly.concurrent.SchedulerServiceInterfaceTest;
 import org.threadly.concurrent.SubmitterExecutor;
 import org.threadly.concurrent.SubmitterScheduler;
+import org.threadly.concurrent.future.ListenableFuture;
+import org.threadly.test.concurrent.TestRunnable;
 import org.threadly.test.concurrent.TestableScheduler;
 
 @SuppressWarnings("javadoc")
@@ -83,6 +85,20 @@ public class SchedulerServiceQueueLimitRejectorTest extends SchedulerServiceInte
     }
   }
   
+  @Test
+  public void removeSignalsCapacityTest() {
+    TestableScheduler testableScheduler = new TestableScheduler();
+    SchedulerServiceQueueLimitRejector queueRejector = 
+        new SchedulerServiceQueueLimitRejector(testableScheduler, 1);
+    TestRunnable tr = new TestRunnable();
+    queueRejector.schedule(tr, DELAY_TIME);
+    ListenableFuture<?> future = queueRejector.awaitCapacity();
+    assertFalse(future.isDone());
+    
+    assertTrue(queueRejector.remove(tr));
+    assertTrue(future.isDone());
+  }
+  
   private static class SchedulerServiceQueueRejectorFactory implements SchedulerServiceFactory {
     private final PrioritySchedulerFactory schedulerFactory = new PrioritySchedulerFactory();
 
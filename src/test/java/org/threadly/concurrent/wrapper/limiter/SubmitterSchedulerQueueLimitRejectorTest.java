@@ -10,7 +10,9 @@ import org.threadly.concurrent.DoNothingRunnable;
 import org.threadly.concurrent.PrioritySchedulerTest.PrioritySchedulerFactory;
 import org.threadly.concurrent.SubmitterScheduler;
 import org.threadly.concurrent.SubmitterSchedulerInterfaceTest;
+import org.threadly.concurrent.future.ListenableFuture;
 import org.threadly.test.concurrent.TestableScheduler;
+import org.threadly.util.Clock;
 
 @SuppressWarnings("javadoc")
 public class SubmitterSchedulerQueueLimitRejectorTest extends SubmitterSchedulerInterfaceTest {
@@ -114,6 +116,39 @@ public class SubmitterSchedulerQueueLimitRejectorTest extends SubmitterScheduler
     assertEquals(0, queueRejector.getQueuedTaskCount());
   }
   
+  @Test
+  public void awaitCapacityScheduledTest() {
+    TestableScheduler testableScheduler = new TestableScheduler();
+    SubmitterSchedulerQueueLimitRejector queueRejector = 
+        new SubmitterSchedulerQueueLimitRejector(testableScheduler, 1);
+    queueRejector.schedule(DoNothingRunnable.instance(), DELAY_TIME);
+    ListenableFuture<?> future = queueRejector.awaitCapacity();
+    
+    // capacity is not available until the scheduled task starts
+    assertEquals(0, testableScheduler.advance(0));
+    assertFalse(future.isDone());
+    assertEquals(1, testableScheduler.advance(DELAY_TIME));
+    assertTrue(future.isDone());
+  }
+  
+  @Test
+  public void blockForCapacityTimeoutTest() {
+    TestableScheduler testableScheduler = new TestableScheduler();
+    SubmitterSchedulerQueueLimitRejector queueRejector = 
+        new SubmitterSchedulerQueueLimitRejector(testableScheduler, 1, DELAY_TIME, null);
+    queueRejector.execute(DoNothingRunnable.instance());
+    
+    long start = Clock.accurateForwardProgressingMillis();
+    try {
+      queueRejector.schedule(DoNothingRunnable.instance(), DELAY_TIME);
+      fail("Exception should have thrown");
+    } catch (RejectedExecutionException e) {
+      // expected
+    }
+    assertTrue(Clock.accurateForwardProgressingMillis() - start >= DELAY_TIME);
+    assertEquals(1, testableScheduler.tick());
+  }
+  
   private static class SubmitterSchedulerQueueRejectorFactory implements SubmitterSchedulerFactory {
     private final PrioritySchedulerFactory schedulerFactory = new PrioritySchedulerFactory();
     